@@ -0,0 +1,3 @@
+-- Account the replica uses to pull the binlog
+CREATE USER IF NOT EXISTS 'repl'@'%' IDENTIFIED BY 'repl';
+GRANT REPLICATION SLAVE ON *.* TO 'repl'@'%';
@@ -0,0 +1,10 @@
+-- Replicate everything from the primary, starting from its first GTID
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST = 'mysql-primary',
+    SOURCE_USER = 'repl',
+    SOURCE_PASSWORD = 'repl',
+    SOURCE_AUTO_POSITION = 1,
+    GET_SOURCE_PUBLIC_KEY = 1;
+START REPLICA;
+-- After init, so the entrypoint could still set the root password
+SET PERSIST super_read_only = ON;
@@ -0,0 +1,48 @@
+package com.aaron212.onlinelibrarymanagement.backend.benchmark;
+
+import com.aaron212.onlinelibrarymanagement.backend.BackendApplication;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application against the in-memory H2 database of the "test" profile, without the web
+ * layer and without the startup/scheduled jobs, so that only the benchmarked calls touch the DB.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {}
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:olm-bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                                + "DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "library.jobs.borrow-counter-backfill.enabled=false",
+                        "library.jobs.search-index-rebuild.enabled=false",
+                        "library.jobs.category-path-backfill.enabled=false",
+                        "library.jobs.copy-count-reconcile.enabled=false",
+                        "library.jobs.rating-summary-verify.enabled=false",
+                        "library.jobs.reservation-queue.enabled=false",
+                        "library.jobs.overdue-sweep.enabled=false",
+                        "library.jobs.notification-dispatch.enabled=false",
+                        "library.jobs.due-soon-reminder.enabled=false",
+                        "library.jobs.borrower-sketch.enabled=false",
+                        "library.jobs.borrow-stats-rollup.enabled=false",
+                        "library.jobs.loan-summary-reconcile.enabled=false")
+                .run();
+    }
+
+    static Statistics statistics(ConfigurableApplicationContext context) {
+        return context.getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+}
@@ -0,0 +1,114 @@
+package com.aaron212.onlinelibrarymanagement.backend.benchmark;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import com.aaron212.onlinelibrarymanagement.backend.service.BookBorrowCounterService;
+import com.aaron212.onlinelibrarymanagement.backend.service.BookCopyCountService;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Seeds the catalogue, the readers and a returned borrow history of the requested size.
+ * The random seed is fixed so that runs with the same parameters see the same data.
+ */
+final class BenchmarkDataSet {
+
+    private static final int FLUSH_SIZE = 500;
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    /* Copies no reader holds after seeding, in insertion order */
+    final List<Long> copyIds = new ArrayList<>();
+
+    final List<Long> userIds = new ArrayList<>();
+
+    private BenchmarkDataSet() {}
+
+    static BenchmarkDataSet seed(
+            ConfigurableApplicationContext context, int books, int copiesPerBook, int users, int borrowsPerUser) {
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        TransactionTemplate transactionTemplate =
+                new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        BenchmarkDataSet dataSet = new BenchmarkDataSet();
+        Random random = new Random(42);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            IndexCategory category = new IndexCategory();
+            category.setIndexCode("BENCH");
+            category.setName("Benchmark");
+            entityManager.persist(category);
+
+            List<BookCopy> copies = new ArrayList<>();
+            for (int i = 0; i < books; i++) {
+                Book book = new Book();
+                book.setIsbn("bench-" + i);
+                book.setTitle("Benchmark Book " + i);
+                book.setLocation("LIBRARY");
+                book.setIndexCategory(category);
+                entityManager.persist(book);
+                for (int j = 0; j < copiesPerBook; j++) {
+                    BookCopy copy = new BookCopy();
+                    copy.setBook(book);
+                    copy.setBarcode("bench-" + i + "-" + j);
+                    copy.setStatus(BookCopy.Status.AVAILABLE);
+                    entityManager.persist(copy);
+                    copies.add(copy);
+                }
+                flushPeriodically(entityManager, i);
+            }
+
+            List<User> readers = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                User user = new User();
+                user.setUsername("bench-" + i);
+                user.setEmail("bench-" + i + "@example.com");
+                user.setPasswordHash("x");
+                user.setRole(User.Role.USER);
+                entityManager.persist(user);
+                readers.add(user);
+            }
+            entityManager.flush();
+
+            int written = 0;
+            for (User reader : readers) {
+                for (int i = 0; i < borrowsPerUser; i++) {
+                    LocalDateTime borrowTime = HISTORY_START.plusHours(random.nextInt(24 * 365));
+                    Borrow borrow = new Borrow();
+                    borrow.setUser(entityManager.getReference(User.class, reader.getId()));
+                    borrow.setCopy(entityManager.getReference(
+                            BookCopy.class,
+                            copies.get(random.nextInt(copies.size())).getId()));
+                    borrow.setBorrowTime(borrowTime);
+                    borrow.setReturnTime(borrowTime.plusDays(30));
+                    borrow.setActualReturnTime(borrowTime.plusDays(random.nextInt(30)));
+                    borrow.setStatus(Borrow.Status.RETURNED);
+                    entityManager.persist(borrow);
+                    flushPeriodically(entityManager, written++);
+                }
+            }
+
+            copies.forEach(copy -> dataSet.copyIds.add(copy.getId()));
+            readers.forEach(reader -> dataSet.userIds.add(reader.getId()));
+        });
+
+        // Bring the derived tables in line with the seeded rows, as the startup jobs would
+        context.getBean(BookBorrowCounterService.class).rebuildFromBorrowHistory();
+        context.getBean(BookCopyCountService.class).reconcile();
+        return dataSet;
+    }
+
+    private static void flushPeriodically(EntityManager entityManager, int written) {
+        if ((written + 1) % FLUSH_SIZE == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.aaron212.onlinelibrarymanagement.backend.benchmark;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.service.BorrowService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Borrow, return and renew through {@link BorrowService}, one transaction per call as in the
+ * controllers. Borrow and return are measured as a pair so the data set stays the same size
+ * apart from the growing borrow history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class BorrowBenchmark {
+
+    @Param({"1000"})
+    private int books;
+
+    @Param({"2"})
+    private int copiesPerBook;
+
+    @Param({"200"})
+    private int users;
+
+    @Param({"20"})
+    private int borrowsPerUser;
+
+    private ConfigurableApplicationContext context;
+    private BorrowService borrowService;
+    private BenchmarkDataSet dataSet;
+    private StatementCounter statementCounter;
+
+    private Long renewUserId;
+    private Long renewCopyId;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        borrowService = context.getBean(BorrowService.class);
+        dataSet = BenchmarkDataSet.seed(context, books, copiesPerBook, users, borrowsPerUser);
+        statementCounter = new StatementCounter(BenchmarkContext.statistics(context));
+
+        // The first reader keeps the first copy for the renew benchmark, the rest rotate
+        renewUserId = dataSet.userIds.getFirst();
+        renewCopyId = dataSet.copyIds.getFirst();
+        borrowService.borrowBook(renewUserId, renewCopyId);
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        statementCounter.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration(BenchmarkParams params) {
+        statementCounter.report(params.getBenchmark());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Borrow borrowThenReturn() {
+        int index = next++;
+        Long userId = dataSet.userIds.get(1 + index % (dataSet.userIds.size() - 1));
+        Long copyId = dataSet.copyIds.get(1 + index % (dataSet.copyIds.size() - 1));
+        borrowService.borrowBook(userId, copyId);
+        Borrow borrow = borrowService.returnBook(userId, copyId);
+        statementCounter.operation();
+        return borrow;
+    }
+
+    @Benchmark
+    public Borrow renew() {
+        Borrow borrow = borrowService.renewBook(renewUserId, renewCopyId);
+        statementCounter.operation();
+        return borrow;
+    }
+}
@@ -0,0 +1,95 @@
+package com.aaron212.onlinelibrarymanagement.backend.benchmark;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookStatisticsDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookSummaryDto;
+import com.aaron212.onlinelibrarymanagement.backend.service.BookService;
+import com.aaron212.onlinelibrarymanagement.backend.service.StatisticsService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+/** Read paths of the catalogue: the paged book list and the most borrowed books. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class CatalogueBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000"})
+    private int books;
+
+    @Param({"2"})
+    private int copiesPerBook;
+
+    @Param({"200"})
+    private int users;
+
+    @Param({"20"})
+    private int borrowsPerUser;
+
+    @Param({"10"})
+    private int topCount;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private StatisticsService statisticsService;
+    private StatementCounter statementCounter;
+
+    private int pages;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookService = context.getBean(BookService.class);
+        statisticsService = context.getBean(StatisticsService.class);
+        BenchmarkDataSet.seed(context, books, copiesPerBook, users, borrowsPerUser);
+        statementCounter = new StatementCounter(BenchmarkContext.statistics(context));
+        pages = Math.max(1, books / PAGE_SIZE);
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        statementCounter.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration(BenchmarkParams params) {
+        statementCounter.report(params.getBenchmark());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<BookSummaryDto> getAllBooksSummaryPaged() {
+        Page<BookSummaryDto> page = bookService.getAllBooksSummaryPaged(PageRequest.of(next++ % pages, PAGE_SIZE));
+        statementCounter.operation();
+        return page;
+    }
+
+    @Benchmark
+    public List<BookStatisticsDto> getTopBorrowedBooks() {
+        List<BookStatisticsDto> top = statisticsService.getTopBorrowedBooks(topCount);
+        statementCounter.operation();
+        return top;
+    }
+}
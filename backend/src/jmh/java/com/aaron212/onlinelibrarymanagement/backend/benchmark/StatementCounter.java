@@ -0,0 +1,35 @@
+package com.aaron212.onlinelibrarymanagement.backend.benchmark;
+
+import org.hibernate.stat.Statistics;
+
+/**
+ * Reports the JDBC statements Hibernate prepared per benchmark operation. Wall-clock time against
+ * an in-memory database flatters chatty code paths, the statement count does not.
+ */
+final class StatementCounter {
+
+    private final Statistics statistics;
+    private long startCount;
+    private long operations;
+
+    StatementCounter(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    void start() {
+        startCount = statistics.getPrepareStatementCount();
+        operations = 0;
+    }
+
+    void operation() {
+        operations++;
+    }
+
+    void report(String benchmark) {
+        if (operations == 0) {
+            return;
+        }
+        double perOperation = (double) (statistics.getPrepareStatementCount() - startCount) / operations;
+        System.out.printf("%n%s: %.2f statements/op over %d ops%n", benchmark, perOperation, operations);
+    }
+}
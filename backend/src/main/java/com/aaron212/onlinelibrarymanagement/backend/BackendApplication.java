@@ -1,11 +1,14 @@
 package com.aaron212.onlinelibrarymanagement.backend;
 
+import com.aaron212.onlinelibrarymanagement.backend.repository.NaturalIdRepositoryImpl;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
 
 @SpringBootApplication
 @EnableSpringDataWebSupport
+@EnableJpaRepositories(repositoryBaseClass = NaturalIdRepositoryImpl.class)
 public class BackendApplication {
 
     public static void main(String[] args) {
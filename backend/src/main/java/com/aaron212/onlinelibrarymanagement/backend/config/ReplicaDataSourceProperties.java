@@ -0,0 +1,19 @@
+package com.aaron212.onlinelibrarymanagement.backend.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Read replicas behind the primary {@code spring.datasource}; each gets its own connection pool
+ *
+ * @param readYourWritesWindow how long a user keeps reading from the primary after committing a write,
+ *     should exceed the usual replication lag
+ */
+@ConfigurationProperties("library.datasource")
+public record ReplicaDataSourceProperties(
+        @DefaultValue List<Replica> replicas, @DefaultValue("PT5S") Duration readYourWritesWindow) {
+
+    public record Replica(String url, String username, String password, @DefaultValue("10") int maximumPoolSize) {}
+}
@@ -0,0 +1,173 @@
+package com.aaron212.onlinelibrarymanagement.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replicas (round robin) and everything else to the primary. A user
+ * who committed a write within the read-your-writes window keeps reading from the primary, so replication
+ * lag never hides their own checkout or return.
+ *
+ * <p>Reads wrapped in {@link #readFromPrimary(Supplier)} stay on the primary as well. Conditional reads
+ * use it while their content changed recently: a response whose ETag comes from the in-process content
+ * versions must not be loaded from a replica that has not yet applied the commit behind that version,
+ * or clients would cache a stale body under the new tag.
+ *
+ * <p>Must sit behind a {@link LazyConnectionDataSourceProxy}: the transaction manager takes its connection
+ * before the read-only flag of the transaction is published. Routing is decided per transaction only
+ * because {@link ReadReplicaConfig} makes Hibernate release the connection after each one.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String METRIC_NAME = "library.datasource.route";
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final List<DataSource> replicas;
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    // 用户名 -> 最近一次提交写事务；过期即视为副本已追上
+    private final Cache<String, Boolean> recentWriters;
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+    private final Counter recentWriteRoutes;
+    private final Counter pinnedRoutes;
+
+    public ReplicaRoutingDataSource(
+            DataSource primary, List<DataSource> replicas, Duration readYourWritesWindow, MeterRegistry registry) {
+        this(primary, replicas, readYourWritesWindow, registry, Ticker.systemTicker());
+    }
+
+    ReplicaRoutingDataSource(
+            DataSource primary,
+            List<DataSource> replicas,
+            Duration readYourWritesWindow,
+            MeterRegistry registry,
+            Ticker ticker) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.replicas = List.copyOf(replicas);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .maximumSize(100_000)
+                .ticker(ticker)
+                .build();
+        this.primaryRoutes = counter(registry, "primary");
+        this.replicaRoutes = counter(registry, "replica");
+        this.recentWriteRoutes = counter(registry, "primary_recent_write");
+        this.pinnedRoutes = counter(registry, "primary_pinned");
+    }
+
+    /**
+     * Run {@code read} with its read-only transactions routed to the primary
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        if (PRIMARY_READS.get() != null) {
+            return read.get();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String route) {
+        return Counter.builder(METRIC_NAME)
+                .description("Connections handed out per routing decision")
+                .tag("route", route)
+                .register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWrite();
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+        if (PRIMARY_READS.get() != null) {
+            pinnedRoutes.increment();
+            return PRIMARY;
+        }
+        String user = currentUser();
+        if (user != null && recentWriters.getIfPresent(user) != null) {
+            recentWriteRoutes.increment();
+            return PRIMARY;
+        }
+        replicaRoutes.increment();
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+
+    /* The window starts at commit; writes outside a transaction are not tracked */
+    private void rememberWrite() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        String user = currentUser();
+        if (user == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    recentWriters.put(user, Boolean.TRUE);
+                }
+            }
+        });
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null
+                || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.aaron212.onlinelibrarymanagement.backend.config;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.Author;
+import com.aaron212.onlinelibrarymanagement.backend.model.BorrowingRule;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.model.Publisher;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Hibernate second-level cache for the reference entities, on Caffeine's JCache provider. Every region is
+ * created here, bounded by {@code library.cache.<region>.max-entries} and
+ * {@code library.cache.<region>.expire-after-write}; Hibernate is told to fail on any other region.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    /** Entities annotated with {@code @Cache} and {@code @NaturalIdCache} */
+    public static final List<Class<?>> CACHED_ENTITIES =
+            List.of(IndexCategory.class, Author.class, Publisher.class, BorrowingRule.class);
+
+    // Hibernate 给实体的 natural-id 区域追加的后缀
+    private static final String NATURAL_ID_SUFFIX = "##NaturalId";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        // 每个 Spring 上下文一个独立的 CacheManager，测试里多个上下文不会争用同名缓存
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(
+                        URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (Class<?> entity : CACHED_ENTITIES) {
+            CaffeineConfiguration<Object, Object> configuration = regionConfiguration(environment, entity);
+            cacheManager.createCache(entity.getName(), configuration);
+            cacheManager.createCache(entity.getName() + NATURAL_ID_SUFFIX, configuration);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /** Property prefix of a region, e.g. {@code library.cache.index-category} */
+    static String propertyPrefix(Class<?> entity) {
+        return "library.cache."
+                + entity.getSimpleName().replaceAll("([a-z])([A-Z])", "$1-$2").toLowerCase();
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(Environment environment, Class<?> entity) {
+        String prefix = propertyPrefix(entity);
+        long maxEntries = environment.getProperty(
+                prefix + ".max-entries",
+                Long.class,
+                environment.getProperty("library.cache.max-entries", Long.class, 10_000L));
+        Duration expireAfterWrite = environment.getProperty(
+                prefix + ".expire-after-write",
+                Duration.class,
+                environment.getProperty("library.cache.expire-after-write", Duration.class, Duration.ofHours(1)));
+
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        // Hibernate already stores disassembled entries, copying them again buys nothing
+        configuration.setStoreByValue(false);
+        return configuration;
+    }
+}
@@ -6,13 +6,16 @@ import com.aaron212.onlinelibrarymanagement.backend.dto.AuthorDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BookCopyDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BookCreateDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BookDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookImportReportDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BookSummaryDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BookUpdateDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.IndexCategoryDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.PublisherDto;
 import com.aaron212.onlinelibrarymanagement.backend.model.Book;
 import com.aaron212.onlinelibrarymanagement.backend.service.BookCopyService;
+import com.aaron212.onlinelibrarymanagement.backend.service.BookImportService;
 import com.aaron212.onlinelibrarymanagement.backend.service.BookService;
+import com.aaron212.onlinelibrarymanagement.backend.service.ContentVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -21,9 +24,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import java.io.IOException;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,10 +37,13 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/books")
@@ -42,12 +51,25 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Books", description = "Book management endpoints")
 public class BookController {
 
+    static final String TEXT_CSV_VALUE = "text/csv";
+
     private final BookService bookService;
     private final BookCopyService bookCopyService;
+    private final BookImportService bookImportService;
+    private final ContentVersionService contentVersionService;
+    private final ConditionalGet conditionalGet;
 
-    public BookController(BookService bookService, BookCopyService bookCopyService) {
+    public BookController(
+            BookService bookService,
+            BookCopyService bookCopyService,
+            BookImportService bookImportService,
+            ContentVersionService contentVersionService,
+            ConditionalGet conditionalGet) {
         this.bookService = bookService;
         this.bookCopyService = bookCopyService;
+        this.bookImportService = bookImportService;
+        this.contentVersionService = contentVersionService;
+        this.conditionalGet = conditionalGet;
     }
 
     @Operation(
@@ -83,6 +105,33 @@ public class BookController {
         }
     }
 
+    @Operation(
+            summary = "Bulk import books",
+            description = "Streams a CSV (header row with the create-book field names, ';' between several "
+                    + "authors or publishers) or JSON-lines body and imports it in chunks. "
+                    + "Rejected rows are listed in the report, the rest are imported.",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Import finished",
+                        content = @Content(schema = @Schema(implementation = BookImportReportDto.class)))
+            })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(
+            value = "/import",
+            consumes = {BookController.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BookImportReportDto> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, HttpServletRequest request)
+            throws IOException {
+        BookImportService.Format format =
+                MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                        ? BookImportService.Format.CSV
+                        : BookImportService.Format.NDJSON;
+        return ResponseEntity.ok(bookImportService.importBooks(request.getInputStream(), format));
+    }
+
     @Operation(
             summary = "Get all books summary",
             description = "Retrieves a paginated list of book summaries with essential information")
@@ -95,9 +144,12 @@ public class BookController {
             })
     @GetMapping
     public ResponseEntity<Page<BookSummaryDto>> getAllBooksSummaryEndpoint(
-            @Parameter(description = "Pagination parameters") @ParameterObject Pageable pageable) {
-        Page<BookSummaryDto> books = bookService.getAllBooksSummaryPaged(pageable);
-        return ResponseEntity.ok(books);
+            @Parameter(description = "Pagination parameters") @ParameterObject Pageable pageable, WebRequest request) {
+        return conditionalGet.respond(
+                request,
+                ContentVersionService.Resource.BOOKS,
+                () -> contentVersionService.etag(ContentVersionService.Resource.BOOKS),
+                () -> bookService.getAllBooksSummaryPaged(pageable));
     }
 
     @Operation(summary = "Get book by ID", description = "Retrieves a specific book by its ID")
@@ -114,14 +166,24 @@ public class BookController {
             })
     @GetMapping("/{id}")
     public ResponseEntity<?> getBookById(
-            @Parameter(description = "Book ID", required = true, example = "1") @PathVariable @Positive Long id) {
-        Optional<Book> bookOpt = bookService.getBookById(id);
-        if (bookOpt.isPresent()) {
-            BookDto dto = convertToBookDto(bookOpt.get());
-            return ResponseEntity.ok(dto);
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Book not found"));
-        }
+            @Parameter(description = "Book ID", required = true, example = "1") @PathVariable @Positive Long id,
+            WebRequest request) {
+        return conditionalGet.readBook(id, etag -> {
+            if (conditionalGet.notModified(request, "book", etag)) {
+                return conditionalGet.notModifiedResponse();
+            }
+            Optional<Book> bookOpt = bookService.getBookById(id);
+            if (bookOpt.isPresent()) {
+                Book book = bookOpt.get();
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(ConditionalGet.CACHE_CONTROL);
+                if (book.getUpdateTime() != null) {
+                    response.lastModified(book.getUpdateTime().atZone(ZoneId.systemDefault()));
+                }
+                return response.body(convertToBookDto(book));
+            } else {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Book not found"));
+            }
+        });
     }
 
     @Operation(summary = "Get book by ISBN", description = "Retrieves a specific book by its ISBN")
@@ -213,7 +275,10 @@ public class BookController {
         }
     }
 
-    @Operation(summary = "Search books", description = "Searches for books by keyword in title, author, or ISBN")
+    @Operation(
+            summary = "Search books",
+            description =
+                    "Full-text search over title, authors, publishers, ISBN and description. Results are ranked by relevance and the last word also matches as a prefix.")
     @ApiResponses(
             value = {
                 @ApiResponse(
@@ -1,12 +1,16 @@
 package com.aaron212.onlinelibrarymanagement.backend.controller;
 
+import com.aaron212.onlinelibrarymanagement.backend.dto.BatchCirculationRequestDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BatchCirculationResultDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowRequestDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowResponseDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.CursorPageDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.ReserveRequestDto;
 import com.aaron212.onlinelibrarymanagement.backend.exception.BusinessLogicException;
 import com.aaron212.onlinelibrarymanagement.backend.mapper.BorrowMapper;
 import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
 import com.aaron212.onlinelibrarymanagement.backend.service.BorrowService;
 import com.aaron212.onlinelibrarymanagement.backend.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -22,8 +26,6 @@ import jakarta.validation.constraints.Positive;
 import java.util.List;
 import java.util.Map;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -35,6 +37,7 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Borrowing", description = "Book borrowing and return management endpoints")
 public class BorrowController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
     private final BorrowService borrowService;
     private final UserService userService;
 
@@ -669,6 +672,74 @@ public class BorrowController {
         }
     }
 
+    @Operation(
+            summary = "Admin batch borrow",
+            description =
+                    "Checks out the scanned copy barcodes to one user in a single transaction, with a result per barcode",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Batch processed, see the per-barcode results",
+                        content = @Content(schema = @Schema(implementation = BatchCirculationResultDto.class))),
+                @ApiResponse(
+                        responseCode = "400",
+                        description = "Invalid request or user not found",
+                        content = @Content(schema = @Schema(implementation = Map.class))),
+                @ApiResponse(
+                        responseCode = "401",
+                        description = "User not authenticated",
+                        content = @Content(schema = @Schema(implementation = Map.class))),
+                @ApiResponse(
+                        responseCode = "403",
+                        description = "Access denied - admin role required",
+                        content = @Content(schema = @Schema(implementation = Map.class)))
+            })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/admin/borrow/batch")
+    public ResponseEntity<?> adminBorrowBatch(@Valid @RequestBody BatchCirculationRequestDto requestDto) {
+        try {
+            return ResponseEntity.ok(borrowService.borrowBatch(requestDto.userId(), requestDto.barcodes()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Admin batch return",
+            description =
+                    "Returns the scanned copy barcodes of one user in a single transaction, with a result per barcode",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Batch processed, see the per-barcode results",
+                        content = @Content(schema = @Schema(implementation = BatchCirculationResultDto.class))),
+                @ApiResponse(
+                        responseCode = "400",
+                        description = "Invalid request or user not found",
+                        content = @Content(schema = @Schema(implementation = Map.class))),
+                @ApiResponse(
+                        responseCode = "401",
+                        description = "User not authenticated",
+                        content = @Content(schema = @Schema(implementation = Map.class))),
+                @ApiResponse(
+                        responseCode = "403",
+                        description = "Access denied - admin role required",
+                        content = @Content(schema = @Schema(implementation = Map.class)))
+            })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/admin/return/batch")
+    public ResponseEntity<?> adminReturnBatch(@Valid @RequestBody BatchCirculationRequestDto requestDto) {
+        try {
+            return ResponseEntity.ok(borrowService.returnBatch(requestDto.userId(), requestDto.barcodes()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @Operation(
             summary = "Admin renew book",
             description = "Allows an admin to renew a book on behalf of any user",
@@ -793,29 +864,7 @@ public class BorrowController {
                     .orElseThrow(() -> new RuntimeException("User not found"))
                     .getId();
 
-            // Get all borrowing history for the user
-            List<Borrow> allBorrows = borrowService.getBorrowHistory(userId);
-
-            // Convert to DTOs
-            List<BorrowDto> borrowDtos =
-                    allBorrows.stream().map(BorrowMapper.INSTANCE::toBorrowDto).toList();
-
-            // Manual pagination
-            int totalElements = borrowDtos.size();
-            int totalPages = (int) Math.ceil((double) totalElements / size);
-            int startIndex = page * size;
-            int endIndex = Math.min(startIndex + size, totalElements);
-
-            // Handle edge case where page is beyond available data
-            List<BorrowDto> pageContent;
-            if (startIndex >= totalElements) {
-                pageContent = List.of(); // Return empty list for pages beyond available data
-            } else {
-                pageContent = borrowDtos.subList(startIndex, endIndex);
-            }
-
-            // Create a Page object
-            Page<BorrowDto> pagedBorrows = new PageImpl<>(pageContent, PageRequest.of(page, size), totalElements);
+            Page<BorrowDto> pagedBorrows = borrowService.getBorrowHistoryPage(userId, page, size);
 
             return ResponseEntity.ok(pagedBorrows);
         } catch (RuntimeException e) {
@@ -827,4 +876,86 @@ public class BorrowController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
         }
     }
+
+    @Operation(
+            summary = "Get borrowings for current user by cursor",
+            description =
+                    "Retrieves the authenticated user's borrowing history, newest first, one page at a time. Pass the nextCursor of the previous response to get the next page.",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Borrowing history page retrieved successfully",
+                        content = @Content(schema = @Schema(implementation = CursorPageDto.class))),
+                @ApiResponse(
+                        responseCode = "400",
+                        description = "Invalid cursor or page size",
+                        content = @Content(schema = @Schema(implementation = Map.class))),
+                @ApiResponse(
+                        responseCode = "401",
+                        description = "User not authenticated",
+                        content = @Content(schema = @Schema(implementation = Map.class)))
+            })
+    @GetMapping("/user/cursor")
+    public ResponseEntity<?> getCurrentUserBorrowingsByCursor(
+            Authentication authentication,
+            @Parameter(description = "Cursor from the previous page, omit for the first page")
+                    @RequestParam(required = false)
+                    String cursor,
+            @Parameter(description = "Page size (1-100)", example = "20") @RequestParam(defaultValue = "20") int size) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "User not authenticated"));
+        }
+        if (size <= 0 || size > MAX_CURSOR_PAGE_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE));
+        }
+
+        try {
+            Long userId = ((User) authentication.getPrincipal()).getId();
+            return ResponseEntity.ok(borrowService.getBorrowHistoryAfter(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Get all borrowings by cursor",
+            description =
+                    "Retrieves all borrowing records, newest first, one page at a time (admin only). Pass the nextCursor of the previous response to get the next page.",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Borrowings page retrieved successfully",
+                        content = @Content(schema = @Schema(implementation = CursorPageDto.class))),
+                @ApiResponse(
+                        responseCode = "400",
+                        description = "Invalid cursor or page size",
+                        content = @Content(schema = @Schema(implementation = Map.class))),
+                @ApiResponse(
+                        responseCode = "403",
+                        description = "Access denied - admin role required",
+                        content = @Content(schema = @Schema(implementation = Map.class)))
+            })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/admin/all/cursor")
+    public ResponseEntity<?> getAllBorrowingsByCursor(
+            @Parameter(description = "Cursor from the previous page, omit for the first page")
+                    @RequestParam(required = false)
+                    String cursor,
+            @Parameter(description = "Page size (1-100)", example = "20") @RequestParam(defaultValue = "20") int size) {
+        if (size <= 0 || size > MAX_CURSOR_PAGE_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE));
+        }
+
+        try {
+            return ResponseEntity.ok(borrowService.getAllBorrowingsAfter(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+        }
+    }
 }
@@ -112,6 +112,29 @@ public class BorrowingRuleController {
         }
     }
 
+    @Operation(
+            summary = "Reload borrowing rules",
+            description =
+                    "Reloads the in-memory borrowing rules from the database, e.g. after rules were changed directly in the database. Only administrators can reload rules.",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Borrowing rules reloaded successfully",
+                        content = @Content(schema = @Schema(implementation = Map.class))),
+                @ApiResponse(
+                        responseCode = "403",
+                        description = "Access denied - admin role required",
+                        content = @Content(schema = @Schema(implementation = Map.class)))
+            })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reloadRules() {
+        int ruleCount = borrowingRuleService.reloadRules();
+        return ResponseEntity.ok(Map.of("message", "Borrowing rules reloaded", "ruleCount", ruleCount));
+    }
+
     @Operation(
             summary = "Get borrowing rules summary",
             description = "Retrieves a summary of key borrowing rules for display purposes")
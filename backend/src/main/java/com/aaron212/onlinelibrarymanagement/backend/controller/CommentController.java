@@ -2,6 +2,7 @@ package com.aaron212.onlinelibrarymanagement.backend.controller;
 
 import static org.springframework.data.web.config.EnableSpringDataWebSupport.PageSerializationMode.VIA_DTO;
 
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookRatingSummaryDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.CommentCreateDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.CommentDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.CommentUpdateDto;
@@ -427,4 +428,21 @@ public class CommentController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
         }
     }
+
+    @Operation(
+            summary = "Get rating summary for a book",
+            description = "Retrieves the published comment count, rating count, average rating and the rating "
+                    + "histogram in steps of 0.5 for a specific book")
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Rating summary retrieved successfully",
+                        content = @Content(schema = @Schema(implementation = BookRatingSummaryDto.class)))
+            })
+    @GetMapping("/book/{bookId}/rating-summary")
+    public ResponseEntity<BookRatingSummaryDto> getRatingSummaryForBook(
+            @Parameter(description = "Book ID", required = true, example = "1") @PathVariable @Positive Long bookId) {
+        return ResponseEntity.ok(commentService.getRatingSummaryForBook(bookId));
+    }
 }
@@ -0,0 +1,101 @@
+package com.aaron212.onlinelibrarymanagement.backend.controller;
+
+import com.aaron212.onlinelibrarymanagement.backend.config.ReplicaRoutingDataSource;
+import com.aaron212.onlinelibrarymanagement.backend.service.ContentVersionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Answers conditional GETs of public reads from their ETag alone, before any data is loaded, and
+ * counts the outcomes so the not-modified rate of each resource can be watched.
+ *
+ * <p>Conditional reads go to the replicas like any other read, except while their content changed
+ * within the replica lag window ({@code library.datasource.read-your-writes-window}). The versions
+ * behind the ETags move once a change has committed on the primary, so during that window a lagging
+ * replica could hand out the old body under the new tag; such reads run on the primary instead.
+ */
+@Component
+class ConditionalGet {
+
+    static final String METRIC_NAME = "library.http.conditional";
+
+    /* Shared caches may store the responses but must revalidate every use */
+    static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    private final MeterRegistry meterRegistry;
+    private final ContentVersionService contentVersionService;
+    private final Duration replicaLag;
+
+    ConditionalGet(
+            MeterRegistry meterRegistry,
+            ContentVersionService contentVersionService,
+            @Value("${library.datasource.read-your-writes-window:PT5S}") Duration replicaLag) {
+        this.meterRegistry = meterRegistry;
+        this.contentVersionService = contentVersionService;
+        this.replicaLag = replicaLag;
+    }
+
+    /**
+     * 304 if the client's copy is current, otherwise 200 with the body loaded only now
+     */
+    <T> ResponseEntity<T> respond(
+            WebRequest request, ContentVersionService.Resource resource, Supplier<String> etag, Supplier<T> body) {
+        return read(() -> contentVersionService.changedWithin(resource, replicaLag), etag, tag -> {
+            if (notModified(request, resource.name().toLowerCase(), tag)) {
+                return notModifiedResponse();
+            }
+            return ResponseEntity.ok().cacheControl(CACHE_CONTROL).body(body.get());
+        });
+    }
+
+    /**
+     * Run a conditional read of one book with its current ETag
+     */
+    <T> T readBook(Long bookId, Function<String, T> read) {
+        return read(
+                () -> contentVersionService.bookChangedWithin(bookId, replicaLag),
+                () -> contentVersionService.bookEtag(bookId),
+                read);
+    }
+
+    /* The change check comes after the tag, so a tag naming a fresh version is never paired with a replica */
+    private <T> T read(BooleanSupplier changedRecently, Supplier<String> etag, Function<String, T> read) {
+        String tag = etag.get();
+        if (changedRecently.getAsBoolean()) {
+            return ReplicaRoutingDataSource.readFromPrimary(() -> read.apply(etag.get()));
+        }
+        return read.apply(tag);
+    }
+
+    /**
+     * Compare the request's If-None-Match with the current ETag. Either way the ETag header is
+     * set on the response, so the entities returned afterwards must not set it again.
+     * @return true if the client's copy is current
+     */
+    boolean notModified(WebRequest request, String resource, String etag) {
+        boolean notModified = request.checkNotModified(etag);
+        Counter.builder(METRIC_NAME)
+                .description("Conditional reads by outcome")
+                .tag("resource", resource)
+                .tag("outcome", notModified ? "not_modified" : "modified")
+                .register(meterRegistry)
+                .increment();
+        return notModified;
+    }
+
+    <T> ResponseEntity<T> notModifiedResponse() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CACHE_CONTROL)
+                .build();
+    }
+}
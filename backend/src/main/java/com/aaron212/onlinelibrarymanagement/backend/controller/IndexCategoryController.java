@@ -1,12 +1,20 @@
 package com.aaron212.onlinelibrarymanagement.backend.controller;
 
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookSummaryDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.IndexCategoryNodeDto;
 import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.service.BookService;
+import com.aaron212.onlinelibrarymanagement.backend.service.ContentVersionService;
 import com.aaron212.onlinelibrarymanagement.backend.service.IndexCategoryService;
 import java.util.List;
 import java.util.Optional;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/categories")
@@ -14,9 +22,19 @@ import org.springframework.web.bind.annotation.*;
 public class IndexCategoryController {
 
     private final IndexCategoryService indexCategoryService;
+    private final BookService bookService;
+    private final ContentVersionService contentVersionService;
+    private final ConditionalGet conditionalGet;
 
-    public IndexCategoryController(IndexCategoryService indexCategoryService) {
+    public IndexCategoryController(
+            IndexCategoryService indexCategoryService,
+            BookService bookService,
+            ContentVersionService contentVersionService,
+            ConditionalGet conditionalGet) {
         this.indexCategoryService = indexCategoryService;
+        this.bookService = bookService;
+        this.contentVersionService = contentVersionService;
+        this.conditionalGet = conditionalGet;
     }
 
     /**
@@ -36,9 +54,12 @@ public class IndexCategoryController {
      * Get all categories
      */
     @GetMapping
-    public ResponseEntity<List<IndexCategory>> getAllCategories() {
-        List<IndexCategory> categories = indexCategoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<IndexCategory>> getAllCategories(WebRequest request) {
+        return conditionalGet.respond(
+                request,
+                ContentVersionService.Resource.CATEGORIES,
+                () -> contentVersionService.etag(ContentVersionService.Resource.CATEGORIES),
+                indexCategoryService::getAllCategories);
     }
 
     /**
@@ -58,4 +79,21 @@ public class IndexCategoryController {
         boolean exists = indexCategoryService.existsByIndexCode(indexCode);
         return ResponseEntity.ok(exists);
     }
+
+    /**
+     * Get a category and all of its descendants
+     */
+    @GetMapping("/{indexCode}/subtree")
+    public ResponseEntity<List<IndexCategoryNodeDto>> getCategorySubtree(@PathVariable String indexCode) {
+        return ResponseEntity.ok(indexCategoryService.getSubtree(indexCode));
+    }
+
+    /**
+     * Get the books of a category, including those in its descendants
+     */
+    @GetMapping("/{indexCode}/books")
+    public ResponseEntity<Page<BookSummaryDto>> getCategoryBooks(
+            @PathVariable String indexCode, @ParameterObject Pageable pageable) {
+        return ResponseEntity.ok(bookService.getBooksSummaryByCategory(indexCode, pageable));
+    }
 }
@@ -3,6 +3,7 @@ package com.aaron212.onlinelibrarymanagement.backend.controller;
 import com.aaron212.onlinelibrarymanagement.backend.dto.NoticeCreateDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.NoticeResponseDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.NoticeUpdateDto;
+import com.aaron212.onlinelibrarymanagement.backend.service.ContentVersionService;
 import com.aaron212.onlinelibrarymanagement.backend.service.NoticeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -25,6 +26,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/notices")
@@ -32,9 +34,11 @@ import org.springframework.web.bind.annotation.*;
 public class NoticeController {
 
     private final NoticeService noticeService;
+    private final ConditionalGet conditionalGet;
 
-    public NoticeController(NoticeService noticeService) {
+    public NoticeController(NoticeService noticeService, ConditionalGet conditionalGet) {
         this.noticeService = noticeService;
+        this.conditionalGet = conditionalGet;
     }
 
     @Operation(
@@ -119,9 +123,12 @@ public class NoticeController {
             })
     @GetMapping("/active")
     public ResponseEntity<Page<NoticeResponseDto>> getActiveNotices(
-            @Parameter(description = "Pagination parameters") @ParameterObject Pageable pageable) {
-        Page<NoticeResponseDto> notices = noticeService.getActiveNotices(pageable);
-        return ResponseEntity.ok(notices);
+            @Parameter(description = "Pagination parameters") @ParameterObject Pageable pageable, WebRequest request) {
+        return conditionalGet.respond(
+                request,
+                ContentVersionService.Resource.NOTICES,
+                noticeService::getActiveNoticesEtag,
+                () -> noticeService.getActiveNotices(pageable));
     }
 
     @Operation(
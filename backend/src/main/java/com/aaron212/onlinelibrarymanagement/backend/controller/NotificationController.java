@@ -0,0 +1,102 @@
+package com.aaron212.onlinelibrarymanagement.backend.controller;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.InAppNotificationDto;
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import com.aaron212.onlinelibrarymanagement.backend.service.NotificationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.Map;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/notifications")
+@Tag(name = "Notifications", description = "In-app notification inbox endpoints")
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    public NotificationController(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @Operation(
+            summary = "Get current user's notifications",
+            description = "Returns the authenticated user's in-app notifications, newest first.",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Notifications retrieved successfully",
+                        content = @Content(schema = @Schema(implementation = Page.class))),
+                @ApiResponse(
+                        responseCode = "400",
+                        description = "Invalid page parameters",
+                        content = @Content(schema = @Schema(implementation = Map.class))),
+                @ApiResponse(
+                        responseCode = "401",
+                        description = "User not authenticated",
+                        content = @Content(schema = @Schema(implementation = Map.class)))
+            })
+    @GetMapping
+    public ResponseEntity<?> getInbox(
+            Authentication authentication,
+            @Parameter(description = "Page number", example = "0") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (1-100)", example = "20") @RequestParam(defaultValue = "20") int size) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "User not authenticated"));
+        }
+        if (page < 0 || size <= 0 || size > 100) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid page or size"));
+        }
+        Long userId = ((User) authentication.getPrincipal()).getId();
+        Page<InAppNotificationDto> notifications = notificationService.getInbox(userId, PageRequest.of(page, size));
+        return ResponseEntity.ok(notifications);
+    }
+
+    @Operation(summary = "Count unread notifications", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @GetMapping("/unread-count")
+    public ResponseEntity<?> getUnreadCount(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "User not authenticated"));
+        }
+        Long userId = ((User) authentication.getPrincipal()).getId();
+        return ResponseEntity.ok(Map.of("unread", notificationService.countUnread(userId)));
+    }
+
+    @Operation(summary = "Mark a notification as read", security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Notification marked as read",
+                        content = @Content(schema = @Schema(implementation = Map.class))),
+                @ApiResponse(
+                        responseCode = "404",
+                        description = "No unread notification with this id for the user",
+                        content = @Content(schema = @Schema(implementation = Map.class)))
+            })
+    @PostMapping("/{notificationId}/read")
+    public ResponseEntity<Map<String, String>> markRead(
+            Authentication authentication, @PathVariable Long notificationId) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "User not authenticated"));
+        }
+        Long userId = ((User) authentication.getPrincipal()).getId();
+        if (!notificationService.markRead(userId, notificationId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Notification not found"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Notification marked as read"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.aaron212.onlinelibrarymanagement.backend.controller;
 
+import com.aaron212.onlinelibrarymanagement.backend.dto.ReservationQueueStatusDto;
 import com.aaron212.onlinelibrarymanagement.backend.model.Reservation;
 import com.aaron212.onlinelibrarymanagement.backend.service.ReservationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -27,7 +28,7 @@ public class ReservationsController {
 
     @Operation(
             summary = "Get current user's active reservations",
-            description = "Returns a list of current waiting reservations for the authenticated user.")
+            description = "Returns a list of current waiting and ready reservations for the authenticated user.")
     @ApiResponses(
             value = {
                 @ApiResponse(
@@ -52,7 +53,8 @@ public class ReservationsController {
 
     @Operation(
             summary = "Cancel reservation",
-            description = "Cancels a waiting reservation belonging to the authenticated user.")
+            description = "Cancels a waiting reservation belonging to the authenticated user, or gives up a copy "
+                    + "held for it.")
     @ApiResponses(
             value = {
                 @ApiResponse(
@@ -79,6 +81,34 @@ public class ReservationsController {
         }
     }
 
+    @Operation(
+            summary = "Get queue position",
+            description = "Returns the status of a reservation of the authenticated user, its position in the "
+                    + "book's queue while waiting, and the pickup deadline while a copy is held for it.")
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Request successful",
+                        content = @Content(schema = @Schema(implementation = ReservationQueueStatusDto.class))),
+                @ApiResponse(
+                        responseCode = "401",
+                        description = "User not authenticated",
+                        content = @Content(schema = @Schema(implementation = Map.class)))
+            })
+    @GetMapping("/{reservationId}/position")
+    public ResponseEntity<?> getQueuePosition(Authentication authentication, @PathVariable Long reservationId) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(401).body(Map.of("error", "User not authenticated"));
+        }
+        Long userId = ((com.aaron212.onlinelibrarymanagement.backend.model.User) authentication.getPrincipal()).getId();
+        try {
+            return ResponseEntity.ok(reservationService.getQueueStatus(userId, reservationId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @Operation(summary = "Create reservation", description = "Reserve a book by bookId")
     @PostMapping("/{bookId}")
     public ResponseEntity<?> createReservation(Authentication authentication, @PathVariable Long bookId) {
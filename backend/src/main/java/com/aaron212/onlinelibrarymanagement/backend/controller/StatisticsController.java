@@ -1,10 +1,15 @@
 package com.aaron212.onlinelibrarymanagement.backend.controller;
 
 import com.aaron212.onlinelibrarymanagement.backend.dto.BookStatisticsDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowTrendPointDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.DashboardSummaryDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.LibraryStatisticsDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.TopBooksRequestDto;
+import com.aaron212.onlinelibrarymanagement.backend.service.BorrowStatsService;
+import com.aaron212.onlinelibrarymanagement.backend.service.DashboardService;
 import com.aaron212.onlinelibrarymanagement.backend.service.StatisticsService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,8 +17,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -25,9 +32,11 @@ import org.springframework.web.bind.annotation.*;
 public class StatisticsController {
 
     private final StatisticsService statisticsService;
+    private final DashboardService dashboardService;
 
-    public StatisticsController(StatisticsService statisticsService) {
+    public StatisticsController(StatisticsService statisticsService, DashboardService dashboardService) {
         this.statisticsService = statisticsService;
+        this.dashboardService = dashboardService;
     }
 
     @Operation(
@@ -139,6 +148,88 @@ public class StatisticsController {
         }
     }
 
+    @Operation(
+            summary = "Get borrow trends over a date range",
+            description = "Borrows, returns, overdue returns and fines between two dates (inclusive), one point per "
+                    + "day, week, month or year; periods without activity are reported with zero counts",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Borrow trends retrieved successfully",
+                        content = @Content(schema = @Schema(implementation = BorrowTrendPointDto.class))),
+                @ApiResponse(
+                        responseCode = "400",
+                        description = "Invalid date range or too many periods",
+                        content = @Content(schema = @Schema(implementation = Map.class))),
+                @ApiResponse(
+                        responseCode = "404",
+                        description = "Category not found",
+                        content = @Content(schema = @Schema(implementation = Map.class)))
+            })
+    @GetMapping("/borrow-trends")
+    public ResponseEntity<?> getBorrowTrends(
+            @Parameter(description = "First day", example = "2024-01-01")
+                    @RequestParam
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                    LocalDate from,
+            @Parameter(description = "Last day", example = "2024-12-31")
+                    @RequestParam
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                    LocalDate to,
+            @Parameter(description = "Period of each point") @RequestParam(defaultValue = "MONTH")
+                    BorrowStatsService.Granularity granularity,
+            @Parameter(description = "Index category code; includes its sub-categories", example = "TP")
+                    @RequestParam(required = false)
+                    String category) {
+        try {
+            List<BorrowTrendPointDto> trend = statisticsService.getBorrowTrends(from, to, granularity, category);
+            return ResponseEntity.ok(trend);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Get active borrower count",
+            description = "Estimates the number of distinct users who borrowed between two dates (inclusive) by "
+                    + "merging daily HyperLogLog sketches; the standard error is about 1.6%",
+            security = @SecurityRequirement(name = "Bearer Authentication"))
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Active borrower count retrieved successfully",
+                        content = @Content(schema = @Schema(implementation = Map.class))),
+                @ApiResponse(
+                        responseCode = "400",
+                        description = "Invalid date range",
+                        content = @Content(schema = @Schema(implementation = Map.class))),
+                @ApiResponse(
+                        responseCode = "403",
+                        description = "Access denied - admin role required",
+                        content = @Content(schema = @Schema(implementation = Map.class)))
+            })
+    @GetMapping("/active-borrowers")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getActiveBorrowerCount(
+            @Parameter(description = "First day", example = "2024-01-01")
+                    @RequestParam
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                    LocalDate from,
+            @Parameter(description = "Last day", example = "2024-12-31")
+                    @RequestParam
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                    LocalDate to) {
+        try {
+            long count = statisticsService.getActiveBorrowerCount(from, to);
+            return ResponseEntity.ok(Map.of("from", from, "to", to, "activeBorrowers", count));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @Operation(
             summary = "Get book inventory statistics",
             description = "Retrieves comprehensive book inventory statistics including availability and status",
@@ -203,14 +294,16 @@ public class StatisticsController {
 
     @Operation(
             summary = "Get library dashboard summary",
-            description = "Retrieves a summary of key library statistics for dashboard display",
+            description = "Retrieves a summary of key library statistics for dashboard display. Sections are "
+                    + "queried in parallel; sections that time out or fail carry their last good value and are "
+                    + "listed in staleSections.",
             security = @SecurityRequirement(name = "Bearer Authentication"))
     @ApiResponses(
             value = {
                 @ApiResponse(
                         responseCode = "200",
                         description = "Dashboard summary retrieved successfully",
-                        content = @Content(schema = @Schema(implementation = Map.class))),
+                        content = @Content(schema = @Schema(implementation = DashboardSummaryDto.class))),
                 @ApiResponse(
                         responseCode = "500",
                         description = "Internal server error",
@@ -219,14 +312,7 @@ public class StatisticsController {
     @GetMapping("/dashboard")
     public ResponseEntity<?> getDashboardSummary() {
         try {
-            // Combine multiple statistics for dashboard
-            Map<String, Long> userBehavior = statisticsService.getUserBehaviorAnalysis();
-            Map<?, Map<String, Long>> inventory = statisticsService.getBookInventoryStatistics();
-
-            return ResponseEntity.ok(Map.of(
-                    "userBehavior", userBehavior,
-                    "inventory", inventory,
-                    "timestamp", System.currentTimeMillis()));
+            return ResponseEntity.ok(dashboardService.getDashboardSummary());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to retrieve dashboard summary"));
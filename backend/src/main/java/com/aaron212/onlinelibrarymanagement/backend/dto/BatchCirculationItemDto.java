@@ -0,0 +1,37 @@
+package com.aaron212.onlinelibrarymanagement.backend.dto;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one scanned barcode of a desk batch; {@code error} is set only when {@code success} is false.
+ */
+public record BatchCirculationItemDto(
+        String barcode,
+        boolean success,
+        Long borrowId,
+        Long copyId,
+        String bookTitle,
+        LocalDateTime returnTime,
+        Borrow.Status status,
+        BigDecimal fine,
+        String error) {
+
+    public static BatchCirculationItemDto succeeded(String barcode, Borrow borrow) {
+        return new BatchCirculationItemDto(
+                barcode,
+                true,
+                borrow.getId(),
+                borrow.getCopy().getId(),
+                borrow.getCopy().getBook().getTitle(),
+                borrow.getReturnTime(),
+                borrow.getStatus(),
+                borrow.getFine(),
+                null);
+    }
+
+    public static BatchCirculationItemDto failed(String barcode, String error) {
+        return new BatchCirculationItemDto(barcode, false, null, null, null, null, null, null, error);
+    }
+}
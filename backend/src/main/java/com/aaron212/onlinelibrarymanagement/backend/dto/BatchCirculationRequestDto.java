@@ -0,0 +1,17 @@
+package com.aaron212.onlinelibrarymanagement.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * One reader at the circulation desk and the copy barcodes scanned for them, in scan order.
+ */
+public record BatchCirculationRequestDto(
+        @NotNull(message = "User ID is required") @Positive(message = "User ID must be positive") Long userId,
+        @NotEmpty(message = "At least one barcode is required")
+                @Size(max = 50, message = "At most 50 barcodes per request")
+                List<@NotBlank(message = "Barcode must not be blank") String> barcodes) {}
@@ -0,0 +1,8 @@
+package com.aaron212.onlinelibrarymanagement.backend.dto;
+
+import java.util.List;
+
+/**
+ * Result of a desk batch; {@code items} follows the order of the scanned barcodes.
+ */
+public record BatchCirculationResultDto(Long userId, int succeeded, int failed, List<BatchCirculationItemDto> items) {}
@@ -0,0 +1,6 @@
+package com.aaron212.onlinelibrarymanagement.backend.dto;
+
+/**
+ * A rejected row of a bulk import; {@code row} is the 1-based line number in the uploaded file.
+ */
+public record BookImportErrorDto(long row, String isbn, String message) {}
@@ -0,0 +1,16 @@
+package com.aaron212.onlinelibrarymanagement.backend.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} holds at most the first reported rejections,
+ * {@code failedRows} counts all of them.
+ */
+public record BookImportReportDto(
+        long processedRows,
+        long importedBooks,
+        long importedCopies,
+        long failedRows,
+        List<BookImportErrorDto> errors,
+        boolean errorsTruncated,
+        long elapsedMillis) {}
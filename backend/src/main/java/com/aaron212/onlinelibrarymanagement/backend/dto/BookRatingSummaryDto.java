@@ -0,0 +1,10 @@
+package com.aaron212.onlinelibrarymanagement.backend.dto;
+
+import java.util.Map;
+
+/**
+ * Published comments and ratings of a book; {@code histogram} maps the lower bound of each 0.5 step
+ * ("0.0" to "5.0") to the number of ratings in it
+ */
+public record BookRatingSummaryDto(
+        Long bookId, long commentCount, long ratingCount, Double averageRating, Map<String, Long> histogram) {}
@@ -0,0 +1,11 @@
+package com.aaron212.onlinelibrarymanagement.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Borrow activity of one period of a trend, starting on {@code periodStart}. Returns, late returns
+ * and fines are counted in the period of the return.
+ */
+public record BorrowTrendPointDto(
+        LocalDate periodStart, long borrowCount, long returnCount, long overdueCount, BigDecimal fineTotal) {}
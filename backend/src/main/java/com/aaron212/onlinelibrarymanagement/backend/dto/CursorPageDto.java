@@ -0,0 +1,10 @@
+package com.aaron212.onlinelibrarymanagement.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+public record CursorPageDto<T>(
+        @Schema(description = "Items of this page") List<T> content,
+        @Schema(description = "Requested page size", example = "20") int size,
+        @Schema(description = "Opaque cursor of the next page, null on the last page") String nextCursor,
+        @Schema(description = "Whether another page follows") boolean hasNext) {}
@@ -0,0 +1,15 @@
+package com.aaron212.onlinelibrarymanagement.backend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard sections loaded in parallel. A section listed in {@code staleSections} did not finish in
+ * time or failed; it holds the last good value, or null if there never was one.
+ */
+public record DashboardSummaryDto(
+        Map<String, Long> userBehavior,
+        Map<String, Map<String, Long>> inventory,
+        LibraryStatisticsDto library,
+        List<String> staleSections,
+        long timestamp) {}
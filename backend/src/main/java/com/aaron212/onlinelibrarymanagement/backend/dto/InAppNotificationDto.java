@@ -0,0 +1,12 @@
+package com.aaron212.onlinelibrarymanagement.backend.dto;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.NotificationOutbox;
+import java.time.LocalDateTime;
+
+public record InAppNotificationDto(
+        Long id,
+        NotificationOutbox.Type type,
+        String title,
+        String content,
+        LocalDateTime createTime,
+        LocalDateTime readTime) {}
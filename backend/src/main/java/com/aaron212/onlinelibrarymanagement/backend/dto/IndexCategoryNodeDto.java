@@ -0,0 +1,3 @@
+package com.aaron212.onlinelibrarymanagement.backend.dto;
+
+public record IndexCategoryNodeDto(Long id, String indexCode, String name, String parentCode) {}
@@ -0,0 +1,16 @@
+package com.aaron212.onlinelibrarymanagement.backend.dto;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.Reservation;
+import java.time.LocalDateTime;
+
+/**
+ * Where a reservation stands: {@code position} is 1-based while WAITING and 0 otherwise;
+ * {@code holdExpireTime} is set while a copy is held for it
+ */
+public record ReservationQueueStatusDto(
+        Long reservationId,
+        Long bookId,
+        Reservation.Status status,
+        int position,
+        int queueLength,
+        LocalDateTime holdExpireTime) {}
@@ -0,0 +1,16 @@
+package com.aaron212.onlinelibrarymanagement.backend.event;
+
+/**
+ * Published by {@code BookService} whenever a book, or its authors and publishers, are created,
+ * updated or deleted.
+ */
+public record BookChangedEvent(Long bookId, boolean deleted) {
+
+    public static BookChangedEvent saved(Long bookId) {
+        return new BookChangedEvent(bookId, false);
+    }
+
+    public static BookChangedEvent deleted(Long bookId) {
+        return new BookChangedEvent(bookId, true);
+    }
+}
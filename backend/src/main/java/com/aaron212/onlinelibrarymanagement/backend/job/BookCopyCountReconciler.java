@@ -0,0 +1,40 @@
+package com.aaron212.onlinelibrarymanagement.backend.job;
+
+import com.aaron212.onlinelibrarymanagement.backend.service.BookCopyCountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Detects and repairs drift between {@code book.available_copies}/{@code book.total_copies} and the
+ * {@code book_copy} rows, e.g. after copies were edited directly in the database. Runs once at
+ * startup, which also fills the counts after the columns were added, and then on a schedule.
+ */
+@Component
+@ConditionalOnProperty(name = "library.jobs.copy-count-reconcile.enabled", matchIfMissing = true)
+public class BookCopyCountReconciler implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookCopyCountReconciler.class);
+    private final BookCopyCountService bookCopyCountService;
+
+    public BookCopyCountReconciler(BookCopyCountService bookCopyCountService) {
+        this.bookCopyCountService = bookCopyCountService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${library.jobs.copy-count-reconcile.cron:0 30 3 * * *}")
+    public void reconcile() {
+        int corrected = bookCopyCountService.reconcile();
+        if (corrected > 0) {
+            logger.warn("Corrected copy counts of {} books", corrected);
+        }
+    }
+}
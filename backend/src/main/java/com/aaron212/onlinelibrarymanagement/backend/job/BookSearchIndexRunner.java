@@ -0,0 +1,35 @@
+package com.aaron212.onlinelibrarymanagement.backend.job;
+
+import com.aaron212.onlinelibrarymanagement.backend.service.BookSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the book search index at startup when it does not match the catalogue, e.g. on the
+ * first start, after the index directory was removed, or after books were changed while the
+ * application was down. Afterwards the index is kept current by {@code BookChangedEvent}s.
+ */
+@Component
+@ConditionalOnProperty(name = "library.jobs.search-index-rebuild.enabled", matchIfMissing = true)
+public class BookSearchIndexRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndexRunner.class);
+    private final BookSearchService bookSearchService;
+
+    public BookSearchIndexRunner(BookSearchService bookSearchService) {
+        this.bookSearchService = bookSearchService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (bookSearchService.isIndexInSync()) {
+            return;
+        }
+        logger.info("Book search index is out of date, rebuilding...");
+        bookSearchService.rebuildIndex();
+    }
+}
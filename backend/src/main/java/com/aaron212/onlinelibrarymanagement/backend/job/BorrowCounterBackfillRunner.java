@@ -0,0 +1,40 @@
+package com.aaron212.onlinelibrarymanagement.backend.job;
+
+import com.aaron212.onlinelibrarymanagement.backend.repository.BorrowRepository;
+import com.aaron212.onlinelibrarymanagement.backend.service.BookBorrowCounterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-time backfill of the {@code book_borrow_counter} read model. Runs at startup and only does
+ * work when the counter table is still empty while borrow history already exists, i.e. on the
+ * first start after the table was introduced. From then on counters are maintained by
+ * {@code BorrowService.borrowBook}.
+ */
+@Component
+@ConditionalOnProperty(name = "library.jobs.borrow-counter-backfill.enabled", matchIfMissing = true)
+public class BorrowCounterBackfillRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowCounterBackfillRunner.class);
+    private final BookBorrowCounterService bookBorrowCounterService;
+    private final BorrowRepository borrowRepository;
+
+    public BorrowCounterBackfillRunner(
+            BookBorrowCounterService bookBorrowCounterService, BorrowRepository borrowRepository) {
+        this.bookBorrowCounterService = bookBorrowCounterService;
+        this.borrowRepository = borrowRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (bookBorrowCounterService.hasCounters() || borrowRepository.count() == 0) {
+            return;
+        }
+        logger.info("Borrow counters are empty, backfilling from borrow history...");
+        bookBorrowCounterService.rebuildFromBorrowHistory();
+    }
+}
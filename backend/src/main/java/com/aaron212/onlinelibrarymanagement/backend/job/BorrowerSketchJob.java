@@ -0,0 +1,34 @@
+package com.aaron212.onlinelibrarymanagement.backend.job;
+
+import com.aaron212.onlinelibrarymanagement.backend.service.ActiveBorrowerService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the daily borrower sketches current: at startup the days without a sketch are built from
+ * the borrow history, afterwards the borrowers recorded in memory are merged into the stored
+ * sketches at a fixed delay. A crash loses at most one interval of borrowers from the estimates.
+ */
+@Component
+@ConditionalOnProperty(name = "library.jobs.borrower-sketch.enabled", matchIfMissing = true)
+public class BorrowerSketchJob implements ApplicationRunner {
+
+    private final ActiveBorrowerService activeBorrowerService;
+
+    public BorrowerSketchJob(ActiveBorrowerService activeBorrowerService) {
+        this.activeBorrowerService = activeBorrowerService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        activeBorrowerService.backfillMissingDays();
+    }
+
+    @Scheduled(fixedDelayString = "${library.jobs.borrower-sketch.flush-interval:PT30S}")
+    public void flush() {
+        activeBorrowerService.flush();
+    }
+}
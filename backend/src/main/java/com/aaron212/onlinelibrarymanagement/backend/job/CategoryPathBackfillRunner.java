@@ -0,0 +1,33 @@
+package com.aaron212.onlinelibrarymanagement.backend.job;
+
+import com.aaron212.onlinelibrarymanagement.backend.service.IndexCategoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@code index_category.path} for categories created before the column existed and loads the
+ * category trie. New categories get their path when they are inserted.
+ */
+@Component
+@ConditionalOnProperty(name = "library.jobs.category-path-backfill.enabled", matchIfMissing = true)
+public class CategoryPathBackfillRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryPathBackfillRunner.class);
+    private final IndexCategoryService indexCategoryService;
+
+    public CategoryPathBackfillRunner(IndexCategoryService indexCategoryService) {
+        this.indexCategoryService = indexCategoryService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int updated = indexCategoryService.backfillPaths();
+        if (updated > 0) {
+            logger.info("Backfilled the materialized path of {} categories", updated);
+        }
+    }
+}
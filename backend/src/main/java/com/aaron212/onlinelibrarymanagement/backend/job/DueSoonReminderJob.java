@@ -0,0 +1,25 @@
+package com.aaron212.onlinelibrarymanagement.backend.job;
+
+import com.aaron212.onlinelibrarymanagement.backend.service.NotificationService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Daily reminder to readers whose loans are due in {@code library.notifications.due-soon-days} days
+ */
+@Component
+@ConditionalOnProperty(name = "library.jobs.due-soon-reminder.enabled", matchIfMissing = true)
+public class DueSoonReminderJob {
+
+    private final NotificationService notificationService;
+
+    public DueSoonReminderJob(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @Scheduled(cron = "${library.jobs.due-soon-reminder.cron:0 0 9 * * *}")
+    public void remind() {
+        notificationService.remindDueSoon();
+    }
+}
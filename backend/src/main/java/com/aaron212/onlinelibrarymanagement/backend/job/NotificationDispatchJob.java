@@ -0,0 +1,26 @@
+package com.aaron212.onlinelibrarymanagement.backend.job;
+
+import com.aaron212.onlinelibrarymanagement.backend.notification.NotificationDispatcher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Polls the notification outbox and delivers whatever is due. Runs with a fixed delay, so a slow
+ * drain never overlaps the next one.
+ */
+@Component
+@ConditionalOnProperty(name = "library.jobs.notification-dispatch.enabled", matchIfMissing = true)
+public class NotificationDispatchJob {
+
+    private final NotificationDispatcher notificationDispatcher;
+
+    public NotificationDispatchJob(NotificationDispatcher notificationDispatcher) {
+        this.notificationDispatcher = notificationDispatcher;
+    }
+
+    @Scheduled(fixedDelayString = "${library.jobs.notification-dispatch.interval:PT15S}")
+    public void dispatch() {
+        notificationDispatcher.drain();
+    }
+}
@@ -0,0 +1,26 @@
+package com.aaron212.onlinelibrarymanagement.backend.job;
+
+import com.aaron212.onlinelibrarymanagement.backend.service.OverdueSweepService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nightly sweep that flags overdue borrows and updates their fines. A run that was interrupted is
+ * resumed from its checkpoint by the next trigger.
+ */
+@Component
+@ConditionalOnProperty(name = "library.jobs.overdue-sweep.enabled", matchIfMissing = true)
+public class OverdueSweepJob {
+
+    private final OverdueSweepService overdueSweepService;
+
+    public OverdueSweepJob(OverdueSweepService overdueSweepService) {
+        this.overdueSweepService = overdueSweepService;
+    }
+
+    @Scheduled(cron = "${library.jobs.overdue-sweep.cron:0 0 1 * * *}")
+    public void sweep() {
+        overdueSweepService.sweep();
+    }
+}
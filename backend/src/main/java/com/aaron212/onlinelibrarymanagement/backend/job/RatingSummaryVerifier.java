@@ -0,0 +1,39 @@
+package com.aaron212.onlinelibrarymanagement.backend.job;
+
+import com.aaron212.onlinelibrarymanagement.backend.service.BookRatingSummaryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Detects and repairs drift between the rating summaries and the published comments. Runs once at
+ * startup, which also fills the summaries after the tables were added, and then nightly.
+ */
+@Component
+@ConditionalOnProperty(name = "library.jobs.rating-summary-verify.enabled", matchIfMissing = true)
+public class RatingSummaryVerifier implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingSummaryVerifier.class);
+    private final BookRatingSummaryService bookRatingSummaryService;
+
+    public RatingSummaryVerifier(BookRatingSummaryService bookRatingSummaryService) {
+        this.bookRatingSummaryService = bookRatingSummaryService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        verify();
+    }
+
+    @Scheduled(cron = "${library.jobs.rating-summary-verify.cron:0 45 3 * * *}")
+    public void verify() {
+        int corrected = bookRatingSummaryService.verify();
+        if (corrected > 0) {
+            logger.warn("Corrected rating summaries of {} books", corrected);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.aaron212.onlinelibrarymanagement.backend.job;
+
+import com.aaron212.onlinelibrarymanagement.backend.service.ReservationQueue;
+import com.aaron212.onlinelibrarymanagement.backend.service.ReservationService;
+import java.time.LocalDateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the reservation queues from the database at startup and then expires uncollected holds
+ * the moment their deadline passes. Holds that ran out while the application was down expire right
+ * after the rebuild. When disabled, queues are loaded per book on first use and holds never expire.
+ */
+@Component
+@ConditionalOnProperty(name = "library.jobs.reservation-queue.enabled", matchIfMissing = true)
+public class ReservationHoldExpiryJob implements ApplicationRunner, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationHoldExpiryJob.class);
+    private static final long RETRY_MINUTES = 1;
+    private final ReservationService reservationService;
+    private final ReservationQueue reservationQueue;
+    private Thread worker;
+
+    public ReservationHoldExpiryJob(ReservationService reservationService, ReservationQueue reservationQueue) {
+        this.reservationService = reservationService;
+        this.reservationQueue = reservationQueue;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        reservationService.rebuildQueues();
+        worker = Thread.ofPlatform().name("reservation-hold-expiry").daemon().start(this::expireHolds);
+    }
+
+    private void expireHolds() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Long reservationId;
+            try {
+                reservationId = reservationQueue.takeExpiredHold();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                if (reservationService.expireHold(reservationId)) {
+                    logger.info("Hold of reservation {} expired", reservationId);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to expire hold of reservation {}, retrying", reservationId, e);
+                reservationQueue.scheduleExpiry(
+                        reservationId, LocalDateTime.now().plusMinutes(RETRY_MINUTES));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.aaron212.onlinelibrarymanagement.backend.job;
+
+import com.aaron212.onlinelibrarymanagement.backend.service.UserLoanSummaryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repairs drift between {@code user_loan_summary} and the borrow and reservation tables, e.g. after
+ * borrows were edited directly in the database. Rows are created on first use, so there is nothing
+ * to backfill at startup.
+ */
+@Component
+@ConditionalOnProperty(name = "library.jobs.loan-summary-reconcile.enabled", matchIfMissing = true)
+public class UserLoanSummaryReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserLoanSummaryReconciler.class);
+    private final UserLoanSummaryService userLoanSummaryService;
+
+    public UserLoanSummaryReconciler(UserLoanSummaryService userLoanSummaryService) {
+        this.userLoanSummaryService = userLoanSummaryService;
+    }
+
+    @Scheduled(cron = "${library.jobs.loan-summary-reconcile.cron:0 0 4 * * *}")
+    public void reconcile() {
+        int corrected = userLoanSummaryService.reconcile();
+        if (corrected > 0) {
+            logger.warn("Corrected loan summaries of {} users", corrected);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.aaron212.onlinelibrarymanagement.backend.mapper;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowResponseDto;
 import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.projection.BorrowProjection;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -30,6 +31,26 @@ public class BorrowMapper {
                 borrow.getFine());
     }
 
+    public BorrowDto toBorrowDto(BorrowProjection borrow) {
+        if (borrow == null) {
+            return null;
+        }
+
+        return new BorrowDto(
+                borrow.getId(),
+                borrow.getUserId(),
+                borrow.getUsername(),
+                borrow.getCopyId(),
+                borrow.getBookTitle(),
+                borrow.getIsbn(),
+                borrow.getCoverURL(),
+                borrow.getBorrowTime(),
+                borrow.getReturnTime(),
+                borrow.getActualReturnTime(),
+                borrow.getStatus(),
+                borrow.getFine());
+    }
+
     public BorrowResponseDto toBorrowResponseDto(Borrow borrow) {
         if (borrow == null) {
             return null;
@@ -0,0 +1,64 @@
+package com.aaron212.onlinelibrarymanagement.backend.metrics;
+
+import com.aaron212.onlinelibrarymanagement.backend.config.SecondLevelCacheConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.function.Function;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheableDataStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Second-level cache hits, misses and puts per cached entity, for the entity and the natural-id region.
+ * Needs {@code hibernate.generate_statistics}; without it every counter stays at zero.
+ */
+@Component
+public class CacheRegionMetrics implements MeterBinder {
+
+    static final String REQUESTS = "library.cache.requests";
+    static final String PUTS = "library.cache.puts";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheRegionMetrics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics =
+                entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (Class<?> entity : SecondLevelCacheConfig.CACHED_ENTITIES) {
+            String name = entity.getName();
+            bind(registry, statistics, entity.getSimpleName(), "entity", s -> s.getEntityStatistics(name));
+            bind(registry, statistics, entity.getSimpleName(), "natural_id", s -> s.getNaturalIdStatistics(name));
+        }
+    }
+
+    private static void bind(
+            MeterRegistry registry,
+            Statistics statistics,
+            String region,
+            String kind,
+            Function<Statistics, CacheableDataStatistics> source) {
+        Tags tags = Tags.of("region", region, "kind", kind);
+        FunctionCounter.builder(REQUESTS, statistics, s -> count(source.apply(s).getCacheHitCount()))
+                .tags(tags.and("result", "hit"))
+                .register(registry);
+        FunctionCounter.builder(REQUESTS, statistics, s -> count(source.apply(s).getCacheMissCount()))
+                .tags(tags.and("result", "miss"))
+                .register(registry);
+        FunctionCounter.builder(PUTS, statistics, s -> count(source.apply(s).getCachePutCount()))
+                .tags(tags)
+                .register(registry);
+    }
+
+    /* Hibernate reports NOT_CACHED_COUNT (Long.MIN_VALUE) while the cache is off */
+    private static double count(long value) {
+        return Math.max(0, value);
+    }
+}
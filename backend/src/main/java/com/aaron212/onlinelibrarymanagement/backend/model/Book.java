@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
 @Table(name = "book")
@@ -44,8 +45,21 @@ public class Book {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createTime;
 
+    // Also moved by the copy count updates, so it tracks everything shown on the book page
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updateTime;
+
     private String coverURL;
 
+    // Denormalized copy counts for list pages. Only changed through BookCopyCountService's delta
+    // updates, never by saving the entity, so a stale Book instance cannot overwrite them.
+    @Column(nullable = false, updatable = false)
+    private int availableCopies;
+
+    @Column(nullable = false, updatable = false)
+    private int totalCopies;
+
     @OneToMany(mappedBy = "book", fetch = FetchType.LAZY)
     private List<BookAuthor> authors;
 
@@ -0,0 +1,31 @@
+package com.aaron212.onlinelibrarymanagement.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read model holding the number of times each book has been borrowed. Rows are upserted by
+ * {@code BorrowService.borrowBook} in the same transaction as the borrow record, so top-N statistics
+ * can be answered from this table alone instead of aggregating the whole {@code borrow} table.
+ */
+@Entity
+@Table(
+        name = "book_borrow_counter",
+        indexes = {@Index(name = "idx_book_borrow_counter_count", columnList = "borrow_count")})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBorrowCounter {
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "borrow_count", nullable = false)
+    private long borrowCount;
+
+    @Column(nullable = false)
+    private LocalDateTime updateTime;
+}
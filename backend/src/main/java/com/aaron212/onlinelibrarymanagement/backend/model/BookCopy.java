@@ -9,11 +9,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
-@Table(name = "book_copy")
+@Table(
+        name = "book_copy",
+        uniqueConstraints = {@UniqueConstraint(name = "uk_book_copy_barcode", columnNames = "barcode")})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -52,13 +55,20 @@ public class BookCopy {
     @Column(nullable = false)
     private LocalDateTime updateTime;
 
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
     @Getter
     public enum Status {
         AVAILABLE(1),
         BORROWED(2),
         MAINTENANCE(3),
         SCRAPPED(4),
-        DISCARDED(4);
+        DISCARDED(4),
+        /** Returned and kept on the hold shelf for the reservation at the head of the queue */
+        ON_HOLD(5);
 
         private final int value;
 
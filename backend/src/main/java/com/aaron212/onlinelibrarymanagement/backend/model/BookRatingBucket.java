@@ -0,0 +1,40 @@
+package com.aaron212.onlinelibrarymanagement.backend.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One bar of the rating histogram of a book. Ratings are grouped in steps of 0.5, bucket {@code n}
+ * holding the published ratings in {@code [n / 2, (n + 1) / 2)}, so bucket 10 is exactly 5.0.
+ */
+@Entity
+@Table(name = "book_rating_bucket")
+@IdClass(BookRatingBucket.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookRatingBucket {
+    public static final int BUCKETS = 11;
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Id
+    @Column(nullable = false)
+    private int bucket;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long bookId;
+        private int bucket;
+    }
+}
@@ -0,0 +1,38 @@
+package com.aaron212.onlinelibrarymanagement.backend.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read model holding the published comments and ratings of each book. Adjusted by
+ * {@code CommentService} in the same transaction as the comment change, so the average rating is
+ * read from one row instead of aggregating the {@code comment} table.
+ */
+@Entity
+@Table(name = "book_rating_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookRatingSummary {
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    /** Published comments, with or without a rating */
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount;
+
+    /** Published comments that carry a rating */
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Column(name = "rating_sum", nullable = false, precision = 12, scale = 1)
+    private BigDecimal ratingSum;
+
+    @Column(nullable = false)
+    private LocalDateTime updateTime;
+}
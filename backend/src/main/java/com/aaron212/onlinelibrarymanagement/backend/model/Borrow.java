@@ -12,7 +12,13 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
-@Table(name = "borrow")
+@Table(
+        name = "borrow",
+        indexes = {
+            // Keyset pagination of a user's history and of the admin listing, newest first
+            @Index(name = "idx_borrow_user_time_id", columnList = "user_id, borrow_time, id"),
+            @Index(name = "idx_borrow_time_id", columnList = "borrow_time, id")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -60,6 +66,14 @@ public class Borrow {
         return copy != null ? copy.getId() : null;
     }
 
+    /**
+     * Whether the copy is still checked out. The overdue sweep moves such borrows to OVERDUE before
+     * they are returned, so both statuses count as active.
+     */
+    public boolean isActive() {
+        return actualReturnTime == null && (status == Status.BORROWED || status == Status.OVERDUE);
+    }
+
     @Getter
     public enum Status {
         BORROWED(1, "借阅中"),
@@ -0,0 +1,58 @@
+package com.aaron212.onlinelibrarymanagement.backend.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Daily borrow activity per category. Borrows count on the day they were made, returns, late
+ * returns and the fines charged on them on the day of the return. Rows are upserted by
+ * {@code BorrowService} in the borrowing and returning transactions and can be recomputed from
+ * {@code borrow} for any range of days, so trends never aggregate the borrow table.
+ */
+@Entity
+@Table(name = "borrow_stats_daily")
+@IdClass(BorrowStatsDaily.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowStatsDaily {
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+
+    /** Category of the borrowed book; not a foreign key, the history outlives category changes */
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "borrow_count", nullable = false)
+    private long borrowCount;
+
+    @Column(name = "return_count", nullable = false)
+    private long returnCount;
+
+    /** Returns after the due date */
+    @Column(name = "overdue_count", nullable = false)
+    private long overdueCount;
+
+    /** Fines charged on the returns of the day */
+    @Column(name = "fine_total", nullable = false, precision = 12, scale = 2)
+    private BigDecimal fineTotal;
+
+    @Column(nullable = false)
+    private LocalDateTime updateTime;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate statDate;
+        private Long categoryId;
+    }
+}
@@ -0,0 +1,31 @@
+package com.aaron212.onlinelibrarymanagement.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * HyperLogLog sketch of the users who borrowed on one day. Unique borrower counts for any range of
+ * days are estimated by merging the sketches of the range instead of scanning {@code borrow}.
+ * Written by {@code ActiveBorrowerService}, which merges new borrowers into the stored registers.
+ */
+@Entity
+@Table(name = "borrower_daily_sketch")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowerDailySketch {
+    @Id
+    @Column(name = "sketch_date")
+    private LocalDate sketchDate;
+
+    /** Serialized registers, sparse while the day has few borrowers; at most 4097 bytes */
+    @Column(nullable = false, length = 4097)
+    private byte[] registers;
+
+    @Column(nullable = false)
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,43 @@
+package com.aaron212.onlinelibrarymanagement.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A notification in the user's in-app inbox, written by the in-app delivery channel
+ */
+@Entity
+@Table(
+        name = "in_app_notification",
+        indexes = {@Index(name = "idx_in_app_notification_user", columnList = "user_id, id")})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InAppNotification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false, columnDefinition = "TINYINT")
+    private NotificationOutbox.Type type;
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(nullable = false)
+    private LocalDateTime createTime;
+
+    @Column
+    private LocalDateTime readTime;
+}
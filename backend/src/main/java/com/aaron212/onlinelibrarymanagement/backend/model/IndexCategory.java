@@ -6,10 +6,19 @@ import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
-@Table(name = "index_category")
+@Table(
+        name = "index_category",
+        indexes = {@Index(name = "idx_index_category_path", columnList = "path")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,6 +27,7 @@ public class IndexCategory {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(unique = true, nullable = false, length = 20)
     @NotBlank(message = "Index code is required")
     private String indexCode;
@@ -29,6 +39,10 @@ public class IndexCategory {
     @JoinColumn(name = "parent_id")
     private IndexCategory parent;
 
+    // Materialized path of index codes from the root, e.g. /root/X/X1/X12/; a subtree is a prefix range
+    @Column(length = 500)
+    private String path;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createTime;
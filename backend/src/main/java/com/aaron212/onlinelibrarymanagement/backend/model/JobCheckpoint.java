@@ -0,0 +1,41 @@
+package com.aaron212.onlinelibrarymanagement.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a chunked background job. Each chunk advances {@code lastId} in the same transaction
+ * as its own updates, so a run interrupted by a crash resumes after the last committed chunk.
+ */
+@Entity
+@Table(name = "job_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCheckpoint {
+    @Id
+    @Column(length = 100)
+    private String jobName;
+
+    @Column(nullable = false)
+    private long lastId;
+
+    // Reference time of the run, kept so a resumed run evaluates rows the same way
+    @Column(nullable = false)
+    private LocalDateTime runStartTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(nullable = false)
+    private LocalDateTime updateTime;
+
+    public enum Status {
+        RUNNING,
+        COMPLETED
+    }
+}
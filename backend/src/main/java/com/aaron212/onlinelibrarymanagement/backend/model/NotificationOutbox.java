@@ -0,0 +1,100 @@
+package com.aaron212.onlinelibrarymanagement.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Transactional outbox of user notifications. Rows are inserted by {@code NotificationService} in
+ * the same transaction as the borrow, return or reservation change they announce, one row per
+ * delivery channel, and delivered later by {@code NotificationDispatcher}. {@code userId} is a plain
+ * column so the outbox never blocks deleting a user.
+ */
+@Entity
+@Table(
+        name = "notification_outbox",
+        indexes = {
+            @Index(name = "idx_notification_outbox_due", columnList = "status, next_attempt_time"),
+            @Index(name = "idx_notification_outbox_claim", columnList = "claim_token")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 20)
+    private String channel;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false, columnDefinition = "TINYINT")
+    private Type type;
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false, columnDefinition = "TINYINT")
+    private Status status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    /** Not before this time; pushed back by the digest window, retries and the delivery lease */
+    @Column(name = "next_attempt_time", nullable = false)
+    private LocalDateTime nextAttemptTime;
+
+    /** Marks the rows taken by one dispatcher batch */
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createTime;
+
+    @Column
+    private LocalDateTime sentTime;
+
+    @Getter
+    public enum Type {
+        BORROWED(1),
+        RETURNED(2),
+        HOLD_READY(3),
+        HOLD_EXPIRED(4),
+        DUE_SOON(5),
+        OVERDUE(6);
+
+        private final int value;
+
+        Type(int value) {
+            this.value = value;
+        }
+    }
+
+    @Getter
+    public enum Status {
+        PENDING(1),
+        SENDING(2),
+        SENT(3),
+        FAILED(4);
+
+        private final int value;
+
+        Status(int value) {
+            this.value = value;
+        }
+    }
+}
@@ -11,7 +11,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
-@Table(name = "reservation")
+@Table(
+        name = "reservation",
+        indexes = {@Index(name = "idx_reservation_book_status", columnList = "book_id, status, reservation_time")})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,6 +42,15 @@ public class Reservation {
     @Column
     private LocalDateTime noticeTime;
 
+    /** The copy kept on the hold shelf while the reservation is READY */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "copy_id")
+    private BookCopy copy;
+
+    /** Deadline to collect the held copy; the hold expires afterwards */
+    @Column
+    private LocalDateTime holdExpireTime;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createTime;
@@ -52,7 +63,11 @@ public class Reservation {
     public enum Status {
         WAITING(1),
         CANCELLED(2),
-        EXPIRED(3);
+        EXPIRED(3),
+        /** A copy is on the hold shelf for this reservation */
+        READY(4),
+        /** The held copy was borrowed */
+        FULFILLED(5);
 
         private final int value;
 
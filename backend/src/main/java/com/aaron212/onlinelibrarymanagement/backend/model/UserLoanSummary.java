@@ -0,0 +1,44 @@
+package com.aaron212.onlinelibrarymanagement.backend.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read model of what a reader currently has out and owes. Kept in step by the borrow, return, fee,
+ * overdue sweep and reservation paths inside their own transactions, so borrow, reserve and fee
+ * checks are a primary key read instead of loading the reader's borrows. A missing row is created
+ * from {@code borrow} and {@code reservation} on first use.
+ */
+@Entity
+@Table(name = "user_loan_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserLoanSummary {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /** Borrows not returned yet, overdue or not */
+    @Column(name = "active_loans", nullable = false)
+    private int activeLoans;
+
+    /** Borrows in OVERDUE status, including late returns */
+    @Column(name = "overdue_loans", nullable = false)
+    private int overdueLoans;
+
+    /** Fines of returned late or lost borrows */
+    @Column(name = "unpaid_fines", nullable = false, precision = 12, scale = 2)
+    private BigDecimal unpaidFines;
+
+    /** Reservations waiting in a queue or holding a copy */
+    @Column(name = "active_reservations", nullable = false)
+    private int activeReservations;
+
+    @Column(nullable = false)
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,62 @@
+package com.aaron212.onlinelibrarymanagement.backend.notification;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends notifications by email through the {@code spring.mail.*} SMTP server; several messages for
+ * one user go out as a single digest mail. Users without an email address are skipped.
+ */
+@Component
+@ConditionalOnProperty(name = "library.notifications.email.enabled", havingValue = "true")
+public class EmailNotificationChannel implements NotificationChannel {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final JavaMailSender mailSender;
+    private final String from;
+
+    public EmailNotificationChannel(
+            JavaMailSender mailSender, @Value("${library.notifications.email.from}") String from) {
+        this.mailSender = mailSender;
+        this.from = from;
+    }
+
+    @Override
+    public String name() {
+        return "email";
+    }
+
+    @Override
+    public void deliver(NotificationRecipient recipient, List<NotificationMessage> messages) {
+        if (recipient.email() == null || recipient.email().isBlank()) {
+            return;
+        }
+        SimpleMailMessage mail = new SimpleMailMessage();
+        mail.setFrom(from);
+        mail.setTo(recipient.email());
+        if (messages.size() == 1) {
+            mail.setSubject(messages.getFirst().title());
+            mail.setText(messages.getFirst().content());
+        } else {
+            mail.setSubject("您有 " + messages.size() + " 条图书馆通知");
+            StringBuilder text = new StringBuilder();
+            for (NotificationMessage message : messages) {
+                text.append("【")
+                        .append(message.title())
+                        .append("】")
+                        .append(message.createTime().format(TIME_FORMAT))
+                        .append('\n')
+                        .append(message.content())
+                        .append("\n\n");
+            }
+            mail.setText(text.toString().stripTrailing());
+        }
+        mailSender.send(mail);
+    }
+}
@@ -0,0 +1,40 @@
+package com.aaron212.onlinelibrarymanagement.backend.notification;
+
+import java.sql.Timestamp;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts every message into the user's in-app inbox; digests are not needed there
+ */
+@Component
+@ConditionalOnProperty(name = "library.notifications.in-app.enabled", matchIfMissing = true)
+public class InAppNotificationChannel implements NotificationChannel {
+
+    private static final String INSERT =
+            "INSERT INTO in_app_notification (user_id, type, title, content, create_time) " + "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InAppNotificationChannel(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "in-app";
+    }
+
+    @Override
+    public void deliver(NotificationRecipient recipient, List<NotificationMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT, messages, messages.size(), (ps, message) -> {
+            ps.setLong(1, recipient.userId());
+            ps.setInt(2, message.type().ordinal());
+            ps.setString(3, message.title());
+            ps.setString(4, message.content());
+            ps.setTimestamp(5, Timestamp.valueOf(message.createTime()));
+        });
+    }
+}
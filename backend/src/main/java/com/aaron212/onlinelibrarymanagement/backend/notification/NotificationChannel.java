@@ -0,0 +1,21 @@
+package com.aaron212.onlinelibrarymanagement.backend.notification;
+
+import java.util.List;
+
+/**
+ * A way of delivering notifications. Every enabled channel bean gets its own outbox row per
+ * notification, so a failing channel is retried without repeating the others.
+ */
+public interface NotificationChannel {
+
+    /**
+     * Name stored in {@code notification_outbox.channel}; must stay stable while rows are pending
+     */
+    String name();
+
+    /**
+     * Deliver messages to one user. Several messages due at the same time arrive together and should
+     * be sent as one digest. Throwing marks all of them for a retry.
+     */
+    void deliver(NotificationRecipient recipient, List<NotificationMessage> messages) throws Exception;
+}
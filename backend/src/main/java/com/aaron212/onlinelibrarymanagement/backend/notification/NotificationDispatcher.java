@@ -0,0 +1,288 @@
+package com.aaron212.onlinelibrarymanagement.backend.notification;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.NotificationOutbox;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains the notification outbox. A batch of due rows is claimed with a conditional update, grouped
+ * per user and channel into digests, and delivered on virtual threads. Failed rows are retried with
+ * exponential backoff until {@code library.notifications.retry.max-attempts}. A claim is a lease: rows
+ * of a dispatcher that died mid-batch become due again when it runs out. Results are only written
+ * while the batch still holds the claim, so a delivery that outlived its lease cannot overwrite the
+ * rows of the dispatcher that took them over.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String SELECT_DUE = "SELECT id FROM notification_outbox "
+            + "WHERE status IN (?, ?) AND next_attempt_time <= ? ORDER BY next_attempt_time, id LIMIT ?";
+
+    private static final String CLAIM = "UPDATE notification_outbox SET status = :sending, claim_token = :token, "
+            + "next_attempt_time = :leaseEnd WHERE id IN (:ids) AND status IN (:pending, :sending) "
+            + "AND next_attempt_time <= :now";
+
+    private static final String SELECT_CLAIMED =
+            "SELECT o.id, o.user_id, o.channel, o.type, o.title, o.content, o.attempts, o.create_time, "
+                    + "u.username, u.email FROM notification_outbox o LEFT JOIN users u ON u.id = o.user_id "
+                    + "WHERE o.claim_token = ? ORDER BY o.id";
+
+    private static final String MARK_SENT =
+            "UPDATE notification_outbox SET status = ?, sent_time = ?, claim_token = NULL WHERE id = ? AND claim_token = ?";
+
+    private static final String MARK_FAILED = "UPDATE notification_outbox SET status = ?, attempts = ?, "
+            + "next_attempt_time = ?, last_error = ?, claim_token = NULL WHERE id = ? "
+            + "AND claim_token = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final Map<String, NotificationChannel> channels;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore deliveries;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    public NotificationDispatcher(
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            ObjectProvider<NotificationChannel> channels,
+            @Value("${library.notifications.batch-size:200}") int batchSize,
+            @Value("${library.notifications.max-concurrency:16}") int maxConcurrency,
+            @Value("${library.notifications.retry.max-attempts:8}") int maxAttempts,
+            @Value("${library.notifications.retry.initial-backoff:PT30S}") Duration initialBackoff,
+            @Value("${library.notifications.retry.max-backoff:PT6H}") Duration maxBackoff,
+            @Value("${library.notifications.lease:PT5M}") Duration lease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.channels = channels.orderedStream()
+                .collect(Collectors.toMap(NotificationChannel::name, Function.identity(), (a, b) -> a));
+        this.deliveries = new Semaphore(maxConcurrency);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+    }
+
+    /**
+     * Deliver batches until no row is due
+     * @return number of rows sent
+     */
+    public int drain() {
+        int sent = 0;
+        while (true) {
+            BatchResult batch = dispatchBatch();
+            sent += batch.sent();
+            if (batch.claimed() < batchSize) {
+                return sent;
+            }
+        }
+    }
+
+    /**
+     * Claim and deliver one batch of due rows
+     */
+    public BatchResult dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = jdbcTemplate.queryForList(
+                SELECT_DUE,
+                Long.class,
+                NotificationOutbox.Status.PENDING.ordinal(),
+                NotificationOutbox.Status.SENDING.ordinal(),
+                Timestamp.valueOf(now),
+                batchSize);
+        if (due.isEmpty()) {
+            return new BatchResult(0, 0, 0);
+        }
+
+        String token = UUID.randomUUID().toString();
+        namedParameterJdbcTemplate.update(
+                CLAIM,
+                new MapSqlParameterSource()
+                        .addValue("sending", NotificationOutbox.Status.SENDING.ordinal())
+                        .addValue("pending", NotificationOutbox.Status.PENDING.ordinal())
+                        .addValue("token", token)
+                        .addValue("leaseEnd", Timestamp.valueOf(now.plus(lease)))
+                        .addValue("ids", due)
+                        .addValue("now", Timestamp.valueOf(now)));
+        List<ClaimedRow> claimed = jdbcTemplate.query(
+                SELECT_CLAIMED,
+                (rs, rowNum) -> new ClaimedRow(
+                        new NotificationRecipient(
+                                rs.getLong("user_id"), rs.getString("username"), rs.getString("email")),
+                        rs.getString("channel"),
+                        rs.getInt("attempts"),
+                        new NotificationMessage(
+                                rs.getLong("id"),
+                                NotificationOutbox.Type.values()[rs.getInt("type")],
+                                rs.getString("title"),
+                                rs.getString("content"),
+                                rs.getTimestamp("create_time").toLocalDateTime())),
+                token);
+
+        // One digest per user and channel
+        Map<DigestKey, List<ClaimedRow>> digests = new LinkedHashMap<>();
+        for (ClaimedRow row : claimed) {
+            digests.computeIfAbsent(new DigestKey(row.recipient().userId(), row.channel()), key -> new ArrayList<>())
+                    .add(row);
+        }
+        List<Future<?>> futures = new ArrayList<>(digests.size());
+        List<List<ClaimedRow>> groups = new ArrayList<>(digests.values());
+        for (List<ClaimedRow> group : groups) {
+            futures.add(executor.submit(() -> deliver(group)));
+        }
+
+        // Wait no longer than the lease; after that the rows may already belong to another dispatcher
+        long deadline = System.nanoTime() + lease.toNanos();
+        List<ClaimedRow> sent = new ArrayList<>();
+        List<FailedRow> failed = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            List<ClaimedRow> group = groups.get(i);
+            try {
+                futures.get(i).get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                sent.addAll(group);
+            } catch (TimeoutException e) {
+                futures.get(i).cancel(true);
+                logger.warn(
+                        "Delivering {} notifications to user {} via {} did not finish within {}",
+                        group.size(),
+                        group.getFirst().recipient().userId(),
+                        group.getFirst().channel(),
+                        lease);
+                group.forEach(row -> failed.add(new FailedRow(row, "Delivery timed out after " + lease)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Leave the rest claimed; they become due again when the lease runs out
+                break;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                logger.warn(
+                        "Delivering {} notifications to user {} via {} failed: {}",
+                        group.size(),
+                        group.getFirst().recipient().userId(),
+                        group.getFirst().channel(),
+                        cause.toString());
+                group.forEach(row -> failed.add(new FailedRow(row, cause.toString())));
+            }
+        }
+        int marked = recordSent(token, sent);
+        int gaveUp = recordFailed(token, failed);
+        return new BatchResult(claimed.size(), marked, gaveUp);
+    }
+
+    private Void deliver(List<ClaimedRow> group) throws Exception {
+        ClaimedRow first = group.getFirst();
+        NotificationChannel channel = channels.get(first.channel());
+        if (channel == null) {
+            throw new IllegalStateException("Notification channel '" + first.channel() + "' is not enabled");
+        }
+        if (first.recipient().username() == null) {
+            throw new IllegalStateException("User " + first.recipient().userId() + " no longer exists");
+        }
+        deliveries.acquire();
+        try {
+            channel.deliver(
+                    first.recipient(), group.stream().map(ClaimedRow::message).toList());
+            return null;
+        } finally {
+            deliveries.release();
+        }
+    }
+
+    /* Rows re-claimed by another dispatcher match no longer and are left to it */
+    private int recordSent(String token, List<ClaimedRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(MARK_SENT, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, NotificationOutbox.Status.SENT.ordinal());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, row.message().id());
+            ps.setString(4, token);
+        });
+        int marked = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                marked += count != 0 ? 1 : 0;
+            }
+        }
+        return marked;
+    }
+
+    private int recordFailed(String token, List<FailedRow> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Boolean> givingUp = new ArrayList<>(rows.size());
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        for (FailedRow failed : rows) {
+            int attempts = failed.row().attempts() + 1;
+            boolean giveUp = attempts >= maxAttempts;
+            givingUp.add(giveUp);
+            updates.add(new Object[] {
+                giveUp ? NotificationOutbox.Status.FAILED.ordinal() : NotificationOutbox.Status.PENDING.ordinal(),
+                attempts,
+                Timestamp.valueOf(now.plus(backoff(attempts))),
+                failed.error().length() > 500 ? failed.error().substring(0, 500) : failed.error(),
+                failed.row().message().id(),
+                token
+            });
+        }
+        int[] counts = jdbcTemplate.batchUpdate(MARK_FAILED, updates);
+        int gaveUp = 0;
+        for (int i = 0; i < counts.length; i++) {
+            gaveUp += counts[i] != 0 && givingUp.get(i) ? 1 : 0;
+        }
+        return gaveUp;
+    }
+
+    /* initial, 2 × initial, 4 × initial ... capped at the maximum */
+    Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param claimed rows taken by the batch
+     * @param sent rows delivered
+     * @param failed rows that reached the attempt limit and will not be retried
+     */
+    public record BatchResult(int claimed, int sent, int failed) {}
+
+    private record DigestKey(Long userId, String channel) {}
+
+    private record ClaimedRow(
+            NotificationRecipient recipient, String channel, int attempts, NotificationMessage message) {}
+
+    private record FailedRow(ClaimedRow row, String error) {}
+}
@@ -0,0 +1,8 @@
+package com.aaron212.onlinelibrarymanagement.backend.notification;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.NotificationOutbox;
+import java.time.LocalDateTime;
+
+/** One outbox entry as handed to a channel */
+public record NotificationMessage(
+        Long id, NotificationOutbox.Type type, String title, String content, LocalDateTime createTime) {}
@@ -0,0 +1,4 @@
+package com.aaron212.onlinelibrarymanagement.backend.notification;
+
+/** The user a batch of messages is delivered to */
+public record NotificationRecipient(Long userId, String username, String email) {}
@@ -0,0 +1,6 @@
+package com.aaron212.onlinelibrarymanagement.backend.notification;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.NotificationOutbox;
+
+/** A notification to write to the outbox */
+public record NotificationRequest(Long userId, NotificationOutbox.Type type, String title, String content) {}
@@ -0,0 +1,49 @@
+package com.aaron212.onlinelibrarymanagement.backend.notification;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * POSTs each user's messages as one JSON document to {@code library.notifications.webhook.url},
+ * e.g. a chat bot or SMS gateway. Any non-2xx response counts as a failed delivery.
+ */
+@Component
+@ConditionalOnProperty(name = "library.notifications.webhook.url")
+public class WebhookNotificationChannel implements NotificationChannel {
+
+    private final RestClient restClient;
+
+    public WebhookNotificationChannel(
+            @Value("${library.notifications.webhook.url}") String url,
+            @Value("${library.notifications.webhook.timeout:PT10S}") Duration timeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(timeout).build());
+        requestFactory.setReadTimeout(timeout);
+        this.restClient =
+                RestClient.builder().baseUrl(url).requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(NotificationRecipient recipient, List<NotificationMessage> messages) {
+        restClient
+                .post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new Payload(recipient.userId(), recipient.username(), messages))
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private record Payload(Long userId, String username, List<NotificationMessage> messages) {}
+}
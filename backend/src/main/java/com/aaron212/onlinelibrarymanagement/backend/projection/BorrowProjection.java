@@ -17,6 +17,8 @@ public interface BorrowProjection {
 
     String getIsbn();
 
+    String getCoverURL();
+
     LocalDateTime getBorrowTime();
 
     LocalDateTime getReturnTime();
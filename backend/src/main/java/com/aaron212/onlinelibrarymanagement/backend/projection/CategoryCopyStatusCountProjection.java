@@ -0,0 +1,19 @@
+package com.aaron212.onlinelibrarymanagement.backend.projection;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+
+/**
+ * One row of the inventory roll-up: the number of copies in a category with a given status. Categories
+ * without copies appear once with a {@code null} status and a zero count.
+ */
+public interface CategoryCopyStatusCountProjection {
+    Long getCategoryId();
+
+    String getIndexCode();
+
+    Long getParentId();
+
+    BookCopy.Status getStatus();
+
+    Long getCopyCount();
+}
@@ -0,0 +1,14 @@
+package com.aaron212.onlinelibrarymanagement.backend.projection;
+
+/** A book whose stored copy counts differ from its actual book_copy rows */
+public interface CopyCountDriftProjection {
+    Long getBookId();
+
+    Integer getStoredAvailable();
+
+    Integer getStoredTotal();
+
+    Long getActualAvailable();
+
+    Long getActualTotal();
+}
@@ -0,0 +1,10 @@
+package com.aaron212.onlinelibrarymanagement.backend.projection;
+
+/** Published ratings of a book in one histogram bucket, as counted from the comment table */
+public interface RatingBucketProjection {
+    Long getBookId();
+
+    Number getBucket();
+
+    Long getRatingCount();
+}
@@ -0,0 +1,14 @@
+package com.aaron212.onlinelibrarymanagement.backend.projection;
+
+import java.math.BigDecimal;
+
+/** Published comments of a book as counted from the comment table */
+public interface RatingSummaryProjection {
+    Long getBookId();
+
+    Long getCommentCount();
+
+    Long getRatingCount();
+
+    BigDecimal getRatingSum();
+}
@@ -0,0 +1,12 @@
+package com.aaron212.onlinelibrarymanagement.backend.projection;
+
+import java.time.LocalDateTime;
+
+/** The fields of a reservation the in-memory queue needs */
+public interface ReservationQueueProjection {
+    Long getId();
+
+    Long getBookId();
+
+    LocalDateTime getHoldExpireTime();
+}
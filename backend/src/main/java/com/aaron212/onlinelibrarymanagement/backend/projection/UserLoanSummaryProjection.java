@@ -0,0 +1,16 @@
+package com.aaron212.onlinelibrarymanagement.backend.projection;
+
+import java.math.BigDecimal;
+
+/** Current counts of one reader, read straight from user_loan_summary */
+public interface UserLoanSummaryProjection {
+    Long getUserId();
+
+    int getActiveLoans();
+
+    int getOverdueLoans();
+
+    BigDecimal getUnpaidFines();
+
+    int getActiveReservations();
+}
@@ -2,12 +2,14 @@ package com.aaron212.onlinelibrarymanagement.backend.repository;
 
 import com.aaron212.onlinelibrarymanagement.backend.model.Author;
 import java.util.Optional;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface AuthorRepository extends JpaRepository<Author, Long> {
-    Optional<Author> findByName(String name);
+public interface AuthorRepository extends NaturalIdRepository<Author, Long> {
+    /** Served from the natural-id and entity caches once the key was seen */
+    default Optional<Author> findByName(String name) {
+        return findBySimpleNaturalId(name);
+    }
 
     boolean existsByName(String name);
 }
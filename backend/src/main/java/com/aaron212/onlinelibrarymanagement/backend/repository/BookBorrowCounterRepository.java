@@ -0,0 +1,36 @@
+package com.aaron212.onlinelibrarymanagement.backend.repository;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.BookBorrowCounter;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface BookBorrowCounterRepository extends JpaRepository<BookBorrowCounter, Long> {
+
+    /* Atomically adds one borrow to the counter of a book, creating the row on first use */
+    @Modifying
+    @Query(
+            value = "INSERT INTO book_borrow_counter (book_id, borrow_count, update_time) VALUES (:bookId, 1, NOW()) "
+                    + "ON DUPLICATE KEY UPDATE borrow_count = borrow_count + 1, update_time = NOW()",
+            nativeQuery = true)
+    int incrementBorrowCount(@Param("bookId") Long bookId);
+
+    @Query("SELECT c FROM BookBorrowCounter c ORDER BY c.borrowCount DESC, c.bookId ASC")
+    List<BookBorrowCounter> findTopCounters(Pageable pageable);
+
+    @Modifying
+    @Query(value = "DELETE FROM book_borrow_counter", nativeQuery = true)
+    int deleteAllCounters();
+
+    /* Rebuilds every counter from the borrow history; the aggregation runs entirely inside the database */
+    @Modifying
+    @Query(
+            value = "INSERT INTO book_borrow_counter (book_id, borrow_count, update_time) "
+                    + "SELECT bc.book_id, COUNT(*), NOW() FROM borrow b JOIN book_copy bc ON bc.id = b.copy_id "
+                    + "GROUP BY bc.book_id",
+            nativeQuery = true)
+    int insertCountersFromBorrowHistory();
+}
@@ -2,9 +2,15 @@ package com.aaron212.onlinelibrarymanagement.backend.repository;
 
 import com.aaron212.onlinelibrarymanagement.backend.model.Book;
 import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
     List<BookCopy> findByBook(Book book);
@@ -19,9 +25,28 @@ public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
     /* Find by barcode - useful for uniqueness checks */
     Optional<BookCopy> findByBarcode(String barcode);
 
+    /* Copies scanned at the desk with their books, one index lookup per barcode in a single query */
+    @Query("SELECT c FROM BookCopy c JOIN FETCH c.book WHERE c.barcode IN :barcodes")
+    List<BookCopy> findWithBookByBarcodeIn(@Param("barcodes") Collection<String> barcodes);
+
     /* Find copies by status */
     List<BookCopy> findByStatus(BookCopy.Status status);
 
     /* Find first available copy for a book */
     Optional<BookCopy> findFirstByBookAndStatus(Book book, BookCopy.Status status);
+
+    /* Ids of the copies of a book in the given status, used as allocation candidates */
+    @Query("SELECT c.id FROM BookCopy c WHERE c.book.id = :bookId AND c.status = :status ORDER BY c.id")
+    List<Long> findIdsByBookIdAndStatus(
+            @Param("bookId") Long bookId, @Param("status") BookCopy.Status status, Limit limit);
+
+    /* Change the status only if it still is the expected one; returns 0 when another transaction won */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BookCopy c SET c.status = :to, c.version = c.version + 1, c.updateTime = :now "
+            + "WHERE c.id = :copyId AND c.status = :from")
+    int compareAndSetStatus(
+            @Param("copyId") Long copyId,
+            @Param("from") BookCopy.Status from,
+            @Param("to") BookCopy.Status to,
+            @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,48 @@
+package com.aaron212.onlinelibrarymanagement.backend.repository;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.BookRatingBucket;
+import com.aaron212.onlinelibrarymanagement.backend.model.Comment;
+import com.aaron212.onlinelibrarymanagement.backend.projection.RatingBucketProjection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface BookRatingBucketRepository extends JpaRepository<BookRatingBucket, BookRatingBucket.Key> {
+
+    /* Atomically adds the delta to one histogram bucket, creating the row on first use */
+    @Modifying
+    @Query(
+            value = "INSERT INTO book_rating_bucket (book_id, bucket, rating_count) VALUES (:bookId, :bucket, :delta) "
+                    + "ON DUPLICATE KEY UPDATE rating_count = rating_count + :delta",
+            nativeQuery = true)
+    int adjust(@Param("bookId") Long bookId, @Param("bucket") int bucket, @Param("delta") int delta);
+
+    @Query("SELECT b.bookId AS bookId, b.bucket AS bucket, b.ratingCount AS ratingCount FROM BookRatingBucket b "
+            + "WHERE b.bookId = :bookId AND b.ratingCount <> 0")
+    List<RatingBucketProjection> findBuckets(@Param("bookId") Long bookId);
+
+    @Query("SELECT b.bookId AS bookId, b.bucket AS bucket, b.ratingCount AS ratingCount FROM BookRatingBucket b "
+            + "WHERE b.ratingCount <> 0")
+    List<RatingBucketProjection> findAllBuckets();
+
+    /* The buckets as they should be, counted from the comment table */
+    @Query("SELECT c.book.id AS bookId, FLOOR(c.rating * 2) AS bucket, COUNT(c) AS ratingCount FROM Comment c "
+            + "WHERE c.status = :status AND c.rating IS NOT NULL GROUP BY c.book.id, FLOOR(c.rating * 2)")
+    List<RatingBucketProjection> countFromComments(@Param("status") Comment.Status status);
+
+    @Modifying
+    @Query(value = "DELETE FROM book_rating_bucket WHERE book_id = :bookId", nativeQuery = true)
+    int deleteByBook(@Param("bookId") Long bookId);
+
+    /* Recounts the histogram of one book from its published ratings */
+    @Modifying
+    @Query(
+            value = "INSERT INTO book_rating_bucket (book_id, bucket, rating_count) "
+                    + "SELECT book_id, FLOOR(rating * 2), COUNT(*) FROM comment "
+                    + "WHERE book_id = :bookId AND status = :status AND rating IS NOT NULL "
+                    + "GROUP BY book_id, FLOOR(rating * 2)",
+            nativeQuery = true)
+    int insertFromComments(@Param("bookId") Long bookId, @Param("status") int status);
+}
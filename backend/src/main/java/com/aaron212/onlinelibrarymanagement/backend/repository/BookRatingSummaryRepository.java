@@ -0,0 +1,57 @@
+package com.aaron212.onlinelibrarymanagement.backend.repository;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.BookRatingSummary;
+import com.aaron212.onlinelibrarymanagement.backend.model.Comment;
+import com.aaron212.onlinelibrarymanagement.backend.projection.RatingSummaryProjection;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface BookRatingSummaryRepository extends JpaRepository<BookRatingSummary, Long> {
+
+    /* Atomically adds the deltas to the summary of a book, creating the row on first use */
+    @Modifying
+    @Query(
+            value = "INSERT INTO book_rating_summary (book_id, comment_count, rating_count, rating_sum, update_time) "
+                    + "VALUES (:bookId, :commentDelta, :ratingDelta, :sumDelta, NOW()) "
+                    + "ON DUPLICATE KEY UPDATE comment_count = comment_count + :commentDelta, "
+                    + "rating_count = rating_count + :ratingDelta, rating_sum = rating_sum + :sumDelta, "
+                    + "update_time = NOW()",
+            nativeQuery = true)
+    int adjust(
+            @Param("bookId") Long bookId,
+            @Param("commentDelta") int commentDelta,
+            @Param("ratingDelta") int ratingDelta,
+            @Param("sumDelta") BigDecimal sumDelta);
+
+    /* Read as a projection: the adjust statements bypass the persistence context, so entities could be stale */
+    @Query("SELECT s.bookId AS bookId, s.commentCount AS commentCount, s.ratingCount AS ratingCount, "
+            + "s.ratingSum AS ratingSum FROM BookRatingSummary s WHERE s.bookId = :bookId")
+    Optional<RatingSummaryProjection> findSummary(@Param("bookId") Long bookId);
+
+    @Query("SELECT s.bookId AS bookId, s.commentCount AS commentCount, s.ratingCount AS ratingCount, "
+            + "s.ratingSum AS ratingSum FROM BookRatingSummary s")
+    List<RatingSummaryProjection> findAllSummaries();
+
+    /* The summaries as they should be, counted from the comment table */
+    @Query("SELECT c.book.id AS bookId, COUNT(c) AS commentCount, COUNT(c.rating) AS ratingCount, "
+            + "COALESCE(SUM(c.rating), 0) AS ratingSum FROM Comment c WHERE c.status = :status GROUP BY c.book.id")
+    List<RatingSummaryProjection> countFromComments(@Param("status") Comment.Status status);
+
+    @Modifying
+    @Query(value = "DELETE FROM book_rating_summary WHERE book_id = :bookId", nativeQuery = true)
+    int deleteByBook(@Param("bookId") Long bookId);
+
+    /* Recounts the summary of one book; inserts nothing when it has no published comment */
+    @Modifying
+    @Query(
+            value = "INSERT INTO book_rating_summary (book_id, comment_count, rating_count, rating_sum, update_time) "
+                    + "SELECT book_id, COUNT(*), COUNT(rating), COALESCE(SUM(rating), 0), NOW() FROM comment "
+                    + "WHERE book_id = :bookId AND status = :status GROUP BY book_id",
+            nativeQuery = true)
+    int insertFromComments(@Param("bookId") Long bookId, @Param("status") int status);
+}
@@ -2,12 +2,15 @@
 package com.aaron212.onlinelibrarymanagement.backend.repository;
 
 import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
 import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.projection.CopyCountDriftProjection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -24,11 +27,62 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT b FROM Book b WHERE b.indexCategory = :category")
     java.util.List<Book> findByIndexCategory(@Param("category") IndexCategory category);
 
-    @Query("SELECT DISTINCT b FROM Book b " + "LEFT JOIN FETCH b.authors ba " + "LEFT JOIN FETCH ba.author")
-    Page<Book> findAllWithAuthors(Pageable pageable);
+    /* First phase of a book page: ids only, so the limit is applied by the database */
+    @Query(value = "SELECT b.id FROM Book b", countQuery = "SELECT COUNT(b) FROM Book b")
+    Page<Long> findPageIds(Pageable pageable);
+
+    @Query("SELECT DISTINCT b FROM Book b " + "LEFT JOIN FETCH b.authors ba "
+            + "LEFT JOIN FETCH ba.author "
+            + "LEFT JOIN FETCH b.indexCategory "
+            + "WHERE b.id IN :bookIds")
+    List<Book> findBooksWithAuthorsByIds(@Param("bookIds") List<Long> bookIds);
 
     @Query("SELECT DISTINCT b FROM Book b " + "LEFT JOIN FETCH b.publishers bp "
             + "LEFT JOIN FETCH bp.publisher "
             + "WHERE b.id IN :bookIds")
     List<Book> findBooksWithPublishersByIds(@Param("bookIds") List<Long> bookIds);
+
+    /* Books of a category subtree: one range scan over idx_index_category_path */
+    @Query(
+            value = "SELECT b FROM Book b JOIN b.indexCategory c WHERE c.path LIKE :pathPattern ESCAPE '!'",
+            countQuery = "SELECT COUNT(b) FROM Book b JOIN b.indexCategory c WHERE c.path LIKE :pathPattern ESCAPE '!'")
+    Page<Book> findByCategoryPath(@Param("pathPattern") String pathPattern, Pageable pageable);
+
+    /* First phase of a category subtree page, see findPageIds */
+    @Query(
+            value = "SELECT b.id FROM Book b JOIN b.indexCategory c WHERE c.path LIKE :pathPattern ESCAPE '!'",
+            countQuery = "SELECT COUNT(b) FROM Book b JOIN b.indexCategory c WHERE c.path LIKE :pathPattern ESCAPE '!'")
+    Page<Long> findIdsByCategoryPath(@Param("pathPattern") String pathPattern, Pageable pageable);
+
+    /* Keyset scan over book ids, used to process the catalogue in batches */
+    @Query("SELECT b.id FROM Book b WHERE b.id > :lastId ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    /* Apply a relative change to the denormalized copy counts */
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + :availableDelta, "
+            + "b.totalCopies = b.totalCopies + :totalDelta, b.updateTime = LOCAL DATETIME WHERE b.id = :bookId")
+    int adjustCopyCounts(
+            @Param("bookId") Long bookId,
+            @Param("availableDelta") int availableDelta,
+            @Param("totalDelta") int totalDelta);
+
+    /* Books whose denormalized copy counts differ from the book_copy rows */
+    @Query("SELECT b.id AS bookId, b.availableCopies AS storedAvailable, b.totalCopies AS storedTotal, "
+            + "SUM(CASE WHEN c.status = :available THEN 1 ELSE 0 END) AS actualAvailable, "
+            + "COUNT(c.id) AS actualTotal "
+            + "FROM Book b LEFT JOIN BookCopy c ON c.book = b "
+            + "GROUP BY b.id, b.availableCopies, b.totalCopies "
+            + "HAVING b.totalCopies <> COUNT(c.id) "
+            + "OR b.availableCopies <> SUM(CASE WHEN c.status = :available THEN 1 ELSE 0 END)")
+    List<CopyCountDriftProjection> findCopyCountDrift(@Param("available") BookCopy.Status available);
+
+    /* Recount the copies of one book in a single statement */
+    @Modifying
+    @Query("UPDATE Book b SET "
+            + "b.availableCopies = (SELECT COUNT(c.id) FROM BookCopy c WHERE c.book.id = b.id AND c.status = :available), "
+            + "b.totalCopies = (SELECT COUNT(c.id) FROM BookCopy c WHERE c.book.id = b.id), "
+            + "b.updateTime = LOCAL DATETIME "
+            + "WHERE b.id = :bookId")
+    int recountCopies(@Param("bookId") Long bookId, @Param("available") BookCopy.Status available);
 }
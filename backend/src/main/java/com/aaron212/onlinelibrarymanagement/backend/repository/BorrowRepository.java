@@ -3,8 +3,12 @@ package com.aaron212.onlinelibrarymanagement.backend.repository;
 import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
 import com.aaron212.onlinelibrarymanagement.backend.projection.BorrowProjection;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,13 +16,22 @@ import org.springframework.data.repository.query.Param;
 public interface BorrowRepository extends JpaRepository<Borrow, Long> {
     List<Borrow> findByBorrowTimeBetween(LocalDateTime start, LocalDateTime end);
 
+    long countByBorrowTimeBetween(LocalDateTime start, LocalDateTime end);
+
     @Query("SELECT b FROM Borrow b WHERE b.copy.book.id = :bookId")
     List<Borrow> findByBookId(@Param("bookId") Long bookId);
 
-    // 查询用户待缴费用（fine > 0 且未支付）
-    @Query("SELECT b FROM Borrow b WHERE b.user.id = :userId " + "AND b.fine > 0 "
-            + "AND b.actualReturnTime IS NOT NULL "
-            + "AND b.status = 3") // 状态：逾期
+    String STATUS = "com.aaron212.onlinelibrarymanagement.backend.model.Borrow.Status.";
+
+    /* Still checked out: not returned yet, whether or not the overdue sweep has flagged it */
+    String ACTIVE = "b.actualReturnTime IS NULL AND b.status IN (" + STATUS + "BORROWED, " + STATUS + "OVERDUE) ";
+
+    /* Fine still owed: a late return or a lost copy */
+    String UNPAID = "b.fine > 0 AND b.actualReturnTime IS NOT NULL AND b.status IN (" + STATUS + "OVERDUE, " + STATUS
+            + "LOST) ";
+
+    // 查询用户待缴费用（fine > 0 且未支付：逾期罚款或丢失赔偿）
+    @Query("SELECT b FROM Borrow b WHERE b.user.id = :userId AND " + UNPAID)
     List<Borrow> findUnpaidFeesByUser(@Param("userId") Long userId);
 
     // 查询用户的借阅历史
@@ -26,21 +39,73 @@ public interface BorrowRepository extends JpaRepository<Borrow, Long> {
     List<Borrow> findByUserIdOrderByBorrowTimeDesc(@Param("userId") Long userId);
 
     // 查询用户当前借阅
-    @Query("SELECT b FROM Borrow b WHERE b.user.id = :userId AND b.status = 0 ORDER BY b.borrowTime DESC")
+    @Query("SELECT b FROM Borrow b WHERE b.user.id = :userId AND " + ACTIVE + "ORDER BY b.borrowTime DESC")
     List<Borrow> findCurrentBorrowingsByUserId(@Param("userId") Long userId);
 
     // 查询所有逾期借阅
-    @Query("SELECT b FROM Borrow b WHERE b.status = 0 AND b.returnTime < :currentTime ORDER BY b.returnTime ASC")
+    @Query("SELECT b FROM Borrow b WHERE " + ACTIVE + "AND b.returnTime < :currentTime ORDER BY b.returnTime ASC")
     List<Borrow> findOverdueBorrowings(@Param("currentTime") LocalDateTime currentTime);
 
-    // 使用投影查询用户借阅历史（优化性能）
-    @Query("SELECT b.id as id, b.user.id as userId, b.user.username as username, "
-            + "b.copy.id as copyId, b.copy.book.title as bookTitle, b.copy.book.isbn as isbn, "
+    /* The active borrow of a copy by a user */
+    @Query("SELECT b FROM Borrow b WHERE b.user.id = :userId AND b.copy.id = :copyId AND " + ACTIVE
+            + "ORDER BY b.borrowTime DESC")
+    List<Borrow> findActiveBorrowsByUserIdAndCopyId(@Param("userId") Long userId, @Param("copyId") Long copyId);
+
+    /* Active borrows of a user for the scanned barcodes, with copy and book */
+    @Query("SELECT b FROM Borrow b JOIN FETCH b.copy c JOIN FETCH c.book "
+            + "WHERE b.user.id = :userId AND c.barcode IN :barcodes AND " + ACTIVE)
+    List<Borrow> findActiveBorrowsByUserIdAndBarcodes(
+            @Param("userId") Long userId, @Param("barcodes") Collection<String> barcodes);
+
+    /* Book of every copy the user currently has checked out */
+    @Query("SELECT b.copy.book.id FROM Borrow b WHERE b.user.id = :userId AND " + ACTIVE)
+    List<Long> findActiveBookIdsByUserId(@Param("userId") Long userId);
+
+    /* Whether the user currently has any copy of the book checked out */
+    @Query("SELECT COUNT(b) > 0 FROM Borrow b WHERE b.user.id = :userId AND b.copy.book.id = :bookId AND " + ACTIVE)
+    boolean existsActiveBorrowByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
+
+    String BORROW_PROJECTION_SELECT = "SELECT b.id as id, u.id as userId, u.username as username, "
+            + "c.id as copyId, bk.title as bookTitle, bk.isbn as isbn, bk.coverURL as coverURL, "
             + "b.borrowTime as borrowTime, b.returnTime as returnTime, b.actualReturnTime as actualReturnTime, "
             + "b.status as status, b.fine as fine "
-            + "FROM Borrow b WHERE b.user.id = :userId ORDER BY b.borrowTime DESC")
+            + "FROM Borrow b JOIN b.user u JOIN b.copy c JOIN c.book bk ";
+
+    // 使用投影查询用户借阅历史（优化性能）
+    @Query(BORROW_PROJECTION_SELECT + "WHERE u.id = :userId ORDER BY b.borrowTime DESC")
     List<BorrowProjection> findBorrowProjectionsByUserId(@Param("userId") Long userId);
 
+    /* Offset page of a user's history, newest first */
+    @Query(
+            value = BORROW_PROJECTION_SELECT + "WHERE u.id = :userId ORDER BY b.borrowTime DESC, b.id DESC",
+            countQuery = "SELECT COUNT(b) FROM Borrow b WHERE b.user.id = :userId")
+    Page<BorrowProjection> findBorrowProjectionPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /*
+     * Keyset pages ordered by (borrowTime, id) descending. The first page has no cursor; later pages
+     * continue strictly after the last row of the previous page, so every page is an index range scan.
+     */
+    @Query(BORROW_PROJECTION_SELECT + "WHERE u.id = :userId ORDER BY b.borrowTime DESC, b.id DESC")
+    List<BorrowProjection> findFirstBorrowProjectionsByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query(BORROW_PROJECTION_SELECT + "WHERE u.id = :userId "
+            + "AND (b.borrowTime < :borrowTime OR (b.borrowTime = :borrowTime AND b.id < :id)) "
+            + "ORDER BY b.borrowTime DESC, b.id DESC")
+    List<BorrowProjection> findBorrowProjectionsByUserIdBefore(
+            @Param("userId") Long userId,
+            @Param("borrowTime") LocalDateTime borrowTime,
+            @Param("id") Long id,
+            Limit limit);
+
+    @Query(BORROW_PROJECTION_SELECT + "ORDER BY b.borrowTime DESC, b.id DESC")
+    List<BorrowProjection> findFirstBorrowProjections(Limit limit);
+
+    @Query(BORROW_PROJECTION_SELECT
+            + "WHERE b.borrowTime < :borrowTime OR (b.borrowTime = :borrowTime AND b.id < :id) "
+            + "ORDER BY b.borrowTime DESC, b.id DESC")
+    List<BorrowProjection> findBorrowProjectionsBefore(
+            @Param("borrowTime") LocalDateTime borrowTime, @Param("id") Long id, Limit limit);
+
     /* Counts borrows by their current status */
     long countByStatus(Borrow.Status status);
 
@@ -0,0 +1,62 @@
+package com.aaron212.onlinelibrarymanagement.backend.repository;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.BorrowStatsDaily;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface BorrowStatsDailyRepository extends JpaRepository<BorrowStatsDaily, BorrowStatsDaily.Key> {
+
+    @Modifying
+    @Query(
+            value = "INSERT INTO borrow_stats_daily "
+                    + "(stat_date, category_id, borrow_count, return_count, overdue_count, fine_total, update_time) "
+                    + "VALUES (:day, :categoryId, 1, 0, 0, 0, :now) "
+                    + "ON DUPLICATE KEY UPDATE borrow_count = borrow_count + 1, update_time = :now",
+            nativeQuery = true)
+    int recordBorrow(
+            @Param("day") LocalDate day, @Param("categoryId") Long categoryId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(
+            value = "INSERT INTO borrow_stats_daily "
+                    + "(stat_date, category_id, borrow_count, return_count, overdue_count, fine_total, update_time) "
+                    + "VALUES (:day, :categoryId, 0, 1, :overdue, :fine, :now) "
+                    + "ON DUPLICATE KEY UPDATE return_count = return_count + 1, overdue_count = overdue_count + :overdue, "
+                    + "fine_total = fine_total + :fine, update_time = :now",
+            nativeQuery = true)
+    int recordReturn(
+            @Param("day") LocalDate day,
+            @Param("categoryId") Long categoryId,
+            @Param("overdue") int overdue,
+            @Param("fine") BigDecimal fine,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "DELETE FROM borrow_stats_daily WHERE stat_date BETWEEN :from AND :to", nativeQuery = true)
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /* Recounts the days in [from, to) from the borrow table; the range must have been deleted first */
+    @Modifying
+    @Query(
+            value = "INSERT INTO borrow_stats_daily "
+                    + "(stat_date, category_id, borrow_count, return_count, overdue_count, fine_total, update_time) "
+                    + "SELECT stat_date, category_id, SUM(borrows), SUM(returns), SUM(overdues), SUM(fines), :now FROM ("
+                    + "SELECT CAST(b.borrow_time AS DATE) AS stat_date, bk.index_category_id AS category_id, "
+                    + "1 AS borrows, 0 AS returns, 0 AS overdues, 0 AS fines "
+                    + "FROM borrow b JOIN book_copy c ON c.id = b.copy_id JOIN book bk ON bk.id = c.book_id "
+                    + "WHERE b.borrow_time >= :from AND b.borrow_time < :to "
+                    + "UNION ALL "
+                    + "SELECT CAST(b.actual_return_time AS DATE), bk.index_category_id, 0, 1, "
+                    + "CASE WHEN b.actual_return_time > b.return_time THEN 1 ELSE 0 END, COALESCE(b.fine, 0) "
+                    + "FROM borrow b JOIN book_copy c ON c.id = b.copy_id JOIN book bk ON bk.id = c.book_id "
+                    + "WHERE b.actual_return_time >= :from AND b.actual_return_time < :to"
+                    + ") activity GROUP BY stat_date, category_id",
+            nativeQuery = true)
+    int insertFromBorrows(
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, @Param("now") LocalDateTime now);
+}
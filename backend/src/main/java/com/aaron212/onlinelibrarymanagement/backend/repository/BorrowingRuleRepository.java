@@ -2,12 +2,14 @@ package com.aaron212.onlinelibrarymanagement.backend.repository;
 
 import com.aaron212.onlinelibrarymanagement.backend.model.BorrowingRule;
 import java.util.Optional;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface BorrowingRuleRepository extends JpaRepository<BorrowingRule, Long> {
-    Optional<BorrowingRule> findByRuleKey(String ruleKey);
+public interface BorrowingRuleRepository extends NaturalIdRepository<BorrowingRule, Long> {
+    /** Served from the natural-id and entity caches once the key was seen */
+    default Optional<BorrowingRule> findByRuleKey(String ruleKey) {
+        return findBySimpleNaturalId(ruleKey);
+    }
 
     boolean existsByRuleKey(String ruleKey);
 }
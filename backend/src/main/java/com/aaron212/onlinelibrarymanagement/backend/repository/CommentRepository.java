@@ -3,11 +3,13 @@ package com.aaron212.onlinelibrarymanagement.backend.repository;
 import com.aaron212.onlinelibrarymanagement.backend.model.Book;
 import com.aaron212.onlinelibrarymanagement.backend.model.Comment;
 import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import jakarta.persistence.LockModeType;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -42,6 +44,11 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     boolean existsByUserIdAndBookId(Long userId, Long bookId);
 
+    // Lock a comment before changing its status or rating, so the rating summary is adjusted once
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Comment c WHERE c.id = :id")
+    Optional<Comment> findByIdForUpdate(@Param("id") Long id);
+
     @Query(
             "SELECT AVG(c.rating) FROM Comment c WHERE c.book.id = :bookId AND c.status = :status AND c.rating IS NOT NULL")
     Optional<Double> findAverageRatingByBookIdAndStatus(
@@ -0,0 +1,22 @@
+package com.aaron212.onlinelibrarymanagement.backend.repository;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.InAppNotification;
+import java.time.LocalDateTime;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface InAppNotificationRepository extends JpaRepository<InAppNotification, Long> {
+
+    Page<InAppNotification> findByUserIdOrderByIdDesc(Long userId, Pageable pageable);
+
+    long countByUserIdAndReadTimeIsNull(Long userId);
+
+    @Modifying
+    @Query("UPDATE InAppNotification n SET n.readTime = :now WHERE n.id = :id AND n.user.id = :userId "
+            + "AND n.readTime IS NULL")
+    int markRead(@Param("id") Long id, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+}
@@ -1,11 +1,39 @@
 package com.aaron212.onlinelibrarymanagement.backend.repository;
 
 import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.projection.CategoryCopyStatusCountProjection;
+import java.util.List;
 import java.util.Optional;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface IndexCategoryRepository extends JpaRepository<IndexCategory, Long> {
-    Optional<IndexCategory> findByIndexCode(String indexCode);
+public interface IndexCategoryRepository extends NaturalIdRepository<IndexCategory, Long> {
+    /** Served from the natural-id and entity caches once the key was seen */
+    default Optional<IndexCategory> findByIndexCode(String indexCode) {
+        return findBySimpleNaturalId(indexCode);
+    }
 
     boolean existsByIndexCode(String indexCode);
+
+    /*
+     * Move every path below oldPrefix under newPrefix in one statement. LIKE keeps it on the path index;
+     * the SUBSTRING check drops rows that only matched because '_' is a LIKE wildcard.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE IndexCategory c SET c.path = CONCAT(:newPrefix, SUBSTRING(c.path, LENGTH(:oldPrefix) + 1)) "
+            + "WHERE c.path LIKE CONCAT(:oldPrefix, '%') AND SUBSTRING(c.path, 1, LENGTH(:oldPrefix)) = :oldPrefix")
+    int rewritePathPrefix(@Param("oldPrefix") String oldPrefix, @Param("newPrefix") String newPrefix);
+
+    /*
+     * Copy counts per category and copy status in a single grouped query. Every category is returned,
+     * including those without books, together with its parent id so the caller can roll counts up the tree.
+     */
+    @Query("SELECT ic.id AS categoryId, ic.indexCode AS indexCode, ic.parent.id AS parentId, "
+            + "c.status AS status, COUNT(c.id) AS copyCount "
+            + "FROM IndexCategory ic "
+            + "LEFT JOIN Book b ON b.indexCategory = ic "
+            + "LEFT JOIN BookCopy c ON c.book = b "
+            + "GROUP BY ic.id, ic.indexCode, ic.parent.id, c.status")
+    List<CategoryCopyStatusCountProjection> countCopiesByCategoryAndStatus();
 }
@@ -0,0 +1,15 @@
+package com.aaron212.onlinelibrarymanagement.backend.repository;
+
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * Repository of an entity with a {@code @NaturalId}; lookups by that key go through Hibernate's
+ * natural-id cache instead of a query.
+ */
+@NoRepositoryBean
+public interface NaturalIdRepository<T, ID> extends JpaRepository<T, ID> {
+
+    Optional<T> findBySimpleNaturalId(Object naturalId);
+}
@@ -35,6 +35,12 @@ public interface NoticeRepository extends JpaRepository<Notice, Long> {
             "SELECT n FROM Notice n WHERE n.publishTime <= :currentTime AND (n.expireTime IS NULL OR n.expireTime > :currentTime)")
     Page<Notice> findPublishedNotices(@Param("currentTime") LocalDateTime currentTime, Pageable pageable);
 
+    @Query("SELECT MIN(n.publishTime) FROM Notice n WHERE n.publishTime > :currentTime")
+    LocalDateTime findNextPublishTime(@Param("currentTime") LocalDateTime currentTime);
+
+    @Query("SELECT MIN(n.expireTime) FROM Notice n WHERE n.expireTime > :currentTime")
+    LocalDateTime findNextExpireTime(@Param("currentTime") LocalDateTime currentTime);
+
     List<Notice> findByExpireTimeBefore(LocalDateTime expireTime);
 
     @Query(
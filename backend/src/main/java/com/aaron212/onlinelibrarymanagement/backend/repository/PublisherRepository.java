@@ -2,12 +2,14 @@ package com.aaron212.onlinelibrarymanagement.backend.repository;
 
 import com.aaron212.onlinelibrarymanagement.backend.model.Publisher;
 import java.util.Optional;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface PublisherRepository extends JpaRepository<Publisher, Long> {
-    Optional<Publisher> findByName(String name);
+public interface PublisherRepository extends NaturalIdRepository<Publisher, Long> {
+    /** Served from the natural-id and entity caches once the key was seen */
+    default Optional<Publisher> findByName(String name) {
+        return findBySimpleNaturalId(name);
+    }
 
     boolean existsByName(String name);
 }
@@ -1,17 +1,64 @@
 package com.aaron212.onlinelibrarymanagement.backend.repository;
 
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
 import com.aaron212.onlinelibrarymanagement.backend.model.Reservation;
+import com.aaron212.onlinelibrarymanagement.backend.projection.ReservationQueueProjection;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
 
     boolean existsByUserIdAndBookIdAndStatus(Long userId, Long bookId, Reservation.Status status);
 
+    boolean existsByUserIdAndBookIdAndStatusIn(Long userId, Long bookId, Collection<Reservation.Status> statuses);
+
     List<Reservation> findByUserIdAndStatus(Long userId, Reservation.Status status);
 
+    List<Reservation> findByUserIdAndStatusIn(Long userId, Collection<Reservation.Status> statuses);
+
     List<Reservation> findByBookIdAndStatusOrderByReservationTimeAsc(Long bookId, Reservation.Status status);
 
     Optional<Reservation> findFirstByBookIdAndStatusOrderByReservationTimeAsc(Long bookId, Reservation.Status status);
+
+    Optional<Reservation> findFirstByUserIdAndBookIdAndStatus(Long userId, Long bookId, Reservation.Status status);
+
+    /* Queue order of one book: oldest first, the id breaks ties */
+    @Query("SELECT r.id FROM Reservation r WHERE r.book.id = :bookId AND r.status = :status "
+            + "ORDER BY r.reservationTime, r.id")
+    List<Long> findQueuedIds(@Param("bookId") Long bookId, @Param("status") Reservation.Status status);
+
+    /* All reservations in a status grouped by book in queue order, used to rebuild the in-memory queues */
+    @Query("SELECT r.id AS id, r.book.id AS bookId, r.holdExpireTime AS holdExpireTime FROM Reservation r "
+            + "WHERE r.status = :status ORDER BY r.book.id, r.reservationTime, r.id")
+    List<ReservationQueueProjection> findQueueEntries(@Param("status") Reservation.Status status);
+
+    @Query("SELECT r.user.id FROM Reservation r WHERE r.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    /* Put a copy on hold for a reservation that is still waiting; returns 0 when it no longer is */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Reservation r SET r.status = :ready, r.copy = :copy, r.noticeTime = :now, "
+            + "r.holdExpireTime = :holdExpireTime, r.updateTime = :now WHERE r.id = :id AND r.status = :waiting")
+    int holdCopy(
+            @Param("id") Long id,
+            @Param("copy") BookCopy copy,
+            @Param("holdExpireTime") LocalDateTime holdExpireTime,
+            @Param("now") LocalDateTime now,
+            @Param("waiting") Reservation.Status waiting,
+            @Param("ready") Reservation.Status ready);
+
+    /* Change the status only if it still is the expected one; returns 0 when another transaction won */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Reservation r SET r.status = :to, r.updateTime = :now WHERE r.id = :id AND r.status = :from")
+    int compareAndSetStatus(
+            @Param("id") Long id,
+            @Param("from") Reservation.Status from,
+            @Param("to") Reservation.Status to,
+            @Param("now") LocalDateTime now);
 }
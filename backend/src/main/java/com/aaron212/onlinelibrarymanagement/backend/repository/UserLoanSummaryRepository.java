@@ -0,0 +1,97 @@
+package com.aaron212.onlinelibrarymanagement.backend.repository;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.Reservation;
+import com.aaron212.onlinelibrarymanagement.backend.model.UserLoanSummary;
+import com.aaron212.onlinelibrarymanagement.backend.projection.UserLoanSummaryProjection;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface UserLoanSummaryRepository extends JpaRepository<UserLoanSummary, Long> {
+
+    String RESERVATION_STATUS = "com.aaron212.onlinelibrarymanagement.backend.model.Reservation.Status.";
+
+    /* The four counts of user u, computed from the source tables */
+    String ACTIVE_LOANS = "(SELECT COUNT(b) FROM Borrow b WHERE b.user = u AND " + BorrowRepository.ACTIVE + ")";
+    String OVERDUE_LOANS =
+            "(SELECT COUNT(b) FROM Borrow b WHERE b.user = u AND b.status = " + BorrowRepository.STATUS + "OVERDUE)";
+    String UNPAID_FINES =
+            "(SELECT COALESCE(SUM(b.fine), 0) FROM Borrow b WHERE b.user = u AND " + BorrowRepository.UNPAID + ")";
+    String ACTIVE_RESERVATIONS = "(SELECT COUNT(r) FROM Reservation r WHERE r.user = u AND r.status IN ("
+            + RESERVATION_STATUS + "WAITING, " + RESERVATION_STATUS + "READY))";
+
+    /* Reads the columns, not the entity, so the result never comes from a stale persistence context */
+    @Query("SELECT s.userId AS userId, s.activeLoans AS activeLoans, s.overdueLoans AS overdueLoans, "
+            + "s.unpaidFines AS unpaidFines, s.activeReservations AS activeReservations "
+            + "FROM UserLoanSummary s WHERE s.userId = :userId")
+    Optional<UserLoanSummaryProjection> findSummary(@Param("userId") Long userId);
+
+    /* Takes one loan slot unless the user is at the limit; 0 rows means at the limit or no row yet */
+    @Modifying
+    @Query("UPDATE UserLoanSummary s SET s.activeLoans = s.activeLoans + 1, s.updateTime = LOCAL DATETIME "
+            + "WHERE s.userId = :userId AND s.activeLoans < :maxLoans")
+    int claimLoan(@Param("userId") Long userId, @Param("maxLoans") int maxLoans);
+
+    @Modifying
+    @Query("UPDATE UserLoanSummary s SET s.activeLoans = s.activeLoans + :activeDelta, "
+            + "s.overdueLoans = s.overdueLoans + :overdueDelta, s.unpaidFines = s.unpaidFines + :fineDelta, "
+            + "s.activeReservations = s.activeReservations + :reservationDelta, s.updateTime = LOCAL DATETIME "
+            + "WHERE s.userId = :userId")
+    int adjust(
+            @Param("userId") Long userId,
+            @Param("activeDelta") int activeDelta,
+            @Param("overdueDelta") int overdueDelta,
+            @Param("fineDelta") BigDecimal fineDelta,
+            @Param("reservationDelta") int reservationDelta);
+
+    /*
+     * Creates the row of a user from the borrow and reservation tables; no-op for an unknown user or when
+     * the row exists. INSERT IGNORE reports 0 rows for an existing row, also when a concurrent transaction
+     * created it first, so the caller knows whether the new row includes its own changes.
+     */
+    @Modifying
+    @Query(
+            value = "INSERT IGNORE INTO user_loan_summary (user_id, active_loans, overdue_loans, unpaid_fines, "
+                    + "active_reservations, update_time) SELECT u.id, "
+                    + "(SELECT COUNT(*) FROM borrow b WHERE b.user_id = u.id AND b.actual_return_time IS NULL "
+                    + "AND b.status IN (:borrowed, :overdue)), "
+                    + "(SELECT COUNT(*) FROM borrow b WHERE b.user_id = u.id AND b.status = :overdue), "
+                    + "(SELECT COALESCE(SUM(b.fine), 0) FROM borrow b WHERE b.user_id = u.id AND b.fine > 0 "
+                    + "AND b.actual_return_time IS NOT NULL AND b.status IN (:overdue, :lost)), "
+                    + "(SELECT COUNT(*) FROM reservation r WHERE r.user_id = u.id AND r.status IN (:waiting, :ready)), "
+                    + "NOW() FROM users u WHERE u.id = :userId",
+            nativeQuery = true)
+    int insertFromHistory(
+            @Param("userId") Long userId,
+            @Param("borrowed") int borrowed,
+            @Param("overdue") int overdue,
+            @Param("lost") int lost,
+            @Param("waiting") int waiting,
+            @Param("ready") int ready);
+
+    /* Same conditions as ACTIVE_LOANS, OVERDUE_LOANS, UNPAID_FINES and ACTIVE_RESERVATIONS */
+    default int insertFromHistory(Long userId) {
+        return insertFromHistory(
+                userId,
+                Borrow.Status.BORROWED.ordinal(),
+                Borrow.Status.OVERDUE.ordinal(),
+                Borrow.Status.LOST.ordinal(),
+                Reservation.Status.WAITING.ordinal(),
+                Reservation.Status.READY.ordinal());
+    }
+
+    @Modifying
+    @Query("DELETE FROM UserLoanSummary s WHERE s.userId = :userId")
+    int deleteSummary(@Param("userId") Long userId);
+
+    /* Users whose stored counts differ from the source tables */
+    @Query("SELECT s.userId FROM UserLoanSummary s JOIN User u ON u.id = s.userId WHERE s.activeLoans <> "
+            + ACTIVE_LOANS + " OR s.overdueLoans <> " + OVERDUE_LOANS + " OR s.unpaidFines <> " + UNPAID_FINES
+            + " OR s.activeReservations <> " + ACTIVE_RESERVATIONS)
+    List<Long> findDriftedUserIds();
+}
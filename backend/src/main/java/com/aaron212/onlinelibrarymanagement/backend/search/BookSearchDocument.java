@@ -0,0 +1,7 @@
+package com.aaron212.onlinelibrarymanagement.backend.search;
+
+import java.util.List;
+
+/** The searchable fields of one book */
+public record BookSearchDocument(
+        Long id, String isbn, String title, String description, List<String> authors, List<String> publishers) {}
@@ -0,0 +1,6 @@
+package com.aaron212.onlinelibrarymanagement.backend.search;
+
+import java.util.List;
+
+/** One page of search results, best match first */
+public record BookSearchHits(List<Long> bookIds, long totalHits) {}
@@ -0,0 +1,417 @@
+package com.aaron212.onlinelibrarymanagement.backend.search;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Embedded Lucene index of the book catalogue. Text is analysed with {@link CJKAnalyzer}, so Latin
+ * words are matched case-insensitively and Chinese text is matched by overlapping bigrams.
+ * Every query term must match in at least one field; the last term also matches as a prefix so
+ * results show up while the user is still typing.
+ *
+ * <p>A full rebuild writes into a separate index and swaps it in with one commit, so searches keep
+ * seeing the complete old index until then. Books changed while a rebuild runs are written to the
+ * live index at once and again on top of the new one when it is swapped in. A swap that fails is
+ * rolled back, leaving the live index at its last commit.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    static final String FIELD_ID = "id";
+    static final String FIELD_ISBN = "isbn";
+    static final String FIELD_ISBN_TEXT = "isbnText";
+    static final String FIELD_TITLE = "title";
+    static final String FIELD_AUTHORS = "authors";
+    static final String FIELD_PUBLISHERS = "publishers";
+    static final String FIELD_DESCRIPTION = "description";
+
+    // Relative weight of a match in each text field
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+            FIELD_TITLE, 4.0f,
+            FIELD_AUTHORS, 3.0f,
+            FIELD_PUBLISHERS, 1.5f,
+            FIELD_ISBN_TEXT, 1.5f,
+            FIELD_DESCRIPTION, 1.0f);
+
+    private static final float EXACT_ISBN_BOOST = 20.0f;
+
+    private final Analyzer analyzer = new CJKAnalyzer();
+    private final Path indexPath;
+    private final Directory directory;
+    // Replaced when a failed swap is rolled back, guarded by this
+    private IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    // State of a running rebuild, guarded by this; changes maps book ids to documents, null if deleted
+    private Directory rebuildDirectory;
+    private IndexWriter rebuildWriter;
+    private final Map<Long, Document> changedDuringRebuild = new LinkedHashMap<>();
+
+    public BookSearchIndex(@Value("${library.search.index-dir:}") String indexDir) throws IOException {
+        this.indexPath = indexDir == null || indexDir.isBlank()
+                ? null
+                : Path.of(indexDir).toAbsolutePath();
+        this.directory = openDirectory(indexPath);
+        this.writer = openWriter();
+        // Make sure an empty index exists on disk before the first searcher is opened
+        writer.commit();
+        // Searchers read commits rather than the writer, so they survive a rolled back writer
+        this.searcherManager = new SearcherManager(directory, null);
+    }
+
+    private IndexWriter openWriter() throws IOException {
+        return new IndexWriter(
+                directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+    }
+
+    private static Directory openDirectory(Path path) throws IOException {
+        if (path == null) {
+            logger.warn("library.search.index-dir is not set, keeping the book search index in memory");
+            return new ByteBuffersDirectory();
+        }
+        Files.createDirectories(path);
+        logger.info("Opening book search index at {}", path);
+        return FSDirectory.open(path);
+    }
+
+    /**
+     * Add or replace one book and make it visible to searches
+     */
+    public synchronized void index(BookSearchDocument book) {
+        try {
+            update(book.id(), toDocument(book));
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to index book " + book.id(), e);
+        }
+    }
+
+    /**
+     * Add or replace several books with a single commit
+     */
+    public synchronized void indexAll(Collection<BookSearchDocument> books) {
+        try {
+            for (BookSearchDocument book : books) {
+                update(book.id(), toDocument(book));
+            }
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to index books", e);
+        }
+    }
+
+    public synchronized void delete(Long bookId) {
+        try {
+            update(bookId, null);
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to remove book " + bookId + " from the search index", e);
+        }
+    }
+
+    /**
+     * Start a full rebuild into a separate index; searches keep seeing the current one until
+     * {@link #finishRebuild()} swaps it in
+     */
+    public synchronized void beginRebuild() {
+        if (rebuildWriter != null) {
+            throw new IllegalStateException("A search index rebuild is already running");
+        }
+        try {
+            rebuildDirectory = openRebuildDirectory();
+            rebuildWriter = new IndexWriter(
+                    rebuildDirectory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        } catch (IOException e) {
+            abortRebuild();
+            throw new UncheckedIOException("Failed to start rebuilding the search index", e);
+        }
+    }
+
+    public synchronized void addAll(Collection<BookSearchDocument> books) {
+        if (rebuildWriter == null) {
+            throw new IllegalStateException("No search index rebuild is running");
+        }
+        try {
+            for (BookSearchDocument book : books) {
+                rebuildWriter.addDocument(toDocument(book));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to index books", e);
+        }
+    }
+
+    /**
+     * Replace the live index with the rebuilt one in a single commit, then re-apply the books
+     * changed since the rebuild started, since its batches may have been read before the change
+     */
+    public synchronized void finishRebuild() {
+        if (rebuildWriter == null) {
+            throw new IllegalStateException("No search index rebuild is running");
+        }
+        try {
+            rebuildWriter.close();
+            rebuildWriter = null;
+            writer.deleteAll();
+            writer.addIndexes(rebuildDirectory);
+            for (Map.Entry<Long, Document> change : changedDuringRebuild.entrySet()) {
+                apply(change.getKey(), change.getValue());
+            }
+            commit();
+        } catch (IOException e) {
+            // Without the rollback, the next commit would publish a partial index
+            rollbackSwap(e);
+            throw new UncheckedIOException("Failed to swap in the rebuilt search index", e);
+        } catch (RuntimeException e) {
+            rollbackSwap(e);
+            throw e;
+        } finally {
+            abortRebuild();
+        }
+    }
+
+    /* Discard everything since the last commit of the live index and reopen its writer */
+    private void rollbackSwap(Exception cause) {
+        try {
+            writer.rollback();
+            writer = openWriter();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Discard a rebuild that could not be completed; the live index is left as it is
+     */
+    public synchronized void abortRebuild() {
+        changedDuringRebuild.clear();
+        try {
+            if (rebuildWriter != null) {
+                rebuildWriter.rollback();
+            }
+            if (rebuildDirectory != null) {
+                rebuildDirectory.close();
+            }
+            if (indexPath != null) {
+                deleteRecursively(rebuildPath());
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to clean up the search index rebuild", e);
+        } finally {
+            rebuildWriter = null;
+            rebuildDirectory = null;
+        }
+    }
+
+    public int documentCount() {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.getIndexReader().numDocs();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ranked search over title, authors, publishers, ISBN and description.
+     * @return the requested page of book ids, or null if the keyword contains no searchable terms
+     */
+    public BookSearchHits search(String keyword, int offset, int limit) {
+        Query query = buildQuery(keyword);
+        if (query == null) {
+            return null;
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, Math.max(1, offset + limit));
+                List<Long> bookIds = new ArrayList<>(limit);
+                for (int i = offset; i < topDocs.scoreDocs.length; i++) {
+                    ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                    String id = searcher.storedFields().document(scoreDoc.doc).get(FIELD_ID);
+                    bookIds.add(Long.valueOf(id));
+                }
+                return new BookSearchHits(bookIds, searcher.count(query));
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Book search failed", e);
+        }
+    }
+
+    Query buildQuery(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return null;
+        }
+        String trimmed = keyword.trim();
+        List<String> terms = analyze(trimmed);
+        if (terms.isEmpty()) {
+            // Only stop words or punctuation, nothing the index can match on
+            return null;
+        }
+        // Whitespace after the last word means the user finished typing it
+        boolean prefixLastTerm = !Character.isWhitespace(keyword.charAt(keyword.length() - 1));
+
+        BooleanQuery.Builder allTerms = new BooleanQuery.Builder();
+        for (int i = 0; i < terms.size(); i++) {
+            boolean prefix = prefixLastTerm && i == terms.size() - 1;
+            allTerms.add(anyField(terms.get(i), prefix), BooleanClause.Occur.MUST);
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        query.add(allTerms.build(), BooleanClause.Occur.SHOULD);
+        query.add(
+                new BoostQuery(new TermQuery(new Term(FIELD_ISBN, trimmed)), EXACT_ISBN_BOOST),
+                BooleanClause.Occur.SHOULD);
+        query.add(new PrefixQuery(new Term(FIELD_ISBN, trimmed)), BooleanClause.Occur.SHOULD);
+        return query.build();
+    }
+
+    private Query anyField(String term, boolean prefix) {
+        BooleanQuery.Builder fields = new BooleanQuery.Builder();
+        for (Map.Entry<String, Float> field : FIELD_BOOSTS.entrySet()) {
+            Term fieldTerm = new Term(field.getKey(), term);
+            fields.add(new BoostQuery(new TermQuery(fieldTerm), field.getValue()), BooleanClause.Occur.SHOULD);
+            if (prefix) {
+                // Prefix matches rank below exact matches of the same field
+                fields.add(
+                        new BoostQuery(new PrefixQuery(fieldTerm), field.getValue() / 2), BooleanClause.Occur.SHOULD);
+            }
+        }
+        return fields.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream tokens = analyzer.tokenStream(FIELD_TITLE, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                terms.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private Document toDocument(BookSearchDocument book) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, book.id().toString(), Field.Store.YES));
+        document.add(new StringField(FIELD_ISBN, book.isbn(), Field.Store.NO));
+        document.add(new TextField(FIELD_ISBN_TEXT, book.isbn(), Field.Store.NO));
+        document.add(new TextField(FIELD_TITLE, book.title(), Field.Store.NO));
+        for (String author : book.authors()) {
+            document.add(new TextField(FIELD_AUTHORS, author, Field.Store.NO));
+        }
+        for (String publisher : book.publishers()) {
+            document.add(new TextField(FIELD_PUBLISHERS, publisher, Field.Store.NO));
+        }
+        if (book.description() != null) {
+            document.add(new TextField(FIELD_DESCRIPTION, book.description(), Field.Store.NO));
+        }
+        return document;
+    }
+
+    /* Writes one change to the live index and remembers it for a running rebuild; null deletes */
+    private void update(Long bookId, Document document) throws IOException {
+        apply(bookId, document);
+        if (rebuildWriter != null) {
+            changedDuringRebuild.put(bookId, document);
+        }
+    }
+
+    private void apply(Long bookId, Document document) throws IOException {
+        Term id = new Term(FIELD_ID, bookId.toString());
+        if (document == null) {
+            writer.deleteDocuments(id);
+        } else {
+            writer.updateDocument(id, document);
+        }
+    }
+
+    Directory openRebuildDirectory() throws IOException {
+        if (indexPath == null) {
+            return new ByteBuffersDirectory();
+        }
+        // Left over if the application stopped during a rebuild
+        Path path = rebuildPath();
+        deleteRecursively(path);
+        Files.createDirectories(path);
+        return FSDirectory.open(path);
+    }
+
+    private Path rebuildPath() {
+        return indexPath.resolveSibling(indexPath.getFileName() + "-rebuild");
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path file : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void commit() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        abortRebuild();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+        analyzer.close();
+    }
+}
@@ -0,0 +1,241 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Approximate unique borrower counts from per-day {@link HyperLogLog} sketches in
+ * {@code borrower_daily_sketch}. Every committed borrow is added to an in-memory sketch of its day,
+ * which {@link #flush()} merges into the stored one; because merging is idempotent the same sketch
+ * can be flushed repeatedly, and several application instances can flush into the same day.
+ * Sketches of settled days never change, so they are cached and a range count only merges
+ * registers.
+ */
+@Service
+public class ActiveBorrowerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveBorrowerService.class);
+
+    private static final String ENSURE_ROW = "INSERT INTO borrower_daily_sketch (sketch_date, registers, update_time) "
+            + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE sketch_date = sketch_date";
+
+    private static final String SELECT_FOR_UPDATE =
+            "SELECT registers FROM borrower_daily_sketch WHERE sketch_date = ? FOR UPDATE";
+
+    private static final String UPDATE_REGISTERS =
+            "UPDATE borrower_daily_sketch SET registers = ?, update_time = ? WHERE sketch_date = ?";
+
+    private static final String SELECT_RANGE =
+            "SELECT sketch_date, registers FROM borrower_daily_sketch WHERE sketch_date BETWEEN ? AND ?";
+
+    private static final String SELECT_DAY_BORROWERS =
+            "SELECT DISTINCT user_id FROM borrow WHERE borrow_time >= ? AND borrow_time < ?";
+
+    private static final byte[] EMPTY = HyperLogLog.empty().toBytes();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<LocalDate, HyperLogLog> pending = new ConcurrentHashMap<>();
+    private final Cache<LocalDate, byte[]> settledDays;
+
+    public ActiveBorrowerService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${library.statistics.borrower-sketch.cache-bytes:16777216}") long cacheBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settledDays = Caffeine.newBuilder()
+                .maximumWeight(cacheBytes)
+                .weigher((LocalDate day, byte[] registers) -> registers.length)
+                .build();
+    }
+
+    /**
+     * Count a borrower for the day of the borrow once the borrowing transaction commits
+     */
+    public void recordBorrow(Long userId, LocalDate day) {
+        Runnable record =
+                () -> pending.computeIfAbsent(day, d -> HyperLogLog.empty()).add(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record.run();
+                }
+            });
+        } else {
+            record.run();
+        }
+    }
+
+    /**
+     * Estimated number of distinct users who borrowed between two days, both inclusive
+     */
+    public long countDistinctBorrowers(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        HyperLogLog merged = HyperLogLog.empty();
+        // Yesterday may still receive a late flush; everything before it is final
+        LocalDate settledBefore = LocalDate.now().minusDays(1);
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            byte[] cached = day.isBefore(settledBefore) ? settledDays.getIfPresent(day) : null;
+            if (cached != null) {
+                merged.merge(cached);
+            } else {
+                missing.add(day);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<LocalDate, byte[]> stored = loadRange(missing.getFirst(), missing.getLast());
+            for (LocalDate day : missing) {
+                byte[] registers = stored.getOrDefault(day, EMPTY);
+                merged.merge(registers);
+                if (day.isBefore(settledBefore)) {
+                    settledDays.put(day, registers);
+                }
+            }
+        }
+        pending.forEach((day, sketch) -> {
+            if (!day.isBefore(from) && !day.isAfter(to)) {
+                merged.merge(sketch);
+            }
+        });
+        return merged.estimate();
+    }
+
+    /**
+     * Estimated number of distinct users who ever borrowed
+     */
+    public long countDistinctBorrowersAllTime() {
+        LocalDate first =
+                jdbcTemplate.queryForObject("SELECT MIN(sketch_date) FROM borrower_daily_sketch", LocalDate.class);
+        for (LocalDate day : pending.keySet()) {
+            first = first == null || day.isBefore(first) ? day : first;
+        }
+        return first == null ? 0 : countDistinctBorrowers(first, LocalDate.now());
+    }
+
+    /**
+     * Merge the in-memory sketches into the stored ones. Days before yesterday receive no new
+     * borrows, so they are dropped from memory once written. A day that fails to write stays
+     * pending and does not hold back the other days.
+     * @return number of days written
+     */
+    public int flush() {
+        LocalDate keepFrom = LocalDate.now().minusDays(1);
+        int written = 0;
+        for (Map.Entry<LocalDate, HyperLogLog> entry : pending.entrySet()) {
+            LocalDate day = entry.getKey();
+            byte[] registers = entry.getValue().toBytes();
+            try {
+                transactionTemplate.executeWithoutResult(status -> mergeInto(day, registers));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to write borrower sketch of {}", day, e);
+                continue;
+            }
+            settledDays.invalidate(day);
+            written++;
+            if (day.isBefore(keepFrom)) {
+                pending.remove(day, entry.getValue());
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Build the sketches of days that have none from the borrow history, e.g. for borrows made before
+     * sketches existed. Each day is merged in its own transaction, so the backfill can be rerun.
+     * @return number of days written
+     */
+    public int backfillMissingDays() {
+        LocalDateTime firstBorrow =
+                jdbcTemplate.queryForObject("SELECT MIN(borrow_time) FROM borrow", LocalDateTime.class);
+        if (firstBorrow == null) {
+            return 0;
+        }
+        Set<LocalDate> existing = new HashSet<>(
+                jdbcTemplate.queryForList("SELECT sketch_date FROM borrower_daily_sketch", LocalDate.class));
+        int written = 0;
+        for (LocalDate day = firstBorrow.toLocalDate(); !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+            if (!existing.contains(day)) {
+                rebuildDay(day);
+                written++;
+            }
+        }
+        settledDays.invalidateAll();
+        if (written > 0) {
+            logger.info("Backfilled borrower sketches of {} days", written);
+        }
+        return written;
+    }
+
+    /**
+     * Merge the borrowers of one day, read from the borrow table, into its sketch
+     */
+    public void rebuildDay(LocalDate day) {
+        HyperLogLog sketch = HyperLogLog.empty();
+        jdbcTemplate
+                .queryForList(
+                        SELECT_DAY_BORROWERS,
+                        Long.class,
+                        Timestamp.valueOf(day.atStartOfDay()),
+                        Timestamp.valueOf(day.plusDays(1).atStartOfDay()))
+                .forEach(sketch::add);
+        byte[] registers = sketch.toBytes();
+        transactionTemplate.executeWithoutResult(status -> mergeInto(day, registers));
+        settledDays.invalidate(day);
+    }
+
+    private void mergeInto(LocalDate day, byte[] registers) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(ENSURE_ROW, Date.valueOf(day), EMPTY, now);
+        byte[] stored = jdbcTemplate.queryForObject(SELECT_FOR_UPDATE, byte[].class, Date.valueOf(day));
+        HyperLogLog merged = HyperLogLog.fromBytes(stored);
+        merged.merge(registers);
+        jdbcTemplate.update(UPDATE_REGISTERS, merged.toBytes(), now, Date.valueOf(day));
+    }
+
+    private Map<LocalDate, byte[]> loadRange(LocalDate from, LocalDate to) {
+        Map<LocalDate, byte[]> stored = new HashMap<>();
+        jdbcTemplate.query(
+                SELECT_RANGE,
+                rs -> {
+                    stored.put(rs.getDate("sketch_date").toLocalDate(), rs.getBytes("registers"));
+                },
+                Date.valueOf(from),
+                Date.valueOf(to));
+        return stored;
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Could not flush borrower sketches on shutdown", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.BookBorrowCounter;
+import com.aaron212.onlinelibrarymanagement.backend.repository.BookBorrowCounterRepository;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional
+public class BookBorrowCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookBorrowCounterService.class);
+    private final BookBorrowCounterRepository bookBorrowCounterRepository;
+
+    public BookBorrowCounterService(BookBorrowCounterRepository bookBorrowCounterRepository) {
+        this.bookBorrowCounterRepository = bookBorrowCounterRepository;
+    }
+
+    /**
+     * Record one borrow of a book. Must be called inside the borrowing transaction so the counter
+     * commits or rolls back together with the borrow record.
+     */
+    public void recordBorrow(Long bookId) {
+        bookBorrowCounterRepository.incrementBorrowCount(bookId);
+    }
+
+    /**
+     * Get the most borrowed books, highest count first
+     */
+    @Transactional(readOnly = true)
+    public List<BookBorrowCounter> getTopCounters(int topCount) {
+        return bookBorrowCounterRepository.findTopCounters(PageRequest.of(0, topCount));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean hasCounters() {
+        return bookBorrowCounterRepository.count() > 0;
+    }
+
+    /**
+     * Rebuild all counters from the borrow history. The grouping is done by the database, so the
+     * application never loads borrow rows.
+     * @return number of books with a counter after the rebuild
+     */
+    public int rebuildFromBorrowHistory() {
+        bookBorrowCounterRepository.deleteAllCounters();
+        int rows = bookBorrowCounterRepository.insertCountersFromBorrowHistory();
+        logger.info("Rebuilt borrow counters for {} books", rows);
+        return rows;
+    }
+}
@@ -0,0 +1,73 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.projection.CopyCountDriftProjection;
+import com.aaron212.onlinelibrarymanagement.backend.repository.BookRepository;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains {@code Book.availableCopies} and {@code Book.totalCopies}. Every code path that adds,
+ * removes or changes the status of a copy must report it here, inside the same transaction.
+ */
+@Service
+@Transactional
+public class BookCopyCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookCopyCountService.class);
+    private final BookRepository bookRepository;
+    private final ContentVersionService contentVersionService;
+
+    public BookCopyCountService(BookRepository bookRepository, ContentVersionService contentVersionService) {
+        this.bookRepository = bookRepository;
+        this.contentVersionService = contentVersionService;
+    }
+
+    public void copyAdded(BookCopy copy) {
+        bookRepository.adjustCopyCounts(copy.getBook().getId(), availability(copy.getStatus()), 1);
+        contentVersionService.bookChanged(copy.getBook().getId());
+    }
+
+    public void copyRemoved(BookCopy copy) {
+        bookRepository.adjustCopyCounts(copy.getBook().getId(), -availability(copy.getStatus()), -1);
+        contentVersionService.bookChanged(copy.getBook().getId());
+    }
+
+    /**
+     * Record a status change of a copy; {@code copy} already carries the new status
+     */
+    public void statusChanged(BookCopy copy, BookCopy.Status previousStatus) {
+        int availableDelta = availability(copy.getStatus()) - availability(previousStatus);
+        if (availableDelta != 0) {
+            bookRepository.adjustCopyCounts(copy.getBook().getId(), availableDelta, 0);
+            contentVersionService.bookChanged(copy.getBook().getId());
+        }
+    }
+
+    /**
+     * Find books whose stored counts drifted from the copy rows and recount them
+     * @return number of corrected books
+     */
+    public int reconcile() {
+        List<CopyCountDriftProjection> drifted = bookRepository.findCopyCountDrift(BookCopy.Status.AVAILABLE);
+        for (CopyCountDriftProjection drift : drifted) {
+            logger.warn(
+                    "Copy counts of book {} drifted: stored {}/{}, actual {}/{}",
+                    drift.getBookId(),
+                    drift.getStoredAvailable(),
+                    drift.getStoredTotal(),
+                    drift.getActualAvailable(),
+                    drift.getActualTotal());
+            bookRepository.recountCopies(drift.getBookId(), BookCopy.Status.AVAILABLE);
+            contentVersionService.bookChanged(drift.getBookId());
+        }
+        return drifted.size();
+    }
+
+    private static int availability(BookCopy.Status status) {
+        return status == BookCopy.Status.AVAILABLE ? 1 : 0;
+    }
+}
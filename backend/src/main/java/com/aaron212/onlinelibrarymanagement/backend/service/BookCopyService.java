@@ -10,9 +10,11 @@ import com.aaron212.onlinelibrarymanagement.backend.model.Book;
 import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
 import com.aaron212.onlinelibrarymanagement.backend.repository.BookCopyRepository;
 import com.aaron212.onlinelibrarymanagement.backend.repository.BookRepository;
+import jakarta.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,10 +24,18 @@ public class BookCopyService {
 
     private final BookCopyRepository bookCopyRepository;
     private final BookRepository bookRepository;
-
-    public BookCopyService(BookCopyRepository bookCopyRepository, BookRepository bookRepository) {
+    private final BookCopyCountService bookCopyCountService;
+    private final EntityManager entityManager;
+
+    public BookCopyService(
+            BookCopyRepository bookCopyRepository,
+            BookRepository bookRepository,
+            BookCopyCountService bookCopyCountService,
+            EntityManager entityManager) {
         this.bookCopyRepository = bookCopyRepository;
         this.bookRepository = bookRepository;
+        this.bookCopyCountService = bookCopyCountService;
+        this.entityManager = entityManager;
     }
 
     public BookCopyDto createBookCopy(BookCopyCreateDto createDto) {
@@ -47,6 +57,7 @@ public class BookCopyService {
         copy.setPurchaseTime(createDto.purchaseTime());
 
         BookCopy savedCopy = bookCopyRepository.save(copy);
+        bookCopyCountService.copyAdded(savedCopy);
         return convertToDto(savedCopy);
     }
 
@@ -79,6 +90,7 @@ public class BookCopyService {
             copy.setBarcode(updateDto.barcode());
         }
 
+        BookCopy.Status previousStatus = copy.getStatus();
         if (updateDto.status() != null) {
             copy.setStatus(updateDto.status());
         }
@@ -96,6 +108,7 @@ public class BookCopyService {
         }
 
         BookCopy savedCopy = bookCopyRepository.save(copy);
+        bookCopyCountService.statusChanged(savedCopy, previousStatus);
         return convertToDto(savedCopy);
     }
 
@@ -109,6 +122,7 @@ public class BookCopyService {
                     "Cannot change status from BORROWED to AVAILABLE directly. Use return functionality instead.");
         }
 
+        BookCopy.Status previousStatus = copy.getStatus();
         copy.setStatus(status);
 
         // Set maintenance time if changing to maintenance
@@ -117,6 +131,7 @@ public class BookCopyService {
         }
 
         BookCopy savedCopy = bookCopyRepository.save(copy);
+        bookCopyCountService.statusChanged(savedCopy, previousStatus);
         return convertToDto(savedCopy);
     }
 
@@ -130,6 +145,7 @@ public class BookCopyService {
         }
 
         bookCopyRepository.delete(copy);
+        bookCopyCountService.copyRemoved(copy);
     }
 
     @Transactional(readOnly = true)
@@ -146,6 +162,38 @@ public class BookCopyService {
         return bookCopyRepository.findFirstByBookAndStatus(book, BookCopy.Status.AVAILABLE);
     }
 
+    /**
+     * Ids of up to {@code limit} available copies of a book, candidates for {@link #claimAvailableCopy}
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findAvailableCopyIds(Long bookId, int limit) {
+        if (!bookRepository.existsById(bookId)) {
+            throw new ResourceNotFoundException("Book", "id", bookId);
+        }
+        return bookCopyRepository.findIdsByBookIdAndStatus(bookId, BookCopy.Status.AVAILABLE, Limit.of(limit));
+    }
+
+    /**
+     * Atomically move an available copy to BORROWED. The conditional update takes the row lock, so of
+     * several concurrent callers exactly one succeeds and the others see 0 updated rows.
+     * @return the claimed copy, or empty if it was no longer available
+     */
+    public Optional<BookCopy> claimAvailableCopy(Long copyId) {
+        int updated = bookCopyRepository.compareAndSetStatus(
+                copyId, BookCopy.Status.AVAILABLE, BookCopy.Status.BORROWED, LocalDateTime.now());
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        BookCopy copy = bookCopyRepository
+                .findById(copyId)
+                .orElseThrow(() -> new ResourceNotFoundException("BookCopy", "id", copyId));
+        if (copy.getStatus() != BookCopy.Status.BORROWED) {
+            // 更新前已加载到持久化上下文中的旧实例，重新读取状态和版本号
+            entityManager.refresh(copy);
+        }
+        return Optional.of(copy);
+    }
+
     private BookCopyDto convertToDto(BookCopy copy) {
         return new BookCopyDto(
                 copy.getId(),
@@ -0,0 +1,471 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookCreateDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookImportErrorDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookImportReportDto;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bulk catalogue import. The upload is read row by row and written in chunks: authors, publishers and
+ * category codes are resolved through in-memory dictionaries, the rows of a chunk are inserted with
+ * JDBC batches and committed together. A failing row is reported and skipped, a failing chunk is
+ * rolled back and all of its rows are reported.
+ */
+@Service
+public class BookImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(BookImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_BOOK = "INSERT INTO book (isbn, index_category_id, location, title, language, "
+            + "description, coverurl, available_copies, total_copies, create_time, update_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_BOOK_AUTHOR =
+            "INSERT INTO book_author (book_id, author_id, create_time, update_time) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_BOOK_PUBLISHER =
+            "INSERT INTO book_publisher (book_id, publisher_id, create_time, update_time) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_BOOK_COPY = "INSERT INTO book_copy (book_id, barcode, status, create_time, "
+            + "update_time, version) VALUES (?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IndexCategoryService indexCategoryService;
+    private final BookSearchService bookSearchService;
+    private final ContentVersionService contentVersionService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final int chunkSize;
+
+    public BookImportService(
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            IndexCategoryService indexCategoryService,
+            BookSearchService bookSearchService,
+            ContentVersionService contentVersionService,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${library.import.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.indexCategoryService = indexCategoryService;
+        this.bookSearchService = bookSearchService;
+        this.contentVersionService = contentVersionService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Import books from a stream.
+     * CSV needs a header row with the {@link BookCreateDto} field names; several authors or publishers
+     * in one cell are separated by ';'. NDJSON holds one {@link BookCreateDto} object per line.
+     * @param input the upload, read once and not buffered as a whole
+     * @param format format of the upload
+     * @return counts and the rejected rows
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookImportReportDto importBooks(InputStream input, Format format) throws IOException {
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun(
+                loadDictionary("SELECT id, name FROM author ORDER BY id"),
+                loadDictionary("SELECT id, name FROM publisher ORDER BY id"),
+                loadDictionary("SELECT id, index_code FROM index_category"));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (format == Format.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+        }
+        writeChunk(run);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info(
+                "Book import finished: {} rows, {} books, {} copies, {} failed rows in {} ms",
+                run.processedRows,
+                run.importedBooks,
+                run.importedCopies,
+                run.failedRows,
+                elapsedMillis);
+        return new BookImportReportDto(
+                run.processedRows,
+                run.importedBooks,
+                run.importedCopies,
+                run.failedRows,
+                run.errors,
+                run.failedRows > run.errors.size(),
+                elapsedMillis);
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            run.processedRows++;
+            try {
+                accept(run, lineNumber, objectMapper.readValue(line, BookCreateDto.class));
+            } catch (JsonProcessingException e) {
+                run.fail(lineNumber, null, "Malformed row: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader().withArrayElementSeparator(";");
+        try (MappingIterator<BookCreateDto> rows =
+                csvMapper.readerFor(BookCreateDto.class).with(schema).readValues(reader)) {
+            while (true) {
+                long lineNumber = rows.getCurrentLocation().getLineNr();
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                } catch (IOException e) {
+                    // The parser cannot find the next row, nothing after this point is readable
+                    run.processedRows++;
+                    run.fail(lineNumber, null, "Unreadable CSV, import stopped: " + e.getMessage());
+                    break;
+                }
+                run.processedRows++;
+                lineNumber = rows.getCurrentLocation().getLineNr();
+                try {
+                    accept(run, lineNumber, rows.nextValue());
+                } catch (IOException e) {
+                    run.fail(lineNumber, null, "Malformed row: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void accept(ImportRun run, long rowNumber, BookCreateDto row) {
+        String error = validate(row);
+        if (error != null) {
+            run.fail(rowNumber, row.isbn(), error);
+            return;
+        }
+        BookCreateDto book = normalize(row);
+        if (!run.chunkIsbns.add(book.isbn())) {
+            run.fail(rowNumber, book.isbn(), "Duplicate ISBN in the same import");
+            return;
+        }
+        run.chunk.add(new ImportRow(rowNumber, book));
+        if (run.chunk.size() >= chunkSize) {
+            writeChunk(run);
+        }
+    }
+
+    private String validate(BookCreateDto row) {
+        Set<ConstraintViolation<BookCreateDto>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        if (row.isbn().trim().length() > 20) {
+            return "ISBN is longer than 20 characters";
+        }
+        if (row.title().trim().length() > 100) {
+            return "Title is longer than 100 characters";
+        }
+        if (names(row.authorNames()).stream().anyMatch(name -> name.length() > 50)) {
+            return "Author name is longer than 50 characters";
+        }
+        if (names(row.publisherNames()).stream().anyMatch(name -> name.length() > 100)) {
+            return "Publisher name is longer than 100 characters";
+        }
+        return null;
+    }
+
+    private BookCreateDto normalize(BookCreateDto row) {
+        String location = row.location() != null && !row.location().isBlank()
+                ? row.location().trim()
+                : "LIBRARY"; // Same default as BookService.createBook
+        return new BookCreateDto(
+                row.isbn().trim(),
+                row.title().trim(),
+                row.language().trim(),
+                row.description(),
+                row.coverURL(),
+                location,
+                List.copyOf(names(row.authorNames())),
+                List.copyOf(names(row.publisherNames())),
+                row.categoryName().trim(),
+                row.totalQuantity());
+    }
+
+    /* Trimmed, non-blank, de-duplicated names in their original order */
+    private static Set<String> names(List<String> names) {
+        Set<String> result = new LinkedHashSet<>();
+        if (names != null) {
+            for (String name : names) {
+                if (name != null && !name.isBlank()) {
+                    result.add(name.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+    private void writeChunk(ImportRun run) {
+        List<ImportRow> rows = run.chunk;
+        run.chunk = new ArrayList<>(chunkSize);
+        run.chunkIsbns.clear();
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        rows = skipExistingIsbns(run, rows);
+        rows = resolveCategories(run, rows);
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            resolveNames(
+                    run.authorIds,
+                    "author",
+                    rows.stream()
+                            .flatMap(row -> row.book().authorNames().stream())
+                            .toList());
+            resolveNames(
+                    run.publisherIds,
+                    "publisher",
+                    rows.stream()
+                            .flatMap(row -> row.book().publisherNames().stream())
+                            .toList());
+
+            List<ImportRow> chunk = rows;
+            List<Long> bookIds = transactionTemplate.execute(status -> insertChunk(run, chunk));
+            run.importedBooks += rows.size();
+            run.importedCopies +=
+                    rows.stream().mapToLong(row -> row.book().totalQuantity()).sum();
+            bookSearchService.indexBooks(bookIds);
+            contentVersionService.changed(ContentVersionService.Resource.BOOKS);
+        } catch (DataAccessException | TransactionException e) {
+            String message = "Chunk rolled back: "
+                    + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            rows.forEach(row -> run.fail(row.rowNumber(), row.book().isbn(), message));
+            logger.warn("Book import chunk of {} rows failed", rows.size(), e);
+        }
+        logger.info(
+                "Book import progress: {} rows read, {} books imported, {} rows failed",
+                run.processedRows,
+                run.importedBooks,
+                run.failedRows);
+    }
+
+    /* Drop rows whose ISBN is already in the catalogue, with one query per chunk */
+    private List<ImportRow> skipExistingIsbns(ImportRun run, List<ImportRow> rows) {
+        Set<String> existing = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT isbn FROM book WHERE isbn IN (:isbns)",
+                Map.of("isbns", rows.stream().map(row -> row.book().isbn()).toList()),
+                String.class));
+        if (existing.isEmpty()) {
+            return rows;
+        }
+        List<ImportRow> remaining = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (existing.contains(row.book().isbn())) {
+                run.fail(row.rowNumber(), row.book().isbn(), "Book with ISBN already exists");
+            } else {
+                remaining.add(row);
+            }
+        }
+        return remaining;
+    }
+
+    /* Create unknown category codes (with their parents) once per import run */
+    private List<ImportRow> resolveCategories(ImportRun run, List<ImportRow> rows) {
+        Map<String, String> invalidCodes = new HashMap<>();
+        for (ImportRow row : rows) {
+            String code = row.book().categoryName();
+            if (run.categoryIds.containsKey(code) || invalidCodes.containsKey(code)) {
+                continue;
+            }
+            try {
+                run.categoryIds.put(
+                        code,
+                        indexCategoryService.addCategoryWithHierarchy(code).getId());
+            } catch (IllegalArgumentException e) {
+                invalidCodes.put(code, e.getMessage());
+            }
+        }
+        if (invalidCodes.isEmpty()) {
+            return rows;
+        }
+        List<ImportRow> remaining = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            String error = invalidCodes.get(row.book().categoryName());
+            if (error != null) {
+                run.fail(row.rowNumber(), row.book().isbn(), error);
+            } else {
+                remaining.add(row);
+            }
+        }
+        return remaining;
+    }
+
+    /* Insert the names missing from the dictionary, then read their generated ids back */
+    private void resolveNames(Map<String, Long> ids, String table, Collection<String> names) {
+        List<String> missing =
+                names.stream().filter(name -> !ids.containsKey(name)).distinct().toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO " + table + " (name, create_time, update_time) VALUES (?, ?, ?)",
+                    missing,
+                    missing.size(),
+                    (ps, name) -> {
+                        ps.setString(1, name);
+                        ps.setObject(2, now);
+                        ps.setObject(3, now);
+                    });
+            namedParameterJdbcTemplate.query(
+                    "SELECT id, name FROM " + table + " WHERE name IN (:names) ORDER BY id",
+                    Map.of("names", missing),
+                    rs -> {
+                        ids.putIfAbsent(rs.getString(2), rs.getLong(1));
+                    });
+        });
+    }
+
+    private List<Long> insertChunk(ImportRun run, List<ImportRow> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_BOOK, rows, rows.size(), (ps, row) -> {
+            BookCreateDto book = row.book();
+            ps.setString(1, book.isbn());
+            ps.setLong(2, run.categoryIds.get(book.categoryName()));
+            ps.setString(3, book.location());
+            ps.setString(4, book.title());
+            ps.setString(5, book.language());
+            ps.setString(6, book.description());
+            ps.setString(7, book.coverURL());
+            // All initial copies are created as available
+            ps.setInt(8, book.totalQuantity());
+            ps.setInt(9, book.totalQuantity());
+            ps.setObject(10, now);
+            ps.setObject(11, now);
+        });
+
+        Map<String, Long> bookIds = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT id, isbn FROM book WHERE isbn IN (:isbns)",
+                Map.of("isbns", rows.stream().map(row -> row.book().isbn()).toList()),
+                rs -> {
+                    bookIds.put(rs.getString(2), rs.getLong(1));
+                });
+
+        List<Object[]> authorLinks = new ArrayList<>();
+        List<Object[]> publisherLinks = new ArrayList<>();
+        List<Object[]> copies = new ArrayList<>();
+        for (ImportRow row : rows) {
+            BookCreateDto book = row.book();
+            Long bookId = bookIds.get(book.isbn());
+            for (String author : book.authorNames()) {
+                authorLinks.add(new Object[] {bookId, run.authorIds.get(author), now, now});
+            }
+            for (String publisher : book.publisherNames()) {
+                publisherLinks.add(new Object[] {bookId, run.publisherIds.get(publisher), now, now});
+            }
+            for (int i = 0; i < book.totalQuantity(); i++) {
+                copies.add(new Object[] {
+                    bookId,
+                    BookService.generateBarcode(book.isbn(), i + 1),
+                    BookCopy.Status.AVAILABLE.ordinal(),
+                    now,
+                    now
+                });
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_BOOK_AUTHOR, authorLinks);
+        jdbcTemplate.batchUpdate(INSERT_BOOK_PUBLISHER, publisherLinks);
+        jdbcTemplate.batchUpdate(INSERT_BOOK_COPY, copies);
+        return new ArrayList<>(bookIds.values());
+    }
+
+    private Map<String, Long> loadDictionary(String sql) {
+        Map<String, Long> dictionary = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            dictionary.putIfAbsent(rs.getString(2), rs.getLong(1));
+        });
+        return dictionary;
+    }
+
+    private record ImportRow(long rowNumber, BookCreateDto book) {}
+
+    /* Mutable state of one import call */
+    private static final class ImportRun {
+        private final Map<String, Long> authorIds;
+        private final Map<String, Long> publisherIds;
+        private final Map<String, Long> categoryIds;
+        private final List<BookImportErrorDto> errors = new ArrayList<>();
+        private final Set<String> chunkIsbns = new HashSet<>();
+        private List<ImportRow> chunk = new ArrayList<>();
+        private long processedRows;
+        private long importedBooks;
+        private long importedCopies;
+        private long failedRows;
+
+        private ImportRun(Map<String, Long> authorIds, Map<String, Long> publisherIds, Map<String, Long> categoryIds) {
+            this.authorIds = authorIds;
+            this.publisherIds = publisherIds;
+            this.categoryIds = categoryIds;
+        }
+
+        private void fail(long rowNumber, String isbn, String message) {
+            failedRows++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BookImportErrorDto(rowNumber, isbn, message));
+            }
+        }
+    }
+}
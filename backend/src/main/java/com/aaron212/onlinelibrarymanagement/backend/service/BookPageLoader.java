@@ -0,0 +1,55 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.repository.BookRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Second phase of paging books. A page query that fetch-joins a collection cannot be limited in
+ * SQL, so Hibernate would load every matching row and cut the page in memory. Pages are therefore
+ * selected as plain ids (or rows with to-one joins only) first, and this loader then fills in the
+ * authors, category and publishers of just those books with two IN queries. Must run inside the
+ * caller's transaction, so both queries fill the same managed instances.
+ */
+@Component
+@Transactional(readOnly = true)
+public class BookPageLoader {
+
+    private final BookRepository bookRepository;
+
+    public BookPageLoader(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Books with authors, category and publishers loaded, in the order of the ids; unknown ids are skipped
+     */
+    public List<Book> load(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = List.copyOf(bookIds);
+        // Two queries, as fetching both bags at once multiplies the rows (MultipleBagFetchException)
+        Map<Long, Book> books = bookRepository.findBooksWithAuthorsByIds(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        bookRepository.findBooksWithPublishersByIds(ids);
+        return ids.stream().map(books::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Turn a page of book ids into a page of mapped books, keeping order and totals
+     */
+    public <T> Page<T> load(Page<Long> bookIds, Function<Book, T> mapper) {
+        Map<Long, Book> books =
+                load(bookIds.getContent()).stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+        return bookIds.map(id -> mapper.apply(books.get(id)));
+    }
+}
@@ -0,0 +1,192 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookRatingSummaryDto;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookRatingBucket;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookRatingSummary;
+import com.aaron212.onlinelibrarymanagement.backend.model.Comment;
+import com.aaron212.onlinelibrarymanagement.backend.projection.RatingBucketProjection;
+import com.aaron212.onlinelibrarymanagement.backend.projection.RatingSummaryProjection;
+import com.aaron212.onlinelibrarymanagement.backend.repository.BookRatingBucketRepository;
+import com.aaron212.onlinelibrarymanagement.backend.repository.BookRatingSummaryRepository;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains {@link BookRatingSummary} and {@link BookRatingBucket}. Every code path that publishes,
+ * unpublishes or re-rates a comment must report it here, inside the same transaction. Only
+ * published comments are counted.
+ */
+@Service
+@Transactional
+public class BookRatingSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookRatingSummaryService.class);
+    private final BookRatingSummaryRepository bookRatingSummaryRepository;
+    private final BookRatingBucketRepository bookRatingBucketRepository;
+
+    public BookRatingSummaryService(
+            BookRatingSummaryRepository bookRatingSummaryRepository,
+            BookRatingBucketRepository bookRatingBucketRepository) {
+        this.bookRatingSummaryRepository = bookRatingSummaryRepository;
+        this.bookRatingBucketRepository = bookRatingBucketRepository;
+    }
+
+    /**
+     * Record a status change of a comment; {@code comment} already carries the new status
+     */
+    public void statusChanged(Comment comment, Comment.Status previousStatus) {
+        boolean wasPublished = previousStatus == Comment.Status.PUBLISHED;
+        boolean isPublished = comment.getStatus() == Comment.Status.PUBLISHED;
+        if (wasPublished != isPublished) {
+            apply(comment.getBook().getId(), comment.getRating(), isPublished ? 1 : -1);
+        }
+    }
+
+    /**
+     * Record a rating change of a comment; {@code comment} already carries the new rating
+     */
+    public void ratingChanged(Comment comment, BigDecimal previousRating) {
+        if (comment.getStatus() != Comment.Status.PUBLISHED || Objects.equals(previousRating, comment.getRating())) {
+            return;
+        }
+        Long bookId = comment.getBook().getId();
+        apply(bookId, previousRating, -1);
+        apply(bookId, comment.getRating(), 1);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Double> getAverageRating(Long bookId) {
+        return bookRatingSummaryRepository.findSummary(bookId).flatMap(BookRatingSummaryService::average);
+    }
+
+    @Transactional(readOnly = true)
+    public long getCommentCount(Long bookId) {
+        return bookRatingSummaryRepository
+                .findSummary(bookId)
+                .map(RatingSummaryProjection::getCommentCount)
+                .orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public BookRatingSummaryDto getSummary(Long bookId) {
+        Optional<RatingSummaryProjection> summary = bookRatingSummaryRepository.findSummary(bookId);
+        long[] counts = new long[BookRatingBucket.BUCKETS];
+        if (summary.isPresent()) {
+            bookRatingBucketRepository
+                    .findBuckets(bookId)
+                    .forEach(bucket -> counts[bucket.getBucket().intValue()] = bucket.getRatingCount());
+        }
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            histogram.put(BigDecimal.valueOf(i * 5L, 1).toPlainString(), counts[i]);
+        }
+        return new BookRatingSummaryDto(
+                bookId,
+                summary.map(RatingSummaryProjection::getCommentCount).orElse(0L),
+                summary.map(RatingSummaryProjection::getRatingCount).orElse(0L),
+                summary.flatMap(BookRatingSummaryService::average).orElse(null),
+                histogram);
+    }
+
+    /**
+     * Compare every summary and histogram with the comment table and recount the books that drifted,
+     * e.g. after comments were edited directly in the database
+     * @return number of corrected books
+     */
+    public int verify() {
+        Map<Long, String> expected = new HashMap<>();
+        Map<Long, long[]> expectedBuckets = new HashMap<>();
+        for (RatingSummaryProjection row : bookRatingSummaryRepository.countFromComments(Comment.Status.PUBLISHED)) {
+            expected.put(row.getBookId(), key(row.getCommentCount(), row.getRatingCount(), row.getRatingSum()));
+        }
+        for (RatingBucketProjection row : bookRatingBucketRepository.countFromComments(Comment.Status.PUBLISHED)) {
+            expectedBuckets
+                            .computeIfAbsent(row.getBookId(), id -> new long[BookRatingBucket.BUCKETS])[
+                            row.getBucket().intValue()] =
+                    row.getRatingCount();
+        }
+
+        Map<Long, String> stored = new HashMap<>();
+        Map<Long, long[]> storedBuckets = new HashMap<>();
+        for (RatingSummaryProjection summary : bookRatingSummaryRepository.findAllSummaries()) {
+            if (summary.getCommentCount() == 0 && summary.getRatingSum().signum() == 0) {
+                continue; // every comment was unpublished again, same as having no row
+            }
+            stored.put(
+                    summary.getBookId(),
+                    key(summary.getCommentCount(), summary.getRatingCount(), summary.getRatingSum()));
+        }
+        for (BookRatingBucket bucket : bookRatingBucketRepository.findAll()) {
+            if (bucket.getRatingCount() != 0) {
+                storedBuckets
+                                .computeIfAbsent(bucket.getBookId(), id -> new long[BookRatingBucket.BUCKETS])[
+                                bucket.getBucket()] =
+                        bucket.getRatingCount();
+            }
+        }
+
+        Set<Long> bookIds = new TreeSet<>(expected.keySet());
+        bookIds.addAll(stored.keySet());
+        bookIds.addAll(storedBuckets.keySet());
+        int corrected = 0;
+        for (Long bookId : bookIds) {
+            boolean summaryDrifted = !Objects.equals(expected.get(bookId), stored.get(bookId));
+            boolean bucketsDrifted = !Arrays.equals(expectedBuckets.get(bookId), storedBuckets.get(bookId));
+            if (summaryDrifted || bucketsDrifted) {
+                logger.warn(
+                        "Rating summary of book {} drifted: stored {}, actual {}",
+                        bookId,
+                        stored.get(bookId),
+                        expected.get(bookId));
+                recount(bookId);
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+
+    private void recount(Long bookId) {
+        int published = Comment.Status.PUBLISHED.ordinal();
+        bookRatingSummaryRepository.deleteByBook(bookId);
+        bookRatingBucketRepository.deleteByBook(bookId);
+        bookRatingSummaryRepository.insertFromComments(bookId, published);
+        bookRatingBucketRepository.insertFromComments(bookId, published);
+    }
+
+    private void apply(Long bookId, BigDecimal rating, int sign) {
+        if (rating == null) {
+            bookRatingSummaryRepository.adjust(bookId, sign, 0, BigDecimal.ZERO);
+            return;
+        }
+        bookRatingSummaryRepository.adjust(bookId, sign, sign, sign > 0 ? rating : rating.negate());
+        bookRatingBucketRepository.adjust(bookId, bucketOf(rating), sign);
+    }
+
+    private static Optional<Double> average(RatingSummaryProjection summary) {
+        return summary.getRatingCount() > 0
+                ? Optional.of(summary.getRatingSum().doubleValue() / summary.getRatingCount())
+                : Optional.empty();
+    }
+
+    static int bucketOf(BigDecimal rating) {
+        return rating.multiply(BigDecimal.TWO).setScale(0, RoundingMode.FLOOR).intValue();
+    }
+
+    /* Comparable view of a summary row; scale is normalized so 0 and 0.0 compare equal */
+    private static String key(long commentCount, long ratingCount, BigDecimal ratingSum) {
+        return commentCount + " comments, " + ratingCount + " ratings, sum "
+                + ratingSum.setScale(1, RoundingMode.UNNECESSARY).toPlainString();
+    }
+}
@@ -0,0 +1,143 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.event.BookChangedEvent;
+import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.repository.BookRepository;
+import com.aaron212.onlinelibrarymanagement.backend.search.BookSearchDocument;
+import com.aaron212.onlinelibrarymanagement.backend.search.BookSearchHits;
+import com.aaron212.onlinelibrarymanagement.backend.search.BookSearchIndex;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Service
+@Transactional(readOnly = true)
+public class BookSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchService.class);
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookRepository bookRepository;
+
+    public BookSearchService(BookSearchIndex bookSearchIndex, BookRepository bookRepository) {
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Ranked full-text search. Results are ordered by relevance, so any sort in the pageable is
+     * ignored. Falls back to the LIKE query if the keyword has no searchable terms.
+     */
+    public Page<Book> search(String keyword, Pageable pageable) {
+        BookSearchHits hits = bookSearchIndex.search(keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        if (hits == null) {
+            return bookRepository.pagedSearchByKeyword(keyword, pageable);
+        }
+        Map<Long, Book> booksById = bookRepository.findAllById(hits.bookIds()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        // Keep the index ranking; skip ids of books deleted since the last index refresh
+        List<Book> books = hits.bookIds().stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(
+                books, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()), hits.totalHits());
+    }
+
+    /**
+     * Apply a book change to the index once the change is committed
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onBookChanged(BookChangedEvent event) {
+        try {
+            if (event.deleted()) {
+                bookSearchIndex.delete(event.bookId());
+                return;
+            }
+            List<BookSearchDocument> documents = loadDocuments(List.of(event.bookId()));
+            if (documents.isEmpty()) {
+                bookSearchIndex.delete(event.bookId());
+            } else {
+                bookSearchIndex.index(documents.getFirst());
+            }
+        } catch (RuntimeException e) {
+            // The book change is already committed; a stale entry is fixed by the next rebuild
+            logger.error("Failed to update search index for book {}", event.bookId(), e);
+        }
+    }
+
+    /**
+     * Index books written outside of JPA (bulk import), after their transaction committed
+     */
+    public void indexBooks(List<Long> bookIds) {
+        try {
+            bookSearchIndex.indexAll(loadDocuments(bookIds));
+        } catch (RuntimeException e) {
+            logger.error("Failed to index {} imported books", bookIds.size(), e);
+        }
+    }
+
+    /**
+     * Rebuild the whole index from the database in batches of books
+     * @return number of indexed books
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rebuildIndex() {
+        bookSearchIndex.beginRebuild();
+        int indexed = 0;
+        long lastId = 0;
+        List<Long> bookIds;
+        try {
+            do {
+                bookIds = bookRepository.findIdsAfter(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                if (!bookIds.isEmpty()) {
+                    bookSearchIndex.addAll(loadDocuments(bookIds));
+                    indexed += bookIds.size();
+                    lastId = bookIds.getLast();
+                }
+            } while (bookIds.size() == REBUILD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            // The live index is untouched, searches go on with it
+            bookSearchIndex.abortRebuild();
+            throw e;
+        }
+        bookSearchIndex.finishRebuild();
+        logger.info("Rebuilt book search index with {} books", indexed);
+        return indexed;
+    }
+
+    public boolean isIndexInSync() {
+        return bookSearchIndex.documentCount() == bookRepository.count();
+    }
+
+    private List<BookSearchDocument> loadDocuments(List<Long> bookIds) {
+        Map<Long, List<String>> publishersByBook = bookRepository.findBooksWithPublishersByIds(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, book -> book.getPublishers().stream()
+                        .map(bp -> bp.getPublisher().getName())
+                        .toList()));
+        return bookRepository.findBooksWithAuthorsByIds(bookIds).stream()
+                .map(book -> new BookSearchDocument(
+                        book.getId(),
+                        book.getIsbn(),
+                        book.getTitle(),
+                        book.getDescription(),
+                        book.getAuthors().stream()
+                                .map(ba -> ba.getAuthor().getName())
+                                .toList(),
+                        publishersByBook.getOrDefault(book.getId(), List.of())))
+                .toList();
+    }
+}
@@ -3,22 +3,24 @@ package com.aaron212.onlinelibrarymanagement.backend.service;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BookCreateDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BookSummaryDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.BookUpdateDto;
+import com.aaron212.onlinelibrarymanagement.backend.event.BookChangedEvent;
 import com.aaron212.onlinelibrarymanagement.backend.exception.BusinessLogicException;
 import com.aaron212.onlinelibrarymanagement.backend.exception.DuplicateResourceException;
 import com.aaron212.onlinelibrarymanagement.backend.exception.ResourceNotFoundException;
 import com.aaron212.onlinelibrarymanagement.backend.model.*;
 import com.aaron212.onlinelibrarymanagement.backend.repository.*;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.constraints.NotBlank;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed("library.service")
 @Transactional
 public class BookService {
 
@@ -30,6 +32,9 @@ public class BookService {
     private final PublisherRepository publisherRepository;
     private final BookAuthorRepository bookAuthorRepository;
     private final BookPublisherRepository bookPublisherRepository;
+    private final BookSearchService bookSearchService;
+    private final BookPageLoader bookPageLoader;
+    private final ApplicationEventPublisher eventPublisher;
 
     public BookService(
             BookRepository bookRepository,
@@ -39,7 +44,10 @@ public class BookService {
             AuthorRepository authorRepository,
             PublisherRepository publisherRepository,
             BookAuthorRepository bookAuthorRepository,
-            BookPublisherRepository bookPublisherRepository) {
+            BookPublisherRepository bookPublisherRepository,
+            BookSearchService bookSearchService,
+            BookPageLoader bookPageLoader,
+            ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
         this.bookCopyRepository = bookCopyRepository;
         this.indexCategoryRepository = indexCategoryRepository;
@@ -48,6 +56,9 @@ public class BookService {
         this.publisherRepository = publisherRepository;
         this.bookAuthorRepository = bookAuthorRepository;
         this.bookPublisherRepository = bookPublisherRepository;
+        this.bookSearchService = bookSearchService;
+        this.bookPageLoader = bookPageLoader;
+        this.eventPublisher = eventPublisher;
     }
 
     public void createBook(BookCreateDto bookCreateDto) {
@@ -72,6 +83,9 @@ public class BookService {
                                 && !bookCreateDto.location().trim().isEmpty()
                         ? bookCreateDto.location().trim()
                         : "LIBRARY"); // Default location if not provided
+        // All initial copies are created as available
+        book.setTotalCopies(bookCreateDto.totalQuantity());
+        book.setAvailableCopies(bookCreateDto.totalQuantity());
 
         Book savedBook = bookRepository.save(book);
 
@@ -130,9 +144,11 @@ public class BookService {
             copy.setStatus(BookCopy.Status.AVAILABLE);
             bookCopyRepository.save(copy);
         }
+
+        eventPublisher.publishEvent(BookChangedEvent.saved(savedBook.getId()));
     }
 
-    private String generateBarcode(String isbn, int copyNumber) {
+    static String generateBarcode(String isbn, int copyNumber) {
         // Generate a unique barcode based on ISBN and copy number
         return isbn + "-" + String.format("%03d", copyNumber);
     }
@@ -145,49 +161,31 @@ public class BookService {
 
     @Transactional(readOnly = true)
     public Page<BookSummaryDto> getAllBooksSummaryPaged(Pageable pageable) {
-        // First, fetch books with authors
-        Page<Book> booksWithAuthors = bookRepository.findAllWithAuthors(pageable);
-
-        // Extract book IDs
-        List<Long> bookIds =
-                booksWithAuthors.getContent().stream().map(Book::getId).toList();
-
-        // Fetch the same books with publishers
-        List<Book> booksWithPublishers = bookRepository.findBooksWithPublishersByIds(bookIds);
-
-        // Create a map for quick lookup of publishers by book ID
-        Map<Long, List<String>> publishersMap = booksWithPublishers.stream()
-                .collect(Collectors.toMap(
-                        Book::getId,
-                        book -> book.getPublishers() != null
-                                ? book.getPublishers().stream()
-                                        .map(bp -> bp.getPublisher().getName())
-                                        .toList()
-                                : List.of()));
-
-        return booksWithAuthors.map(book -> convertToBookSummaryDto(book, publishersMap));
+        // Page the ids in SQL, then load authors and publishers for just that page
+        return bookPageLoader.load(bookRepository.findPageIds(pageable), this::convertToBookSummaryDto);
     }
 
-    private BookSummaryDto convertToBookSummaryDto(Book book, Map<Long, List<String>> publishersMap) {
+    private BookSummaryDto convertToBookSummaryDto(Book book) {
         List<String> authorNames = book.getAuthors() != null
                 ? book.getAuthors().stream()
                         .map(bookAuthor -> bookAuthor.getAuthor().getName())
                         .toList()
                 : List.of();
 
-        List<String> publisherNames = publishersMap != null
-                ? publishersMap.getOrDefault(book.getId(), List.of())
-                : book.getPublishers() != null
-                        ? book.getPublishers().stream()
-                                .map(bp -> bp.getPublisher().getName())
-                                .toList()
-                        : List.of();
-
-        int available = getAvailableCopiesCount(book);
-        int total = getTotalCopiesCount(book);
+        List<String> publisherNames = book.getPublishers() != null
+                ? book.getPublishers().stream()
+                        .map(bp -> bp.getPublisher().getName())
+                        .toList()
+                : List.of();
 
         return new BookSummaryDto(
-                book.getId(), book.getTitle(), authorNames, publisherNames, book.getCoverURL(), available, total);
+                book.getId(),
+                book.getTitle(),
+                authorNames,
+                publisherNames,
+                book.getCoverURL(),
+                book.getAvailableCopies(),
+                book.getTotalCopies());
     }
 
     @Transactional(readOnly = true)
@@ -311,6 +309,8 @@ public class BookService {
                 }
             }
         }
+
+        eventPublisher.publishEvent(BookChangedEvent.saved(savedBook.getId()));
     }
 
     public void deleteBook(Long id) {
@@ -324,21 +324,33 @@ public class BookService {
         }
 
         bookRepository.delete(book);
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id));
     }
 
     @Transactional(readOnly = true)
     public Page<Book> searchBooksPaged(String keyword, Pageable pageable) {
-        return bookRepository.pagedSearchByKeyword(keyword, pageable);
+        return bookSearchService.search(keyword, pageable);
     }
 
+    /**
+     * Books of a category and all of its descendants
+     */
     @Transactional(readOnly = true)
     public Page<Book> getBooksByCategory(String categoryCode, Pageable pageable) {
-        IndexCategory category = indexCategoryRepository
-                .findByIndexCode(categoryCode)
-                .orElseThrow(() -> new ResourceNotFoundException("IndexCategory", "indexCode", categoryCode));
+        return bookRepository.findByCategoryPath(categoryPathPattern(categoryCode), pageable);
+    }
 
-        // Use renamed method for paginated find by category
-        return bookRepository.findByIndexCategory(category, pageable);
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDto> getBooksSummaryByCategory(String categoryCode, Pageable pageable) {
+        Page<Long> bookIds = bookRepository.findIdsByCategoryPath(categoryPathPattern(categoryCode), pageable);
+        return bookPageLoader.load(bookIds, this::convertToBookSummaryDto);
+    }
+
+    /* LIKE pattern matching the path of a category and all of its descendants */
+    private String categoryPathPattern(String categoryCode) {
+        String path = indexCategoryService.getPath(categoryCode);
+        // '!' escapes LIKE wildcards, '_' is a valid index code character
+        return path.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
     }
 
     @Transactional(readOnly = true)
@@ -355,12 +367,11 @@ public class BookService {
     }
 
     public int getAvailableCopiesCount(Book book) {
-        return (int) bookCopyRepository.countByBookAndStatus(book, BookCopy.Status.AVAILABLE);
+        return book.getAvailableCopies();
     }
 
-    @Transactional(readOnly = true)
     public int getTotalCopiesCount(Book book) {
-        return (int) bookCopyRepository.countByBook(book);
+        return book.getTotalCopies();
     }
 
     public Optional<Book> findByIsbn(@NotBlank String isbn) {
@@ -1,19 +1,38 @@
 package com.aaron212.onlinelibrarymanagement.backend.service;
 
+import com.aaron212.onlinelibrarymanagement.backend.dto.BatchCirculationItemDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BatchCirculationResultDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowCursor;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.CursorPageDto;
 import com.aaron212.onlinelibrarymanagement.backend.exception.BusinessLogicException;
 import com.aaron212.onlinelibrarymanagement.backend.exception.ResourceNotFoundException;
+import com.aaron212.onlinelibrarymanagement.backend.mapper.BorrowMapper;
 import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
 import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.NotificationOutbox;
+import com.aaron212.onlinelibrarymanagement.backend.model.Reservation;
 import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import com.aaron212.onlinelibrarymanagement.backend.projection.BorrowProjection;
 import com.aaron212.onlinelibrarymanagement.backend.repository.BookCopyRepository;
 import com.aaron212.onlinelibrarymanagement.backend.repository.BorrowRepository;
 import com.aaron212.onlinelibrarymanagement.backend.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -21,16 +40,25 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed("library.service")
 @Transactional
 public class BorrowService {
 
     private static final Logger logger = LoggerFactory.getLogger(BorrowService.class);
+    /* Available copies fetched per allocation; claims that lose a race move on to the next one */
+    private static final int COPY_CANDIDATES = 16;
     private final BorrowRepository borrowRepository;
     private final BookCopyRepository bookCopyRepository;
     private final UserRepository userRepository;
     private final BorrowingRuleService borrowingRuleService;
     private final ReservationService reservationService;
     private final BookCopyService bookCopyService;
+    private final BookBorrowCounterService bookBorrowCounterService;
+    private final BookCopyCountService bookCopyCountService;
+    private final NotificationService notificationService;
+    private final ActiveBorrowerService activeBorrowerService;
+    private final BorrowStatsService borrowStatsService;
+    private final UserLoanSummaryService userLoanSummaryService;
 
     public BorrowService(
             BorrowRepository borrowRepository,
@@ -38,13 +66,25 @@ public class BorrowService {
             UserRepository userRepository,
             BorrowingRuleService borrowingRuleService,
             ReservationService reservationService,
-            BookCopyService bookCopyService) {
+            BookCopyService bookCopyService,
+            BookBorrowCounterService bookBorrowCounterService,
+            BookCopyCountService bookCopyCountService,
+            NotificationService notificationService,
+            ActiveBorrowerService activeBorrowerService,
+            BorrowStatsService borrowStatsService,
+            UserLoanSummaryService userLoanSummaryService) {
         this.borrowRepository = borrowRepository;
         this.bookCopyRepository = bookCopyRepository;
         this.userRepository = userRepository;
         this.borrowingRuleService = borrowingRuleService;
         this.reservationService = reservationService;
         this.bookCopyService = bookCopyService;
+        this.bookBorrowCounterService = bookBorrowCounterService;
+        this.bookCopyCountService = bookCopyCountService;
+        this.notificationService = notificationService;
+        this.activeBorrowerService = activeBorrowerService;
+        this.borrowStatsService = borrowStatsService;
+        this.userLoanSummaryService = userLoanSummaryService;
     }
 
     /**
@@ -55,11 +95,34 @@ public class BorrowService {
      * @throws RuntimeException if borrowing fails
      */
     public Borrow borrowBookByBookId(Long userId, Long bookId) {
-        Optional<BookCopy> availableCopy = bookCopyService.findAvailableCopyForBook(bookId);
-        if (availableCopy.isEmpty()) {
+        // 预约到书的读者直接借走为其保留的副本
+        Optional<Reservation> hold = reservationService.findReadyHold(userId, bookId);
+        if (hold.isPresent()) {
+            User user = userRepository
+                    .findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+            claimLoanSlot(userId, bookId);
+            return borrowHeldCopy(user, hold.get());
+        }
+
+        List<Long> candidates = new ArrayList<>(bookCopyService.findAvailableCopyIds(bookId, COPY_CANDIDATES));
+        if (candidates.isEmpty()) {
             throw new BusinessLogicException("没有可借阅的副本");
         }
-        return borrowBook(userId, availableCopy.get().getId());
+
+        User user =
+                userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        claimLoanSlot(userId, bookId);
+
+        // 打乱候选顺序，热门图书的并发请求不会都去抢同一个副本；被抢走的副本直接跳过
+        Collections.shuffle(candidates);
+        for (Long copyId : candidates) {
+            Optional<BookCopy> claimed = bookCopyService.claimAvailableCopy(copyId);
+            if (claimed.isPresent()) {
+                return createBorrow(user, claimed.get(), BookCopy.Status.AVAILABLE);
+            }
+        }
+        throw new BusinessLogicException("没有可借阅的副本");
     }
 
     /**
@@ -77,26 +140,137 @@ public class BorrowService {
                 .findById(copyId)
                 .orElseThrow(() -> new ResourceNotFoundException("BookCopy", "id", copyId));
 
+        if (copy.getStatus() == BookCopy.Status.ON_HOLD) {
+            // Only the reader the copy is held for may take it
+            Reservation hold = reservationService
+                    .findReadyHold(userId, copy.getBook().getId())
+                    .filter(reservation -> reservation.getCopy().getId().equals(copyId))
+                    .orElseThrow(() -> new BusinessLogicException("图书已为其他读者预留"));
+            claimLoanSlot(userId, copy.getBook().getId());
+            return borrowHeldCopy(user, hold);
+        }
         if (copy.getStatus() != BookCopy.Status.AVAILABLE) {
             throw new BusinessLogicException("图书不可借");
         }
+        claimLoanSlot(userId, copy.getBook().getId());
 
-        // Check maximum borrowing limit
-        List<Borrow> currentBorrowings = getCurrentBorrowings(userId);
-        Integer maxBorrowBooks = borrowingRuleService.getIntegerRule(BorrowingRuleService.MAX_BORROW_BOOKS);
-        if (currentBorrowings.size() >= maxBorrowBooks) {
-            throw new BusinessLogicException("您已达到最大借阅数量限制（" + maxBorrowBooks + "本）");
+        // The status check above may be stale, the claim decides
+        BookCopy claimed =
+                bookCopyService.claimAvailableCopy(copyId).orElseThrow(() -> new BusinessLogicException("图书不可借"));
+        return createBorrow(user, claimed, BookCopy.Status.AVAILABLE);
+    }
+
+    /**
+     * Check out the scanned copies to one reader at the circulation desk. The copies are resolved with one
+     * query and the borrowing limit is checked once for the whole scan list; each barcode gets its own
+     * result, and a rejected barcode does not undo the others.
+     * @param barcodes scanned barcodes, in scan order
+     * @throws ResourceNotFoundException if the user does not exist
+     */
+    public BatchCirculationResultDto borrowBatch(Long userId, List<String> barcodes) {
+        User user =
+                userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        Map<String, BookCopy> copies = new HashMap<>();
+        for (BookCopy copy : bookCopyRepository.findWithBookByBarcodeIn(new LinkedHashSet<>(barcodes))) {
+            copies.put(copy.getBarcode(), copy);
         }
+        Set<Long> borrowedBookIds = new HashSet<>(borrowRepository.findActiveBookIdsByUserId(userId));
+        int maxBorrowBooks = borrowingRuleService.getIntegerRule(BorrowingRuleService.MAX_BORROW_BOOKS);
+        int remaining =
+                maxBorrowBooks - userLoanSummaryService.getSummary(userId).getActiveLoans();
+
+        List<BatchCirculationItemDto> items = new ArrayList<>();
+        Set<String> scanned = new HashSet<>();
+        for (String barcode : barcodes) {
+            BookCopy copy = copies.get(barcode);
+            if (!scanned.add(barcode)) {
+                items.add(BatchCirculationItemDto.failed(barcode, "条码重复扫描"));
+            } else if (copy == null) {
+                items.add(BatchCirculationItemDto.failed(barcode, "未找到该条码的副本"));
+            } else if (remaining <= 0) {
+                items.add(BatchCirculationItemDto.failed(barcode, "已达到最大借阅数量限制（" + maxBorrowBooks + "本）"));
+            } else {
+                try {
+                    items.add(BatchCirculationItemDto.succeeded(barcode, borrowScanned(user, copy, borrowedBookIds)));
+                    remaining--;
+                } catch (BusinessLogicException e) {
+                    items.add(BatchCirculationItemDto.failed(barcode, e.getMessage()));
+                }
+            }
+        }
+        return batchResult(userId, items);
+    }
 
-        // Check if user already borrowed this book
-        boolean userAlreadyBorrowed = borrowRepository.existsByUserIdAndCopyBookIdAndStatus(
-                userId, copy.getBook().getId(), Borrow.Status.BORROWED);
+    /*
+     * One copy of a desk batch. Rejections are thrown before anything is written, and only from this class,
+     * so catching them leaves the batch transaction intact.
+     */
+    private Borrow borrowScanned(User user, BookCopy copy, Set<Long> borrowedBookIds) {
+        Long bookId = copy.getBook().getId();
+        if (borrowedBookIds.contains(bookId)) {
+            throw new BusinessLogicException("读者已借阅此书的其他副本");
+        }
+        Reservation hold = null;
+        if (copy.getStatus() == BookCopy.Status.ON_HOLD) {
+            hold = reservationService
+                    .findReadyHold(user.getId(), bookId)
+                    .filter(reservation -> reservation.getCopy().getId().equals(copy.getId()))
+                    .orElseThrow(() -> new BusinessLogicException("图书已为其他读者预留"));
+        } else if (copy.getStatus() != BookCopy.Status.AVAILABLE) {
+            throw new BusinessLogicException("图书不可借");
+        }
+
+        claimLoanSlot(user.getId());
+        Borrow borrow;
+        try {
+            if (hold != null) {
+                borrow = borrowHeldCopy(user, hold);
+            } else {
+                BookCopy claimed = bookCopyService
+                        .claimAvailableCopy(copy.getId())
+                        .orElseThrow(() -> new BusinessLogicException("图书不可借"));
+                borrow = createBorrow(user, claimed, BookCopy.Status.AVAILABLE);
+            }
+        } catch (BusinessLogicException e) {
+            // Nothing was lent, the slot goes back
+            userLoanSummaryService.releaseLoan(user.getId());
+            throw e;
+        }
+        borrowedBookIds.add(bookId);
+        return borrow;
+    }
+
+    /* Lend the copy held for a reservation; the reservation's conditional update decides who gets it */
+    private Borrow borrowHeldCopy(User user, Reservation hold) {
+        if (!reservationService.fulfillHold(hold)) {
+            throw new BusinessLogicException("预约保留已过期或已取消");
+        }
+        BookCopy copy = hold.getCopy();
+        copy.setStatus(BookCopy.Status.BORROWED);
+        bookCopyRepository.save(copy);
+        return createBorrow(user, copy, BookCopy.Status.ON_HOLD);
+    }
+
+    /* Rejects a second copy of a book the user already has, then takes one of the user's loan slots */
+    private void claimLoanSlot(Long userId, Long bookId) {
+        boolean userAlreadyBorrowed = borrowRepository.existsActiveBorrowByUserIdAndBookId(userId, bookId);
         if (userAlreadyBorrowed) {
             throw new BusinessLogicException(
                     "You have already borrowed this book. Please return the current copy before borrowing another.");
         }
+        claimLoanSlot(userId);
+    }
+
+    /* The conditional increment on user_loan_summary is the limit check; it rolls back with the borrow */
+    private void claimLoanSlot(Long userId) {
+        Integer maxBorrowBooks = borrowingRuleService.getIntegerRule(BorrowingRuleService.MAX_BORROW_BOOKS);
+        if (!userLoanSummaryService.tryClaimLoan(userId, maxBorrowBooks)) {
+            throw new BusinessLogicException("您已达到最大借阅数量限制（" + maxBorrowBooks + "本）");
+        }
+    }
 
-        // Create borrow record
+    /* Create the borrow record for a copy already claimed by this transaction */
+    private Borrow createBorrow(User user, BookCopy copy, BookCopy.Status previousStatus) {
         Borrow borrow = new Borrow();
         borrow.setUser(user);
         borrow.setCopy(copy);
@@ -107,11 +281,17 @@ public class BorrowService {
         borrow.setReturnTime(LocalDateTime.now().plusDays(loanPeriodDays));
         borrow.setStatus(Borrow.Status.BORROWED);
 
-        // Update copy status
-        copy.setStatus(BookCopy.Status.BORROWED);
-
         borrowRepository.save(borrow);
-        bookCopyRepository.save(copy);
+        bookCopyCountService.statusChanged(copy, previousStatus);
+        bookBorrowCounterService.recordBorrow(copy.getBook().getId());
+        activeBorrowerService.recordBorrow(user.getId(), borrow.getBorrowTime().toLocalDate());
+        borrowStatsService.recordBorrow(borrow);
+        notificationService.enqueue(
+                user.getId(),
+                NotificationOutbox.Type.BORROWED,
+                "借阅成功",
+                "您已借阅《" + copy.getBook().getTitle() + "》，请于 "
+                        + borrow.getReturnTime().toLocalDate() + " 前归还。");
 
         return borrow;
     }
@@ -133,8 +313,8 @@ public class BorrowService {
             throw new BusinessLogicException("无权限操作此借阅记录");
         }
 
-        // Verify that the book is currently borrowed
-        if (borrow.getStatus() != Borrow.Status.BORROWED) {
+        // Verify that the book is currently borrowed (overdue books are still out)
+        if (!borrow.isActive()) {
             throw new BusinessLogicException("此书已归还或不在借阅状态");
         }
 
@@ -149,12 +329,47 @@ public class BorrowService {
      * @throws RuntimeException if return fails
      */
     public Borrow returnBook(Long userId, Long copyId) {
-        Borrow borrow = borrowRepository
-                .findFirstByUserIdAndCopyIdAndStatus(userId, copyId, Borrow.Status.BORROWED)
+        Borrow borrow = borrowRepository.findActiveBorrowsByUserIdAndCopyId(userId, copyId).stream()
+                .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Active borrow record for user " + userId + " and copy " + copyId));
+        return completeReturn(borrow, LocalDateTime.now());
+    }
+
+    /**
+     * Return the scanned copies of one reader at the circulation desk. Their active borrows are loaded with
+     * one query; each barcode gets its own result.
+     * @param barcodes scanned barcodes, in scan order
+     * @throws ResourceNotFoundException if the user does not exist
+     */
+    public BatchCirculationResultDto returnBatch(Long userId, List<String> barcodes) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        Map<String, Borrow> borrows = new HashMap<>();
+        for (Borrow borrow :
+                borrowRepository.findActiveBorrowsByUserIdAndBarcodes(userId, new LinkedHashSet<>(barcodes))) {
+            borrows.putIfAbsent(borrow.getCopy().getBarcode(), borrow);
+        }
 
         LocalDateTime now = LocalDateTime.now();
+        List<BatchCirculationItemDto> items = new ArrayList<>();
+        Set<String> scanned = new HashSet<>();
+        for (String barcode : barcodes) {
+            Borrow borrow = borrows.get(barcode);
+            if (!scanned.add(barcode)) {
+                items.add(BatchCirculationItemDto.failed(barcode, "条码重复扫描"));
+            } else if (borrow == null) {
+                items.add(BatchCirculationItemDto.failed(barcode, "读者没有该条码的在借记录"));
+            } else {
+                items.add(BatchCirculationItemDto.succeeded(barcode, completeReturn(borrow, now)));
+            }
+        }
+        return batchResult(userId, items);
+    }
+
+    private Borrow completeReturn(Borrow borrow, LocalDateTime now) {
+        UserLoanSummaryService.LoanState before = UserLoanSummaryService.LoanState.of(borrow);
         boolean overdue = now.isAfter(borrow.getReturnTime());
 
         // Update borrow record
@@ -170,15 +385,23 @@ public class BorrowService {
             borrow.setFine(fine);
         }
 
-        // Update copy status
+        // Update copy status; 归还后优先为预约队列中的下一位读者保留
         BookCopy copy = borrow.getCopy();
-        copy.setStatus(BookCopy.Status.AVAILABLE);
+        BookCopy.Status previousStatus = copy.getStatus();
+        boolean held = reservationService.holdForNextReservation(copy);
+        copy.setStatus(held ? BookCopy.Status.ON_HOLD : BookCopy.Status.AVAILABLE);
 
         borrowRepository.save(borrow);
         bookCopyRepository.save(copy);
-
-        // 归还后处理预约队列
-        reservationService.processNextReservation(copy.getBook().getId());
+        bookCopyCountService.statusChanged(copy, previousStatus);
+        userLoanSummaryService.borrowChanged(before, borrow);
+        borrowStatsService.recordReturn(borrow);
+        notificationService.enqueue(
+                borrow.getUser().getId(),
+                NotificationOutbox.Type.RETURNED,
+                "归还成功",
+                "您已归还《" + copy.getBook().getTitle() + "》。"
+                        + (borrow.getFine() != null ? "逾期罚款 " + borrow.getFine() + " 元。" : ""));
 
         return borrow;
     }
@@ -282,9 +505,8 @@ public class BorrowService {
      * @return true if user can borrow more books
      */
     public boolean canBorrowMoreBooks(Long userId) {
-        List<Borrow> currentBorrowings = getCurrentBorrowings(userId);
         Integer maxBorrowBooks = borrowingRuleService.getIntegerRule(BorrowingRuleService.MAX_BORROW_BOOKS);
-        return currentBorrowings.size() < maxBorrowBooks;
+        return userLoanSummaryService.getSummary(userId).getActiveLoans() < maxBorrowBooks;
     }
 
     /**
@@ -293,9 +515,9 @@ public class BorrowService {
      * @return Number of books user can still borrow
      */
     public int getRemainingBorrowingCapacity(Long userId) {
-        List<Borrow> currentBorrowings = getCurrentBorrowings(userId);
         Integer maxBorrowBooks = borrowingRuleService.getIntegerRule(BorrowingRuleService.MAX_BORROW_BOOKS);
-        return Math.max(0, maxBorrowBooks - currentBorrowings.size());
+        return Math.max(
+                0, maxBorrowBooks - userLoanSummaryService.getSummary(userId).getActiveLoans());
     }
 
     /**
@@ -318,16 +540,73 @@ public class BorrowService {
         throw new BusinessLogicException("预约功能暂未实现");
     }
 
+    public List<Borrow> getAllBorrowings(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "borrowTime"));
+        return borrowRepository.findAll(pageable).getContent();
+    }
+
     /**
-     * Send notification (placeholder for future implementation)
+     * Offset page of a user's borrowing history, newest first, paged by the database
      */
-    private void sendNotification(Long userId, String message) {
-        // TODO: Implement notification service
-        logger.info("向用户 {} 发送通知：{}", userId, message);
+    @Transactional(readOnly = true)
+    public Page<BorrowDto> getBorrowHistoryPage(Long userId, int page, int size) {
+        return borrowRepository
+                .findBorrowProjectionPageByUserId(userId, PageRequest.of(page, size))
+                .map(BorrowMapper.INSTANCE::toBorrowDto);
     }
 
-    public List<Borrow> getAllBorrowings(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "borrowTime"));
-        return borrowRepository.findAll(pageable).getContent();
+    /**
+     * Cursor page of a user's borrowing history, newest first
+     * @param cursor cursor from the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<BorrowDto> getBorrowHistoryAfter(Long userId, String cursor, int size) {
+        // Fetch one extra row to know whether another page follows
+        Limit limit = Limit.of(size + 1);
+        List<BorrowProjection> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = borrowRepository.findFirstBorrowProjectionsByUserId(userId, limit);
+        } else {
+            BorrowCursor position = BorrowCursor.decode(cursor);
+            rows = borrowRepository.findBorrowProjectionsByUserIdBefore(
+                    userId, position.borrowTime(), position.id(), limit);
+        }
+        return toCursorPage(rows, size);
+    }
+
+    /**
+     * Cursor page of all borrowings, newest first
+     * @param cursor cursor from the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<BorrowDto> getAllBorrowingsAfter(String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<BorrowProjection> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = borrowRepository.findFirstBorrowProjections(limit);
+        } else {
+            BorrowCursor position = BorrowCursor.decode(cursor);
+            rows = borrowRepository.findBorrowProjectionsBefore(position.borrowTime(), position.id(), limit);
+        }
+        return toCursorPage(rows, size);
+    }
+
+    private static BatchCirculationResultDto batchResult(Long userId, List<BatchCirculationItemDto> items) {
+        int succeeded =
+                (int) items.stream().filter(BatchCirculationItemDto::success).count();
+        return new BatchCirculationResultDto(userId, succeeded, items.size() - succeeded, items);
+    }
+
+    private CursorPageDto<BorrowDto> toCursorPage(List<BorrowProjection> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<BorrowProjection> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            BorrowProjection last = pageRows.getLast();
+            nextCursor = new BorrowCursor(last.getBorrowTime(), last.getId()).encode();
+        }
+        List<BorrowDto> content =
+                pageRows.stream().map(BorrowMapper.INSTANCE::toBorrowDto).toList();
+        return new CursorPageDto<>(content, size, nextCursor, hasNext);
     }
 }
@@ -0,0 +1,250 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowTrendPointDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.IndexCategoryNodeDto;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.repository.BorrowStatsDailyRepository;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the {@code borrow_stats_daily} rollup and answers borrow trends from it. A trend reads at
+ * most one grouped row per day of the range, or per month for monthly and yearly trends, however
+ * many borrows there were.
+ *
+ * <p>Checkouts and returns of one category on one day all add to the same row. The increments are
+ * therefore written after the borrowing transaction committed, each in a short transaction of its own,
+ * so a checkout never waits on that row while it still holds its copy and borrow locks. An increment
+ * lost to a crash or a failed write is corrected by the nightly rebuild of the closed days.
+ */
+@Service
+@Transactional
+public class BorrowStatsService {
+
+    /** Upper bound on the points of one trend, so a daily trend cannot span centuries */
+    static final int MAX_POINTS = 5000;
+
+    /* Same scale as fine_total, so empty and active periods compare alike */
+    private static final BigDecimal NO_FINES = BigDecimal.ZERO.setScale(2);
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowStatsService.class);
+
+    private static final String SUMS = "SUM(borrow_count) AS borrow_count, SUM(return_count) AS return_count, "
+            + "SUM(overdue_count) AS overdue_count, SUM(fine_total) AS fine_total FROM borrow_stats_daily "
+            + "WHERE stat_date BETWEEN :from AND :to";
+
+    private static final String CATEGORY_FILTER = " AND category_id IN (:categoryIds)";
+
+    private final BorrowStatsDailyRepository borrowStatsDailyRepository;
+    private final IndexCategoryService indexCategoryService;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+
+    public BorrowStatsService(
+            BorrowStatsDailyRepository borrowStatsDailyRepository,
+            IndexCategoryService indexCategoryService,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.borrowStatsDailyRepository = borrowStatsDailyRepository;
+        this.indexCategoryService = indexCategoryService;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Count a new borrow once the borrowing transaction commits
+     */
+    public void recordBorrow(Borrow borrow) {
+        LocalDate day = borrow.getBorrowTime().toLocalDate();
+        Long categoryId = categoryOf(borrow);
+        afterCommit("borrow", day, () -> borrowStatsDailyRepository.recordBorrow(day, categoryId, LocalDateTime.now()));
+    }
+
+    /**
+     * Count a return with its fine once the returning transaction commits
+     */
+    public void recordReturn(Borrow borrow) {
+        LocalDateTime returned = borrow.getActualReturnTime();
+        LocalDate day = returned.toLocalDate();
+        Long categoryId = categoryOf(borrow);
+        int overdue = returned.isAfter(borrow.getReturnTime()) ? 1 : 0;
+        BigDecimal fine = borrow.getFine() != null ? borrow.getFine() : BigDecimal.ZERO;
+        afterCommit(
+                "return",
+                day,
+                () -> borrowStatsDailyRepository.recordReturn(day, categoryId, overdue, fine, LocalDateTime.now()));
+    }
+
+    /**
+     * Recompute the rollup of the days in [from, to] from the borrow table. Idempotent; meant for
+     * closed days, as borrows made meanwhile on the rebuilt days may be counted twice.
+     * @return number of rollup rows written
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        borrowStatsDailyRepository.deleteRange(from, to);
+        int rows = borrowStatsDailyRepository.insertFromBorrows(
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay(), LocalDateTime.now());
+        logger.info("Rebuilt borrow statistics of {} to {}: {} rows", from, to, rows);
+        return rows;
+    }
+
+    /**
+     * Build the rollup of the whole borrow history up to and including today
+     * @return number of rollup rows written
+     */
+    public int rebuildAll() {
+        LocalDateTime first = namedParameterJdbcTemplate
+                .getJdbcTemplate()
+                .queryForObject("SELECT MIN(borrow_time) FROM borrow", LocalDateTime.class);
+        return first != null ? rebuild(first.toLocalDate(), LocalDate.now()) : 0;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean hasStats() {
+        return borrowStatsDailyRepository.count() > 0;
+    }
+
+    /**
+     * Borrow activity between two days, both inclusive, one point per period. Periods without
+     * activity are included with zero counts; the first and last period may be partial.
+     * @param categoryCode restrict to a category and its descendants, or null for all
+     */
+    @Transactional(readOnly = true)
+    public List<BorrowTrendPointDto> getTrend(
+            LocalDate from, LocalDate to, Granularity granularity, String categoryCode) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (granularity.unit.between(granularity.align(from), to) >= MAX_POINTS) {
+            throw new IllegalArgumentException("Range has more than " + MAX_POINTS + " periods");
+        }
+
+        Map<LocalDate, long[]> counts = new LinkedHashMap<>();
+        Map<LocalDate, BigDecimal> fines = new LinkedHashMap<>();
+        for (LocalDate period = granularity.align(from); !period.isAfter(to); period = granularity.next(period)) {
+            counts.put(period, new long[3]);
+            fines.put(period, NO_FINES);
+        }
+
+        MapSqlParameterSource parameters =
+                new MapSqlParameterSource().addValue("from", Date.valueOf(from)).addValue("to", Date.valueOf(to));
+        String filter = "";
+        if (categoryCode != null) {
+            List<Long> categoryIds = indexCategoryService.getSubtree(categoryCode).stream()
+                    .map(IndexCategoryNodeDto::id)
+                    .toList();
+            parameters.addValue("categoryIds", categoryIds);
+            filter = CATEGORY_FILTER;
+        }
+        // Days are grouped by the database; months and years are already grouped per month
+        String sql = granularity.groupsByMonth()
+                ? "SELECT YEAR(stat_date) AS y, MONTH(stat_date) AS m, " + SUMS + filter
+                        + " GROUP BY YEAR(stat_date), MONTH(stat_date)"
+                : "SELECT stat_date, " + SUMS + filter + " GROUP BY stat_date";
+        namedParameterJdbcTemplate.query(sql, parameters, rs -> {
+            LocalDate day = granularity.groupsByMonth()
+                    ? LocalDate.of(rs.getInt("y"), rs.getInt("m"), 1)
+                    : rs.getDate("stat_date").toLocalDate();
+            LocalDate period = granularity.align(day);
+            long[] target = counts.get(period);
+            target[0] += rs.getLong("borrow_count");
+            target[1] += rs.getLong("return_count");
+            target[2] += rs.getLong("overdue_count");
+            fines.merge(period, rs.getBigDecimal("fine_total"), BigDecimal::add);
+        });
+
+        List<BorrowTrendPointDto> trend = new ArrayList<>(counts.size());
+        counts.forEach((period, values) ->
+                trend.add(new BorrowTrendPointDto(period, values[0], values[1], values[2], fines.get(period))));
+        return trend;
+    }
+
+    /**
+     * Number of borrows between two days, both inclusive
+     */
+    @Transactional(readOnly = true)
+    public long countBorrows(LocalDate from, LocalDate to) {
+        Long borrows = namedParameterJdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(borrow_count), 0) FROM borrow_stats_daily WHERE stat_date BETWEEN :from AND :to",
+                new MapSqlParameterSource().addValue("from", Date.valueOf(from)).addValue("to", Date.valueOf(to)),
+                Long.class);
+        return borrows != null ? borrows : 0;
+    }
+
+    // The borrow is already committed; a failed increment is only logged
+    private void afterCommit(String activity, LocalDate day, Runnable increment) {
+        Runnable write = () -> {
+            try {
+                ownTransaction.executeWithoutResult(status -> increment.run());
+            } catch (RuntimeException e) {
+                logger.warn("Failed to count {} of {} in borrow statistics", activity, day, e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write.run();
+                }
+            });
+        } else {
+            write.run();
+        }
+    }
+
+    private static Long categoryOf(Borrow borrow) {
+        return borrow.getCopy().getBook().getIndexCategory().getId();
+    }
+
+    public enum Granularity {
+        DAY(ChronoUnit.DAYS),
+        WEEK(ChronoUnit.WEEKS),
+        MONTH(ChronoUnit.MONTHS),
+        YEAR(ChronoUnit.YEARS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        /** First day of the period containing the day; weeks start on Monday */
+        LocalDate align(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> day.withDayOfMonth(1);
+                case YEAR -> day.withDayOfYear(1);
+            };
+        }
+
+        LocalDate next(LocalDate periodStart) {
+            return periodStart.plus(1, unit);
+        }
+
+        boolean groupsByMonth() {
+            return this == MONTH || this == YEAR;
+        }
+    }
+}
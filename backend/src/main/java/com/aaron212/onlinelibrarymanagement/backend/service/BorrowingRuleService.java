@@ -9,11 +9,15 @@ import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @Transactional
@@ -29,6 +33,7 @@ public class BorrowingRuleService {
     public static final String ADVANCE_RESERVE_DAYS = "ADVANCE_RESERVE_DAYS";
     private static final Logger logger = LoggerFactory.getLogger(BorrowingRuleService.class);
     private final BorrowingRuleRepository borrowingRuleRepository;
+    private final AtomicReference<BorrowingRuleSnapshot> snapshot = new AtomicReference<>(BorrowingRuleSnapshot.EMPTY);
 
     public BorrowingRuleService(BorrowingRuleRepository borrowingRuleRepository) {
         this.borrowingRuleRepository = borrowingRuleRepository;
@@ -56,6 +61,19 @@ public class BorrowingRuleService {
                 ADVANCE_RESERVE_DAYS, "预约提前天数", "用户可以提前多少天预约即将到期归还的图书", "3", BorrowingRule.ValueType.INTEGER);
 
         logger.info("Default borrowing rules initialization completed");
+
+        reloadRules();
+    }
+
+    /**
+     * Reload the in-memory rule snapshot from the database
+     */
+    @Transactional(readOnly = true)
+    public int reloadRules() {
+        BorrowingRuleSnapshot loaded = BorrowingRuleSnapshot.of(borrowingRuleRepository.findAll());
+        snapshot.set(loaded);
+        logger.info("Loaded {} borrowing rules into memory", loaded.size());
+        return loaded.size();
     }
 
     private void createDefaultRuleIfNotExists(
@@ -107,38 +125,46 @@ public class BorrowingRuleService {
         BorrowingRule savedRule = borrowingRuleRepository.save(rule);
         logger.info("Updated borrowing rule: {} = {}", ruleKey, updateDto.ruleValue());
 
+        publishAfterCommit(savedRule);
+
         return BorrowingRuleDto.fromEntity(savedRule);
     }
 
+    // Readers only see the new value once it is committed; a rolled back update never reaches the snapshot
+    private void publishAfterCommit(BorrowingRule rule) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshot.updateAndGet(current -> current.with(rule));
+                }
+            });
+        } else {
+            snapshot.updateAndGet(current -> current.with(rule));
+        }
+    }
+
     /**
-     * Get rule value helpers for service usage
+     * Get rule value helpers for service usage, served from the in-memory snapshot
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Integer getIntegerRule(String ruleKey) {
-        return borrowingRuleRepository
-                .findByRuleKey(ruleKey)
-                .map(BorrowingRule::getIntegerValue)
-                .orElseThrow(() -> new ResourceNotFoundException("BorrowingRule", "ruleKey", ruleKey));
+        return snapshot.get().getInteger(ruleKey);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public BigDecimal getDecimalRule(String ruleKey) {
-        return borrowingRuleRepository
-                .findByRuleKey(ruleKey)
-                .map(BorrowingRule::getDecimalValue)
-                .orElseThrow(() -> new ResourceNotFoundException("BorrowingRule", "ruleKey", ruleKey));
+        return snapshot.get().getDecimal(ruleKey);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Boolean getBooleanRule(String ruleKey) {
-        return borrowingRuleRepository
-                .findByRuleKey(ruleKey)
-                .map(BorrowingRule::getBooleanValue)
-                .orElseThrow(() -> new ResourceNotFoundException("BorrowingRule", "ruleKey", ruleKey));
+        return snapshot.get().getBoolean(ruleKey);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public String getStringRule(String ruleKey) {
-        return borrowingRuleRepository
-                .findByRuleKey(ruleKey)
-                .map(BorrowingRule::getStringValue)
-                .orElseThrow(() -> new ResourceNotFoundException("BorrowingRule", "ruleKey", ruleKey));
+        return snapshot.get().getString(ruleKey);
     }
 
     /**
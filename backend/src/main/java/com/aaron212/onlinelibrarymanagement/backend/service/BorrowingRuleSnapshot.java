@@ -0,0 +1,95 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.exception.ResourceNotFoundException;
+import com.aaron212.onlinelibrarymanagement.backend.model.BorrowingRule;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, pre-parsed view of all borrowing rules. Reads never touch the database;
+ * a new snapshot is built and swapped in whenever rules change.
+ */
+final class BorrowingRuleSnapshot {
+
+    static final BorrowingRuleSnapshot EMPTY = new BorrowingRuleSnapshot(Map.of());
+
+    private final Map<String, Entry> entries;
+
+    private BorrowingRuleSnapshot(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    static BorrowingRuleSnapshot of(Collection<BorrowingRule> rules) {
+        Map<String, Entry> entries = new HashMap<>();
+        for (BorrowingRule rule : rules) {
+            entries.put(rule.getRuleKey(), Entry.from(rule));
+        }
+        return new BorrowingRuleSnapshot(Map.copyOf(entries));
+    }
+
+    /** Copy of this snapshot with one rule replaced */
+    BorrowingRuleSnapshot with(BorrowingRule rule) {
+        Map<String, Entry> updated = new HashMap<>(entries);
+        updated.put(rule.getRuleKey(), Entry.from(rule));
+        return new BorrowingRuleSnapshot(Map.copyOf(updated));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    Integer getInteger(String ruleKey) {
+        return typedValue(ruleKey, BorrowingRule.ValueType.INTEGER, Integer.class, "an integer");
+    }
+
+    BigDecimal getDecimal(String ruleKey) {
+        return typedValue(ruleKey, BorrowingRule.ValueType.DECIMAL, BigDecimal.class, "a decimal");
+    }
+
+    Boolean getBoolean(String ruleKey) {
+        return typedValue(ruleKey, BorrowingRule.ValueType.BOOLEAN, Boolean.class, "a boolean");
+    }
+
+    String getString(String ruleKey) {
+        return entry(ruleKey).rawValue();
+    }
+
+    private <T> T typedValue(String ruleKey, BorrowingRule.ValueType expected, Class<T> type, String description) {
+        Entry entry = entry(ruleKey);
+        if (entry.valueType() != expected || entry.value() == null) {
+            throw new IllegalStateException("Rule value is not " + description + ": " + ruleKey);
+        }
+        return type.cast(entry.value());
+    }
+
+    private Entry entry(String ruleKey) {
+        Entry entry = entries.get(ruleKey);
+        if (entry == null) {
+            throw new ResourceNotFoundException("BorrowingRule", "ruleKey", ruleKey);
+        }
+        return entry;
+    }
+
+    private record Entry(BorrowingRule.ValueType valueType, String rawValue, Object value) {
+
+        static Entry from(BorrowingRule rule) {
+            return new Entry(rule.getValueType(), rule.getRuleValue(), parse(rule));
+        }
+
+        // Malformed values are kept as null so only reads of that rule fail, not the whole snapshot
+        private static Object parse(BorrowingRule rule) {
+            try {
+                return switch (rule.getValueType()) {
+                    case INTEGER -> rule.getIntegerValue();
+                    case DECIMAL -> rule.getDecimalValue();
+                    case BOOLEAN -> rule.getBooleanValue();
+                    case STRING -> rule.getStringValue();
+                };
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory copy of the category tree. Every code extends its parent's code (X → X1 → X12 → X12.5),
+ * so the tree is a trie over index codes. Reads are lock-free; nodes are only added, after the
+ * inserting transaction committed.
+ */
+final class CategoryTrie {
+
+    /**
+     * A category as seen by the trie; {@code path} is its materialized path, e.g. {@code /root/X/X1/}
+     */
+    record Node(Long id, String code, String name, String parentCode, String path, List<Node> children) {}
+
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+
+    private CategoryTrie() {}
+
+    static CategoryTrie empty() {
+        return new CategoryTrie();
+    }
+
+    /**
+     * Build the trie from all category rows, deriving the paths from the parent links
+     */
+    static CategoryTrie of(Collection<IndexCategory> categories) {
+        Map<Long, IndexCategory> byId = new HashMap<>();
+        categories.forEach(category -> byId.put(category.getId(), category));
+
+        CategoryTrie trie = new CategoryTrie();
+        Map<Long, String> paths = new HashMap<>();
+        for (IndexCategory category : categories) {
+            trie.addWithAncestors(category, byId, paths);
+        }
+        return trie;
+    }
+
+    /* Parents are added before their children, so every child finds its parent node */
+    private String addWithAncestors(IndexCategory category, Map<Long, IndexCategory> byId, Map<Long, String> paths) {
+        String known = paths.get(category.getId());
+        if (known != null) {
+            return known;
+        }
+        IndexCategory parent =
+                category.getParent() != null ? byId.get(category.getParent().getId()) : null;
+        String parentPath = parent != null ? addWithAncestors(parent, byId, paths) : "/";
+        String path = parentPath + category.getIndexCode() + "/";
+        paths.put(category.getId(), path);
+        add(
+                category.getId(),
+                category.getIndexCode(),
+                category.getName(),
+                parent != null ? parent.getIndexCode() : null,
+                path);
+        return path;
+    }
+
+    Optional<Node> find(String code) {
+        return Optional.ofNullable(nodes.get(code));
+    }
+
+    /**
+     * Add a category whose parent, if any, is already in the trie
+     */
+    synchronized void add(Long id, String code, String name, String parentCode, String path) {
+        if (nodes.containsKey(code)) {
+            return;
+        }
+        Node node = new Node(id, code, name, parentCode, path, new CopyOnWriteArrayList<>());
+        nodes.put(code, node);
+        if (parentCode != null) {
+            Node parent = nodes.get(parentCode);
+            if (parent != null) {
+                parent.children().add(node);
+            }
+        }
+    }
+
+    /**
+     * The category and all of its descendants, parents before children
+     */
+    List<Node> subtree(String code) {
+        Node root = nodes.get(code);
+        if (root == null) {
+            return List.of();
+        }
+        List<Node> result = new ArrayList<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            result.add(node);
+            node.children().reversed().forEach(pending::push);
+        }
+        return result;
+    }
+
+    int size() {
+        return nodes.size();
+    }
+}
@@ -1,5 +1,6 @@
 package com.aaron212.onlinelibrarymanagement.backend.service;
 
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookRatingSummaryDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.CommentCreateDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.CommentDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.CommentUpdateDto;
@@ -9,6 +10,8 @@ import com.aaron212.onlinelibrarymanagement.backend.model.User;
 import com.aaron212.onlinelibrarymanagement.backend.repository.BookRepository;
 import com.aaron212.onlinelibrarymanagement.backend.repository.CommentRepository;
 import com.aaron212.onlinelibrarymanagement.backend.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -18,18 +21,24 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed("library.service")
 @Transactional
 public class CommentService {
 
     private final CommentRepository commentRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
+    private final BookRatingSummaryService bookRatingSummaryService;
 
     public CommentService(
-            CommentRepository commentRepository, BookRepository bookRepository, UserRepository userRepository) {
+            CommentRepository commentRepository,
+            BookRepository bookRepository,
+            UserRepository userRepository,
+            BookRatingSummaryService bookRatingSummaryService) {
         this.commentRepository = commentRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
+        this.bookRatingSummaryService = bookRatingSummaryService;
     }
 
     // Create a new comment
@@ -99,7 +108,7 @@ public class CommentService {
     // Update comment (only by the author and only if pending)
     public CommentDto updateComment(Long id, CommentUpdateDto commentUpdateDto, String username) {
         Comment comment = commentRepository
-                .findById(id)
+                .findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Comment not found with id: " + id));
 
         // Check if user is the author of the comment
@@ -112,8 +121,10 @@ public class CommentService {
             throw new RuntimeException("Only pending comments can be updated");
         }
 
+        BigDecimal previousRating = comment.getRating();
         comment.setContent(commentUpdateDto.content());
         comment.setRating(commentUpdateDto.rating());
+        bookRatingSummaryService.ratingChanged(comment, previousRating);
 
         Comment updatedComment = commentRepository.save(comment);
         return convertToDto(updatedComment);
@@ -122,7 +133,7 @@ public class CommentService {
     // Delete comment (by author or admin)
     public void deleteComment(Long id, String username, User.Role userRole) {
         Comment comment = commentRepository
-                .findById(id)
+                .findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Comment not found with id: " + id));
 
         // Check if user is authorized to delete (author or admin)
@@ -130,14 +141,16 @@ public class CommentService {
             throw new RuntimeException("User is not authorized to delete this comment");
         }
 
+        Comment.Status previousStatus = comment.getStatus();
         comment.setStatus(Comment.Status.DELETED);
+        bookRatingSummaryService.statusChanged(comment, previousStatus);
         commentRepository.save(comment);
     }
 
     // Approve comment (admin only)
     public CommentDto approveComment(Long id) {
         Comment comment = commentRepository
-                .findById(id)
+                .findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Comment not found with id: " + id));
 
         if (comment.getStatus() != Comment.Status.PENDING) {
@@ -145,6 +158,7 @@ public class CommentService {
         }
 
         comment.setStatus(Comment.Status.PUBLISHED);
+        bookRatingSummaryService.statusChanged(comment, Comment.Status.PENDING);
         Comment approvedComment = commentRepository.save(comment);
         return convertToDto(approvedComment);
     }
@@ -152,7 +166,7 @@ public class CommentService {
     // Reject comment (admin only)
     public void rejectComment(Long id) {
         Comment comment = commentRepository
-                .findById(id)
+                .findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Comment not found with id: " + id));
 
         if (comment.getStatus() != Comment.Status.PENDING) {
@@ -160,19 +174,26 @@ public class CommentService {
         }
 
         comment.setStatus(Comment.Status.DELETED);
+        bookRatingSummaryService.statusChanged(comment, Comment.Status.PENDING);
         commentRepository.save(comment);
     }
 
-    // Get average rating for a book
+    // Get average rating for a book, read from the maintained rating summary
     @Transactional(readOnly = true)
     public Optional<Double> getAverageRatingForBook(Long bookId) {
-        return commentRepository.findAverageRatingByBookIdAndStatus(bookId, Comment.Status.PUBLISHED);
+        return bookRatingSummaryService.getAverageRating(bookId);
     }
 
-    // Get comment count for a book
+    // Get published comment count for a book, read from the maintained rating summary
     @Transactional(readOnly = true)
     public long getCommentCountForBook(Long bookId) {
-        return commentRepository.countByBookIdAndStatus(bookId, Comment.Status.PUBLISHED);
+        return bookRatingSummaryService.getCommentCount(bookId);
+    }
+
+    // Get rating count, average and histogram for a book
+    @Transactional(readOnly = true)
+    public BookRatingSummaryDto getRatingSummaryForBook(Long bookId) {
+        return bookRatingSummaryService.getSummary(bookId);
     }
 
     // Convert Comment entity to DTO
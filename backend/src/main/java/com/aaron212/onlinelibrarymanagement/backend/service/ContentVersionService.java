@@ -0,0 +1,152 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.event.BookChangedEvent;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory change counters behind the ETags of the public catalogue and notice reads, so a
+ * conditional GET is answered without touching the database. Counters are bumped after the
+ * changing transaction committed: a reader takes the version before loading the data, so a
+ * response is never labelled with a version newer than its content. Versions start over on
+ * restart, hence the random epoch in every tag.
+ *
+ * <p>Assumes a single application instance. Only changes made through this process bump its
+ * counters: with several instances, one that did not see a change keeps answering 304 for content
+ * that changed elsewhere. The epoch only keeps tags of different instances from matching each other.
+ * Scaling out needs the versions kept in the database instead, e.g. a version row per resource
+ * bumped in the changing transaction.
+ *
+ * <p>Each counter also remembers when it last moved, so readers can tell whether a replica may not
+ * have applied the commit behind the current version yet.
+ */
+@Service
+public class ContentVersionService {
+
+    public enum Resource {
+        BOOKS,
+        CATEGORIES,
+        NOTICES
+    }
+
+    private final String epoch = Long.toString(System.nanoTime() ^ System.currentTimeMillis(), 36);
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final Map<Resource, AtomicLong> versions = new EnumMap<>(Resource.class);
+
+    /* System.nanoTime() of the last change of each resource, set before its version moves */
+    private final Map<Resource, AtomicLong> changeTimes = new EnumMap<>(Resource.class);
+
+    /* BOOKS version at which each book last changed; books unchanged since startup are absent */
+    private final Map<Long, BookVersion> bookVersions = new ConcurrentHashMap<>();
+
+    public ContentVersionService() {
+        for (Resource resource : Resource.values()) {
+            versions.put(resource, new AtomicLong());
+            changeTimes.put(resource, new AtomicLong(NEVER));
+        }
+    }
+
+    public long version(Resource resource) {
+        return versions.get(resource).get();
+    }
+
+    /**
+     * Strong ETag of every representation of a resource, e.g. all pages of the book list
+     */
+    public String etag(Resource resource) {
+        return etag(resource.name().toLowerCase(), version(resource));
+    }
+
+    /**
+     * Strong ETag of a single book
+     */
+    public String bookEtag(Long bookId) {
+        BookVersion version = bookVersions.get(bookId);
+        return etag("book", bookId, version == null ? 0L : version.version());
+    }
+
+    /**
+     * Whether a resource changed less than {@code window} ago. Checked after taking the ETag: a tag
+     * naming the new version is always followed by true here until the window has passed.
+     */
+    public boolean changedWithin(Resource resource, Duration window) {
+        return within(changeTimes.get(resource).get(), window);
+    }
+
+    /**
+     * Whether a book changed less than {@code window} ago, see {@link #changedWithin(Resource, Duration)}
+     */
+    public boolean bookChangedWithin(Long bookId, Duration window) {
+        BookVersion version = bookVersions.get(bookId);
+        return version != null && within(version.changeTime(), window);
+    }
+
+    private static boolean within(long changeTime, Duration window) {
+        return changeTime != NEVER && System.nanoTime() - changeTime < window.toNanos();
+    }
+
+    /**
+     * Strong ETag made of the given parts, valid for the life of this process
+     */
+    public String etag(Object... parts) {
+        StringBuilder tag = new StringBuilder("\"").append(epoch);
+        for (Object part : parts) {
+            tag.append('-').append(part);
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Record a change of a resource once the current transaction commits
+     */
+    public void changed(Resource resource) {
+        afterCommit(() -> {
+            changeTimes.get(resource).accumulateAndGet(System.nanoTime(), Math::max);
+            versions.get(resource).incrementAndGet();
+        });
+    }
+
+    /**
+     * Record a change of a book, which also changes the book list, once the current transaction commits
+     */
+    public void bookChanged(Long bookId) {
+        afterCommit(() -> bumpBook(bookId));
+    }
+
+    /* Already called after commit, where new synchronizations would no longer run */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        bumpBook(event.bookId());
+    }
+
+    private void bumpBook(Long bookId) {
+        long changeTime = System.nanoTime();
+        changeTimes.get(Resource.BOOKS).accumulateAndGet(changeTime, Math::max);
+        BookVersion version = new BookVersion(versions.get(Resource.BOOKS).incrementAndGet(), changeTime);
+        bookVersions.merge(bookId, version, (a, b) -> a.version() >= b.version() ? a : b);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record BookVersion(long version, long changeTime) {}
+}
@@ -0,0 +1,163 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.DashboardSummaryDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.LibraryStatisticsDto;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Assembles the statistics dashboard from sections queried concurrently, so it takes as long as the
+ * slowest section instead of the sum of all of them. At most one refresh per section runs at a time;
+ * requests arriving meanwhile wait for that refresh instead of starting another one. A semaphore
+ * bounds how many section queries run at once, keeping dashboard refreshes from draining the
+ * connection pool. A section that misses {@code library.statistics.dashboard.section-timeout} or
+ * fails is served from its last good value and reported as stale; its refresh is cancelled, or
+ * skipped if it had not got a query slot before the deadline.
+ */
+@Service
+public class DashboardService {
+
+    static final String USER_BEHAVIOR = "userBehavior";
+    static final String INVENTORY = "inventory";
+    static final String LIBRARY = "library";
+
+    private static final int SECTIONS = 3;
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    private final StatisticsService statisticsService;
+    // One refresh per section at a time needs a thread per section; the queue only fills up while
+    // cancelled queries that ignore the interrupt are still finishing, and a full queue is a stale section
+    private final ExecutorService executor = new ThreadPoolExecutor(
+            SECTIONS,
+            SECTIONS,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(SECTIONS),
+            Thread.ofPlatform().name("dashboard-", 0).daemon().factory());
+    private final Semaphore permits;
+    private final Duration sectionTimeout;
+    private final Map<String, Object> lastGood = new ConcurrentHashMap<>();
+    private final Map<String, Refresh> inFlight = new ConcurrentHashMap<>();
+
+    public DashboardService(
+            StatisticsService statisticsService,
+            @Value("${library.statistics.dashboard.max-concurrency:4}") int maxConcurrency,
+            @Value("${library.statistics.dashboard.section-timeout:PT2S}") Duration sectionTimeout) {
+        this.statisticsService = statisticsService;
+        this.permits = new Semaphore(maxConcurrency);
+        this.sectionTimeout = sectionTimeout;
+    }
+
+    @SuppressWarnings("unchecked")
+    public DashboardSummaryDto getDashboardSummary() {
+        long deadline = System.nanoTime() + sectionTimeout.toNanos();
+        Refresh userBehavior = refresh(USER_BEHAVIOR, statisticsService::getUserBehaviorAnalysis, deadline);
+        Refresh inventory = refresh(INVENTORY, statisticsService::getBookInventoryStatistics, deadline);
+        Refresh library = refresh(LIBRARY, statisticsService::getLibraryStatistics, deadline);
+
+        // All sections started together, so they share one deadline
+        List<String> stale = new ArrayList<>();
+        Object userBehaviorValue = await(USER_BEHAVIOR, userBehavior, deadline, stale);
+        Object inventoryValue = await(INVENTORY, inventory, deadline, stale);
+        Object libraryValue = await(LIBRARY, library, deadline, stale);
+        return new DashboardSummaryDto(
+                (Map<String, Long>) userBehaviorValue,
+                (Map<String, Map<String, Long>>) inventoryValue,
+                (LibraryStatisticsDto) libraryValue,
+                List.copyOf(stale),
+                System.currentTimeMillis());
+    }
+
+    /* Joins the refresh of a section that is already running, or starts one */
+    private Refresh refresh(String section, Supplier<?> query, long deadline) {
+        Refresh started = new Refresh(section, () -> query(section, query, deadline));
+        // A finished refresh may still be in the map: waiters are released before done() runs
+        Refresh current =
+                inFlight.compute(section, (key, running) -> running == null || running.isDone() ? started : running);
+        if (current != started) {
+            return current;
+        }
+        try {
+            executor.execute(started);
+        } catch (RejectedExecutionException e) {
+            started.cancel(false);
+        }
+        return started;
+    }
+
+    private Object query(String section, Supplier<?> query, long deadline) throws Exception {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0 || !permits.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("No query slot for dashboard section " + section + " before the deadline");
+        }
+        try {
+            Object value = query.get();
+            if (value != null) {
+                lastGood.put(section, value);
+            }
+            return value;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Object await(String section, Refresh refresh, long deadline, List<String> stale) {
+        try {
+            return refresh.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // A joined refresh was started by an earlier request, so its own deadline has passed too
+            refresh.cancel(true);
+            logger.warn("Dashboard section {} did not finish within {}", section, sectionTimeout);
+        } catch (ExecutionException e) {
+            logger.warn("Dashboard section {} failed", section, e.getCause());
+        } catch (CancellationException e) {
+            logger.warn("Dashboard section {} was cancelled", section);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stale.add(section);
+        return lastGood.get(section);
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /* A section refresh; leaves the in-flight map when it completes, fails or is cancelled */
+    private final class Refresh extends FutureTask<Object> {
+
+        private final String section;
+
+        private Refresh(String section, Callable<Object> query) {
+            super(query);
+            this.section = section;
+        }
+
+        @Override
+        protected void done() {
+            inFlight.remove(section, this);
+        }
+    }
+}
@@ -25,16 +25,19 @@ public class FavoriteService {
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final FavoriteMapper favoriteMapper;
+    private final BookPageLoader bookPageLoader;
 
     public FavoriteService(
             FavoriteRepository favoriteRepository,
             UserRepository userRepository,
             BookRepository bookRepository,
-            FavoriteMapper favoriteMapper) {
+            FavoriteMapper favoriteMapper,
+            BookPageLoader bookPageLoader) {
         this.favoriteRepository = favoriteRepository;
         this.userRepository = userRepository;
         this.bookRepository = bookRepository;
         this.favoriteMapper = favoriteMapper;
+        this.bookPageLoader = bookPageLoader;
     }
 
     @Transactional(readOnly = true)
@@ -44,6 +47,10 @@ public class FavoriteService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
 
         Page<Favorite> favorites = favoriteRepository.findByUserIdWithBookDetails(user.getId(), pageable);
+        // Fills in authors, publishers and category of the favourites' books, which are the same instances
+        bookPageLoader.load(favorites.getContent().stream()
+                .map(favorite -> favorite.getBook().getId())
+                .toList());
         return favorites.map(favoriteMapper::toFavoriteDto);
     }
 
@@ -18,14 +18,20 @@ public class FeeService {
     private final BorrowRepository borrowRepository;
     private final BookCopyRepository bookCopyRepository;
     private final BorrowingRuleService borrowingRuleService;
+    private final BookCopyCountService bookCopyCountService;
+    private final UserLoanSummaryService userLoanSummaryService;
 
     public FeeService(
             BorrowRepository borrowRepository,
             BookCopyRepository bookCopyRepository,
-            BorrowingRuleService borrowingRuleService) {
+            BorrowingRuleService borrowingRuleService,
+            BookCopyCountService bookCopyCountService,
+            UserLoanSummaryService userLoanSummaryService) {
         this.borrowRepository = borrowRepository;
         this.bookCopyRepository = bookCopyRepository;
         this.borrowingRuleService = borrowingRuleService;
+        this.bookCopyCountService = bookCopyCountService;
+        this.userLoanSummaryService = userLoanSummaryService;
     }
 
     // -------------------- 逾期罚款计算 --------------------
@@ -42,10 +48,12 @@ public class FeeService {
             return borrow;
         }
 
+        UserLoanSummaryService.LoanState before = UserLoanSummaryService.LoanState.of(borrow);
         long daysOverdue = ChronoUnit.DAYS.between(borrow.getReturnTime(), LocalDateTime.now());
         if (daysOverdue <= 0) {
             borrow.setStatus(Borrow.Status.BORROWED);
             borrow.setFine(BigDecimal.ZERO);
+            userLoanSummaryService.borrowChanged(before, borrow);
             return borrowRepository.save(borrow);
         }
 
@@ -54,6 +62,7 @@ public class FeeService {
 
         borrow.setFine(totalFine);
         borrow.setStatus(Borrow.Status.OVERDUE);
+        userLoanSummaryService.borrowChanged(before, borrow);
         return borrowRepository.save(borrow);
     }
 
@@ -66,6 +75,7 @@ public class FeeService {
                         "Borrow", "id", borrowId));
 
         BookCopy copy = borrow.getCopy();
+        UserLoanSummaryService.LoanState before = UserLoanSummaryService.LoanState.of(borrow);
 
         BigDecimal compensation = Optional.ofNullable(copy.getPurchasePrice()).orElse(BigDecimal.ZERO);
 
@@ -73,14 +83,21 @@ public class FeeService {
         borrow.setStatus(Borrow.Status.LOST);
         borrow.setActualReturnTime(LocalDateTime.now());
 
+        BookCopy.Status previousStatus = copy.getStatus();
         copy.setStatus(BookCopy.Status.DISCARDED);
         bookCopyRepository.save(copy);
+        bookCopyCountService.statusChanged(copy, previousStatus);
+        userLoanSummaryService.borrowChanged(before, borrow);
 
         return borrowRepository.save(borrow);
     }
 
     // -------------------- 查询用户待缴费用 --------------------
     public List<Borrow> getUnpaidFeesByUser(Long userId) {
+        // 大多数读者没有欠费，先看汇总行
+        if (userLoanSummaryService.getSummary(userId).getUnpaidFines().signum() == 0) {
+            return List.of();
+        }
         return borrowRepository.findUnpaidFeesByUser(userId);
     }
 }
@@ -1,5 +1,7 @@
 package com.aaron212.onlinelibrarymanagement.backend.service;
 
+import com.aaron212.onlinelibrarymanagement.backend.dto.IndexCategoryNodeDto;
+import com.aaron212.onlinelibrarymanagement.backend.exception.ResourceNotFoundException;
 import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
 import com.aaron212.onlinelibrarymanagement.backend.repository.IndexCategoryRepository;
 import java.util.ArrayList;
@@ -8,6 +10,8 @@ import java.util.Optional;
 import java.util.regex.Pattern;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @Transactional
@@ -17,9 +21,15 @@ public class IndexCategoryService {
     private static final Pattern CATEGORY_PATTERN = Pattern.compile("\\w\\d+(\\.\\d+)?");
 
     private final IndexCategoryRepository indexCategoryRepository;
+    private final ContentVersionService contentVersionService;
 
-    public IndexCategoryService(IndexCategoryRepository indexCategoryRepository) {
+    // Loaded on first use, so every lookup after that skips the per-level findByIndexCode queries
+    private volatile CategoryTrie trie;
+
+    public IndexCategoryService(
+            IndexCategoryRepository indexCategoryRepository, ContentVersionService contentVersionService) {
         this.indexCategoryRepository = indexCategoryRepository;
+        this.contentVersionService = contentVersionService;
     }
 
     /**
@@ -41,6 +51,17 @@ public class IndexCategoryService {
                     + ". Expected format: \\w\\d+(\\.\\d+)? (e.g., X1234 or X1234.567)");
         }
 
+        // Known category: a single primary key lookup
+        Optional<CategoryTrie.Node> cached = trie().find(indexCode);
+        if (cached.isPresent()) {
+            Optional<IndexCategory> category =
+                    indexCategoryRepository.findById(cached.get().id());
+            if (category.isPresent()) {
+                return category.get();
+            }
+            trie = null; // stale, reload on next use
+        }
+
         // Generate the hierarchy from most specific to root
         List<String> hierarchy = generateCategoryHierarchy(indexCode);
 
@@ -49,10 +70,12 @@ public class IndexCategoryService {
 
         // Create categories from root to most specific, ensuring parent relationships
         IndexCategory currentParent = rootCategory;
+        String path = pathOf(null, ROOT_CATEGORY);
 
         for (int i = hierarchy.size() - 2; i >= 0; i--) { // Skip root (last element)
             String categoryCode = hierarchy.get(i);
-            IndexCategory category = findOrCreateCategory(categoryCode, currentParent);
+            path = pathOf(path, categoryCode);
+            IndexCategory category = findOrCreateCategory(categoryCode, currentParent, path);
             currentParent = category;
         }
 
@@ -96,22 +119,40 @@ public class IndexCategoryService {
      * Ensures the root category exists in the database
      */
     private IndexCategory ensureRootExists() {
-        return findOrCreateCategory(ROOT_CATEGORY, null);
+        return findOrCreateCategory(ROOT_CATEGORY, null, pathOf(null, ROOT_CATEGORY));
+    }
+
+    private static String pathOf(String parentPath, String indexCode) {
+        return (parentPath != null ? parentPath : "/") + indexCode + "/";
     }
 
     /**
      * Finds an existing category or creates a new one with the specified parent
      */
-    private IndexCategory findOrCreateCategory(String indexCode, IndexCategory parent) {
+    private IndexCategory findOrCreateCategory(String indexCode, IndexCategory parent, String path) {
+        // Ancestors already in the trie are linked through a reference, without a query
+        Optional<CategoryTrie.Node> cached = trie().find(indexCode);
+        if (cached.isPresent() && (parent == null || cached.get().parentCode() != null)) {
+            return indexCategoryRepository.getReferenceById(cached.get().id());
+        }
+
         Optional<IndexCategory> existing = indexCategoryRepository.findByIndexCode(indexCode);
 
         if (existing.isPresent()) {
             IndexCategory category = existing.get();
             // Update parent if it's not set and we have a parent
             if (category.getParent() == null && parent != null) {
+                String oldPath = category.getPath() != null ? category.getPath() : pathOf(null, indexCode);
                 category.setParent(parent);
+                category.setPath(path);
                 category = indexCategoryRepository.save(category);
+                // Descendants carry the old path as their prefix; move them in the same transaction
+                indexCategoryRepository.rewritePathPrefix(oldPath, path);
+                contentVersionService.changed(ContentVersionService.Resource.CATEGORIES);
+                reloadTrieAfterCommit();
+                return category;
             }
+            addToTrieAfterCommit(category, parent);
             return category;
         }
 
@@ -119,6 +160,7 @@ public class IndexCategoryService {
         IndexCategory newCategory = new IndexCategory();
         newCategory.setIndexCode(indexCode);
         newCategory.setParent(parent);
+        newCategory.setPath(path);
 
         // Set a default name based on the index code
         if (ROOT_CATEGORY.equals(indexCode)) {
@@ -127,7 +169,103 @@ public class IndexCategoryService {
             newCategory.setName("Category " + indexCode);
         }
 
-        return indexCategoryRepository.save(newCategory);
+        IndexCategory saved = indexCategoryRepository.save(newCategory);
+        contentVersionService.changed(ContentVersionService.Resource.CATEGORIES);
+        addToTrieAfterCommit(saved, parent);
+        return saved;
+    }
+
+    private void addToTrieAfterCommit(IndexCategory category, IndexCategory parent) {
+        Long id = category.getId();
+        String indexCode = category.getIndexCode();
+        String name = category.getName();
+        String parentCode = parent != null ? parent.getIndexCode() : null;
+        String path = category.getPath() != null ? category.getPath() : pathOf(null, indexCode);
+        // 事务回滚时不能留下不存在的分类，所以提交后才放进 trie
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    trie().add(id, indexCode, name, parentCode, path);
+                }
+            });
+        } else {
+            trie().add(id, indexCode, name, parentCode, path);
+        }
+    }
+
+    /* The trie only adds nodes, so a moved subtree is picked up by loading it again */
+    private void reloadTrieAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    trie = null;
+                }
+            });
+        } else {
+            trie = null;
+        }
+    }
+
+    private CategoryTrie trie() {
+        CategoryTrie current = trie;
+        if (current == null) {
+            current = CategoryTrie.of(indexCategoryRepository.findAll());
+            trie = current;
+        }
+        return current;
+    }
+
+    /**
+     * Fill in missing or outdated materialized paths from the parent links, and warm the trie
+     * @return number of updated categories
+     */
+    public int backfillPaths() {
+        List<IndexCategory> categories = indexCategoryRepository.findAll();
+        CategoryTrie loaded = CategoryTrie.of(categories);
+        int updated = 0;
+        for (IndexCategory category : categories) {
+            String path = loaded.find(category.getIndexCode())
+                    .map(CategoryTrie.Node::path)
+                    .orElse(null);
+            if (path != null && !path.equals(category.getPath())) {
+                category.setPath(path);
+                updated++;
+            }
+        }
+        trie = loaded;
+        if (updated > 0) {
+            contentVersionService.changed(ContentVersionService.Resource.CATEGORIES);
+        }
+        return updated;
+    }
+
+    /**
+     * Materialized path of a category, e.g. /root/X/X1/X12/
+     * @throws ResourceNotFoundException if the category does not exist
+     */
+    @Transactional(readOnly = true)
+    public String getPath(String indexCode) {
+        return trie().find(indexCode)
+                .map(CategoryTrie.Node::path)
+                .or(() -> indexCategoryRepository.findByIndexCode(indexCode).map(IndexCategory::getPath))
+                .orElseThrow(() -> new ResourceNotFoundException("IndexCategory", "indexCode", indexCode));
+    }
+
+    /**
+     * A category followed by all of its descendants, served from the in-memory trie
+     * @throws ResourceNotFoundException if the category does not exist
+     */
+    @Transactional(readOnly = true)
+    public List<IndexCategoryNodeDto> getSubtree(String indexCode) {
+        List<CategoryTrie.Node> nodes = trie().subtree(indexCode);
+        if (nodes.isEmpty()) {
+            throw new ResourceNotFoundException("IndexCategory", "indexCode", indexCode);
+        }
+        return nodes.stream()
+                .map(node -> new IndexCategoryNodeDto(node.id(), node.code(), node.name(), node.parentCode()))
+                .toList();
     }
 
     /**
@@ -1,14 +1,18 @@
 package com.aaron212.onlinelibrarymanagement.backend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.annotation.PostConstruct;
 import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 import javax.crypto.SecretKey;
 import lombok.extern.slf4j.Slf4j;
@@ -19,22 +23,40 @@ import org.springframework.stereotype.Component;
 @Component
 @Slf4j
 public class JwtService {
+    public static final String UPDATE_TIME_CLAIM = "updateTime";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     private SecretKey key;
 
+    private JwtParser parser;
+
+    // Verified token -> claims, so the signature is checked once per token rather than once per request
+    private Cache<String, Claims> verifiedTokens;
+
     @Value("${jwt.expirationMs}")
     private int jwtExpirationMs;
 
+    @Value("${jwt.cache.maximumSize:10000}")
+    private long cacheMaximumSize;
+
+    @Value("${jwt.cache.ttl:PT5M}")
+    private Duration cacheTtl;
+
     @PostConstruct
     private void initializeKey() {
         key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(key).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
     }
 
     public String generateToken(String userName, Timestamp updateTime) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("updateTime", updateTime.getTime());
+        claims.put(UPDATE_TIME_CLAIM, updateTime.getTime());
         return createToken(claims, userName);
     }
 
@@ -58,13 +80,21 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && !isExpired(cached)) {
+            return cached;
+        }
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        verifiedTokens.put(token, claims);
+        return claims;
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * Verify a token and return its claims, or empty if the token is invalid or expired
+     */
+    public Optional<Claims> verifyToken(String authToken) {
         try {
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(authToken);
-            return true;
+            return Optional.of(extractAllClaims(authToken));
         } catch (SignatureException e) {
             log.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -77,18 +107,30 @@ public class JwtService {
             log.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return Optional.empty();
+    }
+
+    public boolean validateToken(String authToken) {
+        return verifyToken(authToken).isPresent();
     }
 
     private Boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
 
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
+    }
+
     public Boolean validateToken(String token, UserDetails userDetails) {
         final String username = extractUsername(token);
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
 
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isExpired(claims);
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -96,4 +138,12 @@ public class JwtService {
     public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
+
+    /**
+     * The user's lastUpdateTime (epoch millis) at the time the token was issued, or 0 if absent
+     */
+    public long extractUpdateTime(Claims claims) {
+        Number updateTime = claims.get(UPDATE_TIME_CLAIM, Number.class);
+        return updateTime != null ? updateTime.longValue() : 0L;
+    }
 }
@@ -8,7 +8,11 @@ import com.aaron212.onlinelibrarymanagement.backend.model.User;
 import com.aaron212.onlinelibrarymanagement.backend.repository.NoticeRepository;
 import com.aaron212.onlinelibrarymanagement.backend.repository.UserRepository;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -20,10 +24,20 @@ public class NoticeService {
 
     private final NoticeRepository noticeRepository;
     private final UserRepository userRepository;
+    private final ContentVersionService contentVersionService;
 
-    public NoticeService(NoticeRepository noticeRepository, UserRepository userRepository) {
+    /* Active notices change by themselves when a notice is published or expires */
+    private record ActiveWindow(long version, LocalDateTime end) {}
+
+    private volatile ActiveWindow activeWindow;
+
+    public NoticeService(
+            NoticeRepository noticeRepository,
+            UserRepository userRepository,
+            ContentVersionService contentVersionService) {
         this.noticeRepository = noticeRepository;
         this.userRepository = userRepository;
+        this.contentVersionService = contentVersionService;
     }
 
     public NoticeResponseDto createNotice(NoticeCreateDto noticeCreateDto, String creatorUsername) {
@@ -42,6 +56,7 @@ public class NoticeService {
         notice.setStatus(status);
 
         Notice savedNotice = noticeRepository.save(notice);
+        contentVersionService.changed(ContentVersionService.Resource.NOTICES);
         return mapToResponseDto(savedNotice);
     }
 
@@ -64,6 +79,29 @@ public class NoticeService {
         return noticeRepository.findActiveNotices(currentTime, pageable).map(this::mapToResponseDto);
     }
 
+    /**
+     * ETag of the active notices. Besides edits, it changes whenever a notice is published or
+     * expires; the next such time is looked up once per change, not per request.
+     */
+    @Transactional(readOnly = true)
+    public String getActiveNoticesEtag() {
+        long version = contentVersionService.version(ContentVersionService.Resource.NOTICES);
+        LocalDateTime now = LocalDateTime.now();
+        ActiveWindow window = activeWindow;
+        if (window == null || window.version() != version || !now.isBefore(window.end())) {
+            window = new ActiveWindow(version, nextActiveChange(now));
+            activeWindow = window;
+        }
+        return contentVersionService.etag("notices", version, window.end().toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private LocalDateTime nextActiveChange(LocalDateTime now) {
+        return Stream.of(noticeRepository.findNextPublishTime(now), noticeRepository.findNextExpireTime(now))
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(LocalDateTime.MAX);
+    }
+
     @Transactional(readOnly = true)
     public Page<NoticeResponseDto> getNoticesByStatus(Integer statusValue, Pageable pageable) {
         Notice.Status status = Notice.Status.fromValue(statusValue);
@@ -132,6 +170,7 @@ public class NoticeService {
         notice.setStatus(status);
 
         Notice savedNotice = noticeRepository.save(notice);
+        contentVersionService.changed(ContentVersionService.Resource.NOTICES);
         return mapToResponseDto(savedNotice);
     }
 
@@ -151,6 +190,7 @@ public class NoticeService {
         }
 
         noticeRepository.delete(notice);
+        contentVersionService.changed(ContentVersionService.Resource.NOTICES);
     }
 
     private NoticeResponseDto mapToResponseDto(Notice notice) {
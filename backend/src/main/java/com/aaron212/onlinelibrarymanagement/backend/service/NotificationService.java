@@ -0,0 +1,146 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.InAppNotificationDto;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.NotificationOutbox;
+import com.aaron212.onlinelibrarymanagement.backend.notification.NotificationChannel;
+import com.aaron212.onlinelibrarymanagement.backend.notification.NotificationRequest;
+import com.aaron212.onlinelibrarymanagement.backend.repository.InAppNotificationRepository;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes notifications to the outbox and serves the in-app inbox. Enqueueing only inserts rows in the
+ * caller's transaction, so a notification exists exactly when the change it announces committed and
+ * the request never waits for a delivery.
+ */
+@Service
+@Transactional
+public class NotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
+    private static final String INSERT_OUTBOX = "INSERT INTO notification_outbox "
+            + "(user_id, channel, type, title, content, status, attempts, next_attempt_time, create_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private static final String SELECT_DUE_SOON = "SELECT b.user_id, b.return_time, bk.title FROM borrow b "
+            + "JOIN book_copy c ON c.id = b.copy_id JOIN book bk ON bk.id = c.book_id "
+            + "WHERE b.status = ? AND b.return_time >= ? AND b.return_time < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InAppNotificationRepository inAppNotificationRepository;
+    private final List<String> channels;
+    private final Duration digestWindow;
+    private final int dueSoonDays;
+
+    public NotificationService(
+            JdbcTemplate jdbcTemplate,
+            InAppNotificationRepository inAppNotificationRepository,
+            ObjectProvider<NotificationChannel> channels,
+            @Value("${library.notifications.digest-window:PT1M}") Duration digestWindow,
+            @Value("${library.notifications.due-soon-days:2}") int dueSoonDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inAppNotificationRepository = inAppNotificationRepository;
+        this.channels = channels.orderedStream().map(NotificationChannel::name).toList();
+        this.digestWindow = digestWindow;
+        this.dueSoonDays = dueSoonDays;
+    }
+
+    public void enqueue(Long userId, NotificationOutbox.Type type, String title, String content) {
+        enqueueAll(List.of(new NotificationRequest(userId, type, title, content)));
+    }
+
+    /**
+     * Insert one outbox row per notification and enabled channel. Rows become due after the digest
+     * window, so notifications for the same user close together are delivered as one digest.
+     */
+    public void enqueueAll(List<NotificationRequest> requests) {
+        if (requests.isEmpty() || channels.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp createTime = Timestamp.valueOf(now);
+        Timestamp dueTime = Timestamp.valueOf(now.plus(digestWindow));
+        List<Object[]> rows = new ArrayList<>(requests.size() * channels.size());
+        for (NotificationRequest request : requests) {
+            for (String channel : channels) {
+                rows.add(new Object[] {
+                    request.userId(),
+                    channel,
+                    request.type().ordinal(),
+                    request.title(),
+                    request.content(),
+                    NotificationOutbox.Status.PENDING.ordinal(),
+                    dueTime,
+                    createTime
+                });
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, rows);
+    }
+
+    /**
+     * Remind the borrowers whose books are due on the day {@code library.notifications.due-soon-days}
+     * from today; run once a day, so every loan is reminded once per due date
+     * @return number of reminders written
+     */
+    public int remindDueSoon() {
+        LocalDateTime from = LocalDate.now().plusDays(dueSoonDays).atStartOfDay();
+        List<NotificationRequest> reminders = jdbcTemplate.query(
+                SELECT_DUE_SOON,
+                (rs, rowNum) -> new NotificationRequest(
+                        rs.getLong("user_id"),
+                        NotificationOutbox.Type.DUE_SOON,
+                        "借阅即将到期",
+                        "您借阅的《" + rs.getString("title") + "》将于 "
+                                + rs.getTimestamp("return_time")
+                                        .toLocalDateTime()
+                                        .toLocalDate()
+                                + " 到期，请按时归还或续借。"),
+                Borrow.Status.BORROWED.ordinal(),
+                Timestamp.valueOf(from),
+                Timestamp.valueOf(from.plusDays(1)));
+        enqueueAll(reminders);
+        logger.info("Queued {} due date reminders", reminders.size());
+        return reminders.size();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<InAppNotificationDto> getInbox(Long userId, Pageable pageable) {
+        return inAppNotificationRepository
+                .findByUserIdOrderByIdDesc(userId, pageable)
+                .map(notification -> new InAppNotificationDto(
+                        notification.getId(),
+                        notification.getType(),
+                        notification.getTitle(),
+                        notification.getContent(),
+                        notification.getCreateTime(),
+                        notification.getReadTime()));
+    }
+
+    @Transactional(readOnly = true)
+    public long countUnread(Long userId) {
+        return inAppNotificationRepository.countByUserIdAndReadTimeIsNull(userId);
+    }
+
+    /**
+     * @return false if the notification does not exist, belongs to another user or was already read
+     */
+    public boolean markRead(Long userId, Long notificationId) {
+        return inAppNotificationRepository.markRead(notificationId, userId, LocalDateTime.now()) == 1;
+    }
+}
@@ -0,0 +1,186 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.JobCheckpoint;
+import com.aaron212.onlinelibrarymanagement.backend.model.NotificationOutbox;
+import com.aaron212.onlinelibrarymanagement.backend.notification.NotificationRequest;
+import com.aaron212.onlinelibrarymanagement.backend.repository.JobCheckpointRepository;
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Marks borrows that are past due as OVERDUE and sets their accrued fine. The borrow table is
+ * walked by id in chunks; every chunk is its own short transaction that also advances the job
+ * checkpoint, so no transaction spans the whole table and an interrupted run resumes where it
+ * stopped.
+ */
+@Service
+public class OverdueSweepService {
+
+    static final String JOB_NAME = "overdue-sweep";
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueSweepService.class);
+
+    private static final String SELECT_OVERDUE_CHUNK =
+            "SELECT b.id, b.user_id, b.status, b.return_time, bk.title FROM borrow b "
+                    + "JOIN book_copy c ON c.id = b.copy_id JOIN book bk ON bk.id = c.book_id "
+                    + "WHERE b.id > ? AND b.actual_return_time IS NULL AND b.status IN (?, ?) AND b.return_time <= ? "
+                    + "ORDER BY b.id LIMIT ?";
+
+    // The actual_return_time guard skips borrows returned between the select and the update. The status
+    // guard only matches the status that was selected, so when overlapping sweeps both see a borrow as
+    // BORROWED, only one of them turns it OVERDUE and counts and notifies it
+    private static final String UPDATE_OVERDUE = "UPDATE borrow SET status = ?, fine = ?, update_time = ? "
+            + "WHERE id = ? AND actual_return_time IS NULL AND status = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final BorrowingRuleService borrowingRuleService;
+    private final NotificationService notificationService;
+    private final UserLoanSummaryService userLoanSummaryService;
+    private final int batchSize;
+
+    public OverdueSweepService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            JobCheckpointRepository jobCheckpointRepository,
+            BorrowingRuleService borrowingRuleService,
+            NotificationService notificationService,
+            UserLoanSummaryService userLoanSummaryService,
+            @Value("${library.jobs.overdue-sweep.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.borrowingRuleService = borrowingRuleService;
+        this.notificationService = notificationService;
+        this.userLoanSummaryService = userLoanSummaryService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Run a sweep, resuming an unfinished one if there is a checkpoint
+     * @return number of borrows updated by this invocation
+     */
+    public int sweep() {
+        // One rule value for the whole run, so all rows in a run are fined consistently
+        BigDecimal finePerDay = borrowingRuleService.getDecimalRule(BorrowingRuleService.FINE_PER_DAY);
+        JobCheckpoint checkpoint = transactionTemplate.execute(status -> startOrResume());
+        LocalDateTime runStartTime = checkpoint.getRunStartTime();
+        if (checkpoint.getLastId() > 0) {
+            logger.info("Resuming overdue sweep after borrow {}", checkpoint.getLastId());
+        }
+
+        long lastId = checkpoint.getLastId();
+        int updated = 0;
+        while (true) {
+            long afterId = lastId;
+            ChunkResult chunk = transactionTemplate.execute(status -> processChunk(afterId, runStartTime, finePerDay));
+            if (chunk.rows() == 0) {
+                break;
+            }
+            updated += chunk.updated();
+            lastId = chunk.lastId();
+        }
+
+        transactionTemplate.executeWithoutResult(
+                status -> saveCheckpoint(0, runStartTime, JobCheckpoint.Status.COMPLETED));
+        logger.info("Overdue sweep finished, {} borrows updated", updated);
+        return updated;
+    }
+
+    private JobCheckpoint startOrResume() {
+        return jobCheckpointRepository
+                .findById(JOB_NAME)
+                .filter(checkpoint -> checkpoint.getStatus() == JobCheckpoint.Status.RUNNING)
+                .orElseGet(() -> saveCheckpoint(0, LocalDateTime.now(), JobCheckpoint.Status.RUNNING));
+    }
+
+    private ChunkResult processChunk(long afterId, LocalDateTime runStartTime, BigDecimal finePerDay) {
+        // Only borrows at least one full day late accrue a fine, matching FeeService.calculateOverdueFine
+        List<OverdueRow> rows = jdbcTemplate.query(
+                SELECT_OVERDUE_CHUNK,
+                (rs, rowNum) -> new OverdueRow(
+                        rs.getLong("id"),
+                        rs.getLong("user_id"),
+                        rs.getInt("status") == Borrow.Status.BORROWED.ordinal(),
+                        rs.getTimestamp("return_time").toLocalDateTime(),
+                        rs.getString("title")),
+                afterId,
+                Borrow.Status.BORROWED.ordinal(),
+                Borrow.Status.OVERDUE.ordinal(),
+                Timestamp.valueOf(runStartTime.minusDays(1)),
+                batchSize);
+        if (rows.isEmpty()) {
+            return new ChunkResult(0, 0, afterId);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] results = jdbcTemplate.batchUpdate(UPDATE_OVERDUE, rows, rows.size(), (ps, row) -> {
+            long daysOverdue = ChronoUnit.DAYS.between(row.returnTime(), runStartTime);
+            ps.setInt(1, Borrow.Status.OVERDUE.ordinal());
+            ps.setBigDecimal(2, finePerDay.multiply(BigDecimal.valueOf(daysOverdue)));
+            ps.setTimestamp(3, now);
+            ps.setLong(4, row.id());
+            ps.setInt(5, (row.newlyOverdue() ? Borrow.Status.BORROWED : Borrow.Status.OVERDUE).ordinal());
+        });
+
+        // Readers are told once, when a borrow first turns overdue; later sweeps only update the fine
+        List<NotificationRequest> notices = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                OverdueRow row = rows.get(index++);
+                if (row.newlyOverdue() && isUpdated(count)) {
+                    userLoanSummaryService.loanTurnedOverdue(row.userId());
+                    notices.add(new NotificationRequest(
+                            row.userId(),
+                            NotificationOutbox.Type.OVERDUE,
+                            "借阅已逾期",
+                            "您借阅的《" + row.title() + "》已于 " + row.returnTime().toLocalDate() + " 到期，请尽快归还，逾期将按日计收罚款。"));
+                }
+            }
+        }
+        notificationService.enqueueAll(notices);
+
+        long lastId = rows.getLast().id();
+        saveCheckpoint(lastId, runStartTime, JobCheckpoint.Status.RUNNING);
+        return new ChunkResult(rows.size(), countUpdated(results), lastId);
+    }
+
+    private JobCheckpoint saveCheckpoint(long lastId, LocalDateTime runStartTime, JobCheckpoint.Status status) {
+        return jobCheckpointRepository.save(
+                new JobCheckpoint(JOB_NAME, lastId, runStartTime, status, LocalDateTime.now()));
+    }
+
+    private static int countUpdated(int[][] results) {
+        int updated = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                updated += isUpdated(count) ? 1 : 0;
+            }
+        }
+        return updated;
+    }
+
+    // Drivers may report SUCCESS_NO_INFO (-2) instead of a row count
+    private static boolean isUpdated(int count) {
+        return count > 0 || count == Statement.SUCCESS_NO_INFO;
+    }
+
+    private record OverdueRow(long id, long userId, boolean newlyOverdue, LocalDateTime returnTime, String title) {}
+
+    private record ChunkResult(int rows, int updated, long lastId) {}
+}
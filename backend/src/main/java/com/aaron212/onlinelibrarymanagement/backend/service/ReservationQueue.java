@@ -0,0 +1,246 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory copy of the reservation queues: the WAITING reservations of every book in FIFO order,
+ * and the expiry timers of READY holds. The {@code reservation} table stays the source of truth;
+ * {@link ReservationService} changes this copy only after its transaction committed and re-checks
+ * every entry against the database before acting on it.
+ */
+@Component
+public class ReservationQueue {
+
+    private volatile Map<Long, BookQueue> queues = new ConcurrentHashMap<>();
+    private final DelayQueue<HoldExpiry> expiries = new DelayQueue<>();
+
+    /* Set once every queue was loaded; from then on a missing book simply has nobody waiting */
+    private volatile boolean complete;
+
+    // Changes to books whose load is in flight, merged by load(); other unloaded books are not recorded
+    private final Map<Long, PendingLoad> loading = new HashMap<>();
+
+    // 全量重建读库期间的变更，装入新队列前重放
+    private final List<Change> rebuildChanges = new ArrayList<>();
+    private int rebuilds;
+
+    /**
+     * Start recording changes for {@link #replaceAll(Map)}; call before the rebuild reads the database
+     */
+    public synchronized void beginRebuild() {
+        rebuilds++;
+    }
+
+    /**
+     * Replace all queues with those read by a rebuild started with {@link #beginRebuild()}. Changes made
+     * since then are replayed, as the read may not have seen them.
+     * @param waitingByBook reservation ids per book, oldest first
+     */
+    public synchronized void replaceAll(Map<Long, List<Long>> waitingByBook) {
+        Map<Long, BookQueue> fresh = new ConcurrentHashMap<>();
+        waitingByBook.forEach((bookId, ids) -> fresh.put(bookId, new BookQueue(ids)));
+        rebuildChanges.forEach(change -> applyTo(fresh, change));
+        queues = fresh;
+        complete = true;
+        abortRebuild();
+    }
+
+    /**
+     * End a rebuild without installing it
+     */
+    public synchronized void abortRebuild() {
+        if (rebuilds > 0 && --rebuilds == 0) {
+            rebuildChanges.clear();
+        }
+    }
+
+    /**
+     * Whether the queue of a book is known without asking the database
+     */
+    public boolean isLoaded(Long bookId) {
+        return complete || queues.containsKey(bookId);
+    }
+
+    /**
+     * Start recording changes to a book for {@link #load(Long, List)}; call before reading its queue from
+     * the database. Changes to a book nobody is loading are dropped, as the read will see them.
+     */
+    public synchronized void beginLoad(Long bookId) {
+        loading.computeIfAbsent(bookId, id -> new PendingLoad()).loaders++;
+    }
+
+    /**
+     * Load the queue of a single book unless it is already known. Changes made since
+     * {@link #beginLoad(Long)} are merged, as the read may not have seen them.
+     */
+    public synchronized void load(Long bookId, List<Long> reservationIds) {
+        PendingLoad pending = loading.get(bookId);
+        if (!complete && !queues.containsKey(bookId)) {
+            BookQueue queue = new BookQueue(reservationIds);
+            if (pending != null) {
+                pending.changes.forEach(change -> change.applyTo(queue));
+            }
+            queues.put(bookId, queue);
+        }
+        abortLoad(bookId);
+    }
+
+    /**
+     * End a load started with {@link #beginLoad(Long)} without installing it
+     */
+    public synchronized void abortLoad(Long bookId) {
+        PendingLoad pending = loading.get(bookId);
+        if (pending != null && --pending.loaders == 0) {
+            loading.remove(bookId);
+        }
+    }
+
+    /**
+     * Append a new reservation
+     */
+    public synchronized void enqueue(Long bookId, Long reservationId) {
+        apply(new Change(bookId, reservationId, true));
+    }
+
+    public synchronized void remove(Long bookId, Long reservationId) {
+        apply(new Change(bookId, reservationId, false));
+    }
+
+    private void apply(Change change) {
+        if (rebuilds > 0) {
+            rebuildChanges.add(change);
+        }
+        if (!complete && !queues.containsKey(change.bookId())) {
+            PendingLoad pending = loading.get(change.bookId());
+            if (pending != null) {
+                pending.changes.add(change);
+            }
+            return;
+        }
+        applyTo(queues, change);
+    }
+
+    private static void applyTo(Map<Long, BookQueue> queues, Change change) {
+        BookQueue queue = change.added()
+                ? queues.computeIfAbsent(change.bookId(), id -> new BookQueue(List.of()))
+                : queues.get(change.bookId());
+        if (queue != null) {
+            change.applyTo(queue);
+        }
+    }
+
+    /**
+     * The waiting reservations of a book, oldest first
+     */
+    public List<Long> waiting(Long bookId) {
+        BookQueue queue = queues.get(bookId);
+        return queue != null ? queue.snapshot() : List.of();
+    }
+
+    /**
+     * 1-based position of a waiting reservation, or 0 if it is not queued
+     */
+    public int position(Long bookId, Long reservationId) {
+        BookQueue queue = queues.get(bookId);
+        return queue != null ? queue.position(reservationId) : 0;
+    }
+
+    public int size(Long bookId) {
+        BookQueue queue = queues.get(bookId);
+        return queue != null ? queue.size() : 0;
+    }
+
+    public void scheduleExpiry(Long reservationId, LocalDateTime holdExpireTime) {
+        expiries.add(new HoldExpiry(reservationId, holdExpireTime));
+    }
+
+    /**
+     * Block until a hold reaches its deadline
+     * @return the id of the reservation whose hold expired
+     */
+    public Long takeExpiredHold() throws InterruptedException {
+        return expiries.take().reservationId();
+    }
+
+    int scheduledExpiries() {
+        return expiries.size();
+    }
+
+    /* FIFO of one book; the index makes position lookups O(1) and is repaired on removal */
+    private static final class BookQueue {
+        private final List<Long> order = new ArrayList<>();
+        private final Map<Long, Integer> index = new HashMap<>();
+
+        BookQueue(List<Long> reservationIds) {
+            reservationIds.forEach(this::add);
+        }
+
+        synchronized void add(Long reservationId) {
+            if (!index.containsKey(reservationId)) {
+                index.put(reservationId, order.size());
+                order.add(reservationId);
+            }
+        }
+
+        synchronized void remove(Long reservationId) {
+            Integer at = index.remove(reservationId);
+            if (at == null) {
+                return;
+            }
+            order.remove((int) at);
+            for (int i = at; i < order.size(); i++) {
+                index.put(order.get(i), i);
+            }
+        }
+
+        synchronized int position(Long reservationId) {
+            Integer at = index.get(reservationId);
+            return at != null ? at + 1 : 0;
+        }
+
+        synchronized int size() {
+            return order.size();
+        }
+
+        synchronized List<Long> snapshot() {
+            return List.copyOf(order);
+        }
+    }
+
+    private static final class PendingLoad {
+        private int loaders;
+        private final List<Change> changes = new ArrayList<>();
+    }
+
+    private record Change(Long bookId, Long reservationId, boolean added) {
+        void applyTo(BookQueue queue) {
+            if (added) {
+                queue.add(reservationId);
+            } else {
+                queue.remove(reservationId);
+            }
+        }
+    }
+
+    private record HoldExpiry(Long reservationId, LocalDateTime holdExpireTime) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(LocalDateTime.now(), holdExpireTime));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return holdExpireTime.compareTo(((HoldExpiry) other).holdExpireTime);
+        }
+    }
+}
@@ -1,39 +1,71 @@
 package com.aaron212.onlinelibrarymanagement.backend.service;
 
+import com.aaron212.onlinelibrarymanagement.backend.dto.ReservationQueueStatusDto;
 import com.aaron212.onlinelibrarymanagement.backend.exception.BusinessLogicException;
 import com.aaron212.onlinelibrarymanagement.backend.exception.ResourceNotFoundException;
 import com.aaron212.onlinelibrarymanagement.backend.model.Book;
 import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
-import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.NotificationOutbox;
 import com.aaron212.onlinelibrarymanagement.backend.model.Reservation;
 import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import com.aaron212.onlinelibrarymanagement.backend.projection.ReservationQueueProjection;
 import com.aaron212.onlinelibrarymanagement.backend.repository.*;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+/**
+ * Reservation queues with a hold shelf: WAITING → READY (a returned copy is held) → FULFILLED when
+ * borrowed, or EXPIRED when not collected within {@code ADVANCE_RESERVE_DAYS}. Queue order and
+ * positions are served by {@link ReservationQueue}; every state change is a conditional update, so
+ * concurrent returns, cancellations and expiries never act on the same reservation twice.
+ */
 @Service
 @Transactional
 public class ReservationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
+    private static final List<Reservation.Status> ACTIVE =
+            List.of(Reservation.Status.WAITING, Reservation.Status.READY);
+
     private final ReservationRepository reservationRepository;
     private final BookRepository bookRepository;
     private final BookCopyRepository bookCopyRepository;
-    private final BorrowRepository borrowRepository;
     private final UserRepository userRepository;
+    private final BookCopyCountService bookCopyCountService;
+    private final BorrowingRuleService borrowingRuleService;
+    private final ReservationQueue reservationQueue;
+    private final NotificationService notificationService;
+    private final UserLoanSummaryService userLoanSummaryService;
 
     public ReservationService(
             ReservationRepository reservationRepository,
             BookRepository bookRepository,
             BookCopyRepository bookCopyRepository,
-            BorrowRepository borrowRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            BookCopyCountService bookCopyCountService,
+            BorrowingRuleService borrowingRuleService,
+            ReservationQueue reservationQueue,
+            NotificationService notificationService,
+            UserLoanSummaryService userLoanSummaryService) {
         this.reservationRepository = reservationRepository;
         this.bookRepository = bookRepository;
         this.bookCopyRepository = bookCopyRepository;
-        this.borrowRepository = borrowRepository;
         this.userRepository = userRepository;
+        this.bookCopyCountService = bookCopyCountService;
+        this.borrowingRuleService = borrowingRuleService;
+        this.reservationQueue = reservationQueue;
+        this.notificationService = notificationService;
+        this.userLoanSummaryService = userLoanSummaryService;
     }
 
     /**
@@ -52,12 +84,12 @@ public class ReservationService {
         }
 
         // Step 2: check user overdue borrows
-        if (borrowRepository.existsByUserIdAndStatus(userId, Borrow.Status.OVERDUE)) {
+        if (userLoanSummaryService.getSummary(userId).getOverdueLoans() > 0) {
             throw new BusinessLogicException("您有逾期未处理记录，暂无法预约");
         }
 
         // Step 3: check existing active reservation for same book
-        if (reservationRepository.existsByUserIdAndBookIdAndStatus(userId, bookId, Reservation.Status.WAITING)) {
+        if (reservationRepository.existsByUserIdAndBookIdAndStatusIn(userId, bookId, ACTIVE)) {
             throw new BusinessLogicException("您已预约此书，请勿重复预约");
         }
 
@@ -67,9 +99,16 @@ public class ReservationService {
         reservation.setBook(book);
         reservation.setReservationTime(LocalDateTime.now());
         reservation.setStatus(Reservation.Status.WAITING);
-        return reservationRepository.save(reservation);
+        Reservation saved = reservationRepository.save(reservation);
+        userLoanSummaryService.reservationOpened(userId);
+
+        afterCommit(() -> reservationQueue.enqueue(bookId, saved.getId()));
+        return saved;
     }
 
+    /**
+     * Cancel a waiting reservation, or give up a held copy, which then goes to the next in line
+     */
     public void cancelReservation(Long userId, Long reservationId) {
         Reservation reservation = reservationRepository
                 .findById(reservationId)
@@ -78,25 +117,210 @@ public class ReservationService {
         if (!reservation.getUser().getId().equals(userId)) {
             throw new BusinessLogicException("只能取消自己的预约");
         }
-        if (reservation.getStatus() != Reservation.Status.WAITING) {
+        Reservation.Status status = reservation.getStatus();
+        if (!ACTIVE.contains(status)
+                || reservationRepository.compareAndSetStatus(
+                                reservationId, status, Reservation.Status.CANCELLED, LocalDateTime.now())
+                        == 0) {
             throw new BusinessLogicException("无法取消已完成或已取消的预约");
         }
-        reservation.setStatus(Reservation.Status.CANCELLED);
+
+        userLoanSummaryService.reservationClosed(userId);
+        Long bookId = reservation.getBook().getId();
+        if (status == Reservation.Status.READY) {
+            releaseHeldCopy(reservation.getCopy());
+        }
+        afterCommit(() -> reservationQueue.remove(bookId, reservationId));
     }
 
     public List<Reservation> getUserActiveReservations(Long userId) {
-        return reservationRepository.findByUserIdAndStatus(userId, Reservation.Status.WAITING);
+        return reservationRepository.findByUserIdAndStatusIn(userId, ACTIVE);
     }
 
     /**
-     * When a borrowed copy is returned, call this to notify next user in queue.
+     * Position of a reservation in its book's queue, answered from memory. Not read-only: a queue loaded
+     * here is kept and only changed by deltas afterwards, so it must not be read from a lagging replica.
      */
-    public void processNextReservation(Long bookId) {
-        reservationRepository
-                .findFirstByBookIdAndStatusOrderByReservationTimeAsc(bookId, Reservation.Status.WAITING)
-                .ifPresent(reservation -> {
-                    reservation.setStatus(Reservation.Status.EXPIRED); // Here we could set NOTIFIED instead; simplified
-                    reservation.setNoticeTime(LocalDateTime.now());
+    public ReservationQueueStatusDto getQueueStatus(Long userId, Long reservationId) {
+        Reservation reservation = reservationRepository
+                .findById(reservationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", reservationId));
+        if (!reservation.getUser().getId().equals(userId)) {
+            throw new BusinessLogicException("只能查看自己的预约");
+        }
+
+        Long bookId = reservation.getBook().getId();
+        ensureLoaded(bookId);
+        int position = reservation.getStatus() == Reservation.Status.WAITING
+                ? reservationQueue.position(bookId, reservationId)
+                : 0;
+        return new ReservationQueueStatusDto(
+                reservationId,
+                bookId,
+                reservation.getStatus(),
+                position,
+                reservationQueue.size(bookId),
+                reservation.getStatus() == Reservation.Status.READY ? reservation.getHoldExpireTime() : null);
+    }
+
+    /**
+     * When a borrowed copy is returned, put it on hold for the first reservation still waiting.
+     * Entries are taken from the in-memory queue and confirmed by a conditional update, so a return
+     * costs no queue scan.
+     * @return true if the copy is now held and must be set ON_HOLD instead of AVAILABLE
+     */
+    public boolean holdForNextReservation(BookCopy copy) {
+        Long bookId = copy.getBook().getId();
+        ensureLoaded(bookId);
+        for (Long reservationId : reservationQueue.waiting(bookId)) {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime holdExpireTime =
+                    now.plusDays(borrowingRuleService.getIntegerRule(BorrowingRuleService.ADVANCE_RESERVE_DAYS));
+            int updated = reservationRepository.holdCopy(
+                    reservationId, copy, holdExpireTime, now, Reservation.Status.WAITING, Reservation.Status.READY);
+            if (updated == 1) {
+                afterCommit(() -> {
+                    reservationQueue.remove(bookId, reservationId);
+                    reservationQueue.scheduleExpiry(reservationId, holdExpireTime);
                 });
+                reservationRepository
+                        .findUserIdById(reservationId)
+                        .ifPresent(userId -> notificationService.enqueue(
+                                userId,
+                                NotificationOutbox.Type.HOLD_READY,
+                                "预约图书已到馆",
+                                "您预约的《" + copy.getBook().getTitle() + "》已为您保留，请于 " + holdExpireTime.toLocalDate()
+                                        + " 前到馆借阅。"));
+                return true;
+            }
+            // No longer waiting (cancelled, or a stale entry); the update saw the committed state
+            reservationQueue.remove(bookId, reservationId);
+        }
+        return false;
+    }
+
+    /**
+     * The hold of a user on a book, if a copy is waiting on the hold shelf for them
+     */
+    @Transactional(readOnly = true)
+    public Optional<Reservation> findReadyHold(Long userId, Long bookId) {
+        return reservationRepository.findFirstByUserIdAndBookIdAndStatus(userId, bookId, Reservation.Status.READY);
+    }
+
+    /**
+     * Mark a hold as collected; the caller lends the held copy in the same transaction
+     * @return false if the hold expired or was cancelled in the meantime
+     */
+    public boolean fulfillHold(Reservation reservation) {
+        if (reservationRepository.compareAndSetStatus(
+                        reservation.getId(),
+                        Reservation.Status.READY,
+                        Reservation.Status.FULFILLED,
+                        LocalDateTime.now())
+                == 0) {
+            return false;
+        }
+        userLoanSummaryService.reservationClosed(reservation.getUser().getId());
+        return true;
+    }
+
+    /**
+     * Expire an uncollected hold and pass its copy on to the next reservation
+     * @return true if the hold was expired by this call
+     */
+    public boolean expireHold(Long reservationId) {
+        Optional<Reservation> found = reservationRepository.findById(reservationId);
+        if (found.isEmpty() || found.get().getStatus() != Reservation.Status.READY) {
+            return false;
+        }
+        Reservation reservation = found.get();
+        if (reservation.getHoldExpireTime().isAfter(LocalDateTime.now())) {
+            reservationQueue.scheduleExpiry(reservationId, reservation.getHoldExpireTime());
+            return false;
+        }
+        if (reservationRepository.compareAndSetStatus(
+                        reservationId, Reservation.Status.READY, Reservation.Status.EXPIRED, LocalDateTime.now())
+                == 0) {
+            return false;
+        }
+        userLoanSummaryService.reservationClosed(reservation.getUser().getId());
+        notificationService.enqueue(
+                reservation.getUser().getId(),
+                NotificationOutbox.Type.HOLD_EXPIRED,
+                "预约保留已过期",
+                "您预约的《" + reservation.getBook().getTitle() + "》未在保留期内借阅，预约已失效。");
+        releaseHeldCopy(reservation.getCopy());
+        return true;
+    }
+
+    /**
+     * Reload every queue and hold timer from the reservation table. Not read-only, so the read goes to the
+     * primary: a replica that lags would leave out reservations for good.
+     * @return number of waiting reservations
+     */
+    public int rebuildQueues() {
+        Map<Long, List<Long>> waitingByBook = new LinkedHashMap<>();
+        reservationQueue.beginRebuild();
+        List<ReservationQueueProjection> waiting;
+        try {
+            waiting = reservationRepository.findQueueEntries(Reservation.Status.WAITING);
+        } catch (RuntimeException e) {
+            reservationQueue.abortRebuild();
+            throw e;
+        }
+        for (ReservationQueueProjection entry : waiting) {
+            waitingByBook
+                    .computeIfAbsent(entry.getBookId(), id -> new ArrayList<>())
+                    .add(entry.getId());
+        }
+        reservationQueue.replaceAll(waitingByBook);
+
+        List<ReservationQueueProjection> holds = reservationRepository.findQueueEntries(Reservation.Status.READY);
+        holds.forEach(hold -> reservationQueue.scheduleExpiry(hold.getId(), hold.getHoldExpireTime()));
+        logger.info(
+                "Rebuilt reservation queues of {} books with {} waiting reservations and {} holds",
+                waitingByBook.size(),
+                waiting.size(),
+                holds.size());
+        return waiting.size();
+    }
+
+    /* A held copy is free again: hold it for the next reservation, or put it back on the shelf */
+    private void releaseHeldCopy(BookCopy copy) {
+        if (copy == null || copy.getStatus() != BookCopy.Status.ON_HOLD || holdForNextReservation(copy)) {
+            return;
+        }
+        copy.setStatus(BookCopy.Status.AVAILABLE);
+        bookCopyRepository.save(copy);
+        bookCopyCountService.statusChanged(copy, BookCopy.Status.ON_HOLD);
+    }
+
+    private void ensureLoaded(Long bookId) {
+        if (reservationQueue.isLoaded(bookId)) {
+            return;
+        }
+        reservationQueue.beginLoad(bookId);
+        List<Long> waiting;
+        try {
+            waiting = reservationRepository.findQueuedIds(bookId, Reservation.Status.WAITING);
+        } catch (RuntimeException e) {
+            reservationQueue.abortLoad(bookId);
+            throw e;
+        }
+        reservationQueue.load(bookId, waiting);
+    }
+
+    // The queue only sees committed changes; a rolled back reservation never enters it
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
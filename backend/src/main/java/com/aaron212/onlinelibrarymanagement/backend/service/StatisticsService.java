@@ -1,19 +1,27 @@
 package com.aaron212.onlinelibrarymanagement.backend.service;
 
 import com.aaron212.onlinelibrarymanagement.backend.dto.BookStatisticsDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowTrendPointDto;
 import com.aaron212.onlinelibrarymanagement.backend.dto.LibraryStatisticsDto;
 import com.aaron212.onlinelibrarymanagement.backend.mapper.BookMapper;
 import com.aaron212.onlinelibrarymanagement.backend.model.*;
+import com.aaron212.onlinelibrarymanagement.backend.projection.CategoryCopyStatusCountProjection;
 import com.aaron212.onlinelibrarymanagement.backend.repository.*;
+import io.micrometer.core.annotation.Timed;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.temporal.TemporalAdjusters;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed("library.service")
 public class StatisticsService {
 
     private final BorrowRepository borrowRepository;
@@ -21,106 +29,159 @@ public class StatisticsService {
     private final BookCopyRepository bookCopyRepository;
     private final IndexCategoryRepository indexCategoryRepository;
     private final UserRepository userRepository;
+    private final BookBorrowCounterService bookBorrowCounterService;
+    private final ActiveBorrowerService activeBorrowerService;
+    private final BorrowStatsService borrowStatsService;
 
     public StatisticsService(
             BorrowRepository borrowRepository,
             BookRepository bookRepository,
             BookCopyRepository bookCopyRepository,
             IndexCategoryRepository indexCategoryRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            BookBorrowCounterService bookBorrowCounterService,
+            ActiveBorrowerService activeBorrowerService,
+            BorrowStatsService borrowStatsService) {
         this.borrowRepository = borrowRepository;
         this.bookRepository = bookRepository;
         this.bookCopyRepository = bookCopyRepository;
         this.indexCategoryRepository = indexCategoryRepository;
         this.userRepository = userRepository;
+        this.bookBorrowCounterService = bookBorrowCounterService;
+        this.activeBorrowerService = activeBorrowerService;
+        this.borrowStatsService = borrowStatsService;
     }
 
+    /**
+     * Returns the most borrowed books. Counts come from the {@code book_borrow_counter} read model, so
+     * only {@code topCount} counter rows and their books are loaded regardless of borrow history size.
+     */
+    @Transactional(readOnly = true)
     public List<BookStatisticsDto> getTopBorrowedBooks(int topCount) {
-        List<Borrow> allBorrows = borrowRepository.findAll();
-        return allBorrows.stream()
-                .collect(Collectors.groupingBy(borrow -> borrow.getCopy().getBook(), Collectors.counting()))
-                .entrySet()
-                .stream()
-                .sorted(Map.Entry.<Book, Long>comparingByValue().reversed())
-                .limit(topCount)
-                .map(entry -> BookMapper.INSTANCE.toBookStatisticsDto(entry.getKey(), entry.getValue()))
+        List<BookBorrowCounter> counters = bookBorrowCounterService.getTopCounters(topCount);
+        if (counters.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> bookIds = counters.stream().map(BookBorrowCounter::getBookId).toList();
+        // Both queries return the same managed instances, so each book ends up with authors and publishers loaded
+        Map<Long, Book> booksById = bookRepository.findBooksWithAuthorsByIds(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        bookRepository.findBooksWithPublishersByIds(bookIds);
+
+        return counters.stream()
+                .filter(counter -> booksById.containsKey(counter.getBookId()))
+                .map(counter -> BookMapper.INSTANCE.toBookStatisticsDto(
+                        booksById.get(counter.getBookId()), counter.getBorrowCount()))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Borrows this month; {@code userActivity} is the estimated number of distinct borrowers, merged
+     * from the daily borrower sketches
+     */
+    @Transactional(readOnly = true)
     public Map<String, Long> getBorrowTrendByMonth() {
         LocalDate now = LocalDate.now();
-        LocalDate startOfMonth = now.with(TemporalAdjusters.firstDayOfMonth());
-        LocalDate endOfMonth = now.with(TemporalAdjusters.lastDayOfMonth());
-
-        List<Borrow> borrows =
-                borrowRepository.findByBorrowTimeBetween(startOfMonth.atStartOfDay(), endOfMonth.atTime(23, 59, 59));
-        Map<String, Long> trend = new HashMap<>();
-        trend.put("borrowCount", (long) borrows.size());
-        trend.put(
-                "userActivity", borrows.stream().map(Borrow::getUser).distinct().count());
-        return trend;
+        return getBorrowTrend(
+                now.with(TemporalAdjusters.firstDayOfMonth()), now.with(TemporalAdjusters.lastDayOfMonth()));
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Long> getBorrowTrendByWeek() {
-        LocalDate now = LocalDate.now();
-        LocalDate startOfWeek = now.with(TemporalAdjusters.previousOrSame(java.time.DayOfWeek.MONDAY));
-        LocalDate endOfWeek = startOfWeek.plusDays(6);
+        LocalDate startOfWeek = LocalDate.now().with(TemporalAdjusters.previousOrSame(java.time.DayOfWeek.MONDAY));
+        return getBorrowTrend(startOfWeek, startOfWeek.plusDays(6));
+    }
 
-        List<Borrow> borrows =
-                borrowRepository.findByBorrowTimeBetween(startOfWeek.atStartOfDay(), endOfWeek.atTime(23, 59, 59));
+    private Map<String, Long> getBorrowTrend(LocalDate from, LocalDate to) {
         Map<String, Long> trend = new HashMap<>();
-        trend.put("borrowCount", (long) borrows.size());
-        trend.put(
-                "userActivity", borrows.stream().map(Borrow::getUser).distinct().count());
+        trend.put("borrowCount", borrowStatsService.countBorrows(from, to));
+        trend.put("userActivity", activeBorrowerService.countDistinctBorrowers(from, to));
         return trend;
     }
 
-    public Map<IndexCategory, Map<String, Long>> getBookInventoryStatistics() {
-        List<IndexCategory> categories = indexCategoryRepository.findAll();
-        Map<IndexCategory, Map<String, Long>> statistics = new HashMap<>();
-
-        for (IndexCategory category : categories) {
-            List<Book> booksInCategory = bookRepository.findByIndexCategory(category);
-            long totalCount = 0;
-            long availableCount = 0;
-
-            for (Book book : booksInCategory) {
-                List<BookCopy> copies = bookCopyRepository.findByBook(book);
-                totalCount += copies.size();
-                availableCount += (int) copies.stream()
-                        .filter(copy -> copy.getStatus() == BookCopy.Status.AVAILABLE)
-                        .count();
-            }
+    /**
+     * Borrow activity between two days, both inclusive, answered from the daily rollups
+     * @param categoryCode restrict to a category and its descendants, or null for all
+     */
+    @Transactional(readOnly = true)
+    public List<BorrowTrendPointDto> getBorrowTrends(
+            LocalDate from, LocalDate to, BorrowStatsService.Granularity granularity, String categoryCode) {
+        return borrowStatsService.getTrend(from, to, granularity, categoryCode);
+    }
 
-            Map<String, Long> categoryStats = new HashMap<>();
-            categoryStats.put("totalCount", totalCount);
-            categoryStats.put("availableCount", availableCount);
-            statistics.put(category, categoryStats);
+    /**
+     * Estimated number of distinct users who borrowed between two days, both inclusive
+     */
+    public long getActiveBorrowerCount(LocalDate from, LocalDate to) {
+        return activeBorrowerService.countDistinctBorrowers(from, to);
+    }
+
+    /**
+     * Returns copy counts per category, keyed by index code. Counts are rolled up the category tree, so a
+     * category includes the copies of all its descendants. The data comes from one grouped query no matter
+     * how many categories or books exist.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Map<String, Long>> getBookInventoryStatistics() {
+        List<CategoryCopyStatusCountProjection> rows = indexCategoryRepository.countCopiesByCategoryAndStatus();
+
+        Map<Long, Long> parentIds = new HashMap<>();
+        Map<Long, String> indexCodes = new HashMap<>();
+        Map<Long, long[]> ownCounts = new HashMap<>();
+        for (CategoryCopyStatusCountProjection row : rows) {
+            parentIds.put(row.getCategoryId(), row.getParentId());
+            indexCodes.put(row.getCategoryId(), row.getIndexCode());
+            long[] counts = ownCounts.computeIfAbsent(row.getCategoryId(), id -> new long[3]);
+            if (row.getStatus() != null) {
+                counts[0] += row.getCopyCount();
+                if (row.getStatus() == BookCopy.Status.AVAILABLE) {
+                    counts[1] += row.getCopyCount();
+                } else if (row.getStatus() == BookCopy.Status.BORROWED) {
+                    counts[2] += row.getCopyCount();
+                }
+            }
         }
 
+        // Add each category's own counts to itself and every ancestor, guarding against parent cycles
+        Map<Long, long[]> rolledUp = new HashMap<>();
+        ownCounts.forEach((categoryId, counts) -> {
+            Long current = categoryId;
+            int depth = 0;
+            while (current != null && indexCodes.containsKey(current) && depth++ <= indexCodes.size()) {
+                long[] target = rolledUp.computeIfAbsent(current, id -> new long[3]);
+                for (int i = 0; i < counts.length; i++) {
+                    target[i] += counts[i];
+                }
+                current = parentIds.get(current);
+            }
+        });
+
+        Map<String, Map<String, Long>> statistics = new TreeMap<>();
+        rolledUp.forEach((categoryId, counts) -> {
+            Map<String, Long> categoryStats = new HashMap<>();
+            categoryStats.put("totalCount", counts[0]);
+            categoryStats.put("availableCount", counts[1]);
+            categoryStats.put("borrowedCount", counts[2]);
+            statistics.put(indexCodes.get(categoryId), categoryStats);
+        });
         return statistics;
     }
 
+    /**
+     * User counts for the dashboard. {@code activeUserCount}, the number of users who ever borrowed,
+     * is estimated from the daily borrower sketches instead of reading the borrow history.
+     */
+    @Transactional(readOnly = true)
     public Map<String, Long> getUserBehaviorAnalysis() {
-        LocalDate now = LocalDate.now();
-        LocalDate startOfMonth = now.with(TemporalAdjusters.firstDayOfMonth());
-
-        List<User> allUsers = userRepository.findAll();
-        long totalUserCount = allUsers.size();
-        long registrationCount = allUsers.stream()
-                .filter(user ->
-                        user.getCreatedTime().toLocalDateTime().toLocalDate().isAfter(startOfMonth))
-                .count();
-
-        long activeUserCount = borrowRepository.findAll().stream()
-                .map(Borrow::getUser)
-                .distinct()
-                .count();
+        LocalDate startOfMonth = LocalDate.now().with(TemporalAdjusters.firstDayOfMonth());
 
         Map<String, Long> analysis = new HashMap<>();
-        analysis.put("totalUserCount", totalUserCount);
-        analysis.put("registrationCount", registrationCount);
-        analysis.put("activeUserCount", activeUserCount);
+        analysis.put("totalUserCount", userRepository.count());
+        analysis.put(
+                "registrationCount",
+                userRepository.countByCreatedTimeGreaterThanEqual(Timestamp.valueOf(startOfMonth.atStartOfDay())));
+        analysis.put("activeUserCount", activeBorrowerService.countDistinctBorrowersAllTime());
         return analysis;
     }
 
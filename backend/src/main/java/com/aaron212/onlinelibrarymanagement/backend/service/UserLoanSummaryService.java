@@ -0,0 +1,154 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import com.aaron212.onlinelibrarymanagement.backend.exception.ResourceNotFoundException;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.projection.UserLoanSummaryProjection;
+import com.aaron212.onlinelibrarymanagement.backend.repository.UserLoanSummaryRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains {@code UserLoanSummary}. Every code path that lends, returns or fines a borrow, or opens
+ * or closes a reservation, must report it here, inside the same transaction. The borrowing limit is
+ * enforced by a conditional increment, so concurrent borrows of one reader cannot overshoot it.
+ */
+@Service
+@Transactional
+public class UserLoanSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserLoanSummaryService.class);
+    private final UserLoanSummaryRepository userLoanSummaryRepository;
+
+    public UserLoanSummaryService(UserLoanSummaryRepository userLoanSummaryRepository) {
+        this.userLoanSummaryRepository = userLoanSummaryRepository;
+    }
+
+    /**
+     * What one borrow contributes to its reader's summary; take it before changing the borrow
+     */
+    public record LoanState(int active, int overdue, BigDecimal unpaidFine) {
+        public static LoanState of(Borrow borrow) {
+            boolean unpaid = borrow.getFine() != null
+                    && borrow.getFine().signum() > 0
+                    && borrow.getActualReturnTime() != null
+                    && (borrow.getStatus() == Borrow.Status.OVERDUE || borrow.getStatus() == Borrow.Status.LOST);
+            return new LoanState(
+                    borrow.isActive() ? 1 : 0,
+                    borrow.getStatus() == Borrow.Status.OVERDUE ? 1 : 0,
+                    unpaid ? borrow.getFine() : BigDecimal.ZERO);
+        }
+    }
+
+    /**
+     * The summary of a reader, creating it from the borrow and reservation tables on first use
+     * @throws ResourceNotFoundException if the user does not exist
+     */
+    public UserLoanSummaryProjection getSummary(Long userId) {
+        return userLoanSummaryRepository
+                .findSummary(userId)
+                .or(() -> {
+                    createFromHistory(userId);
+                    return userLoanSummaryRepository.findSummary(userId);
+                })
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+    }
+
+    /**
+     * Take one loan slot of a reader, to be filled by a borrow in the same transaction
+     * @return false if the reader already has {@code maxLoans} books out
+     */
+    public boolean tryClaimLoan(Long userId, int maxLoans) {
+        if (userLoanSummaryRepository.claimLoan(userId, maxLoans) == 1) {
+            return true;
+        }
+        // Either the row was just created, or it exists and was at the limit or created concurrently
+        createFromHistory(userId);
+        return userLoanSummaryRepository.claimLoan(userId, maxLoans) == 1;
+    }
+
+    /**
+     * Give back a slot taken by {@link #tryClaimLoan} when no borrow was made after all
+     */
+    public void releaseLoan(Long userId) {
+        adjust(userId, -1, 0, BigDecimal.ZERO, 0);
+    }
+
+    /**
+     * Record a change of an existing borrow; {@code borrow} already carries its new state
+     */
+    public void borrowChanged(LoanState before, Borrow borrow) {
+        LoanState after = LoanState.of(borrow);
+        adjust(
+                borrow.getUser().getId(),
+                after.active() - before.active(),
+                after.overdue() - before.overdue(),
+                after.unpaidFine().subtract(before.unpaidFine()),
+                0);
+    }
+
+    /**
+     * Record a borrow flagged OVERDUE outside of JPA, e.g. by the overdue sweep
+     */
+    public void loanTurnedOverdue(Long userId) {
+        adjust(userId, 0, 1, BigDecimal.ZERO, 0);
+    }
+
+    public void reservationOpened(Long userId) {
+        adjust(userId, 0, 0, BigDecimal.ZERO, 1);
+    }
+
+    public void reservationClosed(Long userId) {
+        adjust(userId, 0, 0, BigDecimal.ZERO, -1);
+    }
+
+    /**
+     * Find summaries that drifted from the borrow and reservation tables and recount them
+     * @return number of corrected users
+     */
+    public int reconcile() {
+        List<Long> drifted = userLoanSummaryRepository.findDriftedUserIds();
+        for (Long userId : drifted) {
+            userLoanSummaryRepository
+                    .findSummary(userId)
+                    .ifPresent(stored -> logger.warn(
+                            "Loan summary of user {} drifted: stored {} active, {} overdue, {} unpaid, "
+                                    + "{} reservations",
+                            userId,
+                            stored.getActiveLoans(),
+                            stored.getOverdueLoans(),
+                            stored.getUnpaidFines(),
+                            stored.getActiveReservations()));
+            userLoanSummaryRepository.deleteSummary(userId);
+            userLoanSummaryRepository.insertFromHistory(userId);
+        }
+        return drifted.size();
+    }
+
+    private void adjust(Long userId, int activeDelta, int overdueDelta, BigDecimal fineDelta, int reservationDelta) {
+        if (activeDelta == 0 && overdueDelta == 0 && fineDelta.signum() == 0 && reservationDelta == 0) {
+            return;
+        }
+        if (userLoanSummaryRepository.adjust(userId, activeDelta, overdueDelta, fineDelta, reservationDelta) == 1) {
+            return;
+        }
+        // No row yet: one created now is counted from the tables and already includes the change, one
+        // created by another transaction in the meantime does not
+        if (!createFromHistory(userId)) {
+            userLoanSummaryRepository.adjust(userId, activeDelta, overdueDelta, fineDelta, reservationDelta);
+        }
+    }
+
+    /*
+     * Pending changes are flushed first, so the counts include everything this transaction did. Returns
+     * false if the row was not created here: the user is unknown, or another transaction created the row
+     * first and it does not include the changes of this one.
+     */
+    private boolean createFromHistory(Long userId) {
+        userLoanSummaryRepository.flush();
+        return userLoanSummaryRepository.insertFromHistory(userId) == 1;
+    }
+}
@@ -11,9 +11,13 @@ import com.aaron212.onlinelibrarymanagement.backend.projection.UserAdminProjecti
 import com.aaron212.onlinelibrarymanagement.backend.projection.UserFullProjection;
 import com.aaron212.onlinelibrarymanagement.backend.projection.UserPublicProjection;
 import com.aaron212.onlinelibrarymanagement.backend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -27,10 +31,22 @@ import org.springframework.stereotype.Service;
 public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-
-    public UserService(UserRepository userRepository, @Lazy PasswordEncoder passwordEncoder) {
+    // Username -> user, used to resolve the principal of JWT-authenticated requests. Changes evict
+    // the entry on this instance only; other instances see them once the entry expires, so jwt.cache.ttl
+    // bounds how long a role change or deletion takes to reach every instance.
+    private final Cache<String, User> principalCache;
+
+    public UserService(
+            UserRepository userRepository,
+            @Lazy PasswordEncoder passwordEncoder,
+            @Value("${jwt.cache.maximumSize:10000}") long cacheMaximumSize,
+            @Value("${jwt.cache.ttl:PT30S}") Duration cacheTtl) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
     }
 
     @Override
@@ -41,6 +57,30 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + usernameOrEmail));
     }
 
+    /**
+     * Resolve the user for a verified token. The cached user is reused unless the token was issued
+     * for a newer version of the account (its updateTime claim is after the cached lastUpdateTime).
+     * Assumes a single application instance for immediate effect of role changes and deletions: an
+     * instance that did not make the change keeps its cached user for up to {@code jwt.cache.ttl}.
+     */
+    public User loadUserForToken(String username, long tokenUpdateTime) throws UsernameNotFoundException {
+        User cached = principalCache.getIfPresent(username);
+        if (cached != null
+                && cached.getLastUpdateTime() != null
+                && cached.getLastUpdateTime().getTime() >= tokenUpdateTime) {
+            return cached;
+        }
+        User user = userRepository
+                .findByUsernameOrEmail(username, username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        principalCache.put(username, user);
+        return user;
+    }
+
+    private void evictPrincipal(String username) {
+        principalCache.invalidate(username);
+    }
+
     public void addUser(UserRegisterDto registerRequest) throws DuplicateResourceException {
         // Check username duplication first
         if (userRepository.existsByUsername(registerRequest.username())) {
@@ -99,10 +139,13 @@ public class UserService implements UserDetailsService {
             throw new DuplicateResourceException("User", "email", userModifyDto.email());
         }
 
+        String previousUsername = user.getUsername();
         if (userModifyDto.username() != null) user.setUsername(userModifyDto.username());
         if (userModifyDto.email() != null) user.setEmail(userModifyDto.email());
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        evictPrincipal(previousUsername);
+        return savedUser;
     }
 
     public void changePassword(String name, String oldPassword, String newPassword) {
@@ -117,6 +160,7 @@ public class UserService implements UserDetailsService {
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         user.setLastUpdateTime(Timestamp.valueOf(LocalDateTime.now()));
         userRepository.save(user);
+        evictPrincipal(user.getUsername());
     }
 
     public Optional<User> findByUsername(String username) {
@@ -165,10 +209,13 @@ public class UserService implements UserDetailsService {
             throw new DuplicateResourceException("User", "email", userModifyDto.email());
         }
 
+        String previousUsername = user.getUsername();
         if (userModifyDto.username() != null) user.setUsername(userModifyDto.username());
         if (userModifyDto.email() != null) user.setEmail(userModifyDto.email());
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        evictPrincipal(previousUsername);
+        return savedUser;
     }
 
     public User updateUserRole(Long id, String roleString) {
@@ -179,7 +226,10 @@ public class UserService implements UserDetailsService {
         try {
             User.Role role = User.Role.valueOf(roleString.toUpperCase());
             user.setRole(role);
-            return userRepository.save(user);
+            user.setLastUpdateTime(Timestamp.valueOf(LocalDateTime.now()));
+            User savedUser = userRepository.save(user);
+            evictPrincipal(savedUser.getUsername());
+            return savedUser;
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid role: " + roleString + ". Valid roles are: USER, ADMIN");
         }
@@ -196,6 +246,7 @@ public class UserService implements UserDetailsService {
         }
 
         userRepository.delete(user);
+        evictPrincipal(user.getUsername());
     }
 
     public User createUser(UserCreateDto userCreateDto) {
@@ -0,0 +1,96 @@
+package com.aaron212.onlinelibrarymanagement.backend;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import org.springframework.stereotype.Component;
+
+/**
+ * Persists the users, categories, books, copies and borrows that tests need.
+ *
+ * <p>Call inside a transaction, from a {@code @Transactional} test class or a {@code TransactionTemplate}.
+ */
+@Component
+public class TestFixtures {
+
+    private final EntityManager entityManager;
+
+    public TestFixtures(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public User user(String username) {
+        return user(username, User.Role.USER);
+    }
+
+    public User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("hash");
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    public IndexCategory category(String indexCode) {
+        return category(indexCode, null);
+    }
+
+    public IndexCategory category(String indexCode, IndexCategory parent) {
+        IndexCategory category = new IndexCategory();
+        category.setIndexCode(indexCode);
+        category.setName("Category " + indexCode);
+        category.setParent(parent);
+        entityManager.persist(category);
+        return category;
+    }
+
+    public Book book(String isbn, String title, IndexCategory category) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setLocation("LIBRARY");
+        book.setIndexCategory(category);
+        entityManager.persist(book);
+        return book;
+    }
+
+    /** A book with a single available copy, barcode {@code isbn-001}, and copy counts of 1/1 */
+    public BookCopy bookWithCopy(String isbn, String title, IndexCategory category) {
+        Book book = new Book();
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setLocation("LIBRARY");
+        book.setIndexCategory(category);
+        book.setAvailableCopies(1);
+        book.setTotalCopies(1);
+        entityManager.persist(book);
+        return copy(book, isbn + "-001", BookCopy.Status.AVAILABLE);
+    }
+
+    public BookCopy copy(Book book, String barcode, BookCopy.Status status) {
+        BookCopy copy = new BookCopy();
+        copy.setBook(book);
+        copy.setBarcode(barcode);
+        copy.setStatus(status);
+        entityManager.persist(copy);
+        return copy;
+    }
+
+    public Borrow borrow(
+            User user, BookCopy copy, LocalDateTime borrowTime, LocalDateTime returnTime, Borrow.Status status) {
+        Borrow borrow = new Borrow();
+        borrow.setUser(user);
+        borrow.setCopy(copy);
+        borrow.setBorrowTime(borrowTime);
+        borrow.setReturnTime(returnTime);
+        borrow.setStatus(status);
+        entityManager.persist(borrow);
+        return borrow;
+    }
+}
@@ -0,0 +1,133 @@
+package com.aaron212.onlinelibrarymanagement.backend.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Three H2 databases stand in for the primary and two replicas; each knows its own name.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writes;
+    private TransactionTemplate reads;
+
+    @BeforeEach
+    void setUp() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                node("primary"),
+                List.of(node("replica-a"), node("replica-b")),
+                Duration.ofSeconds(5),
+                registry,
+                nanos::get);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writes = new TransactionTemplate(transactionManager);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testReadOnlyTransactions_RoundRobinOverReplicas() {
+        assertEquals("replica-a", reads.execute(status -> nodeName()));
+        assertEquals("replica-b", reads.execute(status -> nodeName()));
+        assertEquals("primary", writes.execute(status -> nodeName()));
+        assertEquals("primary", nodeName());
+        assertEquals(
+                2.0,
+                registry.counter(ReplicaRoutingDataSource.METRIC_NAME, "route", "replica")
+                        .count());
+    }
+
+    @Test
+    void testReadYourWrites_SameUserStaysOnPrimaryWithinWindow() {
+        // Arrange: alice commits a write
+        signIn("alice");
+        writes.executeWithoutResult(status -> nodeName());
+
+        // Act & Assert
+        assertEquals("primary", reads.execute(status -> nodeName()));
+        signIn("bob");
+        assertEquals("replica-a", reads.execute(status -> nodeName()));
+
+        signIn("alice");
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertEquals("replica-b", reads.execute(status -> nodeName()));
+    }
+
+    @Test
+    void testReadYourWrites_RolledBackWriteIsNotRemembered() {
+        signIn("alice");
+        writes.executeWithoutResult(status -> {
+            nodeName();
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica-a", reads.execute(status -> nodeName()));
+    }
+
+    @Test
+    void testReadFromPrimary_ConditionalReadSeesCommitBehindNewVersion() {
+        // Arrange: a change commits on the primary and bumps the content version; the replicas lag behind
+        writes.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = 'primary-v2'"));
+        AtomicLong version = new AtomicLong(2);
+
+        // Act: the ETag and the body of the conditional read are taken together
+        String pinned = ReplicaRoutingDataSource.readFromPrimary(
+                () -> "v" + version.get() + ":" + reads.execute(status -> nodeName()));
+
+        // Assert: the new tag comes with the new body; reads outside stay on the replicas
+        assertEquals("v2:primary-v2", pinned);
+        assertEquals("replica-a", reads.execute(status -> nodeName()));
+        assertEquals(
+                1.0,
+                registry.counter(ReplicaRoutingDataSource.METRIC_NAME, "route", "primary_pinned")
+                        .count());
+    }
+
+    private String nodeName() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext()
+                .setAuthentication(UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+    private static DataSource node(String name) {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(
+                new Driver(), "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbcTemplate.update("DELETE FROM node");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
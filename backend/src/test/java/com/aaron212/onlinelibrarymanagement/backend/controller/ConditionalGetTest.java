@@ -0,0 +1,176 @@
+package com.aaron212.onlinelibrarymanagement.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookCreateDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.NoticeCreateDto;
+import com.aaron212.onlinelibrarymanagement.backend.metrics.SqlStatementMetricsFilter;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import com.aaron212.onlinelibrarymanagement.backend.service.BookCopyCountService;
+import com.aaron212.onlinelibrarymanagement.backend.service.BookSearchService;
+import com.aaron212.onlinelibrarymanagement.backend.service.BookService;
+import com.aaron212.onlinelibrarymanagement.backend.service.NoticeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Not transactional: versions only move after the changing transaction committed, so the rows are
+ * removed in {@link #tearDown()}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private BookCopyCountService bookCopyCountService;
+
+    @Autowired
+    private NoticeService noticeService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        String books = "(SELECT id FROM book WHERE isbn = 'etag-1')";
+        jdbcTemplate.update("DELETE FROM book_copy WHERE book_id IN " + books);
+        jdbcTemplate.update("DELETE FROM book_author WHERE book_id IN " + books);
+        jdbcTemplate.update("DELETE FROM book WHERE isbn = 'etag-1'");
+        jdbcTemplate.update("DELETE FROM author WHERE name = 'Etag Author'");
+        jdbcTemplate.update("DELETE FROM notice WHERE title = 'Etag notice'");
+        jdbcTemplate.update("DELETE FROM users WHERE username = 'etag-admin'");
+        bookSearchService.rebuildIndex();
+    }
+
+    @Test
+    void testBooks_NotModifiedWithoutQueriesUntilCatalogueChanges() throws Exception {
+        // Arrange
+        String listTag = etagOf("/api/v1/books");
+        DistributionSummary statements = meterRegistry
+                .find(SqlStatementMetricsFilter.METRIC_NAME)
+                .tags("method", "GET", "uri", "/api/v1/books")
+                .summary();
+        double statementsBefore = statements.totalAmount();
+
+        // Act & Assert: a current copy is confirmed without a single SQL statement
+        mockMvc.perform(get("/api/v1/books").header(HttpHeaders.IF_NONE_MATCH, listTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, listTag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"));
+        assertEquals(statementsBefore, statements.totalAmount());
+        assertTrue(notModifiedCount("books") >= 1);
+
+        bookService.createBook(new BookCreateDto(
+                "etag-1", "Etag Title", "en", null, null, null, List.of("Etag Author"), List.of(), "W1", 1));
+        Long bookId = jdbcTemplate.queryForObject("SELECT id FROM book WHERE isbn = 'etag-1'", Long.class);
+
+        // The new book changes the list
+        mockMvc.perform(get("/api/v1/books").header(HttpHeaders.IF_NONE_MATCH, listTag))
+                .andExpect(status().isOk());
+
+        String bookTag = etagOf("/api/v1/books/" + bookId);
+        mockMvc.perform(get("/api/v1/books/" + bookId).header(HttpHeaders.IF_NONE_MATCH, bookTag))
+                .andExpect(status().isNotModified());
+        // Categories are not public, any signed-in user may read them
+        String categoryTag = mockMvc.perform(get("/api/v1/categories").with(user("reader")))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/v1/categories").with(user("reader")).header(HttpHeaders.IF_NONE_MATCH, categoryTag))
+                .andExpect(status().isNotModified());
+
+        // A borrow changes the available copies on the book page
+        transactionTemplate.executeWithoutResult(status -> {
+            BookCopy copy = entityManager
+                    .createQuery("SELECT c FROM BookCopy c WHERE c.book.id = :bookId", BookCopy.class)
+                    .setParameter("bookId", bookId)
+                    .getSingleResult();
+            copy.setStatus(BookCopy.Status.BORROWED);
+            bookCopyCountService.statusChanged(copy, BookCopy.Status.AVAILABLE);
+        });
+        mockMvc.perform(get("/api/v1/books/" + bookId).header(HttpHeaders.IF_NONE_MATCH, bookTag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.availableQuantity").value(0));
+    }
+
+    @Test
+    void testActiveNotices_ChangeWhenANoticeIsPublished() throws Exception {
+        // Arrange: a notice that becomes active in a moment
+        transactionTemplate.executeWithoutResult(status -> fixtures.user("etag-admin", User.Role.ADMIN));
+        LocalDateTime publishTime = LocalDateTime.now().plusSeconds(1);
+        noticeService.createNotice(new NoticeCreateDto("Etag notice", "Content", publishTime, null, 1), "etag-admin");
+        String tag = etagOf("/api/v1/notices/active");
+        mockMvc.perform(get("/api/v1/notices/active").header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified());
+
+        // Act
+        Thread.sleep(Duration.between(LocalDateTime.now(), publishTime).plusMillis(50));
+
+        // Assert: nothing was edited, yet the published notice invalidates the old copy
+        mockMvc.perform(get("/api/v1/notices/active").header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[?(@.title == 'Etag notice')]").exists());
+    }
+
+    private String etagOf(String uri) throws Exception {
+        MockHttpServletResponse response =
+                mockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn().getResponse();
+        assertEquals(1, response.getHeaders(HttpHeaders.ETAG).size());
+        return response.getHeader(HttpHeaders.ETAG);
+    }
+
+    private double notModifiedCount(String resource) {
+        Counter counter = meterRegistry
+                .find(ConditionalGet.METRIC_NAME)
+                .tags("resource", resource, "outcome", "not_modified")
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
@@ -0,0 +1,152 @@
+package com.aaron212.onlinelibrarymanagement.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.repository.IndexCategoryRepository;
+import com.aaron212.onlinelibrarymanagement.backend.service.ContentVersionService;
+import com.aaron212.onlinelibrarymanagement.backend.service.ReservationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Runs with a replica that is the test database itself, seen by a user who may only read, so a
+ * statement routed to the replica that writes fails like it would on a read-only MySQL replica. The
+ * database is private to this class, so nothing is cleaned up.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ReadReplicaRequestTest.ReadThenWriteController.class)
+class ReadReplicaRequestTest {
+
+    private static final String DATABASE = "jdbc:h2:mem:olm-replica";
+
+    private static final String URL = DATABASE + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE USER IF NOT EXISTS replica_reader PASSWORD 'replica'");
+            statement.execute("GRANT SELECT ON SCHEMA public TO replica_reader");
+        }
+        registry.add("spring.datasource.url", () -> URL);
+        // Settings need admin rights; the replica connects to the database the primary already opened
+        registry.add("library.datasource.replicas[0].url", () -> DATABASE);
+        registry.add("library.datasource.replicas[0].username", () -> "replica_reader");
+        registry.add("library.datasource.replicas[0].password", () -> "replica");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IndexCategoryRepository indexCategoryRepository;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ContentVersionService contentVersionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testRequest_ReadOnReplicaThenWriteOnPrimary() throws Exception {
+        // Arrange
+        double replicaRoutes = replicaRoutes();
+
+        // Act: in one request, and so one open-in-view session, a read-only transaction and then a write
+        mockMvc.perform(post("/test/read-then-write/J").with(user("replica-writer")))
+                .andExpect(status().isOk());
+
+        // Assert: the read was served by the replica, the write still reached the primary
+        assertEquals(replicaRoutes + 1, replicaRoutes());
+        assertTrue(indexCategoryRepository.findByIndexCode("J").isPresent());
+    }
+
+    @Test
+    void testRebuildQueues_ReadsFromPrimary() {
+        double replicaRoutes = replicaRoutes();
+
+        reservationService.rebuildQueues();
+
+        assertEquals(replicaRoutes, replicaRoutes());
+    }
+
+    @Test
+    void testConditionalRead_OnReplicaUnlessContentJustChanged() throws Exception {
+        // Act & Assert: the catalogue has not changed, the list is read from the replica
+        double replicaRoutes = replicaRoutes();
+        double pinnedRoutes = routes("primary_pinned");
+        mockMvc.perform(get("/api/v1/books")).andExpect(status().isOk());
+        assertTrue(replicaRoutes() > replicaRoutes);
+        assertEquals(pinnedRoutes, routes("primary_pinned"));
+
+        // Within the lag window after a change the replica may not have it yet
+        contentVersionService.changed(ContentVersionService.Resource.BOOKS);
+        replicaRoutes = replicaRoutes();
+        mockMvc.perform(get("/api/v1/books")).andExpect(status().isOk());
+        assertEquals(replicaRoutes, replicaRoutes());
+        assertTrue(routes("primary_pinned") > pinnedRoutes);
+    }
+
+    private double replicaRoutes() {
+        return routes("replica");
+    }
+
+    private double routes(String route) {
+        return meterRegistry.counter("library.datasource.route", "route", route).count();
+    }
+
+    @RestController
+    static class ReadThenWriteController {
+
+        private final IndexCategoryRepository indexCategoryRepository;
+        private final TransactionTemplate reads;
+        private final TransactionTemplate writes;
+
+        ReadThenWriteController(
+                IndexCategoryRepository indexCategoryRepository, PlatformTransactionManager transactionManager) {
+            this.indexCategoryRepository = indexCategoryRepository;
+            this.reads = new TransactionTemplate(transactionManager);
+            this.reads.setReadOnly(true);
+            this.writes = new TransactionTemplate(transactionManager);
+        }
+
+        @PostMapping("/test/read-then-write/{indexCode}")
+        long readThenWrite(@PathVariable String indexCode) {
+            long before = reads.execute(status -> indexCategoryRepository.count());
+            writes.executeWithoutResult(status -> {
+                IndexCategory category = new IndexCategory();
+                category.setIndexCode(indexCode);
+                category.setName("Category " + indexCode);
+                indexCategoryRepository.save(category);
+            });
+            return before;
+        }
+    }
+}
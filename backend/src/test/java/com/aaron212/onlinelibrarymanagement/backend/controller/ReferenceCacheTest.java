@@ -0,0 +1,147 @@
+package com.aaron212.onlinelibrarymanagement.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookCreateDto;
+import com.aaron212.onlinelibrarymanagement.backend.model.Author;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.model.Publisher;
+import com.aaron212.onlinelibrarymanagement.backend.repository.AuthorRepository;
+import com.aaron212.onlinelibrarymanagement.backend.repository.IndexCategoryRepository;
+import com.aaron212.onlinelibrarymanagement.backend.service.BookSearchService;
+import com.aaron212.onlinelibrarymanagement.backend.service.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Runs with the second-level cache on, which the test profile turns off. Not transactional: entries are
+ * cached when the writing transaction commits, so the rows are removed in {@link #tearDown()}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+class ReferenceCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private IndexCategoryRepository indexCategoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        String books = "(SELECT id FROM book WHERE isbn = 'l2c-1')";
+        jdbcTemplate.update("DELETE FROM book_copy WHERE book_id IN " + books);
+        jdbcTemplate.update("DELETE FROM book_author WHERE book_id IN " + books);
+        jdbcTemplate.update("DELETE FROM book_publisher WHERE book_id IN " + books);
+        jdbcTemplate.update("DELETE FROM book WHERE isbn = 'l2c-1'");
+        jdbcTemplate.update("DELETE FROM author WHERE name = 'Cache Author'");
+        jdbcTemplate.update("DELETE FROM publisher WHERE name = 'Cache Press'");
+        jdbcTemplate.update("DELETE FROM index_category WHERE index_code = 'L2'");
+        jdbcTemplate.update("DELETE FROM index_category WHERE index_code = 'L'");
+        entityManagerFactory.getCache().evictAll();
+        bookSearchService.rebuildIndex();
+    }
+
+    @Test
+    void testBookDetail_RepeatedRendersReadReferenceEntitiesFromCache() throws Exception {
+        // Arrange: the first render loads author, publisher and category once
+        bookService.createBook(new BookCreateDto(
+                "l2c-1",
+                "Cache Title",
+                "en",
+                null,
+                null,
+                null,
+                List.of("Cache Author"),
+                List.of("Cache Press"),
+                "L2",
+                1));
+        Long bookId = jdbcTemplate.queryForObject("SELECT id FROM book WHERE isbn = 'l2c-1'", Long.class);
+        render(bookId);
+        Statistics statistics =
+                entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            render(bookId);
+        }
+
+        // Assert: not a single author, publisher or category row came from the database
+        for (Class<?> entity : List.of(Author.class, Publisher.class, IndexCategory.class)) {
+            EntityStatistics entityStatistics = statistics.getEntityStatistics(entity.getName());
+            assertEquals(0, entityStatistics.getLoadCount(), entity.getSimpleName());
+            assertEquals(0, entityStatistics.getFetchCount(), entity.getSimpleName());
+            assertEquals(3, entityStatistics.getCacheHitCount(), entity.getSimpleName());
+        }
+        assertEquals(
+                3.0,
+                meterRegistry
+                        .get("library.cache.requests")
+                        .tags("region", "Author", "kind", "entity", "result", "hit")
+                        .functionCounter()
+                        .count());
+    }
+
+    @Test
+    void testNaturalIdLookups_NoStatementsOnceResolved() {
+        // Arrange
+        bookService.createBook(new BookCreateDto(
+                "l2c-1", "Cache Title", "en", null, null, null, List.of("Cache Author"), List.of(), "L2", 1));
+        Statistics statistics =
+                entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        Author author = authorRepository.findByName("Cache Author").orElseThrow();
+        IndexCategory category = indexCategoryRepository.findByIndexCode("L2").orElseThrow();
+
+        // Assert
+        assertEquals("Cache Author", author.getName());
+        assertEquals("L2", category.getIndexCode());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(authorRepository.findByName("Nobody").isEmpty());
+    }
+
+    private void render(Long bookId) throws Exception {
+        mockMvc.perform(get("/api/v1/books/" + bookId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.authors[0].name").value("Cache Author"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.aaron212.onlinelibrarymanagement.backend.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.aaron212.onlinelibrarymanagement.backend.service.BookService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Runs on real ports: actuator is served on its own management port only, which MockMvc cannot reach.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class SqlStatementMetricsFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void testRequest_RecordsStatementsPerEndpointAndServiceTimer() throws Exception {
+        // Act
+        mockMvc.perform(get("/api/v1/books").param("page", "0").param("size", "5"))
+                .andExpect(status().isOk());
+
+        // Assert: tagged with the route template, and at least the page query was counted
+        DistributionSummary summary = meterRegistry
+                .find(SqlStatementMetricsFilter.METRIC_NAME)
+                .tags("method", "GET", "uri", "/api/v1/books")
+                .summary();
+        assertNotNull(summary);
+        assertTrue(summary.count() >= 1);
+        assertTrue(summary.totalAmount() >= 1);
+
+        Timer timer = meterRegistry
+                .find("library.service")
+                .tags("class", BookService.class.getName(), "method", "getAllBooksSummaryPaged")
+                .timer();
+        assertNotNull(timer);
+        assertTrue(timer.count() >= 1);
+    }
+
+    @Test
+    void testPrometheusEndpoint_OnlyOnLocalManagementPort() throws Exception {
+        mockMvc.perform(get("/api/v1/books")).andExpect(status().isOk());
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity(
+                "http://127.0.0.1:" + managementPort + "/actuator/prometheus", String.class);
+        assertEquals(HttpStatus.OK, scrape.getStatusCode());
+        assertTrue(scrape.getBody().contains("library_http_sql_statements"));
+        assertTrue(scrape.getBody().contains("hikaricp_connections"));
+
+        // The public application port does not serve it
+        ResponseEntity<String> publicPort = restTemplate.getForEntity("/actuator/prometheus", String.class);
+        assertNotEquals(HttpStatus.OK, publicPort.getStatusCode());
+        assertFalse(String.valueOf(publicPort.getBody()).contains("library_http_sql_statements"));
+    }
+}
@@ -0,0 +1,306 @@
+package com.aaron212.onlinelibrarymanagement.backend.notification;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.dto.InAppNotificationDto;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.model.NotificationOutbox;
+import com.aaron212.onlinelibrarymanagement.backend.service.BorrowService;
+import com.aaron212.onlinelibrarymanagement.backend.service.NotificationService;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Not transactional: outbox rows are only delivered after the business transaction committed, so
+ * every step commits and the data is removed again in {@link #tearDown()}. Mail goes to an
+ * in-process GreenMail SMTP server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(
+        properties = {
+            "library.notifications.email.enabled=true",
+            "library.notifications.digest-window=PT0S",
+            "library.notifications.retry.max-attempts=2",
+            "library.notifications.retry.initial-backoff=PT1H",
+            "library.notifications.retry.max-backoff=PT6H",
+            "library.notifications.lease=PT3S",
+            "spring.mail.host=localhost",
+            "spring.mail.port=3025"
+        })
+class NotificationDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private FlakyChannel flakyChannel;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long categoryId;
+
+    private Long bookId;
+
+    private Long copyId;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM notification_outbox");
+        flakyChannel.failuresLeft.set(0);
+        flakyChannel.deliveries.set(0);
+        flakyChannel.duringDelivery = () -> {};
+        transactionTemplate.executeWithoutResult(status -> {
+            IndexCategory category = fixtures.category("W");
+            BookCopy copy = fixtures.bookWithCopy("notify-1", "Notified Title", category);
+            categoryId = category.getId();
+            bookId = copy.getBook().getId();
+            copyId = copy.getId();
+            userId = fixtures.user("notify-reader").getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM notification_outbox");
+        jdbcTemplate.update("DELETE FROM in_app_notification WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM borrow WHERE copy_id = ?", copyId);
+        jdbcTemplate.update("DELETE FROM book_borrow_counter WHERE book_id = ?", bookId);
+        jdbcTemplate.update("DELETE FROM book_copy WHERE book_id = ?", bookId);
+        jdbcTemplate.update("DELETE FROM book WHERE id = ?", bookId);
+        jdbcTemplate.update("DELETE FROM index_category WHERE id = ?", categoryId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void testDrain_SendsOneDigestPerUserAndChannel() throws Exception {
+        // Arrange: borrow and return in two committed transactions, three channels each
+        borrowService.borrowBookByBookId(userId, bookId);
+        borrowService.returnBook(userId, copyId);
+        assertEquals(6, countOutbox(NotificationOutbox.Status.PENDING));
+
+        // Act
+        int sent = notificationDispatcher.drain();
+
+        // Assert
+        assertEquals(6, sent);
+        assertEquals(6, countOutbox(NotificationOutbox.Status.SENT));
+        assertEquals(1, flakyChannel.deliveries.get());
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        MimeMessage[] mails = greenMail.getReceivedMessages();
+        assertEquals(1, mails.length);
+        assertEquals("您有 2 条图书馆通知", mails[0].getSubject());
+        assertEquals("notify-reader@example.com", mails[0].getAllRecipients()[0].toString());
+
+        Page<InAppNotificationDto> inbox = notificationService.getInbox(userId, PageRequest.of(0, 10));
+        assertEquals(
+                List.of(NotificationOutbox.Type.RETURNED, NotificationOutbox.Type.BORROWED),
+                inbox.getContent().stream().map(InAppNotificationDto::type).toList());
+        assertEquals(2, notificationService.countUnread(userId));
+        assertTrue(notificationService.markRead(
+                userId, inbox.getContent().getFirst().id()));
+        assertFalse(notificationService.markRead(
+                userId, inbox.getContent().getFirst().id()));
+        assertEquals(1, notificationService.countUnread(userId));
+
+        // Nothing left to deliver
+        assertEquals(0, notificationDispatcher.drain());
+    }
+
+    @Test
+    void testDrain_RetriesFailedChannelWithBackoffOnly() {
+        // Arrange
+        flakyChannel.failuresLeft.set(1);
+        notificationService.enqueue(userId, NotificationOutbox.Type.DUE_SOON, "Due soon", "Please return");
+
+        // Act
+        notificationDispatcher.drain();
+
+        // Assert: the other channels are delivered, the flaky one waits for the first backoff
+        assertEquals(2, countOutbox(NotificationOutbox.Status.SENT));
+        assertEquals(1, countOutbox(NotificationOutbox.Status.PENDING));
+        assertEquals(1, attemptsOfFlakyRow());
+        assertTrue(nextAttemptOfFlakyRow().isAfter(LocalDateTime.now().plusMinutes(59)));
+        assertEquals(0, notificationDispatcher.drain());
+
+        // Act: the backoff ran out
+        makeFlakyRowDue();
+        notificationDispatcher.drain();
+
+        // Assert
+        assertEquals(3, countOutbox(NotificationOutbox.Status.SENT));
+        assertEquals(1, flakyChannel.deliveries.get());
+        assertEquals(1, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void testDrain_GivesUpAfterMaxAttempts() {
+        // Arrange
+        flakyChannel.failuresLeft.set(5);
+        notificationService.enqueue(userId, NotificationOutbox.Type.OVERDUE, "Overdue", "Please return");
+
+        // Act
+        notificationDispatcher.drain();
+        makeFlakyRowDue();
+        notificationDispatcher.drain();
+
+        // Assert
+        assertEquals(1, countOutbox(NotificationOutbox.Status.FAILED));
+        assertEquals(2, attemptsOfFlakyRow());
+        assertEquals(
+                "java.io.IOException: gateway unavailable",
+                jdbcTemplate.queryForObject(
+                        "SELECT last_error FROM notification_outbox WHERE channel = 'flaky'", String.class));
+        makeFlakyRowDue();
+        assertEquals(0, notificationDispatcher.drain());
+    }
+
+    @Test
+    void testDrain_LeavesRowsReclaimedDuringDeliveryToTheNewClaimant() {
+        // Arrange: the lease runs out mid-delivery and another dispatcher claims the flaky row
+        flakyChannel.failuresLeft.set(1);
+        flakyChannel.duringDelivery = () -> jdbcTemplate.update(
+                "UPDATE notification_outbox SET claim_token = 'other-dispatcher' WHERE channel = 'flaky'");
+        notificationService.enqueue(userId, NotificationOutbox.Type.DUE_SOON, "Due soon", "Please return");
+
+        // Act
+        int sent = notificationDispatcher.dispatchBatch().sent();
+
+        // Assert: the failure is not recorded over the other claim
+        assertEquals(2, sent);
+        assertEquals(1, countOutbox(NotificationOutbox.Status.SENDING));
+        assertEquals(0, attemptsOfFlakyRow());
+        assertEquals(
+                "other-dispatcher",
+                jdbcTemplate.queryForObject(
+                        "SELECT claim_token FROM notification_outbox WHERE channel = 'flaky'", String.class));
+    }
+
+    @Test
+    void testDrain_FailsDeliveryThatHangsPastTheLease() {
+        // Arrange: the flaky channel hangs until it is interrupted
+        flakyChannel.duringDelivery = () -> {
+            try {
+                Thread.sleep(Duration.ofMinutes(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        notificationService.enqueue(userId, NotificationOutbox.Type.DUE_SOON, "Due soon", "Please return");
+
+        // Act
+        int sent = notificationDispatcher.drain();
+
+        // Assert: the other channels are not held up, the hung one is retried later
+        assertEquals(2, sent);
+        assertEquals(1, countOutbox(NotificationOutbox.Status.PENDING));
+        assertEquals(1, attemptsOfFlakyRow());
+        assertEquals(
+                "Delivery timed out after PT3S",
+                jdbcTemplate.queryForObject(
+                        "SELECT last_error FROM notification_outbox WHERE channel = 'flaky'", String.class));
+    }
+
+    @Test
+    void testBackoff_DoublesUpToTheMaximum() {
+        assertEquals(Duration.ofHours(1), notificationDispatcher.backoff(1));
+        assertEquals(Duration.ofHours(2), notificationDispatcher.backoff(2));
+        assertEquals(Duration.ofHours(4), notificationDispatcher.backoff(3));
+        assertEquals(Duration.ofHours(6), notificationDispatcher.backoff(4));
+        assertEquals(Duration.ofHours(6), notificationDispatcher.backoff(40));
+    }
+
+    private long countOutbox(NotificationOutbox.Status status) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification_outbox WHERE status = ?", Long.class, status.ordinal());
+    }
+
+    private int attemptsOfFlakyRow() {
+        return jdbcTemplate.queryForObject(
+                "SELECT attempts FROM notification_outbox WHERE channel = 'flaky'", Integer.class);
+    }
+
+    private LocalDateTime nextAttemptOfFlakyRow() {
+        return jdbcTemplate.queryForObject(
+                "SELECT next_attempt_time FROM notification_outbox WHERE channel = 'flaky'", LocalDateTime.class);
+    }
+
+    private void makeFlakyRowDue() {
+        jdbcTemplate.update(
+                "UPDATE notification_outbox SET next_attempt_time = ? WHERE channel = 'flaky'",
+                LocalDateTime.now().minusSeconds(1));
+    }
+
+    @TestConfiguration
+    static class FlakyChannelConfig {
+
+        @Bean
+        FlakyChannel flakyChannel() {
+            return new FlakyChannel();
+        }
+    }
+
+    /* Fails while failuresLeft is positive, like a gateway that is down for a while */
+    static class FlakyChannel implements NotificationChannel {
+
+        final AtomicInteger failuresLeft = new AtomicInteger();
+
+        final AtomicInteger deliveries = new AtomicInteger();
+
+        volatile Runnable duringDelivery = () -> {};
+
+        @Override
+        public String name() {
+            return "flaky";
+        }
+
+        @Override
+        public void deliver(NotificationRecipient recipient, List<NotificationMessage> messages) throws Exception {
+            duringDelivery.run();
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new java.io.IOException("gateway unavailable");
+            }
+            deliveries.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.aaron212.onlinelibrarymanagement.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Runs every repository method that takes a {@link Pageable}. With
+ * {@code hibernate.query.fail_on_pagination_over_collection_fetch} on, a query that would load all
+ * rows to cut the page in memory throws instead of only logging HHH000104.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@Transactional
+class PagedQueryTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void testPagedRepositoryMethods_NeverPaginateInMemory() throws Exception {
+        Repositories repositories = new Repositories(applicationContext);
+        List<String> invoked = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+
+        for (Class<?> domainType : repositories) {
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+            Class<?> repositoryInterface = repositories
+                    .getRepositoryInformationFor(domainType)
+                    .orElseThrow()
+                    .getRepositoryInterface();
+            for (Method method : repositoryInterface.getDeclaredMethods()) {
+                if (!Arrays.asList(method.getParameterTypes()).contains(Pageable.class)) {
+                    continue;
+                }
+                String name = repositoryInterface.getSimpleName() + "." + method.getName();
+                invoked.add(name);
+                try {
+                    method.invoke(repository, arguments(method));
+                } catch (InvocationTargetException e) {
+                    failures.add(name + ": " + e.getCause());
+                }
+            }
+        }
+
+        assertTrue(invoked.contains("BookRepository.findPageIds"), () -> "not invoked: " + invoked);
+        assertTrue(invoked.contains("FavoriteRepository.findByUserIdWithBookDetails"));
+        assertTrue(failures.isEmpty(), () -> String.join("\n", failures));
+    }
+
+    /* A limited second page, so both the limit and the count query run; other arguments only need the right type */
+    private static Object[] arguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            if (type == Pageable.class) {
+                arguments[i] = PageRequest.of(1, 2);
+            } else if (type == String.class) {
+                arguments[i] = "x";
+            } else if (type == Long.class || type == long.class) {
+                arguments[i] = 1L;
+            } else if (type == Integer.class || type == int.class) {
+                arguments[i] = 1;
+            } else if (type == LocalDateTime.class) {
+                arguments[i] = LocalDateTime.now();
+            } else if (type == LocalDate.class) {
+                arguments[i] = LocalDate.now();
+            } else if (type.isEnum()) {
+                arguments[i] = type.getEnumConstants()[0];
+            }
+        }
+        return arguments;
+    }
+}
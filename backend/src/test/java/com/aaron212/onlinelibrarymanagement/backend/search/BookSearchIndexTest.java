@@ -0,0 +1,204 @@
+package com.aaron212.onlinelibrarymanagement.backend.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BookSearchIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path indexDir;
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        indexDir = tempDir.resolve("index");
+        index = new BookSearchIndex(indexDir.toString());
+        index.index(new BookSearchDocument(
+                1L,
+                "978-7-111-54742-6",
+                "Java Programming",
+                "An introduction to the Java language",
+                List.of("James Gosling"),
+                List.of("Oracle Press")));
+        index.index(new BookSearchDocument(
+                2L, "978-7-302-33064-6", "数据结构与算法", "经典的计算机科学教材", List.of("严蔚敏"), List.of("清华大学出版社")));
+        index.index(new BookSearchDocument(
+                3L,
+                "978-0-13-468599-1",
+                "Effective Programming Practices",
+                "Mentions Java once",
+                List.of("Joshua Bloch"),
+                List.of("Addison-Wesley")));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void testSearch_RanksTitleMatchFirst() {
+        BookSearchHits hits = index.search("java", 0, 10);
+
+        assertEquals(List.of(1L, 3L), hits.bookIds());
+        assertEquals(2, hits.totalHits());
+    }
+
+    @Test
+    void testSearch_PrefixOnLastTerm() {
+        assertEquals(List.of(1L, 3L), index.search("progr", 0, 10).bookIds());
+        assertTrue(index.search("progr ", 0, 10).bookIds().isEmpty());
+    }
+
+    @Test
+    void testSearch_ChineseText() {
+        assertEquals(List.of(2L), index.search("数据结构", 0, 10).bookIds());
+        assertEquals(List.of(2L), index.search("清华", 0, 10).bookIds());
+        assertTrue(index.search("结构数据", 0, 10).bookIds().isEmpty());
+    }
+
+    @Test
+    void testSearch_AuthorsPublishersAndIsbn() {
+        assertEquals(List.of(3L), index.search("bloch", 0, 10).bookIds());
+        assertEquals(List.of(1L), index.search("oracle", 0, 10).bookIds());
+        assertEquals(List.of(2L), index.search("978-7-302-33064-6", 0, 10).bookIds());
+    }
+
+    @Test
+    void testSearch_Paging() {
+        BookSearchHits secondPage = index.search("java", 1, 1);
+
+        assertEquals(List.of(3L), secondPage.bookIds());
+        assertEquals(2, secondPage.totalHits());
+    }
+
+    @Test
+    void testUpdateAndDelete() {
+        index.index(new BookSearchDocument(1L, "978-7-111-54742-6", "Kotlin in Action", null, List.of(), List.of()));
+        assertEquals(List.of(3L), index.search("java", 0, 10).bookIds());
+
+        index.delete(3L);
+        assertTrue(index.search("java", 0, 10).bookIds().isEmpty());
+        assertEquals(2, index.documentCount());
+    }
+
+    @Test
+    void testSearch_NoSearchableTerms() {
+        assertNull(index.search("the", 0, 10));
+    }
+
+    @Test
+    void testReopen_KeepsDocuments() throws IOException {
+        index.close();
+        index = new BookSearchIndex(indexDir.toString());
+
+        assertEquals(3, index.documentCount());
+    }
+
+    @Test
+    void testRebuild_SearchesSeeOldIndexUntilSwappedIn() {
+        // Arrange
+        index.beginRebuild();
+        index.addAll(List.of(new BookSearchDocument(
+                2L, "978-7-302-33064-6", "数据结构与算法", "经典的计算机科学教材", List.of("严蔚敏"), List.of("清华大学出版社"))));
+
+        // Act & Assert: nothing of the rebuild is visible before it is finished
+        assertEquals(List.of(1L, 3L), index.search("java", 0, 10).bookIds());
+        assertEquals(3, index.documentCount());
+        index.finishRebuild();
+
+        assertTrue(index.search("java", 0, 10).bookIds().isEmpty());
+        assertEquals(1, index.documentCount());
+        assertFalse(Files.exists(tempDir.resolve("index-rebuild")));
+    }
+
+    @Test
+    void testRebuild_KeepsChangesMadeWhileRunning() {
+        // Arrange: the rebuild read all three books before they changed
+        index.beginRebuild();
+        index.addAll(List.of(
+                new BookSearchDocument(1L, "978-7-111-54742-6", "Java Programming", null, List.of(), List.of()),
+                new BookSearchDocument(2L, "978-7-302-33064-6", "数据结构与算法", null, List.of(), List.of()),
+                new BookSearchDocument(3L, "978-0-13-468599-1", "Effective Java", null, List.of(), List.of())));
+
+        // Act: changes go live at once
+        index.index(new BookSearchDocument(4L, "978-0-321-33678-1", "Java Puzzlers", null, List.of(), List.of()));
+        index.index(new BookSearchDocument(1L, "978-7-111-54742-6", "Kotlin in Action", null, List.of(), List.of()));
+        index.delete(3L);
+        List<Long> whileRunning = index.search("java", 0, 10).bookIds();
+        index.finishRebuild();
+
+        // Assert: and survive the swap, without duplicates
+        assertEquals(List.of(4L), whileRunning);
+        assertEquals(List.of(4L), index.search("java", 0, 10).bookIds());
+        assertEquals(List.of(1L), index.search("kotlin", 0, 10).bookIds());
+        assertEquals(3, index.documentCount());
+    }
+
+    @Test
+    void testFinishRebuild_FailedSwapKeepsOldIndex() throws IOException {
+        // Arrange: reading the rebuilt index back fails once it is complete
+        AtomicBoolean failReads = new AtomicBoolean();
+        index.close();
+        index = new BookSearchIndex(indexDir.toString()) {
+            @Override
+            Directory openRebuildDirectory() throws IOException {
+                return new FilterDirectory(super.openRebuildDirectory()) {
+                    @Override
+                    public IndexInput openInput(String name, IOContext context) throws IOException {
+                        if (failReads.get() && name.startsWith("segments")) {
+                            throw new IOException("disk read error");
+                        }
+                        return super.openInput(name, context);
+                    }
+                };
+            }
+        };
+        index.beginRebuild();
+        index.addAll(List.of(new BookSearchDocument(
+                2L, "978-7-302-33064-6", "数据结构与算法", "经典的计算机科学教材", List.of("严蔚敏"), List.of("清华大学出版社"))));
+        failReads.set(true);
+
+        // Act
+        assertThrows(UncheckedIOException.class, index::finishRebuild);
+        index.index(new BookSearchDocument(4L, "978-0-321-33678-1", "Java Puzzlers", null, List.of(), List.of()));
+
+        // Assert: the next commit publishes the old documents plus the change, not the partial swap
+        assertEquals(List.of(1L, 3L, 4L), index.search("java", 0, 10).bookIds().stream().sorted().toList());
+        assertEquals(4, index.documentCount());
+    }
+
+    @Test
+    void testAbortRebuild_LeavesLiveIndex() {
+        // Arrange
+        index.beginRebuild();
+        index.addAll(List.of());
+
+        // Act
+        index.abortRebuild();
+
+        // Assert
+        assertEquals(3, index.documentCount());
+        assertThrows(IllegalStateException.class, index::finishRebuild);
+        index.beginRebuild();
+        index.finishRebuild();
+        assertEquals(0, index.documentCount());
+    }
+}
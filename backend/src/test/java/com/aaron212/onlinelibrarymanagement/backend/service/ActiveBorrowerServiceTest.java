@@ -0,0 +1,151 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Not transactional: borrowers are recorded after commit and sketches are written in their own
+ * transactions, so the rows are removed in {@link #tearDown()}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ActiveBorrowerServiceTest {
+
+    // Settled days stay cached for the life of the context, so each test uses its own days
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 6);
+
+    private static final LocalDate HISTORY_DAY = LocalDate.of(2023, 3, 6);
+
+    @Autowired
+    private ActiveBorrowerService activeBorrowerService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    private Long copyId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM borrower_daily_sketch");
+        transactionTemplate.executeWithoutResult(status -> {
+            copyId = fixtures.bookWithCopy("sketch-1", "Sketch Book", fixtures.category("H"))
+                    .getId();
+            for (int i = 0; i < 3; i++) {
+                userIds.add(fixtures.user("sketch-reader-" + i).getId());
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM borrower_daily_sketch");
+        jdbcTemplate.update("DELETE FROM borrow WHERE copy_id = ?", copyId);
+        jdbcTemplate.update("DELETE FROM book_copy WHERE barcode = 'sketch-1-001'");
+        jdbcTemplate.update("DELETE FROM book WHERE isbn = 'sketch-1'");
+        jdbcTemplate.update("DELETE FROM index_category WHERE index_code = 'H'");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'sketch-reader-%'");
+        activeBorrowerService.flush();
+        jdbcTemplate.update("DELETE FROM borrower_daily_sketch");
+    }
+
+    @Test
+    void testCountDistinctBorrowers_MergesDaysAndPendingBorrowers() {
+        // Arrange: 1000 users over a week, each borrowing on two days; the last day is not flushed yet
+        for (int day = 0; day < 7; day++) {
+            for (long user = day * 100L; user < day * 100L + 200; user++) {
+                activeBorrowerService.recordBorrow(user, DAY.plusDays(day));
+            }
+            if (day == 5) {
+                activeBorrowerService.flush();
+            }
+        }
+
+        // Act
+        long week = activeBorrowerService.countDistinctBorrowers(DAY, DAY.plusDays(6));
+        long firstDay = activeBorrowerService.countDistinctBorrowers(DAY, DAY);
+        long none = activeBorrowerService.countDistinctBorrowers(DAY.minusDays(10), DAY.minusDays(1));
+
+        // Assert
+        assertEquals(800, week, 800 * 0.05);
+        assertEquals(200, firstDay, 200 * 0.05);
+        assertEquals(0, none);
+        // The first six days were written by the flush, the last one is still in memory only
+        assertEquals(
+                6L,
+                jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM borrower_daily_sketch WHERE sketch_date BETWEEN ? AND ?",
+                        Long.class,
+                        DAY,
+                        DAY.plusDays(6)));
+        activeBorrowerService.flush();
+        assertEquals(week, activeBorrowerService.countDistinctBorrowers(DAY, DAY.plusDays(6)));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> activeBorrowerService.countDistinctBorrowers(DAY.plusDays(1), DAY));
+    }
+
+    @Test
+    void testBackfillMissingDays_BuildsSketchesFromBorrowHistory() {
+        // Arrange: three borrows by two users on one day, one borrow two days later
+        persistBorrows(List.of(
+                new Object[] {userIds.get(0), HISTORY_DAY.atTime(9, 0)},
+                new Object[] {userIds.get(1), HISTORY_DAY.atTime(10, 0)},
+                new Object[] {userIds.get(0), HISTORY_DAY.atTime(16, 0)},
+                new Object[] {userIds.get(2), HISTORY_DAY.plusDays(2).atTime(12, 0)}));
+
+        // Act
+        int written = activeBorrowerService.backfillMissingDays();
+        int rerun = activeBorrowerService.backfillMissingDays();
+
+        // Assert: every day from the first borrow gets a sketch, empty days included
+        assertTrue(written >= 3);
+        assertEquals(0, rerun);
+        assertEquals(2, activeBorrowerService.countDistinctBorrowers(HISTORY_DAY, HISTORY_DAY));
+        assertEquals(0, activeBorrowerService.countDistinctBorrowers(HISTORY_DAY.plusDays(1), HISTORY_DAY.plusDays(1)));
+        assertEquals(3, activeBorrowerService.countDistinctBorrowers(HISTORY_DAY, HISTORY_DAY.plusDays(2)));
+    }
+
+    private void persistBorrows(List<Object[]> borrows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            BookCopy copy = entityManager.find(BookCopy.class, copyId);
+            for (Object[] row : borrows) {
+                LocalDateTime borrowTime = (LocalDateTime) row[1];
+                Borrow borrow = fixtures.borrow(
+                        entityManager.find(User.class, row[0]),
+                        copy,
+                        borrowTime,
+                        borrowTime.plusDays(30),
+                        Borrow.Status.RETURNED);
+                borrow.setActualReturnTime(borrowTime.plusDays(1));
+            }
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookBorrowCounter;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import com.aaron212.onlinelibrarymanagement.backend.repository.BookBorrowCounterRepository;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@Transactional
+class BookBorrowCounterServiceTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 2, 1, 10, 0);
+
+    @Autowired
+    private BookBorrowCounterService bookBorrowCounterService;
+
+    @Autowired
+    private BookBorrowCounterRepository bookBorrowCounterRepository;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private IndexCategory category;
+
+    private User reader;
+
+    @BeforeEach
+    void setUp() {
+        category = fixtures.category("C");
+        reader = fixtures.user("counter-reader");
+    }
+
+    @Test
+    void testBorrow_CreatesCounterAndIncrementsIt() {
+        // Arrange
+        BookCopy copy = fixtures.bookWithCopy("counter-1", "Counter Book", category);
+        Long bookId = copy.getBook().getId();
+        entityManager.flush();
+
+        // Act
+        borrowService.borrowBook(reader.getId(), copy.getId());
+        long afterFirst = borrowCount(bookId);
+        borrowService.returnBook(reader.getId(), copy.getId());
+        borrowService.borrowBook(reader.getId(), copy.getId());
+
+        // Assert
+        assertEquals(1, afterFirst);
+        assertEquals(2, borrowCount(bookId));
+    }
+
+    @Test
+    void testRebuildFromBorrowHistory_CountsSeededBorrowsAndOrdersTopCounters() {
+        // Arrange: 1, 3, 2 and 2 borrows; the counter of the first book has drifted
+        Book once = seedBorrows("counter-a", 1);
+        Book thrice = seedBorrows("counter-b", 3);
+        Book twice = seedBorrows("counter-c", 2);
+        Book alsoTwice = seedBorrows("counter-d", 2);
+        for (int i = 0; i < 5; i++) {
+            bookBorrowCounterRepository.incrementBorrowCount(once.getId());
+        }
+        entityManager.flush();
+
+        // Act
+        int rows = bookBorrowCounterService.rebuildFromBorrowHistory();
+        entityManager.clear();
+        List<Long> seeded = List.of(once.getId(), thrice.getId(), twice.getId(), alsoTwice.getId());
+        List<BookBorrowCounter> top = bookBorrowCounterService.getTopCounters(1000).stream()
+                .filter(counter -> seeded.contains(counter.getBookId()))
+                .toList();
+
+        // Assert: highest count first, ties broken by book id
+        assertTrue(rows >= 4);
+        assertTrue(bookBorrowCounterService.hasCounters());
+        assertEquals(
+                List.of(thrice.getId(), twice.getId(), alsoTwice.getId(), once.getId()),
+                top.stream().map(BookBorrowCounter::getBookId).toList());
+        assertEquals(
+                List.of(3L, 2L, 2L, 1L),
+                top.stream().map(BookBorrowCounter::getBorrowCount).toList());
+        assertEquals(1, bookBorrowCounterService.getTopCounters(1).size());
+    }
+
+    private Book seedBorrows(String isbn, int borrows) {
+        Book book = fixtures.book(isbn, "Counter Book " + isbn, category);
+        BookCopy copy = fixtures.copy(book, isbn + "-001", BookCopy.Status.AVAILABLE);
+        for (int i = 0; i < borrows; i++) {
+            LocalDateTime borrowTime = BASE_TIME.plusDays(i * 2L);
+            Borrow borrow = fixtures.borrow(reader, copy, borrowTime, borrowTime.plusDays(30), Borrow.Status.RETURNED);
+            borrow.setActualReturnTime(borrowTime.plusDays(1));
+        }
+        return book;
+    }
+
+    private long borrowCount(Long bookId) {
+        entityManager.flush();
+        entityManager.clear();
+        return bookBorrowCounterRepository.findById(bookId).orElseThrow().getBorrowCount();
+    }
+}
@@ -0,0 +1,98 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookCopyCreateDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookCopyDto;
+import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@Transactional
+class BookCopyCountServiceTest {
+
+    @Autowired
+    private BookCopyService bookCopyService;
+
+    @Autowired
+    private BookCopyCountService bookCopyCountService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        IndexCategory category = new IndexCategory();
+        category.setIndexCode("C");
+        category.setName("Category C");
+        entityManager.persist(category);
+
+        book = new Book();
+        book.setIsbn("count-1");
+        book.setTitle("Counted Book");
+        book.setLocation("LIBRARY");
+        book.setIndexCategory(category);
+        entityManager.persist(book);
+        entityManager.flush();
+    }
+
+    @Test
+    void testCopyLifecycle_MaintainsCounts() {
+        // Act & Assert
+        BookCopyDto first = createCopy("count-1-001", BookCopy.Status.AVAILABLE);
+        createCopy("count-1-002", BookCopy.Status.MAINTENANCE);
+        assertCounts(1, 2);
+
+        bookCopyService.updateBookCopyStatus(first.id(), BookCopy.Status.MAINTENANCE);
+        assertCounts(0, 2);
+
+        bookCopyService.updateBookCopyStatus(first.id(), BookCopy.Status.AVAILABLE);
+        assertCounts(1, 2);
+
+        bookCopyService.deleteBookCopy(first.id());
+        assertCounts(0, 1);
+    }
+
+    @Test
+    void testReconcile_RepairsDrift() {
+        // Arrange
+        createCopy("count-1-001", BookCopy.Status.AVAILABLE);
+        createCopy("count-1-002", BookCopy.Status.AVAILABLE);
+        entityManager.flush();
+        entityManager
+                .createNativeQuery("UPDATE book SET available_copies = 7, total_copies = 9 WHERE id = :id")
+                .setParameter("id", book.getId())
+                .executeUpdate();
+
+        // Act
+        int corrected = bookCopyCountService.reconcile();
+
+        // Assert
+        assertEquals(1, corrected);
+        assertCounts(2, 2);
+        assertEquals(0, bookCopyCountService.reconcile());
+    }
+
+    private BookCopyDto createCopy(String barcode, BookCopy.Status status) {
+        return bookCopyService.createBookCopy(new BookCopyCreateDto(book.getId(), barcode, status, null, null));
+    }
+
+    private void assertCounts(int available, int total) {
+        entityManager.flush();
+        entityManager.clear();
+        Book reloaded = entityManager.find(Book.class, book.getId());
+        assertEquals(available, reloaded.getAvailableCopies());
+        assertEquals(total, reloaded.getTotalCopies());
+    }
+}
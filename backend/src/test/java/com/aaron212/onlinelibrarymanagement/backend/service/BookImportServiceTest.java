@@ -0,0 +1,155 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookImportErrorDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookImportReportDto;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Not transactional: the import commits chunk by chunk, so the rows are removed in {@link #tearDown()}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "library.import.chunk-size=500")
+class BookImportServiceTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        String books = "(SELECT id FROM book WHERE isbn LIKE 'imp-%')";
+        jdbcTemplate.update("DELETE FROM book_copy WHERE book_id IN " + books);
+        jdbcTemplate.update("DELETE FROM book_author WHERE book_id IN " + books);
+        jdbcTemplate.update("DELETE FROM book_publisher WHERE book_id IN " + books);
+        jdbcTemplate.update("DELETE FROM book WHERE isbn LIKE 'imp-%'");
+        jdbcTemplate.update("DELETE FROM author WHERE name LIKE 'Imp %'");
+        jdbcTemplate.update("DELETE FROM publisher WHERE name LIKE 'Imp %'");
+        for (String code : List.of("Q12", "Q1", "Q")) {
+            jdbcTemplate.update("DELETE FROM index_category WHERE index_code = ?", code);
+        }
+        bookSearchService.rebuildIndex();
+    }
+
+    @Test
+    void testImportNdjson_WritesAllChunksAndReportsBadRows() throws Exception {
+        // Arrange: 1200 good rows over three chunks, sharing three authors and one publisher
+        StringBuilder body = new StringBuilder();
+        int good = 1200;
+        for (int i = 0; i < good; i++) {
+            body.append(ndjsonRow("imp-" + i, "Imported Title " + i, "Imp Author " + (i % 3), 2));
+        }
+        body.append("{not json\n"); // line 1201
+        body.append("\n");
+        body.append("{\"isbn\":\"imp-x\",\"language\":\"zh\",\"authorNames\":[],\"categoryName\":\"Q12\",")
+                .append("\"totalQuantity\":1}\n"); // line 1203, no title
+        body.append(ndjsonRow("imp-7", "Duplicate", "Imp Author 0", 1)); // line 1204, imported in chunk one
+
+        // Act
+        BookImportReportDto report =
+                bookImportService.importBooks(stream(body.toString()), BookImportService.Format.NDJSON);
+
+        // Assert
+        assertEquals(good + 3, report.processedRows());
+        assertEquals(good, report.importedBooks());
+        assertEquals(good * 2L, report.importedCopies());
+        assertEquals(3, report.failedRows());
+        assertEquals(
+                List.of(1201L, 1203L, 1204L),
+                report.errors().stream().map(BookImportErrorDto::row).toList());
+        assertEquals("Title is required", report.errors().get(1).message());
+        assertEquals("Book with ISBN already exists", report.errors().get(2).message());
+
+        assertEquals(good, count("SELECT COUNT(*) FROM book WHERE isbn LIKE 'imp-%'"));
+        assertEquals(good * 2L, count("SELECT COUNT(*) FROM book_copy WHERE barcode LIKE 'imp-%'"));
+        assertEquals(3, count("SELECT COUNT(*) FROM author WHERE name LIKE 'Imp %'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM publisher WHERE name LIKE 'Imp %'"));
+        assertEquals(
+                good,
+                count("SELECT COUNT(*) FROM book_author ba JOIN book b ON b.id = ba.book_id "
+                        + "WHERE b.isbn LIKE 'imp-%'"));
+        assertEquals(good * 2L, count("SELECT SUM(available_copies) FROM book WHERE isbn LIKE 'imp-%'"));
+        assertEquals(
+                "imp-5-002",
+                jdbcTemplate.queryForObject(
+                        "SELECT MAX(c.barcode) FROM book_copy c JOIN book b ON b.id = c.book_id WHERE b.isbn = 'imp-5'",
+                        String.class));
+
+        // Imported books are searchable without a rebuild
+        assertEquals(
+                1, bookSearchService.search("imp-1199", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void testImportCsv_SplitsNameListsAndRejectsInvalidCategory() throws Exception {
+        // Arrange
+        String csv = "isbn,title,language,description,coverURL,location,authorNames,publisherNames,categoryName,"
+                + "totalQuantity\n"
+                + "imp-c1,\"Comma, in title\",en,,,,Imp Ann;Imp Bob,Imp Press,Q12,3\n"
+                + "imp-c2,Second,en,,,SHELF-2,Imp Bob,,Q1,1\n"
+                + "imp-c3,Bad category,en,,,,Imp Ann,,not a code,1\n";
+
+        // Act
+        BookImportReportDto report = bookImportService.importBooks(stream(csv), BookImportService.Format.CSV);
+
+        // Assert
+        assertEquals(3, report.processedRows());
+        assertEquals(2, report.importedBooks());
+        assertEquals(4, report.importedCopies());
+        assertEquals(1, report.failedRows());
+        assertEquals(4, report.errors().getFirst().row());
+        assertEquals("imp-c3", report.errors().getFirst().isbn());
+
+        assertEquals(
+                "Comma, in title",
+                jdbcTemplate.queryForObject("SELECT title FROM book WHERE isbn = 'imp-c1'", String.class));
+        assertEquals(
+                "SHELF-2",
+                jdbcTemplate.queryForObject("SELECT location FROM book WHERE isbn = 'imp-c2'", String.class));
+        assertEquals(
+                2,
+                count("SELECT COUNT(*) FROM book_author ba JOIN book b ON b.id = ba.book_id "
+                        + "WHERE b.isbn = 'imp-c1'"));
+        assertEquals(
+                1,
+                count("SELECT COUNT(*) FROM book_publisher bp JOIN book b ON b.id = bp.book_id "
+                        + "WHERE b.isbn = 'imp-c1'"));
+        assertEquals(
+                "Q1",
+                jdbcTemplate.queryForObject(
+                        "SELECT p.index_code FROM index_category c JOIN index_category p ON p.id = c.parent_id "
+                                + "WHERE c.index_code = 'Q12'",
+                        String.class));
+    }
+
+    private static String ndjsonRow(String isbn, String title, String author, int quantity) {
+        return "{\"isbn\":\"" + isbn + "\",\"title\":\"" + title + "\",\"language\":\"zh\",\"authorNames\":[\""
+                + author + "\"],\"publisherNames\":[\"Imp Press\"],\"categoryName\":\"Q12\",\"totalQuantity\":"
+                + quantity + "}\n";
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
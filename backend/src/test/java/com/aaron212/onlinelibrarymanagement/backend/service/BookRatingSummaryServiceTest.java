@@ -0,0 +1,131 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookRatingSummaryDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.CommentCreateDto;
+import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@Transactional
+class BookRatingSummaryServiceTest {
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private BookRatingSummaryService bookRatingSummaryService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        IndexCategory category = new IndexCategory();
+        category.setIndexCode("R");
+        category.setName("Category R");
+        entityManager.persist(category);
+
+        book = new Book();
+        book.setIsbn("rating-1");
+        book.setTitle("Rated Book");
+        book.setLocation("LIBRARY");
+        book.setIndexCategory(category);
+        entityManager.persist(book);
+        for (String username : new String[] {"ann", "bob", "cat", "dan"}) {
+            User user = new User();
+            user.setUsername(username);
+            user.setEmail(username + "@example.com");
+            user.setPasswordHash("hash");
+            user.setRole(User.Role.USER);
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void testCommentLifecycle_MaintainsSummaryAndHistogram() {
+        // Arrange
+        Long ann = comment("ann", "4.5");
+        Long bob = comment("bob", "3.7");
+        Long cat = comment("cat", null);
+        Long dan = comment("dan", "5.0");
+
+        // Pending comments are not counted
+        assertEquals(0, commentService.getCommentCountForBook(book.getId()));
+        assertTrue(commentService.getAverageRatingForBook(book.getId()).isEmpty());
+
+        // Act
+        commentService.approveComment(ann);
+        commentService.approveComment(bob);
+        commentService.approveComment(cat);
+        commentService.rejectComment(dan);
+
+        // Assert
+        BookRatingSummaryDto summary = commentService.getRatingSummaryForBook(book.getId());
+        assertEquals(3, summary.commentCount());
+        assertEquals(2, summary.ratingCount());
+        assertEquals(4.1, summary.averageRating(), 1e-9);
+        assertEquals(11, summary.histogram().size());
+        assertEquals(1, summary.histogram().get("4.5"));
+        assertEquals(1, summary.histogram().get("3.5"));
+        assertEquals(0, summary.histogram().get("5.0"));
+
+        commentService.deleteComment(ann, "ann", User.Role.USER);
+        summary = commentService.getRatingSummaryForBook(book.getId());
+        assertEquals(2, summary.commentCount());
+        assertEquals(3.7, summary.averageRating(), 1e-9);
+        assertEquals(0, summary.histogram().get("4.5"));
+        assertEquals(0, bookRatingSummaryService.verify());
+    }
+
+    @Test
+    void testVerify_RepairsDrift() {
+        // Arrange
+        commentService.approveComment(comment("ann", "2.0"));
+        commentService.approveComment(comment("bob", "3.0"));
+        entityManager
+                .createNativeQuery("UPDATE comment SET rating = 1.0 WHERE rating = 3.0 AND book_id = :id")
+                .setParameter("id", book.getId())
+                .executeUpdate();
+        entityManager
+                .createNativeQuery("INSERT INTO book_rating_summary (book_id, comment_count, rating_count, rating_sum, "
+                        + "update_time) VALUES (:id, 4, 4, 8.0, NOW())")
+                .setParameter("id", book.getId() + 1000)
+                .executeUpdate();
+
+        // Act
+        int corrected = bookRatingSummaryService.verify();
+
+        // Assert
+        assertEquals(2, corrected);
+        BookRatingSummaryDto summary = commentService.getRatingSummaryForBook(book.getId());
+        assertEquals(1.5, summary.averageRating(), 1e-9);
+        assertEquals(1, summary.histogram().get("1.0"));
+        assertEquals(0, summary.histogram().get("3.0"));
+        assertEquals(0, commentService.getCommentCountForBook(book.getId() + 1000));
+        assertEquals(0, bookRatingSummaryService.verify());
+    }
+
+    private Long comment(String username, String rating) {
+        return commentService
+                .createComment(
+                        new CommentCreateDto(
+                                book.getId(), "A comment long enough", rating != null ? new BigDecimal(rating) : null),
+                        username)
+                .id();
+    }
+}
@@ -0,0 +1,142 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BookSummaryDto;
+import com.aaron212.onlinelibrarymanagement.backend.exception.ResourceNotFoundException;
+import com.aaron212.onlinelibrarymanagement.backend.model.Author;
+import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookAuthor;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@Transactional
+class BookServiceTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private IndexCategoryService indexCategoryService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        fixtures.book("tree-1", "Leaf Book", indexCategoryService.addCategoryWithHierarchy("Z12.5"));
+        fixtures.book("tree-2", "Inner Book", indexCategoryService.addCategoryWithHierarchy("Z12"));
+        fixtures.book("tree-3", "Sibling Book", indexCategoryService.addCategoryWithHierarchy("Z13"));
+        fixtures.book("tree-4", "Prefix Book", indexCategoryService.addCategoryWithHierarchy("Z120"));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testGetBooksByCategory_IncludesDescendants() {
+        assertEquals(List.of("tree-1", "tree-2", "tree-4"), isbns("Z12"));
+        assertEquals(List.of("tree-1"), isbns("Z12.5"));
+        assertEquals(List.of("tree-1", "tree-2", "tree-3", "tree-4"), isbns("Z1"));
+        assertThrows(ResourceNotFoundException.class, () -> isbns("Z99"));
+    }
+
+    @Test
+    void testAddCategoryWithHierarchy_ReparentingMovesDescendantPaths() {
+        // Arrange: Y5 stored without a parent, with a child and a book below it
+        IndexCategory y5 = new IndexCategory(null, "Y5", "Category Y5", null, "/Y5/", null);
+        entityManager.persist(y5);
+        IndexCategory y51 = new IndexCategory(null, "Y5.1", "Category Y5.1", y5, "/Y5/Y5.1/", null);
+        entityManager.persist(y51);
+        fixtures.book("tree-5", "Orphan Book", y51);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        indexCategoryService.addCategoryWithHierarchy("Y5");
+
+        // Assert
+        assertEquals("/root/Y/Y5/Y5.1/", indexCategoryService.findByIndexCode("Y5.1").orElseThrow().getPath());
+        assertEquals(List.of("tree-5"), isbns("Y"));
+    }
+
+    @Test
+    void testGetBooksSummaryByCategory_PageAndCountQueriesOnly() {
+        // Arrange
+        Statistics statistics =
+                entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        Page<BookSummaryDto> page = bookService.getBooksSummaryByCategory("Z1", PageRequest.of(0, 2, Sort.by("isbn")));
+
+        // Assert: subtree page, its count, then authors and publishers of the page
+        assertEquals(4, page.getTotalElements());
+        assertEquals(
+                List.of("Leaf Book", "Inner Book"),
+                page.getContent().stream().map(BookSummaryDto::title).toList());
+        assertTrue(statistics.getPrepareStatementCount() <= 5, "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetAllBooksSummaryPaged_LimitsInSqlAndLoadsAuthors() {
+        // Arrange
+        Book book = entityManager
+                .createQuery("SELECT b FROM Book b WHERE b.isbn = 'tree-4'", Book.class)
+                .getSingleResult();
+        Author author = new Author();
+        author.setName("Tree Author");
+        entityManager.persist(author);
+        BookAuthor bookAuthor = new BookAuthor();
+        bookAuthor.setBook(book);
+        bookAuthor.setAuthor(author);
+        entityManager.persist(bookAuthor);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics =
+                entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        Page<BookSummaryDto> page =
+                bookService.getAllBooksSummaryPaged(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "isbn")));
+
+        // Assert: id page, count, then authors and publishers of the two books
+        assertEquals(
+                List.of("Prefix Book", "Sibling Book"),
+                page.getContent().stream().map(BookSummaryDto::title).toList());
+        assertEquals(List.of("Tree Author"), page.getContent().getFirst().authors());
+        assertTrue(page.getTotalElements() >= 4);
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    private List<String> isbns(String categoryCode) {
+        return bookService
+                .getBooksByCategory(categoryCode, PageRequest.of(0, 10, Sort.by("isbn")))
+                .getContent()
+                .stream()
+                .map(Book::getIsbn)
+                .toList();
+    }
+}
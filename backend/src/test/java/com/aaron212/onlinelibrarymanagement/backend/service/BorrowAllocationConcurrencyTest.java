@@ -0,0 +1,171 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.exception.BusinessLogicException;
+import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Not transactional on purpose: every borrow must commit in its own transaction, as it does behind
+ * the controller, so the data is removed again in {@link #tearDown()}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class BorrowAllocationConcurrencyTest {
+
+    private static final int COPIES = 5;
+    private static final int REQUESTS = 200;
+    private static final int THREADS = 32;
+
+    // Lenient on purpose: only catches contention collapsing into serialised retries, not slow CI machines
+    private static final int MAX_SLOWDOWN_OVER_SERIAL = 5;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookCopyCountService bookCopyCountService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long categoryId;
+
+    private Long bookId;
+
+    private Long baselineBookId;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            IndexCategory category = fixtures.category("H");
+            Book book = hotBook("hot-1", category);
+            Book baselineBook = hotBook("hot-2", category);
+            for (int i = 0; i < REQUESTS; i++) {
+                userIds.add(fixtures.user("hot-reader-" + i).getId());
+            }
+            categoryId = category.getId();
+            bookId = book.getId();
+            baselineBookId = baselineBook.getId();
+        });
+    }
+
+    private Book hotBook(String isbn, IndexCategory category) {
+        Book book = fixtures.book(isbn, "Hot Title " + isbn, category);
+        for (int i = 0; i < COPIES; i++) {
+            bookCopyCountService.copyAdded(fixtures.copy(book, isbn + "-" + i, BookCopy.Status.AVAILABLE));
+        }
+        return book;
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long id : List.of(bookId, baselineBookId)) {
+            jdbcTemplate.update("DELETE FROM borrow WHERE copy_id IN (SELECT id FROM book_copy WHERE book_id = ?)", id);
+            jdbcTemplate.update("DELETE FROM book_borrow_counter WHERE book_id = ?", id);
+            jdbcTemplate.update("DELETE FROM book_copy WHERE book_id = ?", id);
+            jdbcTemplate.update("DELETE FROM book WHERE id = ?", id);
+        }
+        jdbcTemplate.update("DELETE FROM index_category WHERE id = ?", categoryId);
+        jdbcTemplate.update("DELETE FROM notification_outbox WHERE user_id IN "
+                + "(SELECT id FROM users WHERE username LIKE 'hot-reader-%')");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'hot-reader-%'");
+    }
+
+    @Test
+    void testBorrowBookByBookId_ParallelRequestsNeverDoubleLend() throws Exception {
+        // Arrange: the same attempts one after another on a twin book, as the uncontended baseline
+        long serialStart = System.nanoTime();
+        int serialBorrowed = 0;
+        for (Long userId : userIds) {
+            try {
+                borrowService.borrowBookByBookId(userId, baselineBookId);
+                serialBorrowed++;
+            } catch (BusinessLogicException e) {
+                // no copy left, same as in the parallel run
+            }
+        }
+        long serialNanos = System.nanoTime() - serialStart;
+        assertEquals(COPIES, serialBorrowed);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicInteger noCopyLeft = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        for (Long userId : userIds) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    borrowService.borrowBookByBookId(userId, bookId);
+                    borrowed.incrementAndGet();
+                } catch (BusinessLogicException e) {
+                    noCopyLeft.incrementAndGet();
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+
+        // Act
+        long parallelStart = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS), "borrows did not finish in time");
+        long parallelNanos = System.nanoTime() - parallelStart;
+
+        // Assert: every copy lent exactly once, everyone else told there is nothing left
+        assertTrue(unexpected.isEmpty(), () -> "unexpected failures: " + unexpected);
+        assertEquals(COPIES, borrowed.get());
+        assertEquals(REQUESTS - COPIES, noCopyLeft.get());
+
+        Long activeBorrows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM borrow b JOIN book_copy c ON c.id = b.copy_id WHERE c.book_id = ? AND b.status = ?",
+                Long.class,
+                bookId,
+                Borrow.Status.BORROWED.ordinal());
+        Long lentCopies = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT b.copy_id) FROM borrow b JOIN book_copy c ON c.id = b.copy_id WHERE c.book_id = ?",
+                Long.class,
+                bookId);
+        Integer availableCopies =
+                jdbcTemplate.queryForObject("SELECT available_copies FROM book WHERE id = ?", Integer.class, bookId);
+        assertEquals(COPIES, activeBorrows);
+        assertEquals(COPIES, lentCopies);
+        assertEquals(0, availableCopies);
+
+        // Assert: contention costs at most a constant factor over the same attempts made serially
+        assertTrue(
+                parallelNanos <= serialNanos * MAX_SLOWDOWN_OVER_SERIAL,
+                () -> "parallel " + TimeUnit.NANOSECONDS.toMillis(parallelNanos) + " ms vs serial "
+                        + TimeUnit.NANOSECONDS.toMillis(serialNanos) + " ms");
+    }
+}
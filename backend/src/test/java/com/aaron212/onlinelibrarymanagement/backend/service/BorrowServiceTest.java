@@ -0,0 +1,198 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BatchCirculationItemDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BatchCirculationResultDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.CursorPageDto;
+import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@Transactional
+class BorrowServiceTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private User reader;
+
+    private User otherReader;
+
+    private BookCopy copy;
+
+    @BeforeEach
+    void setUp() {
+        reader = fixtures.user("reader");
+        otherReader = fixtures.user("other");
+
+        IndexCategory category = fixtures.category("B");
+        Book book = fixtures.book("cursor-1", "Cursor Book", category);
+        copy = fixtures.copy(book, "cursor-1-001", BookCopy.Status.AVAILABLE);
+    }
+
+    @Test
+    void testGetBorrowHistoryAfter_WalksAllPagesInOrder() {
+        // Arrange: pairs of borrows share a borrow time, so the id breaks ties
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(persistBorrow(reader, BASE_TIME.plusHours(i / 2)).getId());
+        }
+        persistBorrow(otherReader, BASE_TIME.plusHours(1));
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> newestFirst = expected.reversed();
+
+        // Act
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDto<BorrowDto> page = borrowService.getBorrowHistoryAfter(reader.getId(), cursor, 3);
+            page.content().forEach(borrow -> seen.add(borrow.borrowId()));
+            cursor = page.nextCursor();
+            assertEquals(cursor != null, page.hasNext());
+            pages++;
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(newestFirst, seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void testGetAllBorrowingsAfter_IncludesAllUsers() {
+        // Arrange
+        persistBorrow(reader, BASE_TIME);
+        persistBorrow(otherReader, BASE_TIME.plusMinutes(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        CursorPageDto<BorrowDto> first = borrowService.getAllBorrowingsAfter(null, 1);
+        CursorPageDto<BorrowDto> second = borrowService.getAllBorrowingsAfter(first.nextCursor(), 1);
+
+        // Assert
+        assertEquals("other", first.content().getFirst().username());
+        assertEquals("reader", second.content().getFirst().username());
+        assertEquals("cursor-1", second.content().getFirst().isbn());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void testGetBorrowHistoryAfter_RejectsInvalidCursor() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> borrowService.getBorrowHistoryAfter(reader.getId(), "not-a-cursor", 3));
+    }
+
+    @Test
+    void testBorrowBatch_ReportsEachBarcodeAndStopsAtLimit() {
+        // Arrange: six other books on top of the setup copy; the default limit is five
+        persistCopy(copy.getBook(), "cursor-1-002");
+        for (int i = 2; i <= 6; i++) {
+            persistCopy(persistBook("batch-" + i), "batch-" + i + "-001");
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<String> barcodes = List.of(
+                "cursor-1-001",
+                "cursor-1-001",
+                "missing",
+                "cursor-1-002",
+                "batch-2-001",
+                "batch-3-001",
+                "batch-4-001",
+                "batch-5-001",
+                "batch-6-001");
+
+        // Act
+        BatchCirculationResultDto result = borrowService.borrowBatch(reader.getId(), barcodes);
+
+        // Assert
+        assertEquals(5, result.succeeded());
+        assertEquals(4, result.failed());
+        assertEquals(
+                barcodes,
+                result.items().stream().map(BatchCirculationItemDto::barcode).toList());
+        assertEquals(
+                List.of(true, false, false, false, true, true, true, true, false),
+                result.items().stream().map(BatchCirculationItemDto::success).toList());
+        assertEquals("条码重复扫描", result.items().get(1).error());
+        assertEquals("未找到该条码的副本", result.items().get(2).error());
+        assertEquals("读者已借阅此书的其他副本", result.items().get(3).error());
+        assertTrue(result.items().get(8).error().contains("5"));
+        assertEquals(5, borrowService.getCurrentBorrowings(reader.getId()).size());
+        assertEquals(BookCopy.Status.AVAILABLE, copyStatus("cursor-1-002"));
+        assertEquals(BookCopy.Status.AVAILABLE, copyStatus("batch-6-001"));
+    }
+
+    @Test
+    void testReturnBatch_ReturnsOnlyTheReadersActiveBorrows() {
+        // Arrange
+        persistCopy(persistBook("batch-2"), "batch-2-001");
+        entityManager.flush();
+        entityManager.clear();
+        borrowService.borrowBatch(reader.getId(), List.of("cursor-1-001", "batch-2-001"));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        BatchCirculationResultDto result = borrowService.returnBatch(otherReader.getId(), List.of("cursor-1-001"));
+        BatchCirculationResultDto returned =
+                borrowService.returnBatch(reader.getId(), List.of("batch-2-001", "batch-2-001", "cursor-1-001"));
+
+        // Assert
+        assertEquals("读者没有该条码的在借记录", result.items().getFirst().error());
+        assertEquals(2, returned.succeeded());
+        assertEquals("条码重复扫描", returned.items().get(1).error());
+        assertEquals(Borrow.Status.RETURNED, returned.items().getFirst().status());
+        assertTrue(borrowService.getCurrentBorrowings(reader.getId()).isEmpty());
+        assertEquals(BookCopy.Status.AVAILABLE, copyStatus("batch-2-001"));
+    }
+
+    private Borrow persistBorrow(User user, LocalDateTime borrowTime) {
+        Borrow borrow = fixtures.borrow(user, copy, borrowTime, borrowTime.plusDays(30), Borrow.Status.RETURNED);
+        borrow.setActualReturnTime(borrowTime.plusDays(1));
+        return borrow;
+    }
+
+    private Book persistBook(String isbn) {
+        return fixtures.book(isbn, "Batch Book " + isbn, copy.getBook().getIndexCategory());
+    }
+
+    private void persistCopy(Book book, String barcode) {
+        fixtures.copy(book, barcode, BookCopy.Status.AVAILABLE);
+    }
+
+    private BookCopy.Status copyStatus(String barcode) {
+        return entityManager
+                .createQuery("SELECT c.status FROM BookCopy c WHERE c.barcode = :barcode", BookCopy.Status.class)
+                .setParameter("barcode", barcode)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,204 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowTrendPointDto;
+import com.aaron212.onlinelibrarymanagement.backend.exception.ResourceNotFoundException;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import com.aaron212.onlinelibrarymanagement.backend.service.BorrowStatsService.Granularity;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Not transactional: new categories only reach the category trie after commit, so the rows are
+ * removed in {@link #tearDown()}. All activity is in January 2022, which no other test touches.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class BorrowStatsServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2022, 1, 1);
+
+    private static final LocalDate TO = LocalDate.of(2022, 1, 31);
+
+    @Autowired
+    private BorrowStatsService borrowStatsService;
+
+    @Autowired
+    private IndexCategoryService indexCategoryService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            IndexCategory r1 = indexCategoryService.addCategoryWithHierarchy("R1");
+            IndexCategory r12 = indexCategoryService.addCategoryWithHierarchy("R12");
+            IndexCategory v1 = indexCategoryService.addCategoryWithHierarchy("V1");
+
+            User user = fixtures.user("stats-reader");
+
+            // On time, late with a fine, and still out; each borrow and return counted as it happens
+            record(user, copyOf(r1, "stats-1"), at(3), at(13), at(5), null);
+            record(user, copyOf(r12, "stats-2"), at(4), at(10), at(12), new BigDecimal("1.00"));
+            record(user, copyOf(v1, "stats-3"), at(31), at(31).plusDays(10), null, null);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM borrow_stats_daily WHERE stat_date BETWEEN ? AND ?", FROM, TO);
+        jdbcTemplate.update(
+                "DELETE FROM borrow WHERE user_id IN (SELECT id FROM users WHERE username = 'stats-reader')");
+        jdbcTemplate.update("DELETE FROM book_copy WHERE barcode LIKE 'stats-%'");
+        jdbcTemplate.update("DELETE FROM book WHERE isbn LIKE 'stats-%'");
+        jdbcTemplate.update("DELETE FROM users WHERE username = 'stats-reader'");
+        for (String code : List.of("R12", "R1", "R", "V1", "V")) {
+            jdbcTemplate.update("DELETE FROM index_category WHERE index_code = ?", code);
+        }
+    }
+
+    @Test
+    void testRebuild_MatchesIncrementalRollup() {
+        // Arrange
+        List<Map<String, Object>> incremental = rollupRows();
+
+        // Act
+        int rows = transactionTemplate.execute(status -> borrowStatsService.rebuild(FROM, TO));
+        int rerun = transactionTemplate.execute(status -> borrowStatsService.rebuild(FROM, TO));
+
+        // Assert: borrows on the 3rd, 4th and 31st, returns on the 5th and 12th
+        assertEquals(5, rows);
+        assertEquals(rows, rerun);
+        assertEquals(5, incremental.size());
+        assertEquals(incremental.toString(), rollupRows().toString());
+    }
+
+    @Test
+    void testRecordBorrow_RolledBackBorrowIsNotCounted() {
+        // Arrange
+        List<Map<String, Object>> before = rollupRows();
+
+        // Act: the borrowing transaction fails after counting
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = fixtures.user("stats-rollback-reader");
+            IndexCategory category = indexCategoryService.findByIndexCode("V1").orElseThrow();
+            record(user, copyOf(category, "stats-4"), at(20), at(30), null, null);
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertEquals(before.toString(), rollupRows().toString());
+    }
+
+    @Test
+    void testGetTrend_FillsPeriodsAndFiltersByCategorySubtree() {
+        // Act
+        List<BorrowTrendPointDto> weeks = borrowStatsService.getTrend(FROM, TO, Granularity.WEEK, null);
+        List<BorrowTrendPointDto> categoryWeeks = borrowStatsService.getTrend(FROM, TO, Granularity.WEEK, "R");
+        List<BorrowTrendPointDto> months = borrowStatsService.getTrend(
+                LocalDate.of(2021, 12, 15), LocalDate.of(2022, 2, 10), Granularity.MONTH, null);
+        List<BorrowTrendPointDto> leafDays = borrowStatsService.getTrend(FROM, TO, Granularity.DAY, "R12");
+
+        // Assert: weeks start on Monday, so the first one begins in December
+        assertEquals(
+                List.of(
+                        LocalDate.of(2021, 12, 27),
+                        LocalDate.of(2022, 1, 3),
+                        LocalDate.of(2022, 1, 10),
+                        LocalDate.of(2022, 1, 17),
+                        LocalDate.of(2022, 1, 24),
+                        LocalDate.of(2022, 1, 31)),
+                weeks.stream().map(BorrowTrendPointDto::periodStart).toList());
+        assertEquals(point(LocalDate.of(2022, 1, 3), 2, 1, 0, "0.00"), weeks.get(1));
+        assertEquals(point(LocalDate.of(2022, 1, 10), 0, 1, 1, "1.00"), weeks.get(2));
+        assertEquals(point(LocalDate.of(2022, 1, 17), 0, 0, 0, "0.00"), weeks.get(3));
+        assertEquals(1, weeks.get(5).borrowCount());
+        assertEquals(0, categoryWeeks.get(5).borrowCount());
+        assertEquals(2, categoryWeeks.get(1).borrowCount());
+
+        assertEquals(3, months.size());
+        assertEquals(LocalDate.of(2021, 12, 1), months.getFirst().periodStart());
+        assertEquals(3, months.get(1).borrowCount());
+        assertEquals(0, months.get(2).borrowCount());
+
+        assertEquals(31, leafDays.size());
+        assertEquals(1, leafDays.get(3).borrowCount());
+        assertEquals(
+                1,
+                leafDays.stream().mapToLong(BorrowTrendPointDto::overdueCount).sum());
+        assertEquals(3, borrowStatsService.countBorrows(FROM, TO));
+    }
+
+    @Test
+    void testGetTrend_RejectsInvalidRequests() {
+        assertThrows(
+                IllegalArgumentException.class, () -> borrowStatsService.getTrend(TO, FROM, Granularity.DAY, null));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> borrowStatsService.getTrend(FROM, FROM.plusYears(20), Granularity.DAY, null));
+        assertThrows(
+                ResourceNotFoundException.class, () -> borrowStatsService.getTrend(FROM, TO, Granularity.DAY, "Z9"));
+    }
+
+    private BookCopy copyOf(IndexCategory category, String isbn) {
+        return fixtures.copy(
+                fixtures.book(isbn, "Stats Title " + isbn, category), isbn + "-001", BookCopy.Status.AVAILABLE);
+    }
+
+    private void record(
+            User user,
+            BookCopy copy,
+            LocalDateTime borrowed,
+            LocalDateTime due,
+            LocalDateTime returned,
+            BigDecimal fine) {
+        Borrow borrow = fixtures.borrow(user, copy, borrowed, due, Borrow.Status.BORROWED);
+        borrowStatsService.recordBorrow(borrow);
+        if (returned != null) {
+            borrow.setActualReturnTime(returned);
+            borrow.setStatus(returned.isAfter(due) ? Borrow.Status.OVERDUE : Borrow.Status.RETURNED);
+            borrow.setFine(fine);
+            borrowStatsService.recordReturn(borrow);
+        }
+    }
+
+    private List<Map<String, Object>> rollupRows() {
+        return jdbcTemplate.queryForList(
+                "SELECT stat_date, category_id, borrow_count, return_count, overdue_count, fine_total "
+                        + "FROM borrow_stats_daily WHERE stat_date BETWEEN ? AND ? ORDER BY stat_date, category_id",
+                FROM,
+                TO);
+    }
+
+    private static LocalDateTime at(int dayOfJanuary) {
+        return LocalDate.of(2022, 1, dayOfJanuary).atTime(10, 0);
+    }
+
+    private static BorrowTrendPointDto point(
+            LocalDate periodStart, long borrows, long returns, long overdues, String fines) {
+        return new BorrowTrendPointDto(periodStart, borrows, returns, overdues, new BigDecimal(fines));
+    }
+}
@@ -0,0 +1,91 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.BorrowingRuleUpdateDto;
+import com.aaron212.onlinelibrarymanagement.backend.exception.ResourceNotFoundException;
+import com.aaron212.onlinelibrarymanagement.backend.model.BorrowingRule;
+import com.aaron212.onlinelibrarymanagement.backend.repository.BorrowingRuleRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BorrowingRuleServiceTest {
+
+    @Mock
+    private BorrowingRuleRepository borrowingRuleRepository;
+
+    @InjectMocks
+    private BorrowingRuleService borrowingRuleService;
+
+    private BorrowingRule maxBorrowBooks;
+
+    @BeforeEach
+    void setUp() {
+        maxBorrowBooks = rule(BorrowingRuleService.MAX_BORROW_BOOKS, "5", BorrowingRule.ValueType.INTEGER);
+        when(borrowingRuleRepository.findAll())
+                .thenReturn(List.of(
+                        maxBorrowBooks,
+                        rule(BorrowingRuleService.FINE_PER_DAY, "0.50", BorrowingRule.ValueType.DECIMAL),
+                        rule(BorrowingRuleService.ALLOW_RENEWALS, "true", BorrowingRule.ValueType.BOOLEAN)));
+        borrowingRuleService.reloadRules();
+        clearInvocations(borrowingRuleRepository);
+    }
+
+    @Test
+    void testRuleReads_ServedFromSnapshotWithoutRepositoryAccess() {
+        // Act & Assert
+        assertEquals(5, borrowingRuleService.getIntegerRule(BorrowingRuleService.MAX_BORROW_BOOKS));
+        assertEquals(new BigDecimal("0.50"), borrowingRuleService.getDecimalRule(BorrowingRuleService.FINE_PER_DAY));
+        assertTrue(borrowingRuleService.getBooleanRule(BorrowingRuleService.ALLOW_RENEWALS));
+        assertEquals("5", borrowingRuleService.getStringRule(BorrowingRuleService.MAX_BORROW_BOOKS));
+
+        verifyNoInteractions(borrowingRuleRepository);
+    }
+
+    @Test
+    void testRuleReads_UnknownOrMistypedRule() {
+        assertThrows(
+                ResourceNotFoundException.class,
+                () -> borrowingRuleService.getIntegerRule(BorrowingRuleService.LOAN_PERIOD_DAYS));
+        assertThrows(
+                IllegalStateException.class,
+                () -> borrowingRuleService.getIntegerRule(BorrowingRuleService.ALLOW_RENEWALS));
+    }
+
+    @Test
+    void testUpdateRule_SwapsSnapshot() {
+        // Arrange
+        when(borrowingRuleRepository.findByRuleKey(BorrowingRuleService.MAX_BORROW_BOOKS))
+                .thenReturn(Optional.of(maxBorrowBooks));
+        when(borrowingRuleRepository.save(any(BorrowingRule.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        borrowingRuleService.updateRule(
+                BorrowingRuleService.MAX_BORROW_BOOKS,
+                new BorrowingRuleUpdateDto("最大可借阅图书数量", "", "8", BorrowingRule.ValueType.INTEGER));
+
+        // Assert
+        assertEquals(8, borrowingRuleService.getIntegerRule(BorrowingRuleService.MAX_BORROW_BOOKS));
+        assertEquals(new BigDecimal("0.50"), borrowingRuleService.getDecimalRule(BorrowingRuleService.FINE_PER_DAY));
+    }
+
+    private BorrowingRule rule(String ruleKey, String ruleValue, BorrowingRule.ValueType valueType) {
+        BorrowingRule rule = new BorrowingRule();
+        rule.setRuleKey(ruleKey);
+        rule.setRuleName(ruleKey);
+        rule.setRuleValue(ruleValue);
+        rule.setValueType(valueType);
+        return rule;
+    }
+}
@@ -0,0 +1,157 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.dto.DashboardSummaryDto;
+import com.aaron212.onlinelibrarymanagement.backend.dto.LibraryStatisticsDto;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    private static final Map<String, Long> USER_BEHAVIOR = Map.of("totalUserCount", 3L);
+    private static final Map<String, Map<String, Long>> INVENTORY = Map.of("A", Map.of("totalCount", 5L));
+    private static final LibraryStatisticsDto LIBRARY = new LibraryStatisticsDto(5L, 4L, 1L, 9L, 1L, 0L);
+
+    @Mock
+    private StatisticsService statisticsService;
+
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = new DashboardService(statisticsService, 4, Duration.ofMillis(500));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.close();
+    }
+
+    @Test
+    void testGetDashboardSummary_RunsSectionsInParallel() {
+        // Arrange: every section takes 300 ms
+        when(statisticsService.getUserBehaviorAnalysis()).thenAnswer(invocation -> slow(USER_BEHAVIOR, 300));
+        when(statisticsService.getBookInventoryStatistics()).thenAnswer(invocation -> slow(INVENTORY, 300));
+        when(statisticsService.getLibraryStatistics()).thenAnswer(invocation -> slow(LIBRARY, 300));
+
+        // Act
+        long start = System.nanoTime();
+        DashboardSummaryDto summary = dashboardService.getDashboardSummary();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert: the slowest section, not the 900 ms sum
+        assertEquals(USER_BEHAVIOR, summary.userBehavior());
+        assertEquals(INVENTORY, summary.inventory());
+        assertEquals(LIBRARY, summary.library());
+        assertEquals(List.of(), summary.staleSections());
+        assertTrue(elapsedMillis < 800, "took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void testGetDashboardSummary_FallsBackToLastGoodValue() {
+        // Arrange: a first complete dashboard, then inventory hangs and library fails
+        when(statisticsService.getUserBehaviorAnalysis()).thenReturn(USER_BEHAVIOR);
+        when(statisticsService.getBookInventoryStatistics())
+                .thenReturn(INVENTORY)
+                .thenAnswer(invocation -> slow(Map.of(), 5_000));
+        when(statisticsService.getLibraryStatistics())
+                .thenReturn(LIBRARY)
+                .thenThrow(new IllegalStateException("database unavailable"));
+        dashboardService.getDashboardSummary();
+
+        // Act
+        long start = System.nanoTime();
+        DashboardSummaryDto summary = dashboardService.getDashboardSummary();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals(List.of(DashboardService.INVENTORY, DashboardService.LIBRARY), summary.staleSections());
+        assertEquals(INVENTORY, summary.inventory());
+        assertEquals(LIBRARY, summary.library());
+        assertEquals(USER_BEHAVIOR, summary.userBehavior());
+        assertTrue(elapsedMillis < 2_000, "took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void testGetDashboardSummary_StaleSectionWithoutHistoryIsNull() {
+        // Arrange
+        when(statisticsService.getUserBehaviorAnalysis()).thenReturn(USER_BEHAVIOR);
+        when(statisticsService.getBookInventoryStatistics()).thenThrow(new IllegalStateException("boom"));
+        when(statisticsService.getLibraryStatistics()).thenReturn(LIBRARY);
+
+        // Act
+        DashboardSummaryDto summary = dashboardService.getDashboardSummary();
+
+        // Assert
+        assertNull(summary.inventory());
+        assertEquals(List.of(DashboardService.INVENTORY), summary.staleSections());
+    }
+
+    @Test
+    void testGetDashboardSummary_ConcurrentRequestsShareOneRefresh() throws Exception {
+        // Arrange
+        when(statisticsService.getUserBehaviorAnalysis()).thenAnswer(invocation -> slow(USER_BEHAVIOR, 300));
+        when(statisticsService.getBookInventoryStatistics()).thenAnswer(invocation -> slow(INVENTORY, 300));
+        when(statisticsService.getLibraryStatistics()).thenAnswer(invocation -> slow(LIBRARY, 300));
+
+        // Act
+        CompletableFuture<DashboardSummaryDto> other =
+                CompletableFuture.supplyAsync(dashboardService::getDashboardSummary);
+        DashboardSummaryDto summary = dashboardService.getDashboardSummary();
+
+        // Assert: both got fresh values from a single query per section
+        assertEquals(List.of(), summary.staleSections());
+        assertEquals(List.of(), other.get(2, TimeUnit.SECONDS).staleSections());
+        assertEquals(LIBRARY, other.get().library());
+        verify(statisticsService).getUserBehaviorAnalysis();
+        verify(statisticsService).getBookInventoryStatistics();
+        verify(statisticsService).getLibraryStatistics();
+
+        // A later request starts new refreshes
+        dashboardService.getDashboardSummary();
+        verify(statisticsService, times(2)).getLibraryStatistics();
+    }
+
+    @Test
+    void testGetDashboardSummary_CancelsSectionsPastTheDeadline() throws Exception {
+        // Arrange: inventory hangs until it is interrupted
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(statisticsService.getUserBehaviorAnalysis()).thenReturn(USER_BEHAVIOR);
+        when(statisticsService.getBookInventoryStatistics()).thenAnswer(invocation -> {
+            try {
+                return slow(INVENTORY, 10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        });
+        when(statisticsService.getLibraryStatistics()).thenReturn(LIBRARY);
+
+        // Act
+        DashboardSummaryDto summary = dashboardService.getDashboardSummary();
+
+        // Assert: the query is interrupted, and the next request does not wait behind it
+        assertEquals(List.of(DashboardService.INVENTORY), summary.staleSections());
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS), "inventory query was not cancelled");
+        dashboardService.getDashboardSummary();
+        verify(statisticsService, times(2)).getBookInventoryStatistics();
+    }
+
+    private static <T> T slow(T value, long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return value;
+    }
+}
@@ -0,0 +1,98 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    @Test
+    void testEstimate_WithinThreeStandardErrors() {
+        for (int distinct : new int[] {10, 1_000, 100_000}) {
+            // Arrange: sequential ids like user ids, each added twice
+            HyperLogLog sketch = HyperLogLog.empty();
+            for (long id = 1; id <= distinct; id++) {
+                sketch.add(id);
+                sketch.add(id);
+            }
+
+            // Act
+            long estimate = sketch.estimate();
+
+            // Assert
+            assertEquals(distinct, estimate, Math.max(1, distinct * 0.05), "distinct = " + distinct);
+        }
+    }
+
+    @Test
+    void testMerge_EqualsSketchOfUnion() {
+        // Arrange: two overlapping days
+        HyperLogLog monday = HyperLogLog.empty();
+        HyperLogLog tuesday = HyperLogLog.empty();
+        HyperLogLog union = HyperLogLog.empty();
+        for (long id = 0; id < 6_000; id++) {
+            monday.add(id);
+            union.add(id);
+        }
+        for (long id = 4_000; id < 10_000; id++) {
+            tuesday.add(id);
+            union.add(id);
+        }
+
+        // Act
+        HyperLogLog merged = HyperLogLog.empty();
+        merged.merge(monday);
+        merged.merge(tuesday.toBytes());
+        merged.merge(tuesday);
+
+        // Assert
+        assertArrayEquals(union.toBytes(), merged.toBytes());
+        assertEquals(10_000, merged.estimate(), 500);
+    }
+
+    @Test
+    void testToBytes_SparseUntilDenseIsSmaller() {
+        // Arrange
+        HyperLogLog small = HyperLogLog.empty();
+        for (long id = 0; id < 200; id++) {
+            small.add(id);
+        }
+        HyperLogLog large = HyperLogLog.empty();
+        for (long id = 0; id < 50_000; id++) {
+            large.add(id);
+        }
+
+        // Act
+        byte[] sparse = small.toBytes();
+        byte[] dense = large.toBytes();
+
+        // Assert: round trips keep the estimate
+        assertTrue(sparse.length < 3 + 200 * 3 + 1, "sparse size " + sparse.length);
+        assertEquals(1 + HyperLogLog.REGISTERS, dense.length);
+        assertEquals(small.estimate(), HyperLogLog.fromBytes(sparse).estimate());
+        assertEquals(large.estimate(), HyperLogLog.fromBytes(dense).estimate());
+        assertEquals(0, HyperLogLog.fromBytes(HyperLogLog.empty().toBytes()).estimate());
+    }
+
+    @Test
+    void testToBytes_DenseFromTheSizeWhereSparseIsNotSmaller() {
+        // Arrange: 1364 set registers take 4095 bytes sparse, 1365 would take 4098
+        HyperLogLog sketch = HyperLogLog.empty();
+        long id = 0;
+        while (sketch.usedRegisters() < 1364) {
+            sketch.add(id++);
+        }
+        byte[] sparse = sketch.toBytes();
+        while (sketch.usedRegisters() < 1365) {
+            sketch.add(id++);
+        }
+
+        // Act
+        byte[] dense = sketch.toBytes();
+
+        // Assert: never larger than the dense form, which is what varbinary(4097) holds
+        assertEquals(3 + 1364 * 3, sparse.length);
+        assertEquals(1 + HyperLogLog.REGISTERS, dense.length);
+        assertArrayEquals(dense, HyperLogLog.fromBytes(dense).toBytes());
+    }
+}
@@ -7,6 +7,7 @@ import static org.mockito.Mockito.*;
 
 import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
 import com.aaron212.onlinelibrarymanagement.backend.repository.IndexCategoryRepository;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +22,9 @@ class IndexCategoryServiceTest {
     @Mock
     private IndexCategoryRepository indexCategoryRepository;
 
+    @Mock
+    private ContentVersionService contentVersionService;
+
     @InjectMocks
     private IndexCategoryService indexCategoryService;
 
@@ -125,6 +129,62 @@ class IndexCategoryServiceTest {
 
         // Verify that parent categories were created (5) plus the existing category parent update (1) = 6 saves
         verify(indexCategoryRepository, times(6)).save(any(IndexCategory.class));
+        // Its descendants are moved under the new path as well
+        verify(indexCategoryRepository).rewritePathPrefix("/X1234/", "/root/X/X1/X12/X123/X1234/");
+    }
+
+    @Test
+    void testAddCategoryWithHierarchy_KnownCategoryServedFromTrie() {
+        // Arrange: root -> X -> X1 already stored
+        IndexCategory root = category(1L, "root", null);
+        IndexCategory x = category(2L, "X", root);
+        IndexCategory x1 = category(3L, "X1", x);
+        when(indexCategoryRepository.findAll()).thenReturn(List.of(x1, root, x));
+        when(indexCategoryRepository.findById(3L)).thenReturn(Optional.of(x1));
+
+        // Act
+        IndexCategory result = indexCategoryService.addCategoryWithHierarchy("X1");
+
+        // Assert: one primary key lookup instead of one query per level
+        assertEquals(x1, result);
+        verify(indexCategoryRepository, never()).findByIndexCode(any());
+        verify(indexCategoryRepository, never()).save(any(IndexCategory.class));
+        assertEquals("/root/X/X1/", indexCategoryService.getPath("X1"));
+        assertEquals(
+                List.of("X", "X1"),
+                indexCategoryService.getSubtree("X").stream()
+                        .map(node -> node.indexCode())
+                        .toList());
+    }
+
+    @Test
+    void testAddCategoryWithHierarchy_NewLeafUnderKnownParents() {
+        // Arrange
+        IndexCategory root = category(1L, "root", null);
+        IndexCategory x = category(2L, "X", root);
+        when(indexCategoryRepository.findAll()).thenReturn(List.of(root, x));
+        when(indexCategoryRepository.getReferenceById(1L)).thenReturn(root);
+        when(indexCategoryRepository.getReferenceById(2L)).thenReturn(x);
+        when(indexCategoryRepository.findByIndexCode("X1")).thenReturn(Optional.empty());
+        when(indexCategoryRepository.save(any(IndexCategory.class))).thenAnswer(invocation -> {
+            IndexCategory category = invocation.getArgument(0);
+            category.setId(3L);
+            return category;
+        });
+
+        // Act
+        IndexCategory result = indexCategoryService.addCategoryWithHierarchy("X1");
+
+        // Assert: only the missing level is looked up and inserted, with its path
+        assertEquals("/root/X/X1/", result.getPath());
+        assertEquals(x, result.getParent());
+        verify(indexCategoryRepository, times(1)).findByIndexCode(any());
+        verify(indexCategoryRepository, times(1)).save(any(IndexCategory.class));
+        assertEquals(
+                List.of("X", "X1"),
+                indexCategoryService.getSubtree("X").stream()
+                        .map(node -> node.indexCode())
+                        .toList());
     }
 
     @Test
@@ -157,4 +217,13 @@ class IndexCategoryServiceTest {
 
         assertTrue(exception.getMessage().contains("Index code cannot be null or empty"));
     }
+
+    private static IndexCategory category(Long id, String indexCode, IndexCategory parent) {
+        IndexCategory category = new IndexCategory();
+        category.setId(id);
+        category.setIndexCode(indexCode);
+        category.setName("Category " + indexCode);
+        category.setParent(parent);
+        return category;
+    }
 }
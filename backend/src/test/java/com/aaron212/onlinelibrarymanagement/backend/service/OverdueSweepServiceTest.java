@@ -0,0 +1,129 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.JobCheckpoint;
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import com.aaron212.onlinelibrarymanagement.backend.repository.JobCheckpointRepository;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "library.jobs.overdue-sweep.batch-size=2")
+@Transactional
+class OverdueSweepServiceTest {
+
+    @Autowired
+    private OverdueSweepService overdueSweepService;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private User reader;
+
+    private BookCopy copy;
+
+    @BeforeEach
+    void setUp() {
+        reader = fixtures.user("sweep-reader");
+        copy = fixtures.copy(
+                fixtures.book("sweep-1", "Sweep Book", fixtures.category("S")),
+                "sweep-1-001",
+                BookCopy.Status.BORROWED);
+    }
+
+    @Test
+    void testSweep_FlagsOverdueBorrowsInChunks() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        Long tenDaysLate = persistBorrow(now.minusDays(10).minusHours(1), null).getId();
+        Long threeDaysLate = persistBorrow(now.minusDays(3).minusHours(1), null).getId();
+        Long alreadyFlagged =
+                persistBorrow(now.minusDays(5).minusHours(1), null).getId();
+        entityManager
+                .createQuery("UPDATE Borrow b SET b.status = :status WHERE b.id = :id")
+                .setParameter("status", Borrow.Status.OVERDUE)
+                .setParameter("id", alreadyFlagged)
+                .executeUpdate();
+        Long notDue = persistBorrow(now.plusDays(5), null).getId();
+        Long hoursLate = persistBorrow(now.minusHours(3), null).getId();
+        Long returned = persistBorrow(now.minusDays(8), now.minusDays(9)).getId();
+        entityManager.flush();
+
+        // Act
+        int updated = overdueSweepService.sweep();
+
+        // Assert
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(3, updated);
+        assertOverdue(tenDaysLate, "5.00");
+        assertOverdue(threeDaysLate, "1.50");
+        assertOverdue(alreadyFlagged, "2.50");
+        assertEquals(Borrow.Status.BORROWED, find(notDue).getStatus());
+        assertEquals(Borrow.Status.BORROWED, find(hoursLate).getStatus());
+        assertEquals(Borrow.Status.BORROWED, find(returned).getStatus());
+        assertEquals(
+                JobCheckpoint.Status.COMPLETED,
+                jobCheckpointRepository
+                        .findById(OverdueSweepService.JOB_NAME)
+                        .orElseThrow()
+                        .getStatus());
+    }
+
+    @Test
+    void testSweep_ResumesAfterCheckpoint() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        Long processedBeforeCrash = persistBorrow(now.minusDays(4), null).getId();
+        Long pending = persistBorrow(now.minusDays(4), null).getId();
+        entityManager.flush();
+        jobCheckpointRepository.save(new JobCheckpoint(
+                OverdueSweepService.JOB_NAME, processedBeforeCrash, now, JobCheckpoint.Status.RUNNING, now));
+
+        // Act
+        int updated = overdueSweepService.sweep();
+
+        // Assert
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(1, updated);
+        assertEquals(Borrow.Status.BORROWED, find(processedBeforeCrash).getStatus());
+        assertEquals(Borrow.Status.OVERDUE, find(pending).getStatus());
+    }
+
+    private void assertOverdue(Long borrowId, String expectedFine) {
+        Borrow borrow = find(borrowId);
+        assertEquals(Borrow.Status.OVERDUE, borrow.getStatus());
+        assertEquals(0, new BigDecimal(expectedFine).compareTo(borrow.getFine()));
+        assertTrue(borrow.isActive());
+    }
+
+    private Borrow find(Long borrowId) {
+        return entityManager.find(Borrow.class, borrowId);
+    }
+
+    private Borrow persistBorrow(LocalDateTime returnTime, LocalDateTime actualReturnTime) {
+        Borrow borrow = fixtures.borrow(reader, copy, returnTime.minusDays(30), returnTime, Borrow.Status.BORROWED);
+        borrow.setActualReturnTime(actualReturnTime);
+        return borrow;
+    }
+}
@@ -0,0 +1,100 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ReservationQueueTest {
+
+    private static final Long BOOK = 1L;
+
+    private final ReservationQueue queue = new ReservationQueue();
+
+    @Test
+    void testLoad_MergesChangesCommittedWhileReadingTheBook() {
+        // Arrange: reservation 3 commits and 1 is cancelled after the load read 1 and 2
+        queue.beginLoad(BOOK);
+        List<Long> read = List.of(1L, 2L);
+        queue.enqueue(BOOK, 3L);
+        queue.remove(BOOK, 1L);
+
+        // Act
+        queue.load(BOOK, read);
+
+        // Assert
+        assertEquals(List.of(2L, 3L), queue.waiting(BOOK));
+        assertEquals(2, queue.position(BOOK, 3L));
+    }
+
+    @Test
+    void testEnqueue_NotRecordedForBooksNobodyIsLoading() {
+        // Arrange: changes before the load began are already in what it reads
+        queue.enqueue(BOOK, 3L);
+        queue.remove(BOOK, 1L);
+        queue.beginLoad(BOOK);
+
+        // Act
+        queue.load(BOOK, List.of(1L, 2L));
+
+        // Assert
+        assertEquals(List.of(1L, 2L), queue.waiting(BOOK));
+    }
+
+    @Test
+    void testAbortLoad_StopsRecordingChanges() {
+        // Arrange
+        queue.beginLoad(BOOK);
+        queue.enqueue(BOOK, 3L);
+        queue.abortLoad(BOOK);
+        queue.enqueue(BOOK, 4L);
+        queue.beginLoad(BOOK);
+
+        // Act
+        queue.load(BOOK, List.of(1L));
+
+        // Assert
+        assertEquals(List.of(1L), queue.waiting(BOOK));
+        assertFalse(queue.isLoaded(2L));
+    }
+
+    @Test
+    void testReplaceAll_ReplaysChangesCommittedDuringTheRebuild() {
+        // Arrange: the queues are complete and a rebuild reads 1 and 2
+        queue.beginRebuild();
+        queue.replaceAll(Map.of(BOOK, List.of(1L, 2L)));
+        queue.beginRebuild();
+        Map<Long, List<Long>> read = Map.of(BOOK, List.of(1L, 2L));
+
+        // Changes committed between the read and installing it
+        queue.enqueue(BOOK, 3L);
+        queue.enqueue(2L, 7L);
+        queue.remove(BOOK, 1L);
+
+        // Act
+        queue.replaceAll(read);
+
+        // Assert
+        assertEquals(List.of(2L, 3L), queue.waiting(BOOK));
+        assertEquals(List.of(7L), queue.waiting(2L));
+
+        // Later rebuilds do not replay them again
+        queue.beginRebuild();
+        queue.replaceAll(Map.of(BOOK, List.of(1L)));
+        assertEquals(List.of(1L), queue.waiting(BOOK));
+        assertEquals(List.of(), queue.waiting(2L));
+    }
+
+    @Test
+    void testAbortRebuild_KeepsCurrentQueues() {
+        queue.load(BOOK, List.of(1L));
+        queue.beginRebuild();
+        queue.enqueue(BOOK, 2L);
+
+        queue.abortRebuild();
+
+        assertEquals(List.of(1L, 2L), queue.waiting(BOOK));
+        assertFalse(queue.isLoaded(2L));
+    }
+}
@@ -0,0 +1,162 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.dto.ReservationQueueStatusDto;
+import com.aaron212.onlinelibrarymanagement.backend.exception.BusinessLogicException;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.model.Reservation;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Not transactional: the in-memory queue follows committed changes only, so every step commits and
+ * the data is removed again in {@link #tearDown()}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ReservationServiceTest {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long categoryId;
+
+    private Long bookId;
+
+    private Long copyId;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            IndexCategory category = fixtures.category("V");
+            BookCopy copy = fixtures.bookWithCopy("queue-1", "Queued Title", category);
+            for (int i = 0; i < 4; i++) {
+                userIds.add(fixtures.user("queue-reader-" + i).getId());
+            }
+            categoryId = category.getId();
+            bookId = copy.getBook().getId();
+            copyId = copy.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM reservation WHERE book_id = ?", bookId);
+        jdbcTemplate.update("DELETE FROM borrow WHERE copy_id = ?", copyId);
+        jdbcTemplate.update("DELETE FROM book_borrow_counter WHERE book_id = ?", bookId);
+        jdbcTemplate.update("DELETE FROM book_copy WHERE book_id = ?", bookId);
+        jdbcTemplate.update("DELETE FROM book WHERE id = ?", bookId);
+        jdbcTemplate.update("DELETE FROM index_category WHERE id = ?", categoryId);
+        jdbcTemplate.update("DELETE FROM notification_outbox WHERE user_id IN "
+                + "(SELECT id FROM users WHERE username LIKE 'queue-reader-%')");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'queue-reader-%'");
+        reservationService.rebuildQueues();
+    }
+
+    @Test
+    void testQueue_HoldsReturnedCopyForHeadAndPassesItOnWhenExpired() {
+        // Arrange: reader 0 has the only copy, readers 1-3 queue up
+        Borrow first = borrowService.borrowBookByBookId(userIds.get(0), bookId);
+        Long r1 = reservationService.createReservation(userIds.get(1), bookId).getId();
+        Long r2 = reservationService.createReservation(userIds.get(2), bookId).getId();
+        Long r3 = reservationService.createReservation(userIds.get(3), bookId).getId();
+        assertEquals(2, position(2, r2));
+        assertEquals(3, position(3, r3));
+
+        // Leaving the queue moves everyone behind forward
+        reservationService.cancelReservation(userIds.get(2), r2);
+        assertEquals(2, position(3, r3));
+
+        // Act: the return puts the copy on hold for reader 1
+        borrowService.returnBookById(first.getId(), userIds.get(0));
+
+        // Assert
+        ReservationQueueStatusDto ready = reservationService.getQueueStatus(userIds.get(1), r1);
+        assertEquals(Reservation.Status.READY, ready.status());
+        assertNotNull(ready.holdExpireTime());
+        assertEquals(1, position(3, r3));
+        assertEquals(BookCopy.Status.ON_HOLD.ordinal(), copyStatus());
+        assertEquals(0, availableCopies());
+        assertThrows(BusinessLogicException.class, () -> borrowService.borrowBook(userIds.get(3), copyId));
+
+        // The uncollected hold expires and the copy goes to reader 3
+        jdbcTemplate.update("UPDATE reservation SET hold_expire_time = DATEADD('MINUTE', -1, NOW()) WHERE id = ?", r1);
+        assertTrue(reservationService.expireHold(r1));
+        assertEquals(
+                Reservation.Status.EXPIRED,
+                reservationService.getQueueStatus(userIds.get(1), r1).status());
+        assertEquals(
+                Reservation.Status.READY,
+                reservationService.getQueueStatus(userIds.get(3), r3).status());
+        assertEquals(BookCopy.Status.ON_HOLD.ordinal(), copyStatus());
+
+        // Reader 3 collects the copy
+        Borrow collected = borrowService.borrowBookByBookId(userIds.get(3), bookId);
+        assertEquals(copyId, collected.getCopy().getId());
+        assertEquals(
+                Reservation.Status.FULFILLED,
+                reservationService.getQueueStatus(userIds.get(3), r3).status());
+        assertEquals(BookCopy.Status.BORROWED.ordinal(), copyStatus());
+
+        // Nobody is waiting any more, so the next return puts the copy back on the shelf
+        borrowService.returnBookById(collected.getId(), userIds.get(3));
+        assertEquals(BookCopy.Status.AVAILABLE.ordinal(), copyStatus());
+        assertEquals(1, availableCopies());
+    }
+
+    @Test
+    void testRebuildQueues_RestoresOrderFromTable() {
+        // Arrange
+        borrowService.borrowBookByBookId(userIds.get(0), bookId);
+        Long r1 = reservationService.createReservation(userIds.get(1), bookId).getId();
+        Long r2 = reservationService.createReservation(userIds.get(2), bookId).getId();
+
+        // Act
+        reservationService.rebuildQueues();
+
+        // Assert
+        assertEquals(1, position(1, r1));
+        assertEquals(2, position(2, r2));
+        assertEquals(2, reservationService.getQueueStatus(userIds.get(2), r2).queueLength());
+    }
+
+    private int position(int reader, Long reservationId) {
+        return reservationService
+                .getQueueStatus(userIds.get(reader), reservationId)
+                .position();
+    }
+
+    private int copyStatus() {
+        return jdbcTemplate.queryForObject("SELECT status FROM book_copy WHERE id = ?", Integer.class, copyId);
+    }
+
+    private int availableCopies() {
+        return jdbcTemplate.queryForObject("SELECT available_copies FROM book WHERE id = ?", Integer.class, bookId);
+    }
+}
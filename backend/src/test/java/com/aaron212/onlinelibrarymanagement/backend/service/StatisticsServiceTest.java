@@ -0,0 +1,110 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Map;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@Transactional
+class StatisticsServiceTest {
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private IndexCategory root;
+
+    private IndexCategory parent;
+
+    private IndexCategory leaf;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        root = fixtures.category("T");
+        parent = fixtures.category("T1", root);
+        leaf = fixtures.category("T12", parent);
+    }
+
+    @Test
+    void testGetBookInventoryStatistics_RollsUpHierarchy() {
+        // Arrange
+        Book leafBook = fixtures.book("leaf-1", "Leaf Book", leaf);
+        fixtures.copy(leafBook, "leaf-1-1", BookCopy.Status.AVAILABLE);
+        fixtures.copy(leafBook, "leaf-1-2", BookCopy.Status.BORROWED);
+        Book parentBook = fixtures.book("parent-1", "Parent Book", parent);
+        fixtures.copy(parentBook, "parent-1-1", BookCopy.Status.AVAILABLE);
+        flushAndClear();
+
+        // Act
+        Map<String, Map<String, Long>> inventory = statisticsService.getBookInventoryStatistics();
+
+        // Assert
+        assertEquals(2L, inventory.get("T12").get("totalCount"));
+        assertEquals(1L, inventory.get("T12").get("availableCount"));
+        assertEquals(1L, inventory.get("T12").get("borrowedCount"));
+        assertEquals(3L, inventory.get("T1").get("totalCount"));
+        assertEquals(2L, inventory.get("T1").get("availableCount"));
+        assertEquals(3L, inventory.get("T").get("totalCount"));
+    }
+
+    @Test
+    void testGetBookInventoryStatistics_SingleStatementRegardlessOfCatalogueSize() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            Book book = fixtures.book("small-" + i, "Small " + i, leaf);
+            fixtures.copy(book, "small-" + i + "-1", BookCopy.Status.AVAILABLE);
+        }
+        flushAndClear();
+        long smallCatalogueStatements = countStatements();
+
+        IndexCategory sibling = fixtures.category("T13", parent);
+        for (int i = 0; i < 30; i++) {
+            Book book = fixtures.book("large-" + i, "Large " + i, i % 2 == 0 ? leaf : sibling);
+            fixtures.copy(book, "large-" + i + "-1", BookCopy.Status.AVAILABLE);
+            fixtures.copy(book, "large-" + i + "-2", BookCopy.Status.MAINTENANCE);
+        }
+        flushAndClear();
+        long largeCatalogueStatements = countStatements();
+
+        // Assert
+        assertEquals(1, smallCatalogueStatements);
+        assertEquals(smallCatalogueStatements, largeCatalogueStatements);
+    }
+
+    private long countStatements() {
+        statistics.clear();
+        statisticsService.getBookInventoryStatistics();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
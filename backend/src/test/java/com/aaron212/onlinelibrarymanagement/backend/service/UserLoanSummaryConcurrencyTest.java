@@ -0,0 +1,120 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.repository.UserLoanSummaryRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Not transactional on purpose: the first borrows of a reader must race to create the summary row in
+ * their own transactions, so the data is removed again in {@link #tearDown()}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class UserLoanSummaryConcurrencyTest {
+
+    private static final int READERS = 20;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private UserLoanSummaryService userLoanSummaryService;
+
+    @Autowired
+    private UserLoanSummaryRepository userLoanSummaryRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    /* Two copies of different books per reader, borrowed at the same time */
+    private final List<Long[]> copyIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            IndexCategory category = fixtures.category("Q");
+            for (int i = 0; i < READERS; i++) {
+                userIds.add(fixtures.user("race-reader-" + i).getId());
+                copyIds.add(new Long[] {
+                    fixtures.bookWithCopy("race-" + i + "-a", "Race Book", category)
+                            .getId(),
+                    fixtures.bookWithCopy("race-" + i + "-b", "Race Book", category)
+                            .getId()
+                });
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        String users = "(SELECT id FROM users WHERE username LIKE 'race-reader-%')";
+        String books = "(SELECT id FROM book WHERE isbn LIKE 'race-%')";
+        jdbcTemplate.update("DELETE FROM borrow WHERE user_id IN " + users);
+        jdbcTemplate.update("DELETE FROM user_loan_summary WHERE user_id IN " + users);
+        jdbcTemplate.update("DELETE FROM notification_outbox WHERE user_id IN " + users);
+        jdbcTemplate.update("DELETE FROM book_borrow_counter WHERE book_id IN " + books);
+        jdbcTemplate.update("DELETE FROM book_copy WHERE book_id IN " + books);
+        jdbcTemplate.update("DELETE FROM book WHERE isbn LIKE 'race-%'");
+        jdbcTemplate.update("DELETE FROM index_category WHERE index_code = 'Q'");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'race-reader-%'");
+    }
+
+    @Test
+    void testFirstBorrows_CreateTheSummaryRowOnceAndCountBoth() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < READERS; i++) {
+            Long userId = userIds.get(i);
+            for (Long copyId : copyIds.get(i)) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        borrowService.borrowBook(userId, copyId);
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                });
+            }
+        }
+
+        // Act
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS), "borrows did not finish in time");
+
+        // Assert: no borrow failed on the primary key, and neither borrow is missing from the row
+        assertTrue(failures.isEmpty(), () -> "unexpected failures: " + failures);
+        for (Long userId : userIds) {
+            assertEquals(2, userLoanSummaryService.getSummary(userId).getActiveLoans());
+        }
+        List<Long> drifted = userLoanSummaryRepository.findDriftedUserIds();
+        assertTrue(userIds.stream().noneMatch(drifted::contains), () -> "drifted: " + drifted);
+    }
+}
@@ -0,0 +1,265 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.TestFixtures;
+import com.aaron212.onlinelibrarymanagement.backend.exception.BusinessLogicException;
+import com.aaron212.onlinelibrarymanagement.backend.model.Book;
+import com.aaron212.onlinelibrarymanagement.backend.model.BookCopy;
+import com.aaron212.onlinelibrarymanagement.backend.model.Borrow;
+import com.aaron212.onlinelibrarymanagement.backend.model.IndexCategory;
+import com.aaron212.onlinelibrarymanagement.backend.model.Reservation;
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import com.aaron212.onlinelibrarymanagement.backend.projection.UserLoanSummaryProjection;
+import com.aaron212.onlinelibrarymanagement.backend.repository.UserLoanSummaryRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@Transactional
+class UserLoanSummaryServiceTest {
+
+    @Autowired
+    private UserLoanSummaryService userLoanSummaryService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private FeeService feeService;
+
+    @Autowired
+    private OverdueSweepService overdueSweepService;
+
+    @Autowired
+    private UserLoanSummaryRepository userLoanSummaryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private IndexCategory category;
+
+    private User reader;
+
+    @BeforeEach
+    void setUp() {
+        category = fixtures.category("L");
+        reader = fixtures.user("summary-reader");
+    }
+
+    @Test
+    void testCirculation_KeepsSummaryInStepAndEnforcesLimit() {
+        // Arrange: one late borrow made before the summary row existed, and four more copies to borrow
+        BookCopy late = persistCopy("summary-0");
+        late.setStatus(BookCopy.Status.BORROWED);
+        fixtures.borrow(
+                reader,
+                late,
+                LocalDateTime.now().minusDays(40),
+                LocalDateTime.now().minusDays(10),
+                Borrow.Status.BORROWED);
+        List<Long> copyIds = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            copyIds.add(persistCopy("summary-" + i).getId());
+        }
+        Book unavailable = fixtures.book("summary-reserve", "Summary Book summary-reserve", category);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act & Assert: the row is counted from history on first use
+        assertSummary(1, 0, BigDecimal.ZERO, 0);
+        for (Long copyId : copyIds.subList(0, 4)) {
+            borrowService.borrowBook(reader.getId(), copyId);
+        }
+        assertSummary(5, 0, BigDecimal.ZERO, 0);
+        assertThrows(BusinessLogicException.class, () -> borrowService.borrowBook(reader.getId(), copyIds.get(4)));
+        assertFalse(borrowService.canBorrowMoreBooks(reader.getId()));
+
+        Borrow returned = borrowService.returnBook(reader.getId(), late.getId());
+        assertEquals(Borrow.Status.OVERDUE, returned.getStatus());
+        assertSummary(4, 1, returned.getFine(), 0);
+        assertEquals(1, borrowService.getRemainingBorrowingCapacity(reader.getId()));
+
+        BusinessLogicException rejected = assertThrows(
+                BusinessLogicException.class,
+                () -> reservationService.createReservation(reader.getId(), unavailable.getId()));
+        assertEquals("您有逾期未处理记录，暂无法预约", rejected.getMessage());
+    }
+
+    @Test
+    void testCanBorrowMoreBooks_IsOnePrimaryKeyRead() {
+        // Arrange
+        userLoanSummaryService.getSummary(reader.getId());
+        Statistics statistics =
+                entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        boolean canBorrow = borrowService.canBorrowMoreBooks(reader.getId());
+
+        // Assert
+        assertTrue(canBorrow);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testReconcile_RepairsDrift() {
+        // Arrange
+        userLoanSummaryService.getSummary(reader.getId());
+        entityManager
+                .createNativeQuery(
+                        "UPDATE user_loan_summary SET active_loans = 3, unpaid_fines = 9.50 " + "WHERE user_id = :id")
+                .setParameter("id", reader.getId())
+                .executeUpdate();
+
+        // Act
+        int corrected = userLoanSummaryService.reconcile();
+
+        // Assert
+        assertEquals(1, corrected);
+        assertSummary(0, 0, BigDecimal.ZERO, 0);
+        assertEquals(0, userLoanSummaryService.reconcile());
+    }
+
+    @Test
+    void testReservationHooks_CountOpenReservations() {
+        // Arrange: four books without copies, so they can only be reserved
+        List<Long> reservationIds = new ArrayList<>();
+        List<Book> books = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            books.add(fixtures.book("summary-r" + i, "Summary Reserved " + i, category));
+        }
+        entityManager.flush();
+        assertSummary(0, 0, BigDecimal.ZERO, 0);
+
+        // Act & Assert: create
+        for (Book book : books) {
+            reservationIds.add(reservationService
+                    .createReservation(reader.getId(), book.getId())
+                    .getId());
+        }
+        assertSummary(0, 0, BigDecimal.ZERO, 4);
+
+        // Cancel while waiting
+        reservationService.cancelReservation(reader.getId(), reservationIds.get(0));
+        assertSummary(0, 0, BigDecimal.ZERO, 3);
+
+        // A held copy is collected, another hold runs out; both stay counted while held
+        markReady(reservationIds.get(1), LocalDateTime.now().plusDays(3));
+        markReady(reservationIds.get(2), LocalDateTime.now().minusMinutes(1));
+        assertSummary(0, 0, BigDecimal.ZERO, 3);
+        assertTrue(reservationService.fulfillHold(entityManager.find(Reservation.class, reservationIds.get(1))));
+        assertSummary(0, 0, BigDecimal.ZERO, 2);
+        assertTrue(reservationService.expireHold(reservationIds.get(2)));
+        assertSummary(0, 0, BigDecimal.ZERO, 1);
+
+        // Closing a reservation twice changes nothing
+        assertFalse(reservationService.expireHold(reservationIds.get(2)));
+        assertThrows(
+                BusinessLogicException.class,
+                () -> reservationService.cancelReservation(reader.getId(), reservationIds.get(0)));
+        assertSummary(0, 0, BigDecimal.ZERO, 1);
+        assertNoDrift();
+    }
+
+    @Test
+    void testFeeHooks_CountOverdueFineAndCompensation() {
+        // Arrange: one borrow ten days late, one lost copy worth 30.00
+        BookCopy late = persistCopy("summary-fine");
+        BookCopy lost = persistCopy("summary-lost");
+        lost.setPurchasePrice(new BigDecimal("30.00"));
+        Borrow lateBorrow = persistActiveBorrow(late, LocalDateTime.now().minusDays(10));
+        Borrow lostBorrow = persistActiveBorrow(lost, LocalDateTime.now().plusDays(10));
+        entityManager.flush();
+        assertSummary(2, 0, BigDecimal.ZERO, 0);
+
+        // Act & Assert: the fine of a borrow still out is not owed yet, only the overdue flag counts
+        Borrow fined = feeService.calculateOverdueFine(lateBorrow.getId());
+        assertEquals(Borrow.Status.OVERDUE, fined.getStatus());
+        assertSummary(2, 1, BigDecimal.ZERO, 0);
+
+        // A lost copy ends the loan and is owed at once
+        feeService.calculateBookCompensation(lostBorrow.getId());
+        assertSummary(1, 1, new BigDecimal("30.00"), 0);
+        assertEquals(1, feeService.getUnpaidFeesByUser(reader.getId()).size());
+
+        // Recalculating a fined borrow changes nothing
+        feeService.calculateOverdueFine(lateBorrow.getId());
+        assertSummary(1, 1, new BigDecimal("30.00"), 0);
+        assertNoDrift();
+    }
+
+    @Test
+    void testOverdueSweep_CountsEachBorrowOnce() {
+        // Arrange
+        persistActiveBorrow(persistCopy("summary-sweep"), LocalDateTime.now().minusDays(3));
+        entityManager.flush();
+        assertSummary(1, 0, BigDecimal.ZERO, 0);
+
+        // Act
+        overdueSweepService.sweep();
+        UserLoanSummaryProjection afterFirst = userLoanSummaryService.getSummary(reader.getId());
+        overdueSweepService.sweep();
+
+        // Assert: the second run only updates the fine
+        assertEquals(1, afterFirst.getOverdueLoans());
+        assertSummary(1, 1, BigDecimal.ZERO, 0);
+        assertNoDrift();
+    }
+
+    private void assertSummary(int activeLoans, int overdueLoans, BigDecimal unpaidFines, int activeReservations) {
+        entityManager.flush();
+        UserLoanSummaryProjection summary = userLoanSummaryService.getSummary(reader.getId());
+        assertEquals(activeLoans, summary.getActiveLoans());
+        assertEquals(overdueLoans, summary.getOverdueLoans());
+        assertEquals(0, unpaidFines.compareTo(summary.getUnpaidFines()));
+        assertEquals(activeReservations, summary.getActiveReservations());
+    }
+
+    private void assertNoDrift() {
+        entityManager.flush();
+        assertFalse(userLoanSummaryRepository.findDriftedUserIds().contains(reader.getId()));
+    }
+
+    private void markReady(Long reservationId, LocalDateTime holdExpireTime) {
+        entityManager
+                .createQuery("UPDATE Reservation r SET r.status = :status, r.holdExpireTime = :expire WHERE r.id = :id")
+                .setParameter("status", Reservation.Status.READY)
+                .setParameter("expire", holdExpireTime)
+                .setParameter("id", reservationId)
+                .executeUpdate();
+        entityManager.clear();
+    }
+
+    private Borrow persistActiveBorrow(BookCopy copy, LocalDateTime returnTime) {
+        copy.setStatus(BookCopy.Status.BORROWED);
+        return fixtures.borrow(reader, copy, returnTime.minusDays(30), returnTime, Borrow.Status.BORROWED);
+    }
+
+    private BookCopy persistCopy(String isbn) {
+        return fixtures.copy(
+                fixtures.book(isbn, "Summary Book " + isbn, category), isbn + "-001", BookCopy.Status.AVAILABLE);
+    }
+}
@@ -0,0 +1,91 @@
+package com.aaron212.onlinelibrarymanagement.backend.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.aaron212.onlinelibrarymanagement.backend.model.User;
+import com.aaron212.onlinelibrarymanagement.backend.repository.UserRepository;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private UserService userService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService(userRepository, passwordEncoder, 100, Duration.ofMinutes(5));
+        user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        user.setRole(User.Role.USER);
+        user.setLastUpdateTime(new Timestamp(1_000L));
+    }
+
+    @Test
+    void testLoadUserForToken_CachedAcrossRequests() {
+        // Arrange
+        when(userRepository.findByUsernameOrEmail("alice", "alice")).thenReturn(Optional.of(user));
+
+        // Act
+        User first = userService.loadUserForToken("alice", 1_000L);
+        User second = userService.loadUserForToken("alice", 1_000L);
+
+        // Assert
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUsernameOrEmail("alice", "alice");
+    }
+
+    @Test
+    void testLoadUserForToken_ReloadsWhenTokenIsNewer() {
+        // Arrange
+        User updated = new User();
+        updated.setUsername("alice");
+        updated.setLastUpdateTime(new Timestamp(2_000L));
+        when(userRepository.findByUsernameOrEmail("alice", "alice"))
+                .thenReturn(Optional.of(user))
+                .thenReturn(Optional.of(updated));
+        userService.loadUserForToken("alice", 1_000L);
+
+        // Act
+        User result = userService.loadUserForToken("alice", 2_000L);
+
+        // Assert
+        assertSame(updated, result);
+        verify(userRepository, times(2)).findByUsernameOrEmail("alice", "alice");
+    }
+
+    @Test
+    void testUpdateUserRole_EvictsCachedPrincipal() {
+        // Arrange
+        when(userRepository.findByUsernameOrEmail("alice", "alice")).thenReturn(Optional.of(user));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        userService.loadUserForToken("alice", 1_000L);
+
+        // Act
+        userService.updateUserRole(1L, "ADMIN");
+        userService.loadUserForToken("alice", 1_000L);
+
+        // Assert: tokens issued from now on carry the new version
+        verify(userRepository, times(2)).findByUsernameOrEmail("alice", "alice");
+        assertTrue(user.getLastUpdateTime().getTime() > 1_000L);
+    }
+}